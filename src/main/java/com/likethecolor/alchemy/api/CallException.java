@@ -0,0 +1,108 @@
+/**
+ * File: CallException.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+/**
+ * Failure of a call that says whether making the call again may succeed.
+ * Messages name the failure (the status info or HTTP status) but never carry
+ * the response body.
+ *
+ * @see TransientCallException
+ * @see PermanentCallException
+ */
+public abstract class CallException extends IOException {
+  private static final long serialVersionUID = 1L;
+
+  private final String statusInfo;
+  private final int httpStatusCode;
+
+  public CallException(final String message) {
+    this(message, null, 0);
+  }
+
+  public CallException(final String message, final Throwable cause) {
+    super(message, cause);
+    this.statusInfo = null;
+    this.httpStatusCode = 0;
+  }
+
+  /**
+   * @param message detail message
+   * @param statusInfo status info returned by the service or null
+   * @param httpStatusCode HTTP status of the response or 0 if the failure
+   * was not an HTTP error
+   */
+  public CallException(final String message, final String statusInfo, final int httpStatusCode) {
+    super(message);
+    this.statusInfo = statusInfo;
+    this.httpStatusCode = httpStatusCode;
+  }
+
+  /**
+   * @return status info returned by the service (e.g., invalid-api-key) or
+   * null if the failure did not come from the response status
+   */
+  public String getStatusInfo() {
+    return statusInfo;
+  }
+
+  /**
+   * @return HTTP status of the response or 0 if the failure was not an HTTP
+   * error
+   */
+  public int getHttpStatusCode() {
+    return httpStatusCode;
+  }
+
+  /**
+   * @return true if making the call again may succeed
+   */
+  public abstract boolean isTransient();
+
+  /**
+   * Classify any failure of a request.  A call exception says itself whether
+   * it is transient; an interrupted request is not and any other I/O error
+   * (e.g., a refused or reset connection) is.
+   *
+   * @param e failure of a request
+   *
+   * @return true if the failure may clear up without the call changing
+   */
+  public static boolean isTransientFailure(final IOException e) {
+    if(e instanceof CallException) {
+      return ((CallException) e).isTransient();
+    }
+    return !(e instanceof InterruptedIOException);
+  }
+
+  /**
+   * @param e failure of a request
+   *
+   * @return true if the api key's daily transaction limit was hit, which
+   * says nothing about the health or load of the service
+   */
+  public static boolean isDailyLimitExceeded(final IOException e) {
+    if(!(e instanceof CallException)) {
+      return false;
+    }
+    final String statusInfo = ((CallException) e).getStatusInfo();
+    return statusInfo != null && statusInfo.startsWith(RateLimitExceededException.STATUS_INFO);
+  }
+}
@@ -0,0 +1,88 @@
+/**
+ * File: CallMetrics.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * What one call cost on the wire, reported to a {@link CallMetricsListener}
+ * once the response body has been read.
+ */
+public class CallMetrics {
+  private final String callName;
+  private final String contentEncoding;
+  private final long wireBytes;
+  private final long decodedBytes;
+
+  public CallMetrics(final String callName, final String contentEncoding, final long wireBytes, final long decodedBytes) {
+    this.callName = callName;
+    this.contentEncoding = contentEncoding;
+    this.wireBytes = wireBytes;
+    this.decodedBytes = decodedBytes;
+  }
+
+  /**
+   * @return name of the call, e.g. URLGetRankedNamedEntities
+   */
+  public String getCallName() {
+    return callName;
+  }
+
+  /**
+   * @return content coding of the response body, e.g. gzip or identity
+   */
+  public String getContentEncoding() {
+    return contentEncoding;
+  }
+
+  /**
+   * @return number of response body bytes received
+   */
+  public long getWireBytes() {
+    return wireBytes;
+  }
+
+  /**
+   * @return number of response body bytes once decompressed
+   */
+  public long getDecodedBytes() {
+    return decodedBytes;
+  }
+
+  /**
+   * @return wire bytes divided by decoded bytes (1 for an uncompressed or
+   * empty body)
+   */
+  public double getCompressionRatio() {
+    return decodedBytes == 0 ? 1D : (double) wireBytes / decodedBytes;
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("callName", callName)
+        .append("contentEncoding", contentEncoding)
+        .append("wireBytes", wireBytes)
+        .append("decodedBytes", decodedBytes)
+        .toString();
+  }
+}
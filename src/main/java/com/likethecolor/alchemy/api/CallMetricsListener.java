@@ -0,0 +1,26 @@
+/**
+ * File: CallMetricsListener.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+/**
+ * Receives the {@link CallMetrics} of every call a {@link Client} makes.  It
+ * is called on the thread that read the response, so it should return
+ * quickly; exceptions it throws are logged and otherwise ignored.
+ */
+public interface CallMetricsListener {
+  public void onCall(final CallMetrics metrics);
+}
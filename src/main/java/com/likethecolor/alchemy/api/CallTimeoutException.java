@@ -0,0 +1,36 @@
+/**
+ * File: CallTimeoutException.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+/**
+ * Thrown when a call does not finish within its deadline or the client's
+ * connect or read timeout.
+ *
+ * @see Client#setCallTimeout(long)
+ * @see com.likethecolor.alchemy.api.call.AbstractCall#setTimeout(long)
+ */
+public class CallTimeoutException extends TransientCallException {
+  private static final long serialVersionUID = 1L;
+
+  public CallTimeoutException(final String message) {
+    super(message);
+  }
+
+  public CallTimeoutException(final String message, final Throwable cause) {
+    super(message, cause);
+  }
+}
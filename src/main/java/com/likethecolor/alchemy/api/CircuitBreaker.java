@@ -0,0 +1,297 @@
+/**
+ * File: CircuitBreaker.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker for one endpoint and call name.  Every request asks
+ * {@link #tryAcquire()} for permission and then reports its outcome with
+ * exactly one of {@link #onSuccess(long)}, {@link #onFailure(long)} or
+ * {@link #onIgnored()}.
+ *
+ * @see CircuitBreakerPolicy
+ */
+public class CircuitBreaker {
+  private static final Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final String name;
+  private final CircuitBreakerPolicy policy;
+  private volatile CircuitBreakerListener listener;
+  // guarded by this
+  private State state = State.CLOSED;
+  private final boolean[] failed;
+  private final boolean[] slow;
+  private int next;
+  private int count;
+  private int failures;
+  private int slowCalls;
+  private long openedNanos;
+  private int halfOpenPermits;
+  private int halfOpenCount;
+  private int halfOpenFailures;
+  private int halfOpenSlowCalls;
+  private long notPermittedCalls;
+
+  /**
+   * @param name endpoint and call name, used in messages
+   * @param policy thresholds and durations
+   */
+  public CircuitBreaker(final String name, final CircuitBreakerPolicy policy) {
+    if(name == null) {
+      throw new IllegalArgumentException("Name cannot be null.");
+    }
+    if(policy == null) {
+      throw new IllegalArgumentException("Circuit breaker policy cannot be null.");
+    }
+    this.name = name;
+    this.policy = policy;
+    this.failed = new boolean[policy.getWindowSize()];
+    this.slow = new boolean[policy.getWindowSize()];
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public CircuitBreakerPolicy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * @param listener listener told of state changes or null for none
+   */
+  public void setListener(final CircuitBreakerListener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * @return current state; an open breaker whose open duration has passed is
+   * reported as open until a request asks for permission
+   */
+  public synchronized State getState() {
+    return state;
+  }
+
+  /**
+   * @return percentage of recorded requests in the window that failed or -1
+   * if fewer than min calls have been recorded
+   */
+  public synchronized double getFailureRate() {
+    return count < policy.getMinCalls() ? -1.0D : 100.0D * failures / count;
+  }
+
+  /**
+   * @return percentage of recorded requests in the window that were slow or
+   * -1 if fewer than min calls have been recorded
+   */
+  public synchronized double getSlowCallRate() {
+    return count < policy.getMinCalls() ? -1.0D : 100.0D * slowCalls / count;
+  }
+
+  /**
+   * @return number of requests refused while the breaker was open
+   */
+  public synchronized long getNotPermittedCalls() {
+    return notPermittedCalls;
+  }
+
+  /**
+   * Ask for permission to send a request.
+   *
+   * @return true if the request may be sent; its outcome must then be
+   * reported
+   */
+  public boolean tryAcquire() {
+    final State from;
+    final State to;
+    final boolean isPermitted;
+    synchronized(this) {
+      from = state;
+      if(state == State.OPEN && System.nanoTime() - openedNanos >= TimeUnit.MILLISECONDS.toNanos(policy.getOpenDuration())) {
+        toHalfOpen();
+      }
+      if(state == State.CLOSED) {
+        isPermitted = true;
+      }
+      else if(state == State.HALF_OPEN && halfOpenPermits < policy.getHalfOpenCalls()) {
+        halfOpenPermits++;
+        isPermitted = true;
+      }
+      else {
+        notPermittedCalls++;
+        isPermitted = false;
+      }
+      to = state;
+    }
+    notify(from, to);
+    return isPermitted;
+  }
+
+  /**
+   * @param durationNanos time the request took
+   */
+  public void onSuccess(final long durationNanos) {
+    record(false, durationNanos);
+  }
+
+  /**
+   * @param durationNanos time the request took
+   */
+  public void onFailure(final long durationNanos) {
+    record(true, durationNanos);
+  }
+
+  /**
+   * Report a request that ended without an outcome that says anything about
+   * the endpoint (e.g., it was cancelled).
+   */
+  public synchronized void onIgnored() {
+    if(state == State.HALF_OPEN && halfOpenPermits > halfOpenCount) {
+      halfOpenPermits--;
+    }
+  }
+
+  private void record(final boolean isFailure, final long durationNanos) {
+    final boolean isSlow = durationNanos > TimeUnit.MILLISECONDS.toNanos(policy.getSlowCallDuration());
+    final State from;
+    final State to;
+    synchronized(this) {
+      from = state;
+      if(state == State.HALF_OPEN) {
+        halfOpenCount++;
+        if(isFailure) {
+          halfOpenFailures++;
+        }
+        if(isSlow) {
+          halfOpenSlowCalls++;
+        }
+        if(halfOpenCount >= policy.getHalfOpenCalls()) {
+          if(isTripped(halfOpenFailures, halfOpenSlowCalls, halfOpenCount)) {
+            toOpen();
+          }
+          else {
+            toClosed();
+          }
+        }
+      }
+      else if(state == State.CLOSED) {
+        if(count == failed.length) {
+          // the oldest outcome leaves the window
+          if(failed[next]) {
+            failures--;
+          }
+          if(slow[next]) {
+            slowCalls--;
+          }
+        }
+        else {
+          count++;
+        }
+        failed[next] = isFailure;
+        slow[next] = isSlow;
+        next = (next + 1) % failed.length;
+        if(isFailure) {
+          failures++;
+        }
+        if(isSlow) {
+          slowCalls++;
+        }
+        if(count >= policy.getMinCalls() && isTripped(failures, slowCalls, count)) {
+          toOpen();
+        }
+      }
+      // outcomes of requests let through before the breaker opened are dropped
+      to = state;
+    }
+    notify(from, to);
+  }
+
+  // guarded by this
+  private boolean isTripped(final int failures, final int slowCalls, final int calls) {
+    return 100.0D * failures / calls >= policy.getFailureRateThreshold()
+           || 100.0D * slowCalls / calls >= policy.getSlowCallRateThreshold();
+  }
+
+  // guarded by this
+  private void toOpen() {
+    state = State.OPEN;
+    openedNanos = System.nanoTime();
+  }
+
+  // guarded by this
+  private void toHalfOpen() {
+    state = State.HALF_OPEN;
+    halfOpenPermits = 0;
+    halfOpenCount = 0;
+    halfOpenFailures = 0;
+    halfOpenSlowCalls = 0;
+  }
+
+  // guarded by this
+  private void toClosed() {
+    state = State.CLOSED;
+    next = 0;
+    count = 0;
+    failures = 0;
+    slowCalls = 0;
+  }
+
+  private void notify(final State from, final State to) {
+    if(from == to) {
+      return;
+    }
+    LOGGER.info("circuit breaker for " + name + " changed from " + from + " to " + to);
+    final CircuitBreakerListener listener = this.listener;
+    if(listener != null) {
+      try {
+        listener.onStateChange(this, from, to);
+      }
+      catch(RuntimeException e) {
+        LOGGER.warn("Circuit breaker listener failed", e);
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    synchronized(this) {
+      return new ToStringBuilder(this, style)
+          .append("name", name)
+          .append("state", state)
+          .append("failureRate", getFailureRate())
+          .append("slowCallRate", getSlowCallRate())
+          .append("notPermittedCalls", notPermittedCalls)
+          .toString();
+    }
+  }
+}
@@ -0,0 +1,41 @@
+/**
+ * File: CircuitBreakerFallback.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import com.likethecolor.alchemy.api.call.AbstractCall;
+import com.likethecolor.alchemy.api.entity.AbstractAlchemyEntity;
+import com.likethecolor.alchemy.api.entity.Response;
+
+import java.io.IOException;
+
+/**
+ * Answers calls that a {@link CircuitBreaker} refused, e.g., from a cache or
+ * with an empty response.
+ *
+ * @see Client#setCircuitBreakerFallback(CircuitBreakerFallback)
+ */
+public interface CircuitBreakerFallback {
+  /**
+   * @param call call that was refused
+   * @param e why it was refused
+   *
+   * @return response to use instead
+   *
+   * @throws IOException to fail the call (e.g., rethrow e)
+   */
+  public <T extends AbstractAlchemyEntity> Response<T> onOpen(final AbstractCall<T> call, final CircuitBreakerOpenException e) throws IOException;
+}
@@ -0,0 +1,33 @@
+/**
+ * File: CircuitBreakerListener.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+/**
+ * Told when a {@link CircuitBreaker} changes state.
+ *
+ * @see Client#setCircuitBreakerListener(CircuitBreakerListener)
+ */
+public interface CircuitBreakerListener {
+  /**
+   * Called on the thread whose request caused the change, after the change.
+   *
+   * @param circuitBreaker breaker that changed
+   * @param from state before the change
+   * @param to state after the change
+   */
+  public void onStateChange(final CircuitBreaker circuitBreaker, final CircuitBreaker.State from, final CircuitBreaker.State to);
+}
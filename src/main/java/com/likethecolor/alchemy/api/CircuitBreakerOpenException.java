@@ -0,0 +1,41 @@
+/**
+ * File: CircuitBreakerOpenException.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+/**
+ * Thrown without calling the service when the {@link CircuitBreaker} for the
+ * endpoint and call is open.  The failure is transient, but the client does
+ * not retry it; the breaker decides when calls are let through again.
+ */
+public class CircuitBreakerOpenException extends TransientCallException {
+  private static final long serialVersionUID = 1L;
+
+  private final String circuitBreakerName;
+
+  public CircuitBreakerOpenException(final String circuitBreakerName) {
+    super("Circuit breaker is open for " + circuitBreakerName);
+    this.circuitBreakerName = circuitBreakerName;
+  }
+
+  /**
+   * @return name of the breaker that refused the call (endpoint and call
+   * name)
+   */
+  public String getCircuitBreakerName() {
+    return circuitBreakerName;
+  }
+}
@@ -0,0 +1,188 @@
+/**
+ * File: CircuitBreakerPolicy.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+import java.io.IOException;
+
+/**
+ * Configures the {@link CircuitBreaker}s a {@link Client} keeps for each
+ * endpoint and call name.
+ * <p/>
+ * A closed breaker records the outcome of the last window size requests.
+ * Once at least min calls have been recorded it opens if the percentage that
+ * failed reaches the failure rate threshold, or the percentage that took
+ * longer than the slow call duration reaches the slow call rate threshold.
+ * An open breaker fails calls fast for the open duration, then lets half
+ * open calls through as a trial; their failure and slow call rates decide
+ * whether it closes or opens again.
+ */
+public class CircuitBreakerPolicy {
+  public static final double DEFAULT_FAILURE_RATE_THRESHOLD = 50.0D;
+  public static final double DEFAULT_SLOW_CALL_RATE_THRESHOLD = 100.0D;
+  public static final long DEFAULT_SLOW_CALL_DURATION_MILLIS = 10000L;
+  public static final int DEFAULT_WINDOW_SIZE = 100;
+  public static final int DEFAULT_MIN_CALLS = 20;
+  public static final long DEFAULT_OPEN_DURATION_MILLIS = 30000L;
+  public static final int DEFAULT_HALF_OPEN_CALLS = 5;
+
+  private double failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+  private double slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+  private long slowCallDurationMillis = DEFAULT_SLOW_CALL_DURATION_MILLIS;
+  private int windowSize = DEFAULT_WINDOW_SIZE;
+  private int minCalls = DEFAULT_MIN_CALLS;
+  private long openDurationMillis = DEFAULT_OPEN_DURATION_MILLIS;
+  private int halfOpenCalls = DEFAULT_HALF_OPEN_CALLS;
+
+  /**
+   * @param failureRateThreshold percentage of failed requests (greater than
+   * 0, at most 100) that opens the breaker
+   */
+  public void setFailureRateThreshold(final double failureRateThreshold) {
+    if(!(failureRateThreshold > 0.0D && failureRateThreshold <= 100.0D)) {
+      throw new IllegalArgumentException("Failure rate threshold must be greater than 0 and at most 100 [" + failureRateThreshold + "].");
+    }
+    this.failureRateThreshold = failureRateThreshold;
+  }
+
+  public double getFailureRateThreshold() {
+    return failureRateThreshold;
+  }
+
+  /**
+   * @param slowCallRateThreshold percentage of slow requests (greater than
+   * 0, at most 100) that opens the breaker
+   */
+  public void setSlowCallRateThreshold(final double slowCallRateThreshold) {
+    if(!(slowCallRateThreshold > 0.0D && slowCallRateThreshold <= 100.0D)) {
+      throw new IllegalArgumentException("Slow call rate threshold must be greater than 0 and at most 100 [" + slowCallRateThreshold + "].");
+    }
+    this.slowCallRateThreshold = slowCallRateThreshold;
+  }
+
+  public double getSlowCallRateThreshold() {
+    return slowCallRateThreshold;
+  }
+
+  /**
+   * @param slowCallDurationMillis requests that take longer than this many
+   * milliseconds are slow
+   */
+  public void setSlowCallDuration(final long slowCallDurationMillis) {
+    if(slowCallDurationMillis < 0) {
+      throw new IllegalArgumentException("Slow call duration cannot be negative [" + slowCallDurationMillis + "].");
+    }
+    this.slowCallDurationMillis = slowCallDurationMillis;
+  }
+
+  public long getSlowCallDuration() {
+    return slowCallDurationMillis;
+  }
+
+  /**
+   * @param windowSize number of most recent requests the rates are taken
+   * over
+   */
+  public void setWindowSize(final int windowSize) {
+    if(windowSize < 1) {
+      throw new IllegalArgumentException("Window size must be at least 1 [" + windowSize + "].");
+    }
+    this.windowSize = windowSize;
+  }
+
+  public int getWindowSize() {
+    return windowSize;
+  }
+
+  /**
+   * @param minCalls number of requests recorded before the rates are acted
+   * on
+   */
+  public void setMinCalls(final int minCalls) {
+    if(minCalls < 1) {
+      throw new IllegalArgumentException("Min calls must be at least 1 [" + minCalls + "].");
+    }
+    this.minCalls = minCalls;
+  }
+
+  public int getMinCalls() {
+    return minCalls;
+  }
+
+  /**
+   * @param openDurationMillis milliseconds an open breaker fails calls fast
+   * before letting trial calls through
+   */
+  public void setOpenDuration(final long openDurationMillis) {
+    if(openDurationMillis < 0) {
+      throw new IllegalArgumentException("Open duration cannot be negative [" + openDurationMillis + "].");
+    }
+    this.openDurationMillis = openDurationMillis;
+  }
+
+  public long getOpenDuration() {
+    return openDurationMillis;
+  }
+
+  /**
+   * @param halfOpenCalls number of trial requests a half open breaker lets
+   * through
+   */
+  public void setHalfOpenCalls(final int halfOpenCalls) {
+    if(halfOpenCalls < 1) {
+      throw new IllegalArgumentException("Half open calls must be at least 1 [" + halfOpenCalls + "].");
+    }
+    this.halfOpenCalls = halfOpenCalls;
+  }
+
+  public int getHalfOpenCalls() {
+    return halfOpenCalls;
+  }
+
+  /**
+   * Decide whether a failed request counts against the gateway.  A
+   * {@link PermanentCallException} is an answer from a healthy gateway (e.g.,
+   * invalid-api-key) and an interrupted request says nothing about it; any
+   * other I/O error counts.
+   *
+   * @param e failure of a request
+   *
+   * @return true if the failure is recorded as one
+   */
+  public boolean isFailure(final IOException e) {
+    return CallException.isTransientFailure(e);
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("failureRateThreshold", failureRateThreshold)
+        .append("slowCallRateThreshold", slowCallRateThreshold)
+        .append("slowCallDurationMillis", slowCallDurationMillis)
+        .append("windowSize", windowSize)
+        .append("minCalls", minCalls)
+        .append("openDurationMillis", openDurationMillis)
+        .append("halfOpenCalls", halfOpenCalls)
+        .toString();
+  }
+}
@@ -5,31 +5,118 @@
  */
 package com.likethecolor.alchemy.api;
 
+import com.likethecolor.alchemy.api.cache.CacheKey;
+import com.likethecolor.alchemy.api.cache.ContentDeduplicator;
+import com.likethecolor.alchemy.api.cache.NearDuplicateIndex;
+import com.likethecolor.alchemy.api.cache.NegativeResultCache;
+import com.likethecolor.alchemy.api.cache.ResponseCache;
 import com.likethecolor.alchemy.api.call.AbstractCall;
 import com.likethecolor.alchemy.api.entity.AbstractAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.params.Params;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonSyntaxException;
+import com.likethecolor.alchemy.api.transport.AsyncTransport;
+import com.likethecolor.alchemy.api.transport.PooledTransport;
+import com.likethecolor.alchemy.api.transport.RequestBody;
+import com.likethecolor.alchemy.api.transport.Transport;
+import com.likethecolor.alchemy.api.transport.TransportRequest;
+import com.likethecolor.alchemy.api.transport.TransportResponse;
 import com.likethecolor.alchemy.api.validator.ApiKeyValidator;
+import com.likethecolor.alchemy.api.validator.OutputDocumentValidator;
 import com.likethecolor.alchemy.api.validator.OutputStatusValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
+import java.io.InterruptedIOException;
+import java.io.StringReader;
+import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.net.http.HttpTimeoutException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Client {
   private static final Logger LOGGER = LoggerFactory.getLogger(Client.class);
   private static final String API_KEY = "apikey";
   private static final String HEADER_CONTENT_LENGTH = "Content-Length";
+  private static final String HEADER_CONTENT_TYPE = "Content-Type";
+  private static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+  private static final String ACCEPT_ENCODING = "gzip, deflate";
+  private static final String CONTENT_TYPE_FORM = "application/x-www-form-urlencoded";
+  private static final int HTTP_STATUS_ERROR = 400;
+  private static final int HTTP_STATUS_REQUEST_TIMEOUT = 408;
+  private static final int HTTP_STATUS_TOO_MANY_REQUESTS = 429;
+  private static final int HTTP_STATUS_SERVER_ERROR = 500;
+  public static final int DEFAULT_MAX_CONCURRENCY = 16;
+  public static final long DEFAULT_CONNECT_TIMEOUT_MILLIS = 10000L;
+  public static final long DEFAULT_READ_TIMEOUT_MILLIS = 60000L;
+  // runs the timer tasks of callAsync (deadlines, hedges and retries) on the
+  // timer thread so that they fire even while the parse executor is busy
+  private static final Executor DIRECT_EXECUTOR = Runnable::run;
   private static final String DEFAULT_URL = " https://gateway-a.watsonplatform.net/calls/";
 
   private String apiKey;
   private String requestUri = DEFAULT_URL;
+  private Transport transport = new PooledTransport();
+  private Executor parseExecutor = ForkJoinPool.commonPool();
+  // runs the requests callAsync sends with a blocking transport; created for
+  // the execution mode on first use
+  private volatile ExecutorService blockingExecutor;
+  private ParserEngine parserEngine = ParserEngine.STREAMING;
+  private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+  private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+  private boolean isCompressionEnabled = true;
+  private CallMetricsListener callMetricsListener;
+  private long connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+  private long readTimeoutMillis = DEFAULT_READ_TIMEOUT_MILLIS;
+  private long callTimeoutMillis;
+  private RetryPolicy retryPolicy = RetryPolicy.none();
+  private RetryBudget retryBudget = new RetryBudget(retryPolicy.getBudgetRatio(), retryPolicy.getBudgetBurst());
+  private final AtomicLong retryCalls = new AtomicLong();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong recoveredCalls = new AtomicLong();
+  private final AtomicLong exhaustedCalls = new AtomicLong();
+  private final AtomicLong budgetDeniedRetries = new AtomicLong();
+  private HedgingPolicy hedgingPolicy;
+  private RetryBudget hedgeBudget;
+  private LatencyWindow latencyWindow;
+  private final AtomicLong hedgesSent = new AtomicLong();
+  private final AtomicLong hedgesWon = new AtomicLong();
+  private final AtomicLong budgetDeniedHedges = new AtomicLong();
+  private CircuitBreakerPolicy circuitBreakerPolicy;
+  private CircuitBreakerListener circuitBreakerListener;
+  private CircuitBreakerFallback circuitBreakerFallback;
+  private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<String, CircuitBreaker>();
+  private RateLimitPolicy rateLimitPolicy;
+  private final ConcurrentMap<String, RateLimiter> rateLimiters = new ConcurrentHashMap<String, RateLimiter>();
+  private ConcurrencyLimiter concurrencyLimiter;
+  private boolean isCoalescingEnabled;
+  private final ConcurrentMap<FlightKey, CompletableFuture<Response<?>>> inFlightCalls = new ConcurrentHashMap<FlightKey, CompletableFuture<Response<?>>>();
+  private final AtomicLong coalescedCalls = new AtomicLong();
+  private ResponseCache responseCache;
+  private NegativeResultCache negativeResultCache;
+  private ContentDeduplicator contentDeduplicator;
+  private NearDuplicateIndex nearDuplicateIndex;
 
   public Client() {
   }
@@ -45,115 +132,1985 @@ public class Client {
     this.apiKey = apiKey.trim();
   }
 
+  /**
+   * Replace the transport used to send requests.  The default is a
+   * {@link PooledTransport}, which keeps connections to the service open
+   * between calls.
+   *
+   * @param transport transport to use for every call made by this client
+   */
+  public void setTransport(final Transport transport) {
+    if(transport == null) {
+      throw new IllegalArgumentException("Transport cannot be null.");
+    }
+    this.transport = transport;
+  }
+
+  public Transport getTransport() {
+    return transport;
+  }
+
+  /**
+   * Set the executor on which {@link #callAsync(AbstractCall)} parses the
+   * responses of an {@link AsyncTransport} and runs the circuit breaker
+   * fallback.  The default is the common fork/join pool.  Requests sent with
+   * a blocking transport are read and parsed on threads of the
+   * {@link ExecutionMode} instead, so they never tie up this executor.
+   *
+   * @param parseExecutor executor that runs the response parsing
+   */
+  public void setParseExecutor(final Executor parseExecutor) {
+    if(parseExecutor == null) {
+      throw new IllegalArgumentException("Parse executor cannot be null.");
+    }
+    this.parseExecutor = parseExecutor;
+  }
+
+  public Executor getParseExecutor() {
+    return parseExecutor;
+  }
+
+  /**
+   * Set how response bodies (and cached responses) are parsed.  The default
+   * is {@link ParserEngine#STREAMING}, which fills the response in a single
+   * pass over the body; {@link ParserEngine#ORG_JSON} builds an org.json
+   * object first and is kept for comparison.
+   *
+   * @param parserEngine streaming or org.json
+   */
+  public void setParserEngine(final ParserEngine parserEngine) {
+    if(parserEngine == null) {
+      throw new IllegalArgumentException("Parser engine cannot be null.");
+    }
+    this.parserEngine = parserEngine;
+  }
+
+  public ParserEngine getParserEngine() {
+    return parserEngine;
+  }
+
+  /**
+   * Set the kind of thread {@link #callAll(Collection)} runs each call on,
+   * and {@link #callAsync(AbstractCall)} each request sent with a transport
+   * that is not an {@link AsyncTransport}.
+   *
+   * @param executionMode platform or virtual threads
+   *
+   * @throws UnsupportedOperationException if the mode is not supported by the
+   * running JVM (virtual threads need Java 21)
+   */
+  public void setExecutionMode(final ExecutionMode executionMode) {
+    if(executionMode == null) {
+      throw new IllegalArgumentException("Execution mode cannot be null.");
+    }
+    if(!executionMode.isSupported()) {
+      throw new UnsupportedOperationException("Execution mode " + executionMode + " is not supported by this JVM");
+    }
+    final ExecutorService previous;
+    synchronized(this) {
+      this.executionMode = executionMode;
+      previous = blockingExecutor;
+      blockingExecutor = null;
+    }
+    if(previous != null) {
+      // requests already running on it finish
+      previous.shutdown();
+    }
+  }
+
+  public ExecutionMode getExecutionMode() {
+    return executionMode;
+  }
+
+  /**
+   * Set the number of calls {@link #callAll(Collection)} keeps in flight at
+   * once.
+   *
+   * @param maxConcurrency maximum number of concurrent calls
+   */
+  public void setMaxConcurrency(final int maxConcurrency) {
+    if(maxConcurrency < 1) {
+      throw new IllegalArgumentException("Max concurrency must be at least 1 [" + maxConcurrency + "].");
+    }
+    this.maxConcurrency = maxConcurrency;
+  }
+
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  /**
+   * Ask the service for gzip or deflate compressed responses.  Compressed
+   * responses are decoded while they are read.  On by default.
+   *
+   * @param isCompressionEnabled true to send Accept-Encoding: gzip, deflate
+   */
+  public void setCompressionEnabled(final boolean isCompressionEnabled) {
+    this.isCompressionEnabled = isCompressionEnabled;
+  }
+
+  public boolean isCompressionEnabled() {
+    return isCompressionEnabled;
+  }
+
+  /**
+   * Make a call that is identical to one already in flight (same call name,
+   * call type, encoded parameters and projection) by waiting for that call
+   * instead of sending another request.  Every caller gets its own copy of
+   * the response; all of them share the outcome of the one call, failure
+   * included.  A call that has been joined keeps running if its own caller
+   * stops waiting for it.  Off by default.
+   *
+   * @param isCoalescingEnabled true to coalesce identical calls in flight
+   */
+  public void setCoalescingEnabled(final boolean isCoalescingEnabled) {
+    this.isCoalescingEnabled = isCoalescingEnabled;
+  }
+
+  public boolean isCoalescingEnabled() {
+    return isCoalescingEnabled;
+  }
+
+  /**
+   * @return number of calls that waited for an identical call in flight
+   * instead of sending a request
+   */
+  public long getCoalescedCalls() {
+    return coalescedCalls.get();
+  }
+
+  /**
+   * Answer calls from the cache when it holds a response to an identical
+   * call (same call name, call type and encoded parameters), and store the
+   * successful responses of the calls that are sent.  A hit is parsed on the
+   * calling thread.  Off by default.
+   *
+   * @param responseCache cache, e.g. a
+   * {@link com.likethecolor.alchemy.api.cache.MemoryResponseCache}, or null
+   * to not cache responses
+   */
+  public void setResponseCache(final ResponseCache responseCache) {
+    this.responseCache = responseCache;
+  }
+
+  public ResponseCache getResponseCache() {
+    return responseCache;
+  }
+
+  /**
+   * Fail calls at once when an identical call recently failed with a status
+   * the service will return again (e.g., unsupported-text-language), and
+   * remember such failures of the calls that are sent.  Off by default.
+   *
+   * @param negativeResultCache cache or null to not remember failures
+   */
+  public void setNegativeResultCache(final NegativeResultCache negativeResultCache) {
+    this.negativeResultCache = negativeResultCache;
+  }
+
+  public NegativeResultCache getNegativeResultCache() {
+    return negativeResultCache;
+  }
+
+  /**
+   * Answer text and html calls from the responses to calls with the same
+   * content and options, and store the successful responses of those that
+   * are sent.  The content is keyed by a hash, so syndicated copies of a
+   * document are analyzed once.  Off by default.
+   *
+   * @param contentDeduplicator deduplicator or null to not deduplicate
+   */
+  public void setContentDeduplicator(final ContentDeduplicator contentDeduplicator) {
+    this.contentDeduplicator = contentDeduplicator;
+  }
+
+  public ContentDeduplicator getContentDeduplicator() {
+    return contentDeduplicator;
+  }
+
+  /**
+   * Answer text and html calls from the response to a call with the same
+   * options whose content is nearly the same (e.g., the same wire story with
+   * another byline), and index the successful responses of those that are
+   * sent.  Consulted after the exact caches.  Off by default.
+   *
+   * @param nearDuplicateIndex index or null to not look for near duplicates
+   */
+  public void setNearDuplicateIndex(final NearDuplicateIndex nearDuplicateIndex) {
+    this.nearDuplicateIndex = nearDuplicateIndex;
+  }
+
+  public NearDuplicateIndex getNearDuplicateIndex() {
+    return nearDuplicateIndex;
+  }
+
+  /**
+   * Set the listener that receives the wire and decoded body size of every
+   * call.
+   *
+   * @param callMetricsListener listener or null for none
+   */
+  public void setCallMetricsListener(final CallMetricsListener callMetricsListener) {
+    this.callMetricsListener = callMetricsListener;
+  }
+
+  public CallMetricsListener getCallMetricsListener() {
+    return callMetricsListener;
+  }
+
+  /**
+   * Set how long to wait for a new connection to the service to be
+   * established.  The default is {@link #DEFAULT_CONNECT_TIMEOUT_MILLIS}.
+   * <p/>
+   * The JDK {@link java.net.http.HttpClient} takes its connect timeout from
+   * its builder only, so this setting does not apply to the transports built
+   * on it.
+   *
+   * @param connectTimeoutMillis timeout in milliseconds (0 waits indefinitely)
+   */
+  public void setConnectTimeout(final long connectTimeoutMillis) {
+    if(connectTimeoutMillis < 0) {
+      throw new IllegalArgumentException("Connect timeout cannot be negative [" + connectTimeoutMillis + "].");
+    }
+    this.connectTimeoutMillis = connectTimeoutMillis;
+  }
+
+  public long getConnectTimeout() {
+    return connectTimeoutMillis;
+  }
+
+  /**
+   * Set how long to wait for any single read from the service.  The default
+   * is {@link #DEFAULT_READ_TIMEOUT_MILLIS}.
+   *
+   * @param readTimeoutMillis timeout in milliseconds (0 waits indefinitely)
+   */
+  public void setReadTimeout(final long readTimeoutMillis) {
+    if(readTimeoutMillis < 0) {
+      throw new IllegalArgumentException("Read timeout cannot be negative [" + readTimeoutMillis + "].");
+    }
+    this.readTimeoutMillis = readTimeoutMillis;
+  }
+
+  public long getReadTimeout() {
+    return readTimeoutMillis;
+  }
+
+  /**
+   * Set the deadline for calls that do not set their own with
+   * {@link AbstractCall#setTimeout(long)}.  A call that is not done, parsing
+   * included, this long after it was started fails with a
+   * {@link CallTimeoutException}.  The default, 0, is no deadline.
+   *
+   * @param callTimeoutMillis deadline in milliseconds (0 for none)
+   */
+  public void setCallTimeout(final long callTimeoutMillis) {
+    if(callTimeoutMillis < 0) {
+      throw new IllegalArgumentException("Call timeout cannot be negative [" + callTimeoutMillis + "].");
+    }
+    this.callTimeoutMillis = callTimeoutMillis;
+  }
+
+  public long getCallTimeout() {
+    return callTimeoutMillis;
+  }
+
+  /**
+   * Set which failed calls are made again and how long to wait before each
+   * attempt.  By default every call is made once; a new {@link RetryPolicy}
+   * retries transient failures up to {@link RetryPolicy#DEFAULT_MAX_ATTEMPTS}
+   * times in total.  The retry budget is sized, and starts full, when the
+   * policy is set.
+   *
+   * @param retryPolicy policy for every call made by this client
+   */
+  public void setRetryPolicy(final RetryPolicy retryPolicy) {
+    if(retryPolicy == null) {
+      throw new IllegalArgumentException("Retry policy cannot be null.");
+    }
+    this.retryBudget = new RetryBudget(retryPolicy.getBudgetRatio(), retryPolicy.getBudgetBurst());
+    this.retryPolicy = retryPolicy;
+  }
+
+  public RetryPolicy getRetryPolicy() {
+    return retryPolicy;
+  }
+
+  /**
+   * @return snapshot of the retry counters
+   */
+  public RetryStats getRetryStats() {
+    return new RetryStats(retryCalls.get(), retries.get(), recoveredCalls.get(), exhaustedCalls.get(), budgetDeniedRetries.get());
+  }
+
+  /**
+   * Send a second request for a call that has not finished by a percentile
+   * of recent latencies; the first response wins and the other request is
+   * cancelled.  Off by default.  Cancelling a request cancels an
+   * {@link AsyncTransport}'s exchange, and a blocking transport's thread is
+   * interrupted and the request {@link TransportRequest#cancel() cancelled},
+   * which makes {@link PooledTransport} close the connection it is reading.
+   * <p/>
+   * With hedging on, {@link #call(AbstractCall)} is made through
+   * {@link #callAsync(AbstractCall)} and waits for its result.  The latency
+   * window and the hedging budget start afresh when the policy is set.
+   *
+   * @param hedgingPolicy policy or null to turn hedging off
+   */
+  public void setHedgingPolicy(final HedgingPolicy hedgingPolicy) {
+    if(hedgingPolicy != null) {
+      this.hedgeBudget = new RetryBudget(hedgingPolicy.getBudgetRatio(), hedgingPolicy.getBudgetBurst());
+      this.latencyWindow = new LatencyWindow(hedgingPolicy.getWindowSize(), hedgingPolicy.getMinSamples());
+    }
+    this.hedgingPolicy = hedgingPolicy;
+  }
+
+  public HedgingPolicy getHedgingPolicy() {
+    return hedgingPolicy;
+  }
+
+  /**
+   * @return snapshot of the hedging counters
+   */
+  public HedgingStats getHedgingStats() {
+    return new HedgingStats(hedgesSent.get(), hedgesWon.get(), budgetDeniedHedges.get(), getHedgeDelay());
+  }
+
+  /**
+   * Guard each endpoint and call name (e.g.,
+   * gateway-a.watsonplatform.net/URLGetRankedKeywords) with a
+   * {@link CircuitBreaker}.  While a breaker is open its calls fail fast with
+   * a {@link CircuitBreakerOpenException}, or are answered by the fallback.
+   * Off by default.  Setting a policy discards the existing breakers.
+   *
+   * @param circuitBreakerPolicy policy or null to turn circuit breaking off
+   */
+  public void setCircuitBreakerPolicy(final CircuitBreakerPolicy circuitBreakerPolicy) {
+    this.circuitBreakerPolicy = circuitBreakerPolicy;
+    circuitBreakers.clear();
+  }
+
+  public CircuitBreakerPolicy getCircuitBreakerPolicy() {
+    return circuitBreakerPolicy;
+  }
+
+  /**
+   * @param circuitBreakerListener listener told when any breaker changes
+   * state or null for none
+   */
+  public void setCircuitBreakerListener(final CircuitBreakerListener circuitBreakerListener) {
+    this.circuitBreakerListener = circuitBreakerListener;
+    for(CircuitBreaker circuitBreaker : circuitBreakers.values()) {
+      circuitBreaker.setListener(circuitBreakerListener);
+    }
+  }
+
+  public CircuitBreakerListener getCircuitBreakerListener() {
+    return circuitBreakerListener;
+  }
+
+  /**
+   * @param circuitBreakerFallback fallback that answers calls refused by an
+   * open breaker or null to fail them with a
+   * {@link CircuitBreakerOpenException}
+   */
+  public void setCircuitBreakerFallback(final CircuitBreakerFallback circuitBreakerFallback) {
+    this.circuitBreakerFallback = circuitBreakerFallback;
+  }
+
+  public CircuitBreakerFallback getCircuitBreakerFallback() {
+    return circuitBreakerFallback;
+  }
+
+  /**
+   * @return breakers created so far, one per endpoint and call name
+   */
+  public List<CircuitBreaker> getCircuitBreakers() {
+    return new ArrayList<CircuitBreaker>(circuitBreakers.values());
+  }
+
+  /**
+   * @param name endpoint and call name
+   *
+   * @return the breaker or null if no call has been made to the endpoint
+   */
+  public CircuitBreaker getCircuitBreaker(final String name) {
+    return circuitBreakers.get(name);
+  }
+
+  /**
+   * Limit the requests sent with each api key to the rate and daily budget of
+   * the policy.  Every request sent (retries and hedges included) takes a
+   * permit from the {@link RateLimiter} of the current key: a request waits
+   * for a permit for no longer than its call's deadline allows, and fails
+   * with a {@link RateLimitExceededException} once the daily budget is spent.
+   * A hedge is only sent if a permit is available right away.  Off by
+   * default.  Setting a policy discards the existing limiters.
+   *
+   * @param rateLimitPolicy policy or null to turn rate limiting off
+   */
+  public void setRateLimitPolicy(final RateLimitPolicy rateLimitPolicy) {
+    this.rateLimitPolicy = rateLimitPolicy;
+    rateLimiters.clear();
+  }
+
+  public RateLimitPolicy getRateLimitPolicy() {
+    return rateLimitPolicy;
+  }
+
+  /**
+   * Callers that want to pace their own work can take permits from the
+   * limiter directly, e.g. {@link RateLimiter#tryAcquire()}; such permits
+   * count against the key's rate and budget on top of the client's requests.
+   *
+   * @return limiter of the current api key or null if rate limiting is off
+   */
+  public RateLimiter getRateLimiter() {
+    final RateLimitPolicy policy = this.rateLimitPolicy;
+    if(policy == null) {
+      return null;
+    }
+    return rateLimiters.computeIfAbsent(apiKey, key -> new RateLimiter(policy));
+  }
+
+  /**
+   * Cap the requests this client has in flight with a
+   * {@link ConcurrencyLimiter} whose limit adapts to the latency and failures
+   * it observes.  A request over the limit waits for a slot for no longer
+   * than its call's deadline allows; once the queue is full calls fail with a
+   * {@link ConcurrencyLimitExceededException}.  A hedge is only sent if a
+   * slot is free right away.  Off by default.  Setting a policy starts a new
+   * limiter.
+   *
+   * @param concurrencyLimitPolicy policy or null to turn the limit off
+   */
+  public void setConcurrencyLimitPolicy(final ConcurrencyLimitPolicy concurrencyLimitPolicy) {
+    this.concurrencyLimiter = concurrencyLimitPolicy == null ? null : new ConcurrencyLimiter(concurrencyLimitPolicy);
+  }
+
+  public ConcurrencyLimitPolicy getConcurrencyLimitPolicy() {
+    final ConcurrencyLimiter concurrencyLimiter = this.concurrencyLimiter;
+    return concurrencyLimiter == null ? null : concurrencyLimiter.getPolicy();
+  }
+
+  /**
+   * @return limiter holding the current limit and queue depth or null if the
+   * limit is off
+   */
+  public ConcurrencyLimiter getConcurrencyLimiter() {
+    return concurrencyLimiter;
+  }
+
+  /**
+   * Close the connections held open by this client's transport.
+   */
+  public void close() {
+    transport.close();
+  }
+
+  /**
+   * Make the call and wait for its response.  Transient failures are retried
+   * as the {@link #setRetryPolicy(RetryPolicy) retry policy} allows; the
+   * failure of the last attempt is thrown.
+   *
+   * @param call call to make
+   *
+   * @return parsed response
+   *
+   * @throws CallTimeoutException if the call's deadline passed or the
+   * service did not answer within the connect or read timeout
+   * @throws TransientCallException if the call failed in a way that may
+   * clear up later
+   * @throws PermanentCallException if the call failed in a way that will not
+   * change if it is repeated
+   * @throws IOException if the call failed
+   */
   public <T extends AbstractAlchemyEntity> Response<T> call(final AbstractCall<T> call) throws IOException {
+    if(hedgingPolicy != null) {
+      return await(callAsync(call));
+    }
+    final TransportRequest request = createRequest(call);
+    final CacheKey cacheKey = getCacheKey(call);
+    final Response<T> cached = getCachedResponse(call, request, cacheKey);
+    if(cached != null) {
+      return cached;
+    }
+    final CallException cachedFailure = getCachedFailure(cacheKey);
+    if(cachedFailure != null) {
+      throw cachedFailure;
+    }
+    if(!isCoalescingEnabled || cacheKey == null) {
+      return call(call, request, cacheKey);
+    }
+    final FlightKey key = new FlightKey(cacheKey, call.getProjection());
+    final CompletableFuture<Response<?>> flight = new CompletableFuture<Response<?>>();
+    final CompletableFuture<Response<?>> leader = inFlightCalls.putIfAbsent(key, flight);
+    if(leader != null) {
+      coalescedCalls.incrementAndGet();
+      return copy(await(leader, request));
+    }
+    final Response<T> response;
+    try {
+      response = call(call, request, cacheKey);
+    }
+    catch(IOException | RuntimeException | Error e) {
+      inFlightCalls.remove(key, flight);
+      flight.completeExceptionally(e);
+      throw e;
+    }
+    inFlightCalls.remove(key, flight);
+    flight.complete(response);
+    return copy(response);
+  }
+
+  private <T extends AbstractAlchemyEntity> Response<T> call(final AbstractCall<T> call, final TransportRequest request,
+                                                             final CacheKey cacheKey) throws IOException {
+    return call(call, request, cacheKey, null);
+  }
+
+  /**
+   * @param cacheKey key of the call or null if nothing is cached
+   * @param delivery where to hand the entities as they are read, or null to
+   * read the whole body before parsing it
+   */
+  private <T extends AbstractAlchemyEntity> Response<T> call(final AbstractCall<T> call, final TransportRequest request,
+                                                             final CacheKey cacheKey, final Delivery<T> delivery) throws IOException {
+    onCallStarted();
+    for(int attempt = 1; ; attempt++) {
+      awaitPermit(request);
+      final ConcurrencyLimiter concurrencyLimiter;
+      try {
+        concurrencyLimiter = awaitSlot(request);
+      }
+      catch(IOException e) {
+        releasePermit();
+        throw e;
+      }
+      final CircuitBreaker circuitBreaker;
+      try {
+        circuitBreaker = acquireCircuitBreaker(call, request);
+      }
+      catch(CircuitBreakerOpenException e) {
+        releasePermit();
+        if(concurrencyLimiter != null) {
+          concurrencyLimiter.onIgnored();
+        }
+        final Response<T> fallback = fallback(call, e);
+        return delivery == null ? fallback : delivery.deliverAll(fallback);
+      }
+      final long startNanos = System.nanoTime();
+      try {
+        final Response<T> response = delivery == null ? exchange(call, request, cacheKey, transport.execute(request))
+                                                      : doStreamRequest(call, request, cacheKey, transport.execute(request), delivery);
+        recordOutcome(circuitBreaker, concurrencyLimiter, startNanos, null);
+        onCallSucceeded(attempt);
+        return response;
+      }
+      catch(RuntimeException e) {
+        recordOutcome(circuitBreaker, concurrencyLimiter, startNanos, e);
+        throw e;
+      }
+      catch(IOException e) {
+        final IOException failure = toCallException(request, e);
+        recordOutcome(circuitBreaker, concurrencyLimiter, startNanos, failure);
+        // a retry would hand the listener the same entities again
+        final long backoffMillis = delivery != null && delivery.isStarted() ? -1L : getRetryBackoff(call, request, failure, attempt);
+        if(backoffMillis < 0) {
+          throw failure;
+        }
+        try {
+          Thread.sleep(backoffMillis);
+        }
+        catch(InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted waiting to retry " + request.getURL().getPath());
+        }
+      }
+    }
+  }
+
+  /**
+   * Make the call and hand each entity to the listener as soon as it has been
+   * read off the wire, while the rest of the response is still downloading.
+   * The body is parsed as it arrives with the streaming parser, whatever the
+   * {@link ParserEngine}, and is never held in memory as a whole.
+   * <p/>
+   * The status is checked before any entity is delivered.  Entities that come
+   * before the status in the output are held until it has been read, and a
+   * status other than OK is thrown as soon as it has been read.  Entities are
+   * delivered in the order of the output; unlike a {@link Response} they are
+   * not sorted or deduplicated.
+   * <p/>
+   * Rate limiting, the concurrency limit, the circuit breaker and retries
+   * apply as they do to {@link #call(AbstractCall)}, but a call is not
+   * retried once an entity has been delivered.  The response cache, content
+   * deduplication, coalescing and hedging are not used.
+   *
+   * @param call call to make
+   * @param listener receives each entity
+   *
+   * @return response holding the header only
+   *
+   * @throws IOException if the call failed; see {@link #call(AbstractCall)}
+   */
+  public <T extends AbstractAlchemyEntity> Response<T> stream(final AbstractCall<T> call, final EntityListener<T> listener) throws IOException {
+    if(listener == null) {
+      throw new IllegalArgumentException("Entity listener cannot be null.");
+    }
+    final TransportRequest request = createRequest(call);
+    final CacheKey cacheKey = getCacheKey(call);
+    final CallException cachedFailure = getCachedFailure(cacheKey);
+    if(cachedFailure != null) {
+      throw cachedFailure;
+    }
+    return call(call, request, cacheKey, new Delivery<T>(listener));
+  }
+
+  /**
+   * Make every call, running at most {@link #getMaxConcurrency()} of them at
+   * once on threads of the configured {@link ExecutionMode}, and wait for them
+   * to finish.
+   * <p/>
+   * Once a call fails no further calls are started; the calls already in
+   * flight are allowed to finish and the first failure (in the order of the
+   * collection) is thrown with any others attached as suppressed exceptions.
+   *
+   * @param calls calls to make
+   *
+   * @return responses in the iteration order of the collection
+   *
+   * @throws IOException if any call failed
+   */
+  public List<Response<?>> callAll(final Collection<? extends AbstractCall<?>> calls) throws IOException {
+    if(calls == null) {
+      throw new IllegalArgumentException("Calls cannot be null.");
+    }
+    if(calls.isEmpty()) {
+      return new ArrayList<Response<?>>();
+    }
+
+    final int concurrency = Math.min(maxConcurrency, calls.size());
+    final Semaphore permits = new Semaphore(concurrency);
+    final AtomicBoolean isFailed = new AtomicBoolean();
+    final List<Future<Response<?>>> futures = new ArrayList<Future<Response<?>>>(calls.size());
+    final ExecutorService executor = executionMode.newExecutor(concurrency);
+    try {
+      for(final AbstractCall<?> call : calls) {
+        permits.acquire();
+        if(isFailed.get()) {
+          permits.release();
+          break;
+        }
+        futures.add(executor.submit(new Callable<Response<?>>() {
+          public Response<?> call() throws IOException {
+            try {
+              return Client.this.call(call);
+            }
+            catch(IOException | RuntimeException e) {
+              isFailed.set(true);
+              throw e;
+            }
+            finally {
+              permits.release();
+            }
+          }
+        }));
+      }
+      return getAll(futures);
+    }
+    catch(InterruptedException e) {
+      for(Future<Response<?>> future : futures) {
+        future.cancel(true);
+      }
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for calls to complete");
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  private List<Response<?>> getAll(final List<Future<Response<?>>> futures) throws IOException, InterruptedException {
+    final List<Response<?>> responses = new ArrayList<Response<?>>(futures.size());
+    Throwable failure = null;
+    for(Future<Response<?>> future : futures) {
+      try {
+        responses.add(future.get());
+      }
+      catch(ExecutionException e) {
+        if(failure == null) {
+          failure = e.getCause();
+        }
+        else {
+          failure.addSuppressed(e.getCause());
+        }
+      }
+    }
+    if(failure instanceof IOException) {
+      throw (IOException) failure;
+    }
+    if(failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    if(failure != null) {
+      throw new IOException("Call failed", failure);
+    }
+    return responses;
+  }
+
+  /**
+   * Make the call without blocking the calling thread.  When the transport is
+   * an {@link AsyncTransport} (e.g., {@link com.likethecolor.alchemy.api.transport.HttpClientTransport})
+   * no thread is held while the request is on the network and the response
+   * is parsed on the parse executor, never on the transport's I/O threads.
+   * Otherwise the blocking request is sent, and its response parsed, on a
+   * thread of the {@link ExecutionMode}, never on the parse executor.
+   * <p/>
+   * The future completes exceptionally with the same IOException that
+   * {@link #call(AbstractCall)} would have thrown, and with a
+   * {@link CallTimeoutException} as soon as the call's deadline passes.
+   * Cancelling the future (or its deadline passing) abandons the exchange.
+   * An asynchronous transport's exchange future is cancelled, which
+   * HttpClientTransport and Http2Transport pass on to the request.  A
+   * blocking transport's thread is interrupted and its request
+   * {@link TransportRequest#cancel() cancelled}, on which
+   * {@link com.likethecolor.alchemy.api.transport.PooledTransport} closes the
+   * connection being read.  A transport that honors neither finishes the
+   * request in the background; the future does not wait for it.
+   *
+   * @param call call to make
+   *
+   * @return future response
+   *
+   * @see #setParseExecutor(Executor)
+   */
+  public <T extends AbstractAlchemyEntity> CompletableFuture<Response<T>> callAsync(final AbstractCall<T> call) {
+    final TransportRequest request;
+    try {
+      request = createRequest(call);
+    }
+    catch(IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    final CacheKey cacheKey = getCacheKey(call);
+    final Response<T> cached = getCachedResponse(call, request, cacheKey);
+    if(cached != null) {
+      return CompletableFuture.completedFuture(cached);
+    }
+    final CallException cachedFailure = getCachedFailure(cacheKey);
+    if(cachedFailure != null) {
+      return CompletableFuture.failedFuture(cachedFailure);
+    }
+    if(!isCoalescingEnabled || cacheKey == null) {
+      return callAsync(call, request, cacheKey);
+    }
+    final FlightKey key = new FlightKey(cacheKey, call.getProjection());
+    final CompletableFuture<Response<?>> flight = new CompletableFuture<Response<?>>();
+    final CompletableFuture<Response<?>> leader = inFlightCalls.putIfAbsent(key, flight);
+    if(leader == null) {
+      callAsync(call, request, cacheKey).whenComplete((response, throwable) -> {
+        inFlightCalls.remove(key, flight);
+        if(throwable != null) {
+          flight.completeExceptionally(throwable);
+        }
+        else {
+          flight.complete(response);
+        }
+      });
+    }
+    else {
+      coalescedCalls.incrementAndGet();
+    }
+    // a dependent future, so that cancelling it leaves the shared call running
+    final CompletableFuture<Response<T>> future = (leader == null ? flight : leader).thenApply(response -> Client.<T>copy(response));
+    failAtDeadline(future, request);
+    return future;
+  }
+
+  private <T extends AbstractAlchemyEntity> CompletableFuture<Response<T>> callAsync(final AbstractCall<T> call, final TransportRequest request,
+                                                                                    final CacheKey cacheKey) {
+    final AsyncCall<T> asyncCall = new AsyncCall<T>(transport, parseExecutor, call, request, cacheKey);
+    onCallStarted();
+    asyncCall.attempt(1);
+    failAtDeadline(asyncCall.future, request);
+    return asyncCall.future;
+  }
+
+  private Executor getBlockingExecutor() {
+    ExecutorService executor = blockingExecutor;
+    if(executor == null) {
+      synchronized(this) {
+        executor = blockingExecutor;
+        if(executor == null) {
+          executor = executionMode.newBlockingExecutor();
+          blockingExecutor = executor;
+        }
+      }
+    }
+    return executor;
+  }
+
+  private static void failAtDeadline(final CompletableFuture<?> future, final TransportRequest request) {
+    if(request.hasDeadline()) {
+      CompletableFuture.delayedExecutor(Math.max(request.getDeadline() - System.nanoTime(), 0L), TimeUnit.NANOSECONDS, DIRECT_EXECUTOR)
+          .execute(() -> future.completeExceptionally(
+              new CallTimeoutException("Deadline exceeded for " + request.getURL().getPath())));
+    }
+  }
+
+  private <T extends AbstractAlchemyEntity> Response<T> await(final CompletableFuture<Response<T>> future) throws IOException {
+    try {
+      return future.get();
+    }
+    catch(InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for call to complete");
+    }
+    catch(ExecutionException e) {
+      throw toIOException(e.getCause());
+    }
+  }
+
+  /**
+   * Wait for an identical call made by another caller, up to this call's
+   * deadline.  The other call is left running when the wait ends early.
+   */
+  private static Response<?> await(final CompletableFuture<Response<?>> flight, final TransportRequest request) throws IOException {
+    try {
+      if(request.hasDeadline()) {
+        return flight.get(Math.max(request.getDeadline() - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+      }
+      return flight.get();
+    }
+    catch(InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for call to complete");
+    }
+    catch(TimeoutException e) {
+      throw new CallTimeoutException("Deadline exceeded for " + request.getURL().getPath());
+    }
+    catch(ExecutionException e) {
+      throw toIOException(e.getCause());
+    }
+  }
+
+  /**
+   * @return the failure of a call as the IOException to throw; unchecked
+   * failures are thrown as they are
+   */
+  private static IOException toIOException(final Throwable cause) {
+    if(cause instanceof IOException) {
+      return (IOException) cause;
+    }
+    if(cause instanceof RuntimeException) {
+      throw (RuntimeException) cause;
+    }
+    if(cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new IOException("Call failed", cause);
+  }
+
+  /**
+   * Copy a response shared by coalesced calls.  Copying sorts the shared
+   * entities, so copies are made one at a time.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T extends AbstractAlchemyEntity> Response<T> copy(final Response<?> response) {
+    synchronized(response) {
+      return (Response<T>) response.clone();
+    }
+  }
+
+  /**
+   * Read and parse the response, failing if that takes the call past its
+   * deadline.
+   */
+  private <T extends AbstractAlchemyEntity> Response<T> exchange(final AbstractCall<T> call, final TransportRequest request,
+                                                                 final CacheKey cacheKey, final TransportResponse response) throws IOException {
+    final Response<T> parsed = doRequest(call, request, cacheKey, response);
+    request.checkDeadline();
+    return parsed;
+  }
+
+  /**
+   * Report a transport timeout as a {@link CallTimeoutException}; any other
+   * failure is returned as is.
+   */
+  private static Throwable toCallException(final TransportRequest request, final Throwable throwable) {
+    if(throwable instanceof IOException) {
+      return toCallException(request, (IOException) throwable);
+    }
+    return throwable;
+  }
+
+  private static IOException toCallException(final TransportRequest request, final IOException e) {
+    if(e instanceof SocketTimeoutException || e instanceof HttpTimeoutException) {
+      return new CallTimeoutException("Timed out calling " + request.getURL().getPath() + ": " + e.getMessage(), e);
+    }
+    return e;
+  }
+
+  private static Throwable unwrap(final Throwable throwable) {
+    Throwable cause = throwable;
+    while(cause instanceof CompletionException && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    return cause;
+  }
+
+  /**
+   * Take a rate limit permit for the request, waiting for it if need be.
+   *
+   * @throws RateLimitExceededException if the daily budget is spent
+   * @throws CallTimeoutException if the permit comes after the deadline
+   * @throws InterruptedIOException if interrupted while waiting
+   */
+  private void awaitPermit(final TransportRequest request) throws IOException {
+    final long waitNanos = reservePermit(request);
+    if(waitNanos > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+      }
+      catch(InterruptedException e) {
+        releasePermit();
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted waiting for a rate limit permit for " + request.getURL().getPath());
+      }
+    }
+  }
+
+  /**
+   * Give back the rate limit permit taken for a request that was not sent,
+   * e.g. because no concurrency limit slot was free or the circuit breaker
+   * was open.
+   */
+  private void releasePermit() {
+    final RateLimiter rateLimiter = getRateLimiter();
+    if(rateLimiter != null) {
+      rateLimiter.release();
+    }
+  }
+
+  /**
+   * @return nanoseconds to wait before sending the request (0 if rate
+   * limiting is off)
+   *
+   * @throws RateLimitExceededException if the daily budget is spent
+   * @throws CallTimeoutException if the permit comes after the deadline
+   */
+  private long reservePermit(final TransportRequest request) throws CallException {
+    final RateLimiter rateLimiter = getRateLimiter();
+    if(rateLimiter == null) {
+      return 0L;
+    }
+    final long maxWaitNanos = request.hasDeadline() ? Math.max(request.getDeadline() - System.nanoTime(), 0L) : Long.MAX_VALUE;
+    final long waitNanos = rateLimiter.reserve(maxWaitNanos);
+    if(waitNanos == RateLimiter.DAILY_LIMIT_REACHED) {
+      throw new RateLimitExceededException("Error making API call: " + RateLimitExceededException.STATUS_INFO
+                                           + " (client side) for " + request.getURL().getPath());
+    }
+    if(waitNanos == RateLimiter.TIMED_OUT) {
+      throw new CallTimeoutException("Timed out waiting for a rate limit permit for " + request.getURL().getPath());
+    }
+    return waitNanos;
+  }
+
+  /**
+   * Take a slot from the concurrency limiter, waiting for one if need be.
+   *
+   * @return limiter the slot was taken from or null if the limit is off
+   *
+   * @throws ConcurrencyLimitExceededException if the queue is full
+   * @throws CallTimeoutException if no slot was free before the deadline
+   * @throws InterruptedIOException if interrupted while waiting
+   */
+  private ConcurrencyLimiter awaitSlot(final TransportRequest request) throws IOException {
+    final ConcurrencyLimiter concurrencyLimiter = this.concurrencyLimiter;
+    if(concurrencyLimiter == null) {
+      return null;
+    }
+    final CompletableFuture<Void> slot = concurrencyLimiter.acquire();
+    try {
+      if(request.hasDeadline()) {
+        slot.get(Math.max(request.getDeadline() - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+      }
+      else {
+        slot.get();
+      }
+      return concurrencyLimiter;
+    }
+    catch(InterruptedException e) {
+      concurrencyLimiter.abandon(slot);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for a concurrency limit slot for " + request.getURL().getPath());
+    }
+    catch(TimeoutException e) {
+      concurrencyLimiter.abandon(slot);
+      throw new CallTimeoutException("Timed out waiting for a concurrency limit slot for " + request.getURL().getPath());
+    }
+    catch(ExecutionException e) {
+      // the slot is only ever granted normally
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * Ask the breaker for the call's endpoint for permission to send a
+   * request.
+   *
+   * @return breaker whose permission was given or null if circuit breaking
+   * is off
+   *
+   * @throws CircuitBreakerOpenException if the breaker is open
+   */
+  private CircuitBreaker acquireCircuitBreaker(final AbstractCall<?> call, final TransportRequest request) throws CircuitBreakerOpenException {
+    final CircuitBreakerPolicy policy = this.circuitBreakerPolicy;
+    if(policy == null) {
+      return null;
+    }
+    final String name = request.getURL().getAuthority() + "/" + getCallName(call);
+    CircuitBreaker circuitBreaker = circuitBreakers.get(name);
+    if(circuitBreaker == null) {
+      circuitBreaker = circuitBreakers.computeIfAbsent(name, key -> {
+        final CircuitBreaker newCircuitBreaker = new CircuitBreaker(key, policy);
+        newCircuitBreaker.setListener(circuitBreakerListener);
+        return newCircuitBreaker;
+      });
+    }
+    if(!circuitBreaker.tryAcquire()) {
+      throw new CircuitBreakerOpenException(name);
+    }
+    return circuitBreaker;
+  }
+
+  /**
+   * Report the outcome of a request to the breaker that let it through and
+   * the limiter it took a slot from; a request that was interrupted or
+   * failed outside of I/O is ignored.
+   *
+   * @param failure failure of the request or null if it succeeded
+   */
+  private static void recordOutcome(final CircuitBreaker circuitBreaker, final ConcurrencyLimiter concurrencyLimiter,
+                                    final long startNanos, final Throwable failure) {
+    if(concurrencyLimiter != null) {
+      if(failure == null) {
+        concurrencyLimiter.onSuccess(startNanos);
+      }
+      else if(!(failure instanceof IOException) || failure instanceof InterruptedIOException) {
+        concurrencyLimiter.onIgnored();
+      }
+      else if(concurrencyLimiter.getPolicy().isOverload((IOException) failure)) {
+        concurrencyLimiter.onFailure(startNanos);
+      }
+      else {
+        concurrencyLimiter.onSuccess(startNanos);
+      }
+    }
+    if(circuitBreaker == null) {
+      return;
+    }
+    final long durationNanos = System.nanoTime() - startNanos;
+    if(failure == null) {
+      circuitBreaker.onSuccess(durationNanos);
+    }
+    else if(!(failure instanceof IOException) || failure instanceof InterruptedIOException) {
+      circuitBreaker.onIgnored();
+    }
+    else if(circuitBreaker.getPolicy().isFailure((IOException) failure)) {
+      circuitBreaker.onFailure(durationNanos);
+    }
+    else {
+      circuitBreaker.onSuccess(durationNanos);
+    }
+  }
+
+  private <T extends AbstractAlchemyEntity> Response<T> fallback(final AbstractCall<T> call, final CircuitBreakerOpenException e) throws IOException {
+    final CircuitBreakerFallback fallback = this.circuitBreakerFallback;
+    if(fallback == null) {
+      throw e;
+    }
+    return fallback.onOpen(call, e);
+  }
+
+  private void onCallStarted() {
+    retryCalls.incrementAndGet();
+    retryBudget.deposit();
+    if(hedgingPolicy != null) {
+      hedgeBudget.deposit();
+    }
+  }
+
+  /**
+   * @return milliseconds to wait before hedging a request or -1 to not hedge
+   */
+  private long getHedgeDelay() {
+    final HedgingPolicy policy = this.hedgingPolicy;
+    if(policy == null) {
+      return -1L;
+    }
+    final long percentileNanos = latencyWindow.getPercentile(policy.getPercentile());
+    if(percentileNanos < 0) {
+      return -1L;
+    }
+    return Math.max(TimeUnit.NANOSECONDS.toMillis(percentileNanos), policy.getMinDelay());
+  }
+
+  private void recordLatency(final long latencyNanos) {
+    if(hedgingPolicy != null) {
+      latencyWindow.record(latencyNanos);
+    }
+  }
+
+  private void onCallSucceeded(final int attempt) {
+    if(attempt > 1) {
+      recoveredCalls.incrementAndGet();
+    }
+  }
+
+  /**
+   * Decide whether to make a failed call again.
+   *
+   * @return milliseconds to wait before the next attempt or -1 to give up
+   */
+  private long getRetryBackoff(final AbstractCall<?> call, final TransportRequest request, final IOException failure, final int attempt) {
+    final RetryPolicy policy = this.retryPolicy;
+    if(!policy.isRetryable(failure)) {
+      return -1L;
+    }
+    if(attempt >= policy.getMaxAttempts()) {
+      if(policy.getMaxAttempts() > 1) {
+        exhaustedCalls.incrementAndGet();
+      }
+      return -1L;
+    }
+    final long backoffMillis = policy.getBackoff(attempt);
+    // no point waiting for an attempt that cannot finish before the deadline
+    if(request.hasDeadline() && request.getDeadline() - System.nanoTime() <= TimeUnit.MILLISECONDS.toNanos(backoffMillis)) {
+      return -1L;
+    }
+    if(!retryBudget.tryWithdraw()) {
+      budgetDeniedRetries.incrementAndGet();
+      return -1L;
+    }
+    retries.incrementAndGet();
+    LOGGER.debug("retrying " + getCallName(call) + " in " + backoffMillis + " ms after attempt " + attempt + " failed: " + failure.getMessage());
+    return backoffMillis;
+  }
+
+  private TransportRequest createRequest(final AbstractCall<?> call) throws IOException {
+    final long startNanos = System.nanoTime();
     final Params params = call.getParams();
     call.getCallType().setValuesOnParams(params);
-    final String callName = call.getCallType().getPrefix() + call.getName();
+    final String callName = getCallName(call);
     final String callPrefix = call.getCallType().getType();
 
-    String jsonString;
+    final TransportRequest request;
     if(Constants.CALL_TYPE_URL.equals(call.getCallType().getType())) {
-      jsonString = get(callName, callPrefix, params);
+      request = createGetRequest(callName, callPrefix, params);
     }
     else {
-      jsonString = post(callName, callPrefix, params);
+      request = createPostRequest(callName, callPrefix, params);
+    }
+    if(isCompressionEnabled) {
+      request.setHeader(HEADER_ACCEPT_ENCODING, ACCEPT_ENCODING);
+    }
+    request.setConnectTimeout(connectTimeoutMillis);
+    request.setReadTimeout(readTimeoutMillis);
+    final long timeoutMillis = call.getTimeout() > 0 ? call.getTimeout() : callTimeoutMillis;
+    if(timeoutMillis > 0) {
+      request.setDeadline(startNanos + TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+    return request;
+  }
+
+  private String getCallName(final AbstractCall<?> call) {
+    return call.getCallType().getPrefix() + call.getName();
+  }
+
+  /**
+   * Key the call once, when its request has been created, for the response
+   * cache, the negative result cache and coalescing.
+   *
+   * @return call name, call type, encoded options and a hash of the content
+   * (once the call type has set its values on the parameters) or null if
+   * none of them is in use
+   */
+  private CacheKey getCacheKey(final AbstractCall<?> call) {
+    if(responseCache == null && negativeResultCache == null && !isCoalescingEnabled) {
+      return null;
+    }
+    return CacheKey.of(getCallName(call), call.getCallType().getType(), call.getParams());
+  }
+
+  /**
+   * @return true if the call sends its content (text or html) for analysis
+   */
+  private static boolean isContentCall(final AbstractCall<?> call) {
+    return !Constants.CALL_TYPE_URL.equals(call.getCallType().getType());
+  }
+
+  private CacheKey getContentKey(final ContentDeduplicator deduplicator, final AbstractCall<?> call) {
+    return deduplicator.getKey(getCallName(call), call.getCallType().getType(), call.getParams());
+  }
+
+  /**
+   * @return response parsed from the deduplicator, the cache or the near
+   * duplicate index or null on a miss (or if caching is off)
+   */
+  private <T extends AbstractAlchemyEntity> Response<T> getCachedResponse(final AbstractCall<T> call, final TransportRequest request,
+                                                                          final CacheKey key) {
+    final RequestBody body = request.getRequestBody();
+    final long requestBytes = body == null ? 0L : body.getContentLength();
+    final ContentDeduplicator deduplicator = this.contentDeduplicator;
+    if(deduplicator != null && isContentCall(call)) {
+      final CacheKey contentKey = getContentKey(deduplicator, call);
+      final String json = deduplicator.get(contentKey, requestBytes);
+      final Response<T> response = parseCached(call, json);
+      if(response != null) {
+        return response;
+      }
+      if(json != null) {
+        deduplicator.invalidate(contentKey);
+      }
+    }
+    final ResponseCache cache = this.responseCache;
+    if(cache != null && key != null) {
+      final String json = cache.get(key);
+      final Response<T> response = parseCached(call, json);
+      if(response != null) {
+        return response;
+      }
+      if(json != null) {
+        cache.invalidate(key);
+      }
     }
-    LOGGER.debug("json string: " + jsonString);
-    return call.parse(jsonString);
+    final NearDuplicateIndex index = this.nearDuplicateIndex;
+    if(index != null && isContentCall(call)) {
+      return parseCached(call, index.get(getCallName(call), call.getCallType().getType(), call.getParams(), requestBytes));
+    }
+    return null;
   }
 
-  private String get(final String callName, String callPrefix, Params params) throws IOException {
-    String jsonString = null;
+  /**
+   * @return response parsed from the cached json or null if there is none or
+   * it is not a JSON object
+   */
+  private <T extends AbstractAlchemyEntity> Response<T> parseCached(final AbstractCall<T> call, final String json) {
+    if(json == null) {
+      return null;
+    }
+    try {
+      return parserEngine.parse(call, new StringReader(json));
+    }
+    catch(IOException e) {
+      LOGGER.warn("Dropping cached response that is not a JSON object for " + getCallName(call), e);
+      return null;
+    }
+  }
+
+  /**
+   * @return failure like the one an identical call recently failed with or
+   * null if there is none (or if failures are not remembered)
+   */
+  private CallException getCachedFailure(final CacheKey key) {
+    final NegativeResultCache cache = this.negativeResultCache;
+    return cache == null || key == null ? null : cache.get(key);
+  }
+
+  private TransportRequest createGetRequest(final String callName, String callPrefix, Params params) throws IOException {
     StringBuilder uri = new StringBuilder()
         .append(requestUri).append(callPrefix).append('/').append(callName)
         .append('?').append(API_KEY).append("=").append(this.apiKey)
         .append(params.toString());
 
     LOGGER.debug("GET: uri: " + uri);
-    HttpURLConnection handle = null;
+    return new TransportRequest(TransportRequest.METHOD_GET, new URL(uri.toString()));
+  }
+
+  private TransportRequest createPostRequest(final String callName, String callType, Params params) throws IOException {
+    URL url = new URL(requestUri + callType + "/" + callName);
+
+    // the html or text is percent-encoded straight onto the connection
+    final FormRequestBody body = new FormRequestBody(API_KEY + "=" + apiKey, params);
+
+    LOGGER.debug("POST: url: " + url);
+    LOGGER.debug("POST: data: " + params.toOptionsString());
+    LOGGER.debug("POST: " + HEADER_CONTENT_LENGTH + ": " + body.getContentLength());
+
+    final TransportRequest request = new TransportRequest(TransportRequest.METHOD_POST, url);
+    request.setHeader(HEADER_CONTENT_TYPE, CONTENT_TYPE_FORM);
+    request.setBody(body);
+    return request;
+  }
+
+  /**
+   * Decode the response body and parse it once with the configured
+   * {@link ParserEngine}; the status is validated against the resulting
+   * response.
+   */
+  private <T extends AbstractAlchemyEntity> Response<T> doRequest(final AbstractCall<T> call, final TransportRequest request,
+                                                                  final CacheKey key, final TransportResponse response) throws IOException {
+    final ResponseBody body;
     try {
-      URL url = new URL(uri.toString());
-      handle = (HttpURLConnection) url.openConnection();
-      handle.setDoOutput(true);
-      jsonString = doRequest(handle);
+      checkStatusCode(request, response);
+      body = ResponseBody.read(response, request);
     }
     finally {
-      if(handle != null) {
-        handle.disconnect();
+      response.close();
+    }
+    reportMetrics(call, body.getContentEncoding(), body.getWireBytes(), body.getDecodedBytes());
+
+    final Response<T> parsed;
+    final String json;
+    try {
+      if(LOGGER.isDebugEnabled()) {
+        LOGGER.debug("json string: " + body);
       }
+      OutputDocumentValidator.validate(body);
+      parsed = parserEngine.parse(call, body.newReader());
+      json = responseCache == null && ((contentDeduplicator == null && nearDuplicateIndex == null) || !isContentCall(call)) ? null : body.toString();
+    }
+    catch(JsonSyntaxException e) {
+      // the body is left out of the message; it is logged at debug level
+      throw new PermanentCallException("Error making API call: output is not a JSON object", e);
+    }
+    finally {
+      body.release();
+    }
+    validateStatus(key, parsed);
+    final ResponseCache cache = this.responseCache;
+    if(cache != null && key != null && json != null) {
+      cache.put(key, json);
+    }
+    final ContentDeduplicator deduplicator = this.contentDeduplicator;
+    if(deduplicator != null && json != null && isContentCall(call)) {
+      deduplicator.put(getContentKey(deduplicator, call), json);
+    }
+    final NearDuplicateIndex index = this.nearDuplicateIndex;
+    if(index != null && json != null && isContentCall(call)) {
+      index.put(getCallName(call), call.getCallType().getType(), call.getParams(), json);
     }
 
-    return jsonString;
+    return parsed;
   }
 
-  private String post(final String callName, String callType, Params params) throws IOException {
-    String jsonString = null;
-    URL url = new URL(requestUri + callType + "/" + callName);
-
-    StringBuilder data = new StringBuilder()
-        .append(API_KEY).append("=").append(apiKey)
-        .append(params.toString());
+  /**
+   * Parse the response body as it arrives, handing each entity to the
+   * delivery as soon as it has been read and the status is known to be OK.
+   * A status other than OK is thrown as soon as it has been read.
+   */
+  private <T extends AbstractAlchemyEntity> Response<T> doStreamRequest(final AbstractCall<T> call, final TransportRequest request,
+                                                                        final CacheKey key, final TransportResponse response,
+                                                                        final Delivery<T> delivery) throws IOException {
+    final StreamingResponse<T> parsed = new StreamingResponse<T>(delivery);
+    try {
+      checkStatusCode(request, response);
+      final ResponseBody.BodyReader reader = ResponseBody.openReader(response, request);
+      try {
+        call.parseStream(reader, parsed);
+        reader.finish();
+      }
+      finally {
+        reader.close();
+      }
+      reportMetrics(call, reader.getContentEncoding(), reader.getWireBytes(), reader.getDecodedBytes());
+    }
+    catch(JsonSyntaxException e) {
+      throw new PermanentCallException("Error making API call: output is not a JSON object", e);
+    }
+    catch(StatusReadException e) {
+      // the rest of the output is not needed to report the failure
+      validateStatus(key, parsed);
+    }
+    finally {
+      response.close();
+    }
+    validateStatus(key, parsed);
+    parsed.flush();
+    return getHeader(parsed);
+  }
 
-    LOGGER.debug("POST: url: " + url);
-    LOGGER.debug("POST: data: " + data.toString());
-    LOGGER.debug("POST: " + HEADER_CONTENT_LENGTH + ": " + data.length());
+  private static void checkStatusCode(final TransportRequest request, final TransportResponse response) throws CallException {
+    final int statusCode = response.getStatusCode();
+    if(statusCode >= HTTP_STATUS_ERROR) {
+      final String message = "Server returned HTTP response code: " + statusCode + " for URL: " + request.getURL().getPath();
+      if(statusCode >= HTTP_STATUS_SERVER_ERROR || statusCode == HTTP_STATUS_REQUEST_TIMEOUT || statusCode == HTTP_STATUS_TOO_MANY_REQUESTS) {
+        throw new TransientCallException(message, null, statusCode);
+      }
+      throw new PermanentCallException(message, null, statusCode);
+    }
+  }
 
-    DataOutputStream dataOutputStream = null;
-    HttpURLConnection handle = null;
+  /**
+   * Throw the status of the output if it is not OK, remembering it in the
+   * negative result cache.
+   */
+  private void validateStatus(final CacheKey key, final Response<?> response) throws IOException {
     try {
-      handle = (HttpURLConnection) url.openConnection();
-      handle.setDoOutput(true);
-      handle.addRequestProperty(HEADER_CONTENT_LENGTH, Integer.toString(data.length()));
+      OutputStatusValidator.validate(response);
+    }
+    catch(CallException e) {
+      final NegativeResultCache negativeCache = this.negativeResultCache;
+      if(negativeCache != null && key != null) {
+        negativeCache.put(key, e);
+      }
+      throw e;
+    }
+  }
 
-      dataOutputStream = new DataOutputStream(handle.getOutputStream());
-      dataOutputStream.write(data.toString().getBytes());
-      jsonString = doRequest(handle);
+  /**
+   * @return copy of the response's header without its entities
+   */
+  private static <T extends AbstractAlchemyEntity> Response<T> getHeader(final Response<T> response) {
+    final Response<T> header = new Response<T>();
+    header.setLanguage(response.getLanguage());
+    header.setStatus(response.getStatus().toString());
+    header.setStatusInfo(response.getStatusInfo());
+    header.setText(response.getText());
+    header.setURL(response.getURL());
+    header.setUsage(response.getUsage());
+    return header;
+  }
+
+  private void reportMetrics(final AbstractCall<?> call, final String contentEncoding, final long wireBytes, final long decodedBytes) {
+    final CallMetricsListener listener = this.callMetricsListener;
+    if(listener != null) {
+      try {
+        listener.onCall(new CallMetrics(getCallName(call), contentEncoding, wireBytes, decodedBytes));
+      }
+      catch(RuntimeException e) {
+        LOGGER.warn("Call metrics listener failed", e);
+      }
     }
-    finally {
-      if(dataOutputStream != null) {
+  }
+
+  /**
+   * A call made by {@link #callAsync(AbstractCall)}: runs each attempt on the
+   * transport, hedges an attempt that is slower than usual, retries after the
+   * backoff, and cancels the requests still in flight once the future is
+   * done.
+   */
+  private class AsyncCall<T extends AbstractAlchemyEntity> {
+    private final Transport transport;
+    private final Executor executor;
+    private final AbstractCall<T> call;
+    private final TransportRequest request;
+    // null if nothing is cached
+    private final CacheKey cacheKey;
+    private final CompletableFuture<Response<T>> future = new CompletableFuture<Response<T>>();
+    // guarded by this
+    private final List<InFlightRequest> inFlightRequests = new ArrayList<InFlightRequest>(2);
+    private boolean isSettled;
+    private volatile CompletableFuture<Void> pendingSlot;
+
+    AsyncCall(final Transport transport, final Executor executor, final AbstractCall<T> call, final TransportRequest request,
+              final CacheKey cacheKey) {
+      this.transport = transport;
+      this.executor = executor;
+      this.call = call;
+      this.request = request;
+      this.cacheKey = cacheKey;
+      // cancels the loser of a hedged race too
+      future.whenComplete((response, throwable) -> abandon());
+    }
+
+    void attempt(final int attempt) {
+      send(attempt, false);
+      final long hedgeDelayMillis = getHedgeDelay();
+      if(hedgeDelayMillis >= 0) {
+        CompletableFuture.delayedExecutor(hedgeDelayMillis, TimeUnit.MILLISECONDS, DIRECT_EXECUTOR).execute(() -> hedge(attempt));
+      }
+    }
+
+    private void hedge(final int attempt) {
+      synchronized(this) {
+        if(isSettled || !isInFlight(attempt)) {
+          return;
+        }
+      }
+      if(!hedgeBudget.tryWithdraw()) {
+        budgetDeniedHedges.incrementAndGet();
+        return;
+      }
+      hedgesSent.incrementAndGet();
+      LOGGER.debug("hedging " + getCallName(call) + " attempt " + attempt);
+      send(attempt, true);
+    }
+
+    private void send(final int attempt, final boolean isHedge) {
+      synchronized(this) {
+        if(isSettled || future.isDone()) {
+          return;
+        }
+      }
+      if(isHedge) {
+        final RateLimiter rateLimiter = getRateLimiter();
+        if(rateLimiter != null && !rateLimiter.tryAcquire()) {
+          return;
+        }
+      }
+      else {
+        final long waitNanos;
         try {
-          dataOutputStream.close();
+          waitNanos = reservePermit(request);
+        }
+        catch(CallException e) {
+          future.completeExceptionally(e);
+          return;
+        }
+        if(waitNanos > 0) {
+          CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS, DIRECT_EXECUTOR).execute(() -> sendNow(attempt, false));
+          return;
+        }
+      }
+      sendNow(attempt, isHedge);
+    }
+
+    private void sendNow(final int attempt, final boolean isHedge) {
+      synchronized(this) {
+        if(isSettled || future.isDone()) {
+          releasePermit();
+          return;
+        }
+      }
+      final ConcurrencyLimiter concurrencyLimiter = Client.this.concurrencyLimiter;
+      if(concurrencyLimiter == null) {
+        dispatch(attempt, isHedge, null);
+        return;
+      }
+      if(isHedge) {
+        if(concurrencyLimiter.tryAcquire()) {
+          dispatch(attempt, true, concurrencyLimiter);
+        }
+        else {
+          releasePermit();
+        }
+        return;
+      }
+      final CompletableFuture<Void> slot;
+      try {
+        slot = concurrencyLimiter.acquire();
+      }
+      catch(ConcurrencyLimitExceededException e) {
+        releasePermit();
+        future.completeExceptionally(e);
+        return;
+      }
+      if(slot.isDone()) {
+        dispatch(attempt, false, concurrencyLimiter);
+        return;
+      }
+      if(request.hasDeadline()) {
+        slot.orTimeout(Math.max(request.getDeadline() - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+      }
+      pendingSlot = slot;
+      slot.whenComplete((granted, throwable) -> {
+        if(throwable == null) {
+          dispatch(attempt, false, concurrencyLimiter);
+          return;
+        }
+        releasePermit();
+        if(throwable instanceof TimeoutException) {
+          future.completeExceptionally(new CallTimeoutException("Timed out waiting for a concurrency limit slot for "
+                                                                + request.getURL().getPath()));
+        }
+        // otherwise cancelled because the call was abandoned
+      });
+      if(future.isDone()) {
+        // abandoned while the slot was being queued for
+        concurrencyLimiter.abandon(slot);
+      }
+    }
+
+    private void dispatch(final int attempt, final boolean isHedge, final ConcurrencyLimiter concurrencyLimiter) {
+      final CircuitBreaker circuitBreaker;
+      try {
+        circuitBreaker = acquireCircuitBreaker(call, request);
+      }
+      catch(CircuitBreakerOpenException e) {
+        releasePermit();
+        if(concurrencyLimiter != null) {
+          concurrencyLimiter.onIgnored();
+        }
+        // a hedge is simply not sent
+        if(!isHedge) {
+          onOpen(e);
+        }
+        return;
+      }
+      final InFlightRequest inFlightRequest = new InFlightRequest(request.copy(), attempt, isHedge, circuitBreaker, concurrencyLimiter);
+      synchronized(this) {
+        if(isSettled || future.isDone()) {
+          inFlightRequest.isRecorded = true;
+        }
+        else {
+          inFlightRequests.add(inFlightRequest);
+        }
+      }
+      if(inFlightRequest.isRecorded) {
+        releasePermit();
+        recordOutcome(circuitBreaker, concurrencyLimiter, inFlightRequest.startNanos, new InterruptedIOException());
+        return;
+      }
+      if(transport instanceof AsyncTransport) {
+        final CompletableFuture<TransportResponse> exchange = ((AsyncTransport) transport).executeAsync(inFlightRequest.request);
+        inFlightRequest.exchange = exchange;
+        exchange.whenCompleteAsync((response, throwable) -> {
+          if(throwable != null) {
+            onFailure(inFlightRequest, unwrap(throwable));
+          }
+          else {
+            onResponse(inFlightRequest, response);
+          }
+        }, executor);
+        if(future.isDone()) {
+          // abandoned while the exchange was being started
+          exchange.cancel(true);
+        }
+      }
+      else {
+        try {
+          // never the parse executor: the request holds its thread until
+          // the response has been read
+          getBlockingExecutor().execute(() -> runBlocking(inFlightRequest));
+        }
+        catch(RejectedExecutionException e) {
+          releasePermit();
+          record(inFlightRequest, e);
+          future.completeExceptionally(e);
+        }
+      }
+    }
+
+    private void runBlocking(final InFlightRequest inFlightRequest) {
+      synchronized(this) {
+        if(future.isDone()) {
+          releasePermit();
+          return;
+        }
+        inFlightRequest.thread = Thread.currentThread();
+      }
+      try {
+        final TransportResponse response;
+        try {
+          response = transport.execute(inFlightRequest.request);
         }
         catch(IOException e) {
-          // ignore
+          onFailure(inFlightRequest, e);
+          return;
         }
+        onResponse(inFlightRequest, response);
       }
-      if(handle != null) {
-        handle.disconnect();
+      catch(RuntimeException e) {
+        record(inFlightRequest, e);
+        future.completeExceptionally(e);
+      }
+      finally {
+        synchronized(this) {
+          inFlightRequest.thread = null;
+          if(inFlightRequest.isInterrupted) {
+            // don't leak the interrupt to the executor's next task
+            Thread.interrupted();
+          }
+        }
       }
     }
 
-    return jsonString;
-  }
+    private void onResponse(final InFlightRequest inFlightRequest, final TransportResponse response) {
+      if(future.isDone()) {
+        // cancelled, timed out or beaten while the response was on its way
+        response.close();
+        return;
+      }
+      final Response<T> parsed;
+      try {
+        parsed = exchange(call, request, cacheKey, response);
+      }
+      catch(IOException e) {
+        onFailure(inFlightRequest, e);
+        return;
+      }
+      catch(RuntimeException e) {
+        record(inFlightRequest, e);
+        future.completeExceptionally(e);
+        return;
+      }
+      record(inFlightRequest, null);
+      synchronized(this) {
+        if(isSettled) {
+          return;
+        }
+        isSettled = true;
+        inFlightRequests.remove(inFlightRequest);
+      }
+      recordLatency(System.nanoTime() - inFlightRequest.startNanos);
+      if(inFlightRequest.isHedge) {
+        hedgesWon.incrementAndGet();
+      }
+      onCallSucceeded(inFlightRequest.attempt);
+      future.complete(parsed);
+    }
 
-  private String doRequest(HttpURLConnection handle) throws IOException {
-    if(handle == null) {
-      return null;
+    private void onFailure(final InFlightRequest inFlightRequest, final Throwable throwable) {
+      final Throwable failure = toCallException(request, throwable);
+      record(inFlightRequest, failure);
+      synchronized(this) {
+        inFlightRequests.remove(inFlightRequest);
+        // the other request of a hedged attempt may still succeed
+        if(isSettled || future.isDone() || isInFlight(inFlightRequest.attempt)) {
+          return;
+        }
+      }
+      final int attempt = inFlightRequest.attempt;
+      final long backoffMillis = failure instanceof IOException ? getRetryBackoff(call, request, (IOException) failure, attempt) : -1L;
+      if(backoffMillis < 0) {
+        future.completeExceptionally(failure);
+        return;
+      }
+      CompletableFuture.delayedExecutor(backoffMillis, TimeUnit.MILLISECONDS, DIRECT_EXECUTOR).execute(() -> attempt(attempt + 1));
     }
 
-    StringBuilder builder = new StringBuilder();
-    BufferedReader bufferedReader = null;
-    DataInputStream dataInputStream;
-    try {
-      String line;
-      dataInputStream = new DataInputStream(handle.getInputStream());
-      bufferedReader = new BufferedReader(new InputStreamReader(dataInputStream));
-      while((line = bufferedReader.readLine()) != null) {
-        builder.append(line.trim());
+    private void onOpen(final CircuitBreakerOpenException e) {
+      final CircuitBreakerFallback fallback = circuitBreakerFallback;
+      if(fallback == null) {
+        future.completeExceptionally(e);
+        return;
+      }
+      try {
+        executor.execute(() -> {
+          try {
+            future.complete(fallback.onOpen(call, e));
+          }
+          catch(IOException | RuntimeException x) {
+            future.completeExceptionally(x);
+          }
+        });
+      }
+      catch(RejectedExecutionException x) {
+        future.completeExceptionally(x);
       }
     }
-    finally {
-      if(bufferedReader != null) {
-        try {
-          bufferedReader.close();
+
+    /**
+     * Report the request's outcome to its breaker unless it already has been.
+     */
+    private void record(final InFlightRequest inFlightRequest, final Throwable failure) {
+      synchronized(this) {
+        if(inFlightRequest.isRecorded) {
+          return;
         }
-        catch(IOException e) {
-          // ignore
+        inFlightRequest.isRecorded = true;
+      }
+      recordOutcome(inFlightRequest.circuitBreaker, inFlightRequest.concurrencyLimiter, inFlightRequest.startNanos, failure);
+    }
+
+    // guarded by this
+    private boolean isInFlight(final int attempt) {
+      for(InFlightRequest inFlightRequest : inFlightRequests) {
+        if(inFlightRequest.attempt == attempt) {
+          return true;
         }
       }
+      return false;
+    }
+
+    private void abandon() {
+      final CompletableFuture<Void> slot = pendingSlot;
+      if(slot != null) {
+        // a slot granted meanwhile is given back by dispatch
+        slot.cancel(false);
+      }
+      final List<InFlightRequest> abandoned;
+      synchronized(this) {
+        isSettled = true;
+        abandoned = new ArrayList<InFlightRequest>(inFlightRequests);
+        inFlightRequests.clear();
+        for(InFlightRequest inFlightRequest : abandoned) {
+          if(inFlightRequest.thread != null) {
+            inFlightRequest.isInterrupted = true;
+            inFlightRequest.thread.interrupt();
+          }
+        }
+      }
+      for(InFlightRequest inFlightRequest : abandoned) {
+        // a cancelled request says nothing about the endpoint
+        record(inFlightRequest, new InterruptedIOException());
+        // closes the connection a blocking transport is reading from
+        inFlightRequest.request.cancel();
+        final CompletableFuture<TransportResponse> exchange = inFlightRequest.exchange;
+        if(exchange != null) {
+          exchange.cancel(true);
+        }
+      }
+    }
+  }
+
+  /**
+   * Identifies calls that can share one parsed response: the same answer from
+   * the service parsed with the same projection.
+   */
+  private static class FlightKey {
+    private final CacheKey cacheKey;
+    private final Projection projection;
+
+    FlightKey(final CacheKey cacheKey, final Projection projection) {
+      this.cacheKey = cacheKey;
+      this.projection = projection;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if(this == o) {
+        return true;
+      }
+      if(o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final FlightKey flightKey = (FlightKey) o;
+      return cacheKey.equals(flightKey.cacheKey) && projection.equals(flightKey.projection);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * cacheKey.hashCode() + projection.hashCode();
+    }
+  }
+
+  /**
+   * Hands the entities of a streamed call to its listener.
+   */
+  private static class Delivery<T extends AbstractAlchemyEntity> {
+    private final EntityListener<T> listener;
+    private boolean isStarted;
+
+    Delivery(final EntityListener<T> listener) {
+      this.listener = listener;
+    }
+
+    void deliver(final T entity) {
+      isStarted = true;
+      listener.onEntity(entity);
     }
-    OutputStatusValidator.validate(builder.toString());
 
-    return builder.toString();
+    /**
+     * @return copy of the response's header once its entities have been
+     * delivered
+     */
+    Response<T> deliverAll(final Response<T> response) {
+      final Iterator<T> iter = response.iterator();
+      while(iter.hasNext()) {
+        deliver(iter.next());
+      }
+      return getHeader(response);
+    }
+
+    /**
+     * @return true once an entity has been delivered
+     */
+    boolean isStarted() {
+      return isStarted;
+    }
+  }
+
+  /**
+   * Response filled by the streaming parser that delivers each entity rather
+   * than keeping it.  Entities read before an OK status are held until the
+   * status has been read.  Once the status is known to be something else (and
+   * its info has been read), parsing is stopped with a
+   * {@link StatusReadException}.
+   */
+  private static class StreamingResponse<T extends AbstractAlchemyEntity> extends Response<T> {
+    private final Delivery<T> delivery;
+    private final List<T> held = new ArrayList<T>();
+
+    StreamingResponse(final Delivery<T> delivery) {
+      this.delivery = delivery;
+    }
+
+    @Override
+    public void setStatus(final String status) {
+      super.setStatus(status);
+      checkStatus();
+    }
+
+    @Override
+    public void setStatusInfo(final String statusInfo) {
+      super.setStatusInfo(statusInfo);
+      checkStatus();
+    }
+
+    @Override
+    public void addEntity(final T entity) {
+      if(entity == null) {
+        return;
+      }
+      if(getStatus() == Response.STATUS.OK) {
+        delivery.deliver(entity);
+      }
+      else {
+        held.add(entity);
+      }
+    }
+
+    /**
+     * Deliver the entities held back until the status was known.
+     */
+    void flush() {
+      for(T entity : held) {
+        delivery.deliver(entity);
+      }
+      held.clear();
+    }
+
+    private void checkStatus() {
+      if(getStatus() == Response.STATUS.OK) {
+        flush();
+      }
+      else if(getStatus() == Response.STATUS.ERROR && getStatusInfo() != null) {
+        throw new StatusReadException();
+      }
+    }
+  }
+
+  /**
+   * Thrown out of the streaming parser once the output's status is known to
+   * be something other than OK.
+   */
+  private static class StatusReadException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    StatusReadException() {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * One request sent for a call; a hedged attempt has two.
+   */
+  private static class InFlightRequest {
+    // a copy of the call's request, so that cancelling it leaves the other
+    // request of a hedged attempt alone
+    private final TransportRequest request;
+    private final int attempt;
+    private final boolean isHedge;
+    private final CircuitBreaker circuitBreaker;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final long startNanos = System.nanoTime();
+    private volatile CompletableFuture<TransportResponse> exchange;
+    // guarded by the call
+    private Thread thread;
+    private boolean isInterrupted;
+    private boolean isRecorded;
+
+    InFlightRequest(final TransportRequest request, final int attempt, final boolean isHedge, final CircuitBreaker circuitBreaker,
+                    final ConcurrencyLimiter concurrencyLimiter) {
+      this.request = request;
+      this.attempt = attempt;
+      this.isHedge = isHedge;
+      this.circuitBreaker = circuitBreaker;
+      this.concurrencyLimiter = concurrencyLimiter;
+    }
   }
 }
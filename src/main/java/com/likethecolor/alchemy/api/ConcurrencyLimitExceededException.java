@@ -0,0 +1,31 @@
+/**
+ * File: ConcurrencyLimitExceededException.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+/**
+ * Thrown without calling the service when the {@link ConcurrencyLimiter} is
+ * at its limit and its queue is full.  The failure is transient, but the
+ * client does not retry it; the call is shed to keep the gateway from being
+ * overloaded.
+ */
+public class ConcurrencyLimitExceededException extends TransientCallException {
+  private static final long serialVersionUID = 1L;
+
+  public ConcurrencyLimitExceededException(final String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,168 @@
+/**
+ * File: ConcurrencyLimitPolicy.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+import java.io.IOException;
+
+/**
+ * Configures the {@link ConcurrencyLimiter} that caps the requests a
+ * {@link Client} has in flight.
+ * <p/>
+ * The limit starts at the initial limit and adapts additively increase,
+ * multiplicatively decrease (AIMD): it grows by one for every limit requests
+ * that succeed while the limit is in use, and is multiplied by the backoff
+ * ratio when a request fails or takes longer than latency tolerance times
+ * the average latency.  It is decreased at most once per round trip and
+ * stays between the min and max limit.  Requests over the limit wait in a
+ * queue of at most max queue size; beyond that calls are rejected.
+ */
+public class ConcurrencyLimitPolicy {
+  public static final int DEFAULT_INITIAL_LIMIT = 20;
+  public static final int DEFAULT_MIN_LIMIT = 1;
+  public static final int DEFAULT_MAX_LIMIT = 200;
+  public static final double DEFAULT_BACKOFF_RATIO = 0.9D;
+  public static final double DEFAULT_LATENCY_TOLERANCE = 2.0D;
+  public static final int DEFAULT_MAX_QUEUE_SIZE = 1000;
+
+  private int initialLimit = DEFAULT_INITIAL_LIMIT;
+  private int minLimit = DEFAULT_MIN_LIMIT;
+  private int maxLimit = DEFAULT_MAX_LIMIT;
+  private double backoffRatio = DEFAULT_BACKOFF_RATIO;
+  private double latencyTolerance = DEFAULT_LATENCY_TOLERANCE;
+  private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+
+  /**
+   * @param initialLimit requests allowed in flight before any have been
+   * measured
+   */
+  public void setInitialLimit(final int initialLimit) {
+    if(initialLimit < 1) {
+      throw new IllegalArgumentException("Initial limit must be at least 1 [" + initialLimit + "].");
+    }
+    this.initialLimit = initialLimit;
+  }
+
+  public int getInitialLimit() {
+    return initialLimit;
+  }
+
+  /**
+   * @param minLimit lowest the limit is decreased to
+   */
+  public void setMinLimit(final int minLimit) {
+    if(minLimit < 1) {
+      throw new IllegalArgumentException("Min limit must be at least 1 [" + minLimit + "].");
+    }
+    this.minLimit = minLimit;
+  }
+
+  public int getMinLimit() {
+    return minLimit;
+  }
+
+  /**
+   * @param maxLimit highest the limit is increased to
+   */
+  public void setMaxLimit(final int maxLimit) {
+    if(maxLimit < 1) {
+      throw new IllegalArgumentException("Max limit must be at least 1 [" + maxLimit + "].");
+    }
+    this.maxLimit = maxLimit;
+  }
+
+  public int getMaxLimit() {
+    return maxLimit;
+  }
+
+  /**
+   * @param backoffRatio factor (greater than 0, less than 1) the limit is
+   * multiplied by on a failed or slow request
+   */
+  public void setBackoffRatio(final double backoffRatio) {
+    if(!(backoffRatio > 0.0D && backoffRatio < 1.0D)) {
+      throw new IllegalArgumentException("Backoff ratio must be greater than 0 and less than 1 [" + backoffRatio + "].");
+    }
+    this.backoffRatio = backoffRatio;
+  }
+
+  public double getBackoffRatio() {
+    return backoffRatio;
+  }
+
+  /**
+   * @param latencyTolerance multiple of the average latency (greater than 1)
+   * beyond which a request counts as slow or 0 to only back off on failures
+   */
+  public void setLatencyTolerance(final double latencyTolerance) {
+    if(!(latencyTolerance == 0.0D || latencyTolerance > 1.0D)) {
+      throw new IllegalArgumentException("Latency tolerance must be 0 or greater than 1 [" + latencyTolerance + "].");
+    }
+    this.latencyTolerance = latencyTolerance;
+  }
+
+  public double getLatencyTolerance() {
+    return latencyTolerance;
+  }
+
+  /**
+   * @param maxQueueSize calls allowed to wait for a slot or 0 to reject calls
+   * over the limit right away
+   */
+  public void setMaxQueueSize(final int maxQueueSize) {
+    if(maxQueueSize < 0) {
+      throw new IllegalArgumentException("Max queue size cannot be negative [" + maxQueueSize + "].");
+    }
+    this.maxQueueSize = maxQueueSize;
+  }
+
+  public int getMaxQueueSize() {
+    return maxQueueSize;
+  }
+
+  /**
+   * Decide whether a failed request is a sign of overload.  A
+   * {@link PermanentCallException} is an answer from a healthy gateway, and
+   * an interrupted request or the daily transaction limit says nothing about
+   * its load; any other I/O error counts.
+   *
+   * @param e failure of a request
+   *
+   * @return true if the limit is decreased
+   */
+  public boolean isOverload(final IOException e) {
+    return CallException.isTransientFailure(e) && !CallException.isDailyLimitExceeded(e);
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("initialLimit", initialLimit)
+        .append("minLimit", minLimit)
+        .append("maxLimit", maxLimit)
+        .append("backoffRatio", backoffRatio)
+        .append("latencyTolerance", latencyTolerance)
+        .append("maxQueueSize", maxQueueSize)
+        .toString();
+  }
+}
@@ -0,0 +1,288 @@
+/**
+ * File: ConcurrencyLimiter.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive cap on the requests in flight.  Every request takes a slot with
+ * {@link #acquire()} (or {@link #tryAcquire()}) and gives it back by
+ * reporting its outcome with exactly one of {@link #onSuccess(long)},
+ * {@link #onFailure(long)} or {@link #onIgnored()}; the outcomes move the
+ * limit.  Requests over the limit wait in arrival order for a slot.
+ *
+ * @see ConcurrencyLimitPolicy
+ */
+public class ConcurrencyLimiter {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrencyLimiter.class);
+  // weight of a new latency in the average
+  private static final double SMOOTHING = 0.05D;
+
+  private final ConcurrencyLimitPolicy policy;
+  // guarded by this
+  private final Deque<CompletableFuture<Void>> waiters = new ArrayDeque<CompletableFuture<Void>>();
+  private double limit;
+  private int inFlight;
+  private double averageLatencyNanos;
+  private boolean hasDecreased;
+  private long decreasedNanos;
+  private long queuedCalls;
+  private long rejectedCalls;
+
+  public ConcurrencyLimiter(final ConcurrencyLimitPolicy policy) {
+    if(policy == null) {
+      throw new IllegalArgumentException("Concurrency limit policy cannot be null.");
+    }
+    if(policy.getMinLimit() > policy.getMaxLimit()) {
+      throw new IllegalArgumentException("Min limit cannot be greater than max limit [" + policy.getMinLimit() + " > " + policy.getMaxLimit() + "].");
+    }
+    this.policy = policy;
+    this.limit = Math.max(policy.getMinLimit(), Math.min(policy.getInitialLimit(), policy.getMaxLimit()));
+  }
+
+  public ConcurrencyLimitPolicy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * Take a slot, queueing for one if the limit is reached.
+   *
+   * @return future completed once the slot is granted; cancel it (or let it
+   * time out) to give up waiting
+   *
+   * @throws ConcurrencyLimitExceededException if the queue is full
+   */
+  public CompletableFuture<Void> acquire() throws ConcurrencyLimitExceededException {
+    synchronized(this) {
+      if(inFlight < getLimit()) {
+        inFlight++;
+        return CompletableFuture.completedFuture(null);
+      }
+      if(waiters.size() >= policy.getMaxQueueSize()) {
+        waiters.removeIf(CompletableFuture::isDone);
+        if(waiters.size() >= policy.getMaxQueueSize()) {
+          rejectedCalls++;
+          throw new ConcurrencyLimitExceededException("Concurrency limit reached [" + getLimit() + "] with "
+                                                      + waiters.size() + " calls queued.");
+        }
+      }
+      final CompletableFuture<Void> waiter = new CompletableFuture<Void>();
+      waiters.add(waiter);
+      queuedCalls++;
+      return waiter;
+    }
+  }
+
+  /**
+   * @return true if a slot was free and taken
+   */
+  public synchronized boolean tryAcquire() {
+    if(inFlight < getLimit()) {
+      inFlight++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Give up waiting for a slot, giving it back if it was granted meanwhile.
+   */
+  void abandon(final CompletableFuture<Void> waiter) {
+    if(!waiter.cancel(false) && !waiter.isCompletedExceptionally()) {
+      onIgnored();
+    }
+  }
+
+  /**
+   * Give the slot back after a request that succeeded.  A request slower than
+   * the latency tolerance allows decreases the limit; otherwise the limit
+   * grows if it is in use.
+   *
+   * @param startNanos {@link System#nanoTime()} when the request was sent
+   */
+  public void onSuccess(final long startNanos) {
+    final List<CompletableFuture<Void>> granted;
+    synchronized(this) {
+      final long now = System.nanoTime();
+      final long latencyNanos = now - startNanos;
+      final boolean isSlow = policy.getLatencyTolerance() > 0.0D && averageLatencyNanos > 0.0D
+                             && latencyNanos > averageLatencyNanos * policy.getLatencyTolerance();
+      averageLatencyNanos = averageLatencyNanos == 0.0D ? latencyNanos
+                                                        : averageLatencyNanos + SMOOTHING * (latencyNanos - averageLatencyNanos);
+      if(isSlow) {
+        decrease(startNanos, now);
+      }
+      else if(inFlight * 2 >= limit) {
+        limit = Math.min(policy.getMaxLimit(), limit + 1.0D / limit);
+      }
+      inFlight--;
+      granted = grant();
+    }
+    complete(granted);
+  }
+
+  /**
+   * Give the slot back after a request that failed from overload, decreasing
+   * the limit.
+   *
+   * @param startNanos {@link System#nanoTime()} when the request was sent
+   */
+  public void onFailure(final long startNanos) {
+    final List<CompletableFuture<Void>> granted;
+    synchronized(this) {
+      decrease(startNanos, System.nanoTime());
+      inFlight--;
+      granted = grant();
+    }
+    complete(granted);
+  }
+
+  /**
+   * Give the slot back after a request whose outcome says nothing about load.
+   */
+  public void onIgnored() {
+    final List<CompletableFuture<Void>> granted;
+    synchronized(this) {
+      inFlight--;
+      granted = grant();
+    }
+    complete(granted);
+  }
+
+  /**
+   * @return requests currently allowed in flight
+   */
+  public synchronized int getLimit() {
+    return (int) limit;
+  }
+
+  /**
+   * @return requests currently in flight
+   */
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  /**
+   * @return calls currently waiting for a slot
+   */
+  public synchronized int getQueueDepth() {
+    int depth = 0;
+    for(CompletableFuture<Void> waiter : waiters) {
+      if(!waiter.isDone()) {
+        depth++;
+      }
+    }
+    return depth;
+  }
+
+  /**
+   * @return number of calls that had to wait for a slot
+   */
+  public synchronized long getQueuedCalls() {
+    return queuedCalls;
+  }
+
+  /**
+   * @return number of calls rejected because the queue was full
+   */
+  public synchronized long getRejectedCalls() {
+    return rejectedCalls;
+  }
+
+  /**
+   * @return smoothed latency of successful requests in milliseconds
+   */
+  public synchronized long getAverageLatency() {
+    return TimeUnit.NANOSECONDS.toMillis((long) averageLatencyNanos);
+  }
+
+  // guarded by this
+  private void decrease(final long startNanos, final long now) {
+    if(hasDecreased && startNanos - decreasedNanos < 0) {
+      // sent before the last decrease took effect
+      return;
+    }
+    final double decreased = Math.max(policy.getMinLimit(), limit * policy.getBackoffRatio());
+    if(LOGGER.isDebugEnabled() && (int) decreased != (int) limit) {
+      LOGGER.debug("concurrency limit decreased from " + (int) limit + " to " + (int) decreased);
+    }
+    limit = decreased;
+    hasDecreased = true;
+    decreasedNanos = now;
+  }
+
+  // guarded by this
+  private List<CompletableFuture<Void>> grant() {
+    List<CompletableFuture<Void>> granted = null;
+    while(inFlight < getLimit()) {
+      final CompletableFuture<Void> next = waiters.poll();
+      if(next == null) {
+        break;
+      }
+      if(!next.isDone()) {
+        if(granted == null) {
+          granted = new ArrayList<CompletableFuture<Void>>();
+        }
+        granted.add(next);
+        inFlight++;
+      }
+    }
+    return granted;
+  }
+
+  /**
+   * Completed outside the lock since it runs the waiters' continuations.
+   */
+  private void complete(final List<CompletableFuture<Void>> granted) {
+    if(granted != null) {
+      for(CompletableFuture<Void> waiter : granted) {
+        if(!waiter.complete(null)) {
+          // cancelled or timed out meanwhile
+          onIgnored();
+        }
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    synchronized(this) {
+      return new ToStringBuilder(this, style)
+          .append("limit", getLimit())
+          .append("inFlight", inFlight)
+          .append("queueDepth", getQueueDepth())
+          .append("queuedCalls", queuedCalls)
+          .append("rejectedCalls", rejectedCalls)
+          .toString();
+    }
+  }
+}
@@ -0,0 +1,30 @@
+/**
+ * File: EntityListener.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import com.likethecolor.alchemy.api.entity.AbstractAlchemyEntity;
+
+/**
+ * Receives the entities of a call made by
+ * {@link Client#stream(com.likethecolor.alchemy.api.call.AbstractCall, EntityListener)}
+ * one at a time, as soon as each has been read off the wire.  It is called on
+ * the thread making the call, in the order the entities appear in the output;
+ * an exception it throws ends the call.
+ */
+public interface EntityListener<T extends AbstractAlchemyEntity> {
+  public void onEntity(final T entity);
+}
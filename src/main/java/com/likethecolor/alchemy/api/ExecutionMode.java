@@ -0,0 +1,131 @@
+/**
+ * File: ExecutionMode.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The kind of thread on which {@link Client#callAll(java.util.Collection)}
+ * runs each call and {@link Client#callAsync(AbstractCall)} runs each
+ * request sent with a blocking transport.
+ */
+public enum ExecutionMode {
+  /**
+   * One platform (OS) thread per concurrent call.
+   */
+  PLATFORM {
+    @Override
+    public boolean isSupported() {
+      return true;
+    }
+
+    @Override
+    ExecutorService newExecutor(final int maxConcurrency) {
+      return Executors.newFixedThreadPool(maxConcurrency, newDaemonThreadFactory("alchemy-call-"));
+    }
+
+    @Override
+    ExecutorService newBlockingExecutor() {
+      return Executors.newCachedThreadPool(newDaemonThreadFactory("alchemy-io-"));
+    }
+  },
+
+  /**
+   * A new virtual thread per call.  A call blocked on the network unmounts
+   * from its carrier thread, so concurrency is bounded only by
+   * {@link Client#setMaxConcurrency(int)}.  Requires Java 21 or later at
+   * runtime.
+   */
+  VIRTUAL {
+    @Override
+    public boolean isSupported() {
+      return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    @Override
+    ExecutorService newExecutor(final int maxConcurrency) {
+      if(!isSupported()) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+      }
+      try {
+        return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+      }
+      catch(IllegalAccessException e) {
+        throw new IllegalStateException("Could not create a virtual thread executor", e);
+      }
+      catch(InvocationTargetException e) {
+        throw new IllegalStateException("Could not create a virtual thread executor", e.getCause());
+      }
+    }
+
+    @Override
+    ExecutorService newBlockingExecutor() {
+      return newExecutor(0);
+    }
+  };
+
+  // looked up reflectively so that the library still runs on Java 11
+  private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadExecutorFactory();
+
+  /**
+   * @return true if this mode can be used on the running JVM
+   */
+  public abstract boolean isSupported();
+
+  /**
+   * Create the executor for one batch of calls.
+   *
+   * @param maxConcurrency number of calls that will run at once
+   *
+   * @return executor that the caller shuts down once the batch is done
+   */
+  abstract ExecutorService newExecutor(final int maxConcurrency);
+
+  /**
+   * Create the executor for requests that hold their thread until the
+   * response has been read.  It runs every task it is given at once.
+   *
+   * @return executor that lives as long as the client using it
+   */
+  abstract ExecutorService newBlockingExecutor();
+
+  private static ThreadFactory newDaemonThreadFactory(final String prefix) {
+    return new ThreadFactory() {
+      private final AtomicInteger count = new AtomicInteger();
+
+      public Thread newThread(final Runnable runnable) {
+        final Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    };
+  }
+
+  private static Method findVirtualThreadExecutorFactory() {
+    try {
+      return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+    }
+    catch(NoSuchMethodException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,189 @@
+/**
+ * File: FormRequestBody.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import com.likethecolor.alchemy.api.params.Params;
+import com.likethecolor.alchemy.api.transport.RequestBody;
+import org.apache.commons.lang.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An application/x-www-form-urlencoded POST body that percent-encodes the
+ * html and text parameters straight into the connection's output stream.
+ * The encoded form is the same as {@link Params#toString()} produces, but
+ * the (possibly multi-megabyte) content is never copied into intermediate
+ * strings or a whole-body byte array.  The exact byte length is computed up
+ * front by a counting pass over the characters.
+ */
+final class FormRequestBody implements RequestBody {
+  private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+  private static final int BUFFER_SIZE = 8192;
+
+  private final byte[] head;
+  private final String html;
+  private final String text;
+  private final byte[] tail;
+  private final long contentLength;
+
+  /**
+   * @param apiKeyParam the api key parameter (name=value) that starts the form
+   * @param params parameters of the call
+   */
+  FormRequestBody(final String apiKeyParam, final Params params) {
+    this.head = apiKeyParam.getBytes(StandardCharsets.UTF_8);
+    this.html = StringUtils.isBlank(params.getHtml()) ? null : params.getHtml();
+    this.text = StringUtils.isBlank(params.getText()) ? null : params.getText();
+    this.tail = params.toOptionsString().getBytes(StandardCharsets.UTF_8);
+    this.contentLength = head.length + getParamLength(Constants.PARAM_HTML, html)
+                         + getParamLength(Constants.PARAM_TEXT, text) + tail.length;
+  }
+
+  public long getContentLength() {
+    return contentLength;
+  }
+
+  public void writeTo(final OutputStream out) throws IOException {
+    final byte[] buffer = new byte[BUFFER_SIZE];
+    int position = write(out, buffer, 0, head);
+    position = writeParam(out, buffer, position, Constants.PARAM_HTML, html);
+    position = writeParam(out, buffer, position, Constants.PARAM_TEXT, text);
+    position = write(out, buffer, position, tail);
+    out.write(buffer, 0, position);
+  }
+
+  private static long getParamLength(final String name, final String value) {
+    if(value == null) {
+      return 0L;
+    }
+    return 2L + name.length() + getEncodedLength(value);
+  }
+
+  /**
+   * @return number of bytes {@link java.net.URLEncoder} produces for the value
+   * in UTF-8
+   */
+  static long getEncodedLength(final CharSequence value) {
+    long length = 0L;
+    final int size = value.length();
+    for(int i = 0; i < size; i++) {
+      final char c = value.charAt(i);
+      if(isUnreserved(c) || c == ' ') {
+        length++;
+      }
+      else if(c < 0x80) {
+        length += 3;
+      }
+      else if(c < 0x800) {
+        length += 6;
+      }
+      else if(Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(value.charAt(i + 1))) {
+        length += 12;
+        i++;
+      }
+      else if(Character.isSurrogate(c)) {
+        // an unpaired surrogate is encoded as '?'
+        length += 3;
+      }
+      else {
+        length += 9;
+      }
+    }
+    return length;
+  }
+
+  private static int writeParam(final OutputStream out, final byte[] buffer, int position, final String name, final String value) throws IOException {
+    if(value == null) {
+      return position;
+    }
+    position = writeByte(out, buffer, position, '&');
+    for(int i = 0; i < name.length(); i++) {
+      position = writeByte(out, buffer, position, name.charAt(i));
+    }
+    position = writeByte(out, buffer, position, '=');
+
+    final int size = value.length();
+    for(int i = 0; i < size; i++) {
+      final char c = value.charAt(i);
+      if(isUnreserved(c)) {
+        position = writeByte(out, buffer, position, c);
+      }
+      else if(c == ' ') {
+        position = writeByte(out, buffer, position, '+');
+      }
+      else if(c < 0x80) {
+        position = writeEscaped(out, buffer, position, c);
+      }
+      else if(c < 0x800) {
+        position = writeEscaped(out, buffer, position, 0xC0 | (c >> 6));
+        position = writeEscaped(out, buffer, position, 0x80 | (c & 0x3F));
+      }
+      else if(Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(value.charAt(i + 1))) {
+        final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        position = writeEscaped(out, buffer, position, 0xF0 | (codePoint >> 18));
+        position = writeEscaped(out, buffer, position, 0x80 | ((codePoint >> 12) & 0x3F));
+        position = writeEscaped(out, buffer, position, 0x80 | ((codePoint >> 6) & 0x3F));
+        position = writeEscaped(out, buffer, position, 0x80 | (codePoint & 0x3F));
+      }
+      else if(Character.isSurrogate(c)) {
+        position = writeEscaped(out, buffer, position, '?');
+      }
+      else {
+        position = writeEscaped(out, buffer, position, 0xE0 | (c >> 12));
+        position = writeEscaped(out, buffer, position, 0x80 | ((c >> 6) & 0x3F));
+        position = writeEscaped(out, buffer, position, 0x80 | (c & 0x3F));
+      }
+    }
+    return position;
+  }
+
+  private static int writeEscaped(final OutputStream out, final byte[] buffer, int position, final int b) throws IOException {
+    position = writeByte(out, buffer, position, '%');
+    position = writeByte(out, buffer, position, HEX[(b >> 4) & 0x0F]);
+    return writeByte(out, buffer, position, HEX[b & 0x0F]);
+  }
+
+  private static int writeByte(final OutputStream out, final byte[] buffer, final int position, final int b) throws IOException {
+    if(position == buffer.length) {
+      out.write(buffer, 0, position);
+      buffer[0] = (byte) b;
+      return 1;
+    }
+    buffer[position] = (byte) b;
+    return position + 1;
+  }
+
+  private static int write(final OutputStream out, final byte[] buffer, final int position, final byte[] bytes) throws IOException {
+    if(position + bytes.length > buffer.length) {
+      out.write(buffer, 0, position);
+      out.write(bytes);
+      return 0;
+    }
+    System.arraycopy(bytes, 0, buffer, position, bytes.length);
+    return position + bytes.length;
+  }
+
+  /**
+   * @return true for the characters {@link java.net.URLEncoder} leaves as is
+   */
+  private static boolean isUnreserved(final char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+           || c == '.' || c == '-' || c == '*' || c == '_';
+  }
+}
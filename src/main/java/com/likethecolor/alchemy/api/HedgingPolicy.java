@@ -0,0 +1,153 @@
+/**
+ * File: HedgingPolicy.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * Decides when the {@link Client} sends a second, identical request for a
+ * call that is taking longer than usual.  Every AlchemyAPI call is
+ * idempotent, so whichever response arrives first is used and the other
+ * request is cancelled.
+ * <p/>
+ * The hedge is sent once a request has been outstanding for the percentile
+ * (e.g., the 95th) of the latencies of the window of most recent requests,
+ * but never sooner than the min delay.  Until min samples latencies have been
+ * seen no hedges are sent.  Hedges are limited by a budget: every call adds
+ * budget ratio of a hedge to the budget and every hedge takes one out; the
+ * budget starts at, and never holds more than, budget burst hedges.
+ */
+public class HedgingPolicy {
+  public static final double DEFAULT_PERCENTILE = 95.0D;
+  public static final long DEFAULT_MIN_DELAY_MILLIS = 10L;
+  public static final int DEFAULT_WINDOW_SIZE = 1000;
+  public static final int DEFAULT_MIN_SAMPLES = 20;
+  public static final double DEFAULT_BUDGET_RATIO = 0.1D;
+  public static final int DEFAULT_BUDGET_BURST = 10;
+
+  private double percentile = DEFAULT_PERCENTILE;
+  private long minDelayMillis = DEFAULT_MIN_DELAY_MILLIS;
+  private int windowSize = DEFAULT_WINDOW_SIZE;
+  private int minSamples = DEFAULT_MIN_SAMPLES;
+  private double budgetRatio = DEFAULT_BUDGET_RATIO;
+  private int budgetBurst = DEFAULT_BUDGET_BURST;
+
+  /**
+   * @param percentile percentile of recent latencies after which the hedge
+   * is sent (greater than 0, at most 100)
+   */
+  public void setPercentile(final double percentile) {
+    if(!(percentile > 0.0D && percentile <= 100.0D)) {
+      throw new IllegalArgumentException("Percentile must be greater than 0 and at most 100 [" + percentile + "].");
+    }
+    this.percentile = percentile;
+  }
+
+  public double getPercentile() {
+    return percentile;
+  }
+
+  /**
+   * @param minDelayMillis shortest wait before a hedge is sent in
+   * milliseconds
+   */
+  public void setMinDelay(final long minDelayMillis) {
+    if(minDelayMillis < 0) {
+      throw new IllegalArgumentException("Min delay cannot be negative [" + minDelayMillis + "].");
+    }
+    this.minDelayMillis = minDelayMillis;
+  }
+
+  public long getMinDelay() {
+    return minDelayMillis;
+  }
+
+  /**
+   * @param windowSize number of most recent latencies the percentile is
+   * taken over
+   */
+  public void setWindowSize(final int windowSize) {
+    if(windowSize < 1) {
+      throw new IllegalArgumentException("Window size must be at least 1 [" + windowSize + "].");
+    }
+    this.windowSize = windowSize;
+  }
+
+  public int getWindowSize() {
+    return windowSize;
+  }
+
+  /**
+   * @param minSamples number of latencies needed before any hedge is sent
+   */
+  public void setMinSamples(final int minSamples) {
+    if(minSamples < 1) {
+      throw new IllegalArgumentException("Min samples must be at least 1 [" + minSamples + "].");
+    }
+    this.minSamples = minSamples;
+  }
+
+  public int getMinSamples() {
+    return minSamples;
+  }
+
+  /**
+   * @param budgetRatio hedges earned by each call (0.1 allows hedges to add
+   * at most 10% to the load once the burst is spent)
+   */
+  public void setBudgetRatio(final double budgetRatio) {
+    if(!(budgetRatio >= 0.0D)) {
+      throw new IllegalArgumentException("Budget ratio cannot be negative [" + budgetRatio + "].");
+    }
+    this.budgetRatio = budgetRatio;
+  }
+
+  public double getBudgetRatio() {
+    return budgetRatio;
+  }
+
+  /**
+   * @param budgetBurst hedges the budget starts with and can hold at most
+   */
+  public void setBudgetBurst(final int budgetBurst) {
+    if(budgetBurst < 0) {
+      throw new IllegalArgumentException("Budget burst cannot be negative [" + budgetBurst + "].");
+    }
+    this.budgetBurst = budgetBurst;
+  }
+
+  public int getBudgetBurst() {
+    return budgetBurst;
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("percentile", percentile)
+        .append("minDelayMillis", minDelayMillis)
+        .append("windowSize", windowSize)
+        .append("minSamples", minSamples)
+        .append("budgetRatio", budgetRatio)
+        .append("budgetBurst", budgetBurst)
+        .toString();
+  }
+}
@@ -0,0 +1,91 @@
+/**
+ * File: HedgingStats.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * Point in time snapshot of the hedging counters kept by a {@link Client}.
+ */
+public class HedgingStats {
+  private final long hedgesSent;
+  private final long hedgesWon;
+  private final long budgetDeniedHedges;
+  private final long hedgeDelayMillis;
+
+  public HedgingStats(final long hedgesSent, final long hedgesWon, final long budgetDeniedHedges, final long hedgeDelayMillis) {
+    this.hedgesSent = hedgesSent;
+    this.hedgesWon = hedgesWon;
+    this.budgetDeniedHedges = budgetDeniedHedges;
+    this.hedgeDelayMillis = hedgeDelayMillis;
+  }
+
+  /**
+   * @return number of hedge requests sent
+   */
+  public long getHedgesSent() {
+    return hedgesSent;
+  }
+
+  /**
+   * @return number of calls answered by the hedge rather than the original
+   * request
+   */
+  public long getHedgesWon() {
+    return hedgesWon;
+  }
+
+  /**
+   * @return number of hedges not sent because the hedging budget was spent
+   */
+  public long getBudgetDeniedHedges() {
+    return budgetDeniedHedges;
+  }
+
+  /**
+   * @return current wait before a hedge is sent in milliseconds or -1 if too
+   * few latencies have been seen to hedge
+   */
+  public long getHedgeDelayMillis() {
+    return hedgeDelayMillis;
+  }
+
+  /**
+   * @return fraction of hedges sent that won (0.0 - 1.0)
+   */
+  public double getWinRatio() {
+    if(hedgesSent == 0) {
+      return 0.0D;
+    }
+    return (double) hedgesWon / hedgesSent;
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("hedgesSent", hedgesSent)
+        .append("hedgesWon", hedgesWon)
+        .append("budgetDeniedHedges", budgetDeniedHedges)
+        .append("hedgeDelayMillis", hedgeDelayMillis)
+        .toString();
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * File: LatencyWindow.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import java.util.Arrays;
+
+/**
+ * The most recent request latencies, from which a percentile is read.  The
+ * sorted copy the percentile is taken from is only rebuilt after a twentieth
+ * of the window has been replaced, so reading is cheap on every call.
+ */
+class LatencyWindow {
+  private final long[] latencies;
+  private final int minSamples;
+  // guarded by this
+  private int next;
+  private int count;
+  private int recordedSinceSort;
+  private long[] sorted = new long[0];
+
+  LatencyWindow(final int size, final int minSamples) {
+    this.latencies = new long[size];
+    this.minSamples = minSamples;
+  }
+
+  synchronized void record(final long latencyNanos) {
+    latencies[next] = latencyNanos;
+    next = (next + 1) % latencies.length;
+    if(count < latencies.length) {
+      count++;
+    }
+    recordedSinceSort++;
+  }
+
+  /**
+   * @param percentile percentile to read (greater than 0, at most 100)
+   *
+   * @return latency in nanoseconds at the percentile or -1 if fewer than min
+   * samples latencies have been recorded
+   */
+  synchronized long getPercentile(final double percentile) {
+    if(count < minSamples) {
+      return -1L;
+    }
+    if(sorted.length != count || recordedSinceSort >= Math.max(1, count / 20)) {
+      sorted = Arrays.copyOf(latencies, count);
+      Arrays.sort(sorted);
+      recordedSinceSort = 0;
+    }
+    final int index = (int) Math.ceil(percentile / 100.0D * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+  }
+}
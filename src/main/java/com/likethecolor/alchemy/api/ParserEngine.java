@@ -0,0 +1,76 @@
+/**
+ * File: ParserEngine.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import com.likethecolor.alchemy.api.call.AbstractCall;
+import com.likethecolor.alchemy.api.entity.AbstractAlchemyEntity;
+import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.stream.JsonSyntaxException;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * How {@link Client} turns the API output into a {@link Response}.  Both
+ * engines accept the same documents and give the same responses.
+ */
+public enum ParserEngine {
+  /**
+   * Read the output in a single forward pass with a
+   * {@link com.likethecolor.alchemy.api.parser.stream.JsonPullParser},
+   * filling the response as the members go by without building a json object
+   * first.
+   */
+  STREAMING {
+    @Override
+    <T extends AbstractAlchemyEntity> Response<T> parse(final AbstractCall<T> call, final Reader reader) throws IOException {
+      return call.parseStream(reader);
+    }
+  },
+
+  /**
+   * Build an org.json object from the whole output and populate the response
+   * from it.
+   */
+  ORG_JSON {
+    @Override
+    <T extends AbstractAlchemyEntity> Response<T> parse(final AbstractCall<T> call, final Reader reader) throws IOException {
+      final JSONObject jsonObject;
+      try {
+        jsonObject = new JSONObject(new JSONTokener(reader));
+      }
+      catch(JSONException e) {
+        throw new JsonSyntaxException(e.getMessage(), e);
+      }
+      return call.parseJSONObject(jsonObject);
+    }
+  };
+
+  /**
+   * @param call call whose parser populates the response
+   * @param reader API output
+   *
+   * @return response holding the header and the entities
+   *
+   * @throws JsonSyntaxException if the output is not a JSON object
+   * @throws IOException if the output cannot be read
+   */
+  abstract <T extends AbstractAlchemyEntity> Response<T> parse(final AbstractCall<T> call, final Reader reader) throws IOException;
+}
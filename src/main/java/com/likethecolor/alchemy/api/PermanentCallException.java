@@ -0,0 +1,41 @@
+/**
+ * File: PermanentCallException.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+/**
+ * Failure that will happen again if the call is repeated unchanged, e.g., an
+ * invalid api key, an unsupported language or content that is too big.
+ */
+public class PermanentCallException extends CallException {
+  private static final long serialVersionUID = 1L;
+
+  public PermanentCallException(final String message) {
+    super(message);
+  }
+
+  public PermanentCallException(final String message, final Throwable cause) {
+    super(message, cause);
+  }
+
+  public PermanentCallException(final String message, final String statusInfo, final int httpStatusCode) {
+    super(message, statusInfo, httpStatusCode);
+  }
+
+  public boolean isTransient() {
+    return false;
+  }
+}
@@ -0,0 +1,33 @@
+/**
+ * File: RateLimitExceededException.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+/**
+ * Thrown without calling the service when the api key's daily transaction
+ * budget is spent.  The status info is the one the service would have
+ * answered with.  The failure is transient, but the client does not retry it
+ * since the budget is only refilled the next day.
+ */
+public class RateLimitExceededException extends TransientCallException {
+  private static final long serialVersionUID = 1L;
+
+  public static final String STATUS_INFO = "daily-transaction-limit-exceeded";
+
+  public RateLimitExceededException(final String message) {
+    super(message, STATUS_INFO, 0);
+  }
+}
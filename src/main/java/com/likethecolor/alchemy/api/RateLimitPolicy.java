@@ -0,0 +1,102 @@
+/**
+ * File: RateLimitPolicy.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * Configures the {@link RateLimiter} a {@link Client} keeps for each api key:
+ * a token bucket that refills at permits per second and holds at most burst
+ * permits, and an optional number of transactions allowed per (UTC) day.
+ * Set them at or below the quotas of the key.
+ */
+public class RateLimitPolicy {
+  public static final double DEFAULT_PERMITS_PER_SECOND = 10.0D;
+  public static final int DEFAULT_BURST = 10;
+
+  private double permitsPerSecond = DEFAULT_PERMITS_PER_SECOND;
+  private int burst = DEFAULT_BURST;
+  private long dailyLimit;
+
+  public RateLimitPolicy() {
+  }
+
+  /**
+   * @param permitsPerSecond requests allowed per second
+   * @param dailyLimit transactions allowed per day or 0 for no limit
+   */
+  public RateLimitPolicy(final double permitsPerSecond, final long dailyLimit) {
+    setPermitsPerSecond(permitsPerSecond);
+    setDailyLimit(dailyLimit);
+  }
+
+  /**
+   * @param permitsPerSecond rate at which the bucket refills
+   */
+  public void setPermitsPerSecond(final double permitsPerSecond) {
+    if(!(permitsPerSecond > 0.0D)) {
+      throw new IllegalArgumentException("Permits per second must be greater than 0 [" + permitsPerSecond + "].");
+    }
+    this.permitsPerSecond = permitsPerSecond;
+  }
+
+  public double getPermitsPerSecond() {
+    return permitsPerSecond;
+  }
+
+  /**
+   * @param burst permits the bucket starts with and can hold at most
+   */
+  public void setBurst(final int burst) {
+    if(burst < 1) {
+      throw new IllegalArgumentException("Burst must be at least 1 [" + burst + "].");
+    }
+    this.burst = burst;
+  }
+
+  public int getBurst() {
+    return burst;
+  }
+
+  /**
+   * @param dailyLimit transactions allowed per UTC day or 0 for no limit
+   */
+  public void setDailyLimit(final long dailyLimit) {
+    if(dailyLimit < 0) {
+      throw new IllegalArgumentException("Daily limit cannot be negative [" + dailyLimit + "].");
+    }
+    this.dailyLimit = dailyLimit;
+  }
+
+  public long getDailyLimit() {
+    return dailyLimit;
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("permitsPerSecond", permitsPerSecond)
+        .append("burst", burst)
+        .append("dailyLimit", dailyLimit)
+        .toString();
+  }
+}
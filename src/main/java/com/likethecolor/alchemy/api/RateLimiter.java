@@ -0,0 +1,219 @@
+/**
+ * File: RateLimiter.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket limiting the requests sent with one api key, plus the key's
+ * daily transaction budget.  Every request takes one permit; when the bucket
+ * is empty the request waits until it would have refilled.
+ *
+ * @see RateLimitPolicy
+ */
+public class RateLimiter {
+  // returned by reserve
+  static final long TIMED_OUT = -1L;
+  static final long DAILY_LIMIT_REACHED = -2L;
+
+  private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1L);
+
+  private final double permitsPerNano;
+  private final double burst;
+  private final long dailyLimit;
+  // guarded by this
+  private double permits;
+  private long refilledNanos;
+  private long day;
+  private long dailyTransactions;
+  private long throttledRequests;
+  private long throttledNanos;
+  private long rejectedRequests;
+
+  public RateLimiter(final RateLimitPolicy policy) {
+    if(policy == null) {
+      throw new IllegalArgumentException("Rate limit policy cannot be null.");
+    }
+    this.permitsPerNano = policy.getPermitsPerSecond() / TimeUnit.SECONDS.toNanos(1L);
+    this.burst = policy.getBurst();
+    this.dailyLimit = policy.getDailyLimit();
+    this.permits = burst;
+    this.refilledNanos = System.nanoTime();
+    this.day = getDay();
+  }
+
+  /**
+   * Take a permit if one is available right away.
+   *
+   * @return true if a request may be sent now; false if it would have to
+   * wait or the daily budget is spent
+   */
+  public boolean tryAcquire() {
+    return reserve(0L) == 0L;
+  }
+
+  /**
+   * Take a permit, waiting at most the timeout for one.
+   *
+   * @param timeout longest time to wait
+   * @param unit unit of the timeout
+   *
+   * @return true if a request may be sent now; false if it would have had to
+   * wait longer than the timeout (no permit is taken)
+   *
+   * @throws RateLimitExceededException if the daily budget is spent
+   * @throws InterruptedIOException if interrupted while waiting
+   */
+  public boolean tryAcquire(final long timeout, final TimeUnit unit) throws RateLimitExceededException, InterruptedIOException {
+    final long waitNanos = reserve(unit.toNanos(timeout));
+    if(waitNanos == TIMED_OUT) {
+      return false;
+    }
+    await(waitNanos);
+    return true;
+  }
+
+  /**
+   * Take a permit, waiting as long as it takes for one.
+   *
+   * @throws RateLimitExceededException if the daily budget is spent
+   * @throws InterruptedIOException if interrupted while waiting
+   */
+  public void acquire() throws RateLimitExceededException, InterruptedIOException {
+    await(reserve(Long.MAX_VALUE));
+  }
+
+  /**
+   * Take a permit that becomes usable after the returned wait, unless the
+   * wait would be longer than max wait.
+   *
+   * @return nanoseconds to wait before sending, {@link #TIMED_OUT} if that
+   * would be longer than max wait or {@link #DAILY_LIMIT_REACHED}
+   */
+  synchronized long reserve(final long maxWaitNanos) {
+    final long now = System.nanoTime();
+    permits = Math.min(burst, permits + (now - refilledNanos) * permitsPerNano);
+    refilledNanos = now;
+    final long today = getDay();
+    if(today != day) {
+      day = today;
+      dailyTransactions = 0L;
+    }
+    if(dailyLimit > 0 && dailyTransactions >= dailyLimit) {
+      rejectedRequests++;
+      return DAILY_LIMIT_REACHED;
+    }
+    final long waitNanos = permits >= 1.0D ? 0L : (long) Math.ceil((1.0D - permits) / permitsPerNano);
+    if(waitNanos > maxWaitNanos) {
+      return TIMED_OUT;
+    }
+    // a permit still to be refilled is owed by the requests that come after
+    permits -= 1.0D;
+    dailyTransactions++;
+    if(waitNanos > 0) {
+      throttledRequests++;
+      throttledNanos += waitNanos;
+    }
+    return waitNanos;
+  }
+
+  /**
+   * Give back a permit taken by {@link #reserve(long)} for a request that
+   * was not sent after all, e.g. because its circuit breaker was open, so
+   * that it counts neither against the bucket nor against the daily budget.
+   */
+  synchronized void release() {
+    permits = Math.min(burst, permits + 1.0D);
+    if(dailyTransactions > 0L) {
+      dailyTransactions--;
+    }
+  }
+
+  /**
+   * @return transactions sent today (UTC)
+   */
+  public synchronized long getDailyTransactions() {
+    return dailyTransactions;
+  }
+
+  /**
+   * @return true if no more transactions are allowed today
+   */
+  public synchronized boolean isDailyLimitReached() {
+    return dailyLimit > 0 && day == getDay() && dailyTransactions >= dailyLimit;
+  }
+
+  /**
+   * @return number of requests that had to wait for a permit
+   */
+  public synchronized long getThrottledRequests() {
+    return throttledRequests;
+  }
+
+  /**
+   * @return total time requests waited for permits in milliseconds
+   */
+  public synchronized long getThrottledMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(throttledNanos);
+  }
+
+  /**
+   * @return number of requests refused because the daily budget was spent
+   */
+  public synchronized long getRejectedRequests() {
+    return rejectedRequests;
+  }
+
+  private static void await(final long waitNanos) throws RateLimitExceededException, InterruptedIOException {
+    if(waitNanos == DAILY_LIMIT_REACHED) {
+      throw new RateLimitExceededException("Error making API call: " + RateLimitExceededException.STATUS_INFO + " (client side)");
+    }
+    if(waitNanos > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+      }
+      catch(InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted waiting for a rate limit permit");
+      }
+    }
+  }
+
+  private static long getDay() {
+    return System.currentTimeMillis() / MILLIS_PER_DAY;
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    synchronized(this) {
+      return new ToStringBuilder(this, style)
+          .append("dailyTransactions", dailyTransactions)
+          .append("throttledRequests", throttledRequests)
+          .append("throttledMillis", getThrottledMillis())
+          .append("rejectedRequests", rejectedRequests)
+          .toString();
+    }
+  }
+}
@@ -0,0 +1,530 @@
+/**
+ * File: ResponseBody.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import com.likethecolor.alchemy.api.transport.TransportRequest;
+import com.likethecolor.alchemy.api.transport.TransportResponse;
+
+import java.io.CharArrayReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A response body decoded straight from the transport's byte stream into a
+ * pooled char buffer, with no intermediate String per line or for the whole
+ * body.
+ * <p/>
+ * The body is decoded with the charset named in the Content-Type header, or
+ * UTF-8 (the JSON default) when there is none.  A gzip or deflate
+ * Content-Encoding is decoded on the fly.  A Content-Length header sizes the
+ * char buffer up front and a body shorter than it is an error.
+ * <p/>
+ * The characters are only valid until {@link #release()} hands the buffers
+ * back to the pool.
+ */
+final class ResponseBody implements CharSequence {
+  private static final String HEADER_CONTENT_LENGTH = "Content-Length";
+  private static final String HEADER_CONTENT_TYPE = "Content-Type";
+  private static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+  private static final String ENCODING_GZIP = "gzip";
+  private static final String ENCODING_X_GZIP = "x-gzip";
+  private static final String ENCODING_DEFLATE = "deflate";
+  private static final String ENCODING_IDENTITY = "identity";
+  private static final String CHARSET_PARAMETER = "charset=";
+  private static final Charset DEFAULT_CHARSET = StandardCharsets.UTF_8;
+  private static final int BYTE_BUFFER_SIZE = 8192;
+  private static final int INITIAL_CHAR_BUFFER_SIZE = 8192;
+  // char buffers grown beyond this (64 KB) are dropped rather than pooled,
+  // so that the pool holds on to a few MB at most
+  private static final int MAX_POOLED_CHAR_BUFFER_SIZE = 1 << 15;
+  // a larger Content-Length is not trusted to size the char buffer
+  private static final int MAX_PRESIZED_CHAR_BUFFER_SIZE = 1 << 24;
+  private static final BlockingQueue<Buffers> POOL = new ArrayBlockingQueue<Buffers>(64);
+
+  private Buffers buffers;
+  private int length;
+  private final String contentEncoding;
+  private final long wireBytes;
+  private final long decodedBytes;
+
+  private ResponseBody(final Buffers buffers, final int length, final String contentEncoding, final long wireBytes,
+                       final long decodedBytes) {
+    this.buffers = buffers;
+    this.length = length;
+    this.contentEncoding = contentEncoding;
+    this.wireBytes = wireBytes;
+    this.decodedBytes = decodedBytes;
+  }
+
+  /**
+   * Read and decode the whole body of the response.  The response is not
+   * closed.
+   *
+   * @param response response to read
+   *
+   * @return decoded body
+   *
+   * @throws IOException if the body cannot be read or is shorter than its
+   * Content-Length
+   */
+  static ResponseBody read(final TransportResponse response) throws IOException {
+    return read(response, null);
+  }
+
+  /**
+   * Read and decode the whole body of the response, giving up once the
+   * request's deadline has passed.  The response is not closed.
+   *
+   * @param response response to read
+   * @param request request the response is for or null for no deadline
+   *
+   * @return decoded body
+   *
+   * @throws java.net.SocketTimeoutException if the request's deadline passes
+   * before the body has been read
+   * @throws IOException if the body cannot be read or is shorter than its
+   * Content-Length
+   */
+  static ResponseBody read(final TransportResponse response, final TransportRequest request) throws IOException {
+    final Charset charset = getCharset(response.getHeader(HEADER_CONTENT_TYPE));
+    final long contentLength = getContentLength(response.getHeader(HEADER_CONTENT_LENGTH));
+    final String contentEncoding = getContentEncoding(response.getHeader(HEADER_CONTENT_ENCODING));
+    Buffers buffers = POOL.poll();
+    if(buffers == null) {
+      buffers = new Buffers();
+    }
+    final CountingInputStream wire = new CountingInputStream(response.getInputStream());
+    InputStream inputStream = wire;
+    try {
+      inputStream = getDecodingInputStream(wire, contentEncoding);
+      // a charset never decodes more chars than there are bytes
+      if(inputStream == wire && contentLength > buffers.chars.length && contentLength <= MAX_PRESIZED_CHAR_BUFFER_SIZE) {
+        buffers.chars = new char[(int) contentLength];
+      }
+      final CharsetDecoder decoder = buffers.getDecoder(charset);
+      final ByteBuffer in = ByteBuffer.wrap(buffers.bytes);
+      CharBuffer out = CharBuffer.wrap(buffers.chars);
+      long bytesRead = 0L;
+      int read;
+      while((read = inputStream.read(buffers.bytes, in.position(), in.remaining())) != -1) {
+        if(request != null) {
+          request.checkDeadline();
+        }
+        bytesRead += read;
+        in.position(in.position() + read);
+        in.flip();
+        out = decode(decoder, in, out, false, buffers);
+        in.compact();
+      }
+      in.flip();
+      out = decode(decoder, in, out, true, buffers);
+      while(decoder.flush(out).isOverflow()) {
+        out = grow(out, buffers);
+      }
+      if(inputStream != wire) {
+        // consume anything the decoder left behind (e.g. padding after the
+        // gzip trailer) so the connection can be reused
+        while(wire.read(buffers.bytes) != -1) {
+          continue;
+        }
+      }
+      if(contentLength >= 0 && wire.count < contentLength) {
+        throw new IOException("Premature end of response body: received " + wire.count + " of " + contentLength + " bytes");
+      }
+      return new ResponseBody(buffers, out.position(), contentEncoding, wire.count, bytesRead);
+    }
+    catch(IOException e) {
+      recycle(buffers);
+      throw e;
+    }
+    catch(RuntimeException e) {
+      recycle(buffers);
+      throw e;
+    }
+    finally {
+      if(inputStream != wire) {
+        // releases the native inflater
+        inputStream.close();
+      }
+    }
+  }
+
+  /**
+   * Open a reader that decodes the body as it arrives from the transport
+   * instead of reading it all first.  Each read gives up once the request's
+   * deadline has passed.  Closing the reader closes the body's stream but not
+   * the response.
+   *
+   * @param response response to read
+   * @param request request the response is for or null for no deadline
+   *
+   * @return reader over the decoded body
+   *
+   * @throws IOException if the body's content coding is not supported
+   */
+  static BodyReader openReader(final TransportResponse response, final TransportRequest request) throws IOException {
+    final Charset charset = getCharset(response.getHeader(HEADER_CONTENT_TYPE));
+    final long contentLength = getContentLength(response.getHeader(HEADER_CONTENT_LENGTH));
+    final String contentEncoding = getContentEncoding(response.getHeader(HEADER_CONTENT_ENCODING));
+    final CountingInputStream wire = new CountingInputStream(response.getInputStream());
+    final CountingInputStream decoded = new CountingInputStream(getDecodingInputStream(wire, contentEncoding));
+    return new BodyReader(wire, decoded, new InputStreamReader(decoded, charset), request, contentLength, contentEncoding);
+  }
+
+  /**
+   * @return content coding the body was sent with (identity if none)
+   */
+  String getContentEncoding() {
+    return contentEncoding;
+  }
+
+  /**
+   * @return number of body bytes received from the transport
+   */
+  long getWireBytes() {
+    return wireBytes;
+  }
+
+  /**
+   * @return number of body bytes after the content coding was removed
+   */
+  long getDecodedBytes() {
+    return decodedBytes;
+  }
+
+  /**
+   * @return reader over the decoded characters
+   */
+  Reader newReader() {
+    return new CharArrayReader(getChars(), 0, length);
+  }
+
+  /**
+   * @return true if the body is empty or only whitespace
+   */
+  boolean isBlank() {
+    final char[] chars = getChars();
+    for(int i = 0; i < length; i++) {
+      if(!Character.isWhitespace(chars[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Hand the buffers back to the pool.  The body cannot be used afterwards.
+   */
+  void release() {
+    if(buffers != null) {
+      recycle(buffers);
+      buffers = null;
+      length = 0;
+    }
+  }
+
+  public int length() {
+    return length;
+  }
+
+  public char charAt(final int index) {
+    if(index < 0 || index >= length) {
+      throw new IndexOutOfBoundsException("Index out of range [" + index + "].");
+    }
+    return getChars()[index];
+  }
+
+  public CharSequence subSequence(final int start, final int end) {
+    if(start < 0 || end > length || start > end) {
+      throw new IndexOutOfBoundsException("Range out of bounds [" + start + ", " + end + "].");
+    }
+    return CharBuffer.wrap(getChars(), start, end - start);
+  }
+
+  @Override
+  public String toString() {
+    return new String(getChars(), 0, length);
+  }
+
+  private char[] getChars() {
+    if(buffers == null) {
+      throw new IllegalStateException("Response body has been released.");
+    }
+    return buffers.chars;
+  }
+
+  /**
+   * Pick the charset out of a Content-Type header such as
+   * <code>application/json; charset=ISO-8859-1</code>.
+   *
+   * @param contentType value of the Content-Type header (may be null)
+   *
+   * @return named charset or UTF-8 if none is named or it is not supported
+   */
+  static Charset getCharset(final String contentType) {
+    if(contentType == null) {
+      return DEFAULT_CHARSET;
+    }
+    for(String parameter : contentType.split(";")) {
+      final String trimmed = parameter.trim();
+      if(trimmed.toLowerCase(Locale.ENGLISH).startsWith(CHARSET_PARAMETER)) {
+        String name = trimmed.substring(CHARSET_PARAMETER.length()).trim();
+        if(name.length() > 1 && name.startsWith("\"") && name.endsWith("\"")) {
+          name = name.substring(1, name.length() - 1);
+        }
+        try {
+          return Charset.forName(name);
+        }
+        catch(IllegalCharsetNameException e) {
+          return DEFAULT_CHARSET;
+        }
+        catch(UnsupportedCharsetException e) {
+          return DEFAULT_CHARSET;
+        }
+      }
+    }
+    return DEFAULT_CHARSET;
+  }
+
+  private static String getContentEncoding(final String contentEncoding) {
+    if(contentEncoding == null || contentEncoding.trim().length() == 0) {
+      return ENCODING_IDENTITY;
+    }
+    return contentEncoding.trim().toLowerCase(Locale.ENGLISH);
+  }
+
+  private static InputStream getDecodingInputStream(final InputStream in, final String contentEncoding) throws IOException {
+    if(ENCODING_IDENTITY.equals(contentEncoding)) {
+      return in;
+    }
+    if(ENCODING_GZIP.equals(contentEncoding) || ENCODING_X_GZIP.equals(contentEncoding)) {
+      return new GZIPInputStream(in, BYTE_BUFFER_SIZE);
+    }
+    if(ENCODING_DEFLATE.equals(contentEncoding)) {
+      // deflate should be zlib wrapped, but some servers send raw deflate
+      final PushbackInputStream pushback = new PushbackInputStream(in, 2);
+      final int first = pushback.read();
+      final int second = first == -1 ? -1 : pushback.read();
+      if(second != -1) {
+        pushback.unread(second);
+      }
+      if(first != -1) {
+        pushback.unread(first);
+      }
+      final boolean isZlib = second != -1 && (first & 0x0F) == 8 && ((first << 8) | second) % 31 == 0;
+      return new InflaterInputStream(pushback, new Inflater(!isZlib), BYTE_BUFFER_SIZE) {
+        @Override
+        public void close() throws IOException {
+          inf.end();
+          super.close();
+        }
+      };
+    }
+    throw new IOException("Unsupported Content-Encoding: " + contentEncoding);
+  }
+
+  private static long getContentLength(final String contentLength) {
+    if(contentLength == null) {
+      return -1L;
+    }
+    try {
+      return Long.parseLong(contentLength.trim());
+    }
+    catch(NumberFormatException e) {
+      return -1L;
+    }
+  }
+
+  private static CharBuffer decode(final CharsetDecoder decoder, final ByteBuffer in, CharBuffer out, final boolean endOfInput,
+                                   final Buffers buffers) throws CharacterCodingException {
+    while(true) {
+      final CoderResult result = decoder.decode(in, out, endOfInput);
+      if(result.isOverflow()) {
+        out = grow(out, buffers);
+      }
+      else if(result.isUnderflow()) {
+        return out;
+      }
+      else {
+        result.throwException();
+      }
+    }
+  }
+
+  private static CharBuffer grow(final CharBuffer out, final Buffers buffers) {
+    buffers.chars = Arrays.copyOf(buffers.chars, buffers.chars.length * 2);
+    final CharBuffer grown = CharBuffer.wrap(buffers.chars);
+    grown.position(out.position());
+    return grown;
+  }
+
+  private static void recycle(final Buffers buffers) {
+    if(buffers.chars.length <= MAX_POOLED_CHAR_BUFFER_SIZE) {
+      POOL.offer(buffers);
+    }
+  }
+
+  private static class CountingInputStream extends FilterInputStream {
+    private long count;
+
+    CountingInputStream(final InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int b = super.read();
+      if(b != -1) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      final int read = super.read(b, off, len);
+      if(read > 0) {
+        count += read;
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      final long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+  }
+
+  /**
+   * Reader over a body that is decoded as it arrives.  {@link #finish()}
+   * reads what is left of the body once the caller is done with it.
+   */
+  static final class BodyReader extends Reader {
+    private final CountingInputStream wire;
+    private final CountingInputStream decoded;
+    private final Reader reader;
+    private final TransportRequest request;
+    private final long contentLength;
+    private final String contentEncoding;
+
+    private BodyReader(final CountingInputStream wire, final CountingInputStream decoded, final Reader reader,
+                       final TransportRequest request, final long contentLength, final String contentEncoding) {
+      this.wire = wire;
+      this.decoded = decoded;
+      this.reader = reader;
+      this.request = request;
+      this.contentLength = contentLength;
+      this.contentEncoding = contentEncoding;
+    }
+
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+      if(request != null) {
+        request.checkDeadline();
+      }
+      return reader.read(cbuf, off, len);
+    }
+
+    /**
+     * Read and discard the rest of the body (e.g. whitespace after the
+     * output) so the connection can be reused.
+     *
+     * @throws IOException if the body cannot be read or is shorter than its
+     * Content-Length
+     */
+    void finish() throws IOException {
+      final char[] chars = new char[256];
+      while(read(chars, 0, chars.length) != -1) {
+        continue;
+      }
+      // consume anything the decoder left behind (e.g. padding after the
+      // gzip trailer)
+      final byte[] bytes = new byte[256];
+      while(wire.read(bytes) != -1) {
+        continue;
+      }
+      if(contentLength >= 0 && wire.count < contentLength) {
+        throw new IOException("Premature end of response body: received " + wire.count + " of " + contentLength + " bytes");
+      }
+    }
+
+    /**
+     * @return content coding the body was sent with (identity if none)
+     */
+    String getContentEncoding() {
+      return contentEncoding;
+    }
+
+    /**
+     * @return number of body bytes received from the transport so far
+     */
+    long getWireBytes() {
+      return wire.count;
+    }
+
+    /**
+     * @return number of body bytes read after the content coding was removed
+     */
+    long getDecodedBytes() {
+      return decoded.count;
+    }
+
+    @Override
+    public void close() throws IOException {
+      // releases the native inflater
+      reader.close();
+    }
+  }
+
+  private static class Buffers {
+    private final byte[] bytes = new byte[BYTE_BUFFER_SIZE];
+    private char[] chars = new char[INITIAL_CHAR_BUFFER_SIZE];
+    private CharsetDecoder decoder;
+
+    CharsetDecoder getDecoder(final Charset charset) {
+      if(decoder == null || !decoder.charset().equals(charset)) {
+        decoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      }
+      return decoder.reset();
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/**
+ * File: RetryBudget.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+/**
+ * Extra requests (retries or hedges) a client may still make: each call
+ * deposits a fraction of a request and each extra request withdraws one.
+ *
+ * @see RetryPolicy#setBudgetRatio(double)
+ * @see HedgingPolicy#setBudgetRatio(double)
+ */
+class RetryBudget {
+  private final double ratio;
+  private final double burst;
+  // guarded by this
+  private double balance;
+
+  RetryBudget(final double ratio, final int burst) {
+    this.ratio = ratio;
+    this.burst = burst;
+    this.balance = burst;
+  }
+
+  synchronized void deposit() {
+    balance = Math.min(balance + ratio, burst);
+  }
+
+  synchronized boolean tryWithdraw() {
+    if(balance < 1.0D) {
+      return false;
+    }
+    balance -= 1.0D;
+    return true;
+  }
+}
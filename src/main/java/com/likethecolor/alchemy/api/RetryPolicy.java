@@ -0,0 +1,215 @@
+/**
+ * File: RetryPolicy.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which failed calls the {@link Client} makes again and how long it
+ * waits before each attempt.
+ * <p/>
+ * Transient failures ({@link TransientCallException}, and I/O errors such as
+ * a reset connection) are retried up to max attempts in total.  The wait
+ * before retry n is initial backoff * multiplier^(n - 1), capped at max
+ * backoff, of which the jitter fraction is randomized so that clients that
+ * failed together do not retry together.  Permanent failures are never
+ * retried, and neither is the daily transaction limit.
+ * <p/>
+ * Retries are also limited by a budget so that an outage is not met with a
+ * multiple of the normal load: every call adds budget ratio of a retry to the
+ * budget and every retry takes one out.  The budget starts at, and never holds
+ * more than, budget burst retries.
+ */
+public class RetryPolicy {
+  public static final int DEFAULT_MAX_ATTEMPTS = 3;
+  public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 100L;
+  public static final long DEFAULT_MAX_BACKOFF_MILLIS = 5000L;
+  public static final double DEFAULT_MULTIPLIER = 2.0D;
+  public static final double DEFAULT_JITTER = 0.5D;
+  public static final double DEFAULT_BUDGET_RATIO = 0.2D;
+  public static final int DEFAULT_BUDGET_BURST = 10;
+
+  private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+  private long initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS;
+  private long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+  private double multiplier = DEFAULT_MULTIPLIER;
+  private double jitter = DEFAULT_JITTER;
+  private double budgetRatio = DEFAULT_BUDGET_RATIO;
+  private int budgetBurst = DEFAULT_BUDGET_BURST;
+
+  /**
+   * @return policy that makes every call exactly once
+   */
+  public static RetryPolicy none() {
+    final RetryPolicy policy = new RetryPolicy();
+    policy.setMaxAttempts(1);
+    return policy;
+  }
+
+  /**
+   * @param maxAttempts number of times a call is made, first attempt
+   * included; 1 disables retries
+   */
+  public void setMaxAttempts(final int maxAttempts) {
+    if(maxAttempts < 1) {
+      throw new IllegalArgumentException("Max attempts must be at least 1 [" + maxAttempts + "].");
+    }
+    this.maxAttempts = maxAttempts;
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * @param initialBackoffMillis wait before the first retry in milliseconds
+   */
+  public void setInitialBackoff(final long initialBackoffMillis) {
+    if(initialBackoffMillis < 0) {
+      throw new IllegalArgumentException("Initial backoff cannot be negative [" + initialBackoffMillis + "].");
+    }
+    this.initialBackoffMillis = initialBackoffMillis;
+  }
+
+  public long getInitialBackoff() {
+    return initialBackoffMillis;
+  }
+
+  /**
+   * @param maxBackoffMillis longest wait before any retry in milliseconds
+   */
+  public void setMaxBackoff(final long maxBackoffMillis) {
+    if(maxBackoffMillis < 0) {
+      throw new IllegalArgumentException("Max backoff cannot be negative [" + maxBackoffMillis + "].");
+    }
+    this.maxBackoffMillis = maxBackoffMillis;
+  }
+
+  public long getMaxBackoff() {
+    return maxBackoffMillis;
+  }
+
+  /**
+   * @param multiplier factor the backoff grows by with each retry
+   */
+  public void setMultiplier(final double multiplier) {
+    if(!(multiplier >= 1.0D)) {
+      throw new IllegalArgumentException("Multiplier must be at least 1 [" + multiplier + "].");
+    }
+    this.multiplier = multiplier;
+  }
+
+  public double getMultiplier() {
+    return multiplier;
+  }
+
+  /**
+   * @param jitter fraction of each backoff that is randomized (0.0 - 1.0); 0
+   * waits exactly the backoff, 1 waits anywhere between 0 and the backoff
+   */
+  public void setJitter(final double jitter) {
+    if(!(jitter >= 0.0D && jitter <= 1.0D)) {
+      throw new IllegalArgumentException("Jitter must be between 0 and 1 [" + jitter + "].");
+    }
+    this.jitter = jitter;
+  }
+
+  public double getJitter() {
+    return jitter;
+  }
+
+  /**
+   * @param budgetRatio retries earned by each call (0.2 allows retries to add
+   * at most 20% to the load once the burst is spent)
+   */
+  public void setBudgetRatio(final double budgetRatio) {
+    if(!(budgetRatio >= 0.0D)) {
+      throw new IllegalArgumentException("Budget ratio cannot be negative [" + budgetRatio + "].");
+    }
+    this.budgetRatio = budgetRatio;
+  }
+
+  public double getBudgetRatio() {
+    return budgetRatio;
+  }
+
+  /**
+   * @param budgetBurst retries the budget starts with and can hold at most
+   */
+  public void setBudgetBurst(final int budgetBurst) {
+    if(budgetBurst < 0) {
+      throw new IllegalArgumentException("Budget burst cannot be negative [" + budgetBurst + "].");
+    }
+    this.budgetBurst = budgetBurst;
+  }
+
+  public int getBudgetBurst() {
+    return budgetBurst;
+  }
+
+  /**
+   * Decide whether a failure may clear up if the call is made again.
+   * {@link CallException}s say so themselves, except that a call refused by
+   * an open {@link CircuitBreaker} or for the daily transaction limit is not
+   * retried; an interrupted call is not retried and any other I/O error
+   * (e.g., a refused or reset connection) is.
+   *
+   * @param e failure of an attempt
+   *
+   * @return true if the call should be made again
+   */
+  public boolean isRetryable(final IOException e) {
+    if(e instanceof CircuitBreakerOpenException) {
+      return false;
+    }
+    return CallException.isTransientFailure(e) && !CallException.isDailyLimitExceeded(e);
+  }
+
+  /**
+   * @param retry retry number, starting at 1
+   *
+   * @return wait before the retry in milliseconds, jitter applied
+   */
+  public long getBackoff(final int retry) {
+    if(retry < 1) {
+      throw new IllegalArgumentException("Retry must be at least 1 [" + retry + "].");
+    }
+    final double backoff = Math.min(initialBackoffMillis * Math.pow(multiplier, retry - 1), maxBackoffMillis);
+    return (long) (backoff * (1.0D - jitter * ThreadLocalRandom.current().nextDouble()));
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("maxAttempts", maxAttempts)
+        .append("initialBackoffMillis", initialBackoffMillis)
+        .append("maxBackoffMillis", maxBackoffMillis)
+        .append("multiplier", multiplier)
+        .append("jitter", jitter)
+        .append("budgetRatio", budgetRatio)
+        .append("budgetBurst", budgetBurst)
+        .toString();
+  }
+}
@@ -0,0 +1,91 @@
+/**
+ * File: RetryStats.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * Point in time snapshot of the retry counters kept by a {@link Client}.
+ */
+public class RetryStats {
+  private final long calls;
+  private final long retries;
+  private final long recoveredCalls;
+  private final long exhaustedCalls;
+  private final long budgetDeniedRetries;
+
+  public RetryStats(final long calls, final long retries, final long recoveredCalls,
+                    final long exhaustedCalls, final long budgetDeniedRetries) {
+    this.calls = calls;
+    this.retries = retries;
+    this.recoveredCalls = recoveredCalls;
+    this.exhaustedCalls = exhaustedCalls;
+    this.budgetDeniedRetries = budgetDeniedRetries;
+  }
+
+  /**
+   * @return number of calls started
+   */
+  public long getCalls() {
+    return calls;
+  }
+
+  /**
+   * @return number of attempts made after a call's first
+   */
+  public long getRetries() {
+    return retries;
+  }
+
+  /**
+   * @return number of calls that succeeded after at least one retry
+   */
+  public long getRecoveredCalls() {
+    return recoveredCalls;
+  }
+
+  /**
+   * @return number of calls that failed with a transient failure on their
+   * last allowed attempt
+   */
+  public long getExhaustedCalls() {
+    return exhaustedCalls;
+  }
+
+  /**
+   * @return number of retries not made because the retry budget was spent
+   */
+  public long getBudgetDeniedRetries() {
+    return budgetDeniedRetries;
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("calls", calls)
+        .append("retries", retries)
+        .append("recoveredCalls", recoveredCalls)
+        .append("exhaustedCalls", exhaustedCalls)
+        .append("budgetDeniedRetries", budgetDeniedRetries)
+        .toString();
+  }
+}
@@ -0,0 +1,97 @@
+/**
+ * File: AbstractResponseCache.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Times to live per call type and the counters shared by the response
+ * caches.
+ */
+public abstract class AbstractResponseCache implements ResponseCache {
+  public static final long DEFAULT_TIME_TO_LIVE_MILLIS = TimeUnit.HOURS.toMillis(1L);
+
+  private volatile long defaultTimeToLiveMillis = DEFAULT_TIME_TO_LIVE_MILLIS;
+  private final ConcurrentMap<String, Long> timeToLiveMillis = new ConcurrentHashMap<String, Long>();
+  protected final LongAdder hits = new LongAdder();
+  protected final LongAdder misses = new LongAdder();
+  protected final LongAdder puts = new LongAdder();
+  protected final LongAdder evictions = new LongAdder();
+  protected final LongAdder expirations = new LongAdder();
+
+  /**
+   * @param defaultTimeToLiveMillis time to live of call types without one of
+   * their own; 0 to not cache them
+   */
+  public void setDefaultTimeToLive(final long defaultTimeToLiveMillis) {
+    if(defaultTimeToLiveMillis < 0) {
+      throw new IllegalArgumentException("Default time to live cannot be negative [" + defaultTimeToLiveMillis + "].");
+    }
+    this.defaultTimeToLiveMillis = defaultTimeToLiveMillis;
+  }
+
+  public long getDefaultTimeToLive() {
+    return defaultTimeToLiveMillis;
+  }
+
+  /**
+   * Responses to urls can go stale as the page changes while a text always
+   * gets the same answer, so the call types may be given different times to
+   * live.
+   *
+   * @param callType url, text or html
+   * @param timeToLiveMillis how long responses of the call type are kept; 0
+   * to not cache them
+   */
+  public void setTimeToLive(final String callType, final long timeToLiveMillis) {
+    if(callType == null) {
+      throw new IllegalArgumentException("Call type cannot be null.");
+    }
+    if(timeToLiveMillis < 0) {
+      throw new IllegalArgumentException("Time to live cannot be negative [" + timeToLiveMillis + "].");
+    }
+    this.timeToLiveMillis.put(callType, timeToLiveMillis);
+  }
+
+  /**
+   * @param callType url, text or html
+   *
+   * @return time to live of responses of the call type in milliseconds
+   */
+  public long getTimeToLive(final String callType) {
+    final Long timeToLive = timeToLiveMillis.get(callType);
+    return timeToLive == null ? defaultTimeToLiveMillis : timeToLive;
+  }
+
+  /**
+   * @return counters of this cache with its current size and weight
+   */
+  protected CacheStats newStats(final long size, final long weight) {
+    return new CacheStats(hits.sum(), misses.sum(), puts.sum(), evictions.sum(), expirations.sum(), size, weight);
+  }
+
+  /**
+   * @return time to live of the call type's responses as a string for
+   * toString
+   */
+  protected String getTimesToLive() {
+    return "default=" + defaultTimeToLiveMillis + ", " + timeToLiveMillis;
+  }
+}
@@ -0,0 +1,141 @@
+/**
+ * File: CacheKey.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import com.likethecolor.alchemy.api.params.Params;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * Identifies the response to a call: its name (e.g., URLGetTitle), its call
+ * type (url, text or html) and its encoded parameters.  Two calls with equal
+ * keys get the same answer from the service.
+ */
+public class CacheKey {
+  private static final String CONTENT_HASH_PARAM = "&contentHash=";
+
+  private final String callName;
+  private final String callType;
+  private final String params;
+  private final int hashCode;
+
+  /**
+   * @param callName name of the call, e.g. URLGetTitle
+   * @param callType call type, e.g. url
+   * @param params encoded parameters, including the url, text or html
+   */
+  public CacheKey(final String callName, final String callType, final String params) {
+    if(callName == null) {
+      throw new IllegalArgumentException("Call name cannot be null.");
+    }
+    if(callType == null) {
+      throw new IllegalArgumentException("Call type cannot be null.");
+    }
+    if(params == null) {
+      throw new IllegalArgumentException("Params cannot be null.");
+    }
+    this.callName = callName;
+    this.callType = callType;
+    this.params = params;
+    this.hashCode = 31 * (31 * callName.hashCode() + callType.hashCode()) + params.hashCode();
+  }
+
+  /**
+   * Key a call by its encoded options and a 128 bit hash of its html and
+   * text, so that the key holds no copy of the document the call sends.
+   *
+   * @param callName name of the call, e.g. TextGetRankedNamedEntities
+   * @param callType call type, e.g. text
+   * @param params parameters of the call, once the call type has set its
+   * values on them
+   *
+   * @return key of the call
+   */
+  public static CacheKey of(final String callName, final String callType, final Params params) {
+    return of(callName, callType, params, false);
+  }
+
+  /**
+   * @param callName name of the call
+   * @param callType call type
+   * @param params parameters of the call
+   * @param isNormalized true to hash whitespace runs in the content as a
+   * single space, as {@link ContentDeduplicator} does
+   *
+   * @return key of the call
+   */
+  static CacheKey of(final String callName, final String callType, final Params params, final boolean isNormalized) {
+    if(params == null) {
+      throw new IllegalArgumentException("Params cannot be null.");
+    }
+    final String options = params.toOptionsString();
+    if(params.getHtml() == null && params.getText() == null) {
+      return new CacheKey(callName, callType, options);
+    }
+    final String contentHash = new ContentHasher(isNormalized)
+        .update(params.getHtml())
+        .separate()
+        .update(params.getText())
+        .finish();
+    return new CacheKey(callName, callType, options + CONTENT_HASH_PARAM + contentHash);
+  }
+
+  public String getCallName() {
+    return callName;
+  }
+
+  public String getCallType() {
+    return callType;
+  }
+
+  public String getParams() {
+    return params;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if(this == o) {
+      return true;
+    }
+    if(o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final CacheKey cacheKey = (CacheKey) o;
+    return hashCode == cacheKey.hashCode
+           && callName.equals(cacheKey.callName)
+           && callType.equals(cacheKey.callType)
+           && params.equals(cacheKey.params);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("callName", callName)
+        .append("callType", callType)
+        .append("params", params)
+        .toString();
+  }
+}
@@ -0,0 +1,119 @@
+/**
+ * File: CacheStats.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * Point in time snapshot of the counters kept by a {@link ResponseCache}.
+ */
+public class CacheStats {
+  private final long hits;
+  private final long misses;
+  private final long puts;
+  private final long evictions;
+  private final long expirations;
+  private final long size;
+  private final long weight;
+
+  public CacheStats(final long hits, final long misses, final long puts, final long evictions,
+                    final long expirations, final long size, final long weight) {
+    this.hits = hits;
+    this.misses = misses;
+    this.puts = puts;
+    this.evictions = evictions;
+    this.expirations = expirations;
+    this.size = size;
+    this.weight = weight;
+  }
+
+  /**
+   * @return number of lookups that found a response
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * @return number of lookups that found nothing or an expired response
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * @return hits divided by lookups (0 before the first lookup)
+   */
+  public double getHitRatio() {
+    final long lookups = hits + misses;
+    return lookups == 0 ? 0.0D : (double) hits / lookups;
+  }
+
+  /**
+   * @return number of responses stored
+   */
+  public long getPuts() {
+    return puts;
+  }
+
+  /**
+   * @return number of responses removed to stay within the maximum weight
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * @return number of responses removed because they outlived their time to
+   * live
+   */
+  public long getExpirations() {
+    return expirations;
+  }
+
+  /**
+   * @return number of responses held
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * @return bytes held
+   */
+  public long getWeight() {
+    return weight;
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("hits", hits)
+        .append("misses", misses)
+        .append("puts", puts)
+        .append("evictions", evictions)
+        .append("expirations", expirations)
+        .append("size", size)
+        .append("weight", weight)
+        .toString();
+  }
+}
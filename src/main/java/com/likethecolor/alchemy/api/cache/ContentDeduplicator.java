@@ -0,0 +1,118 @@
+/**
+ * File: ContentDeduplicator.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import com.likethecolor.alchemy.api.params.Params;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Answers text and html calls whose content has already been analyzed, even
+ * when it arrives again under another id or url.  Responses are kept in a
+ * {@link ResponseCache} under a key made of the call name, the call type, the
+ * encoded parameters other than the content and a 128 bit hash of the
+ * normalized content (whitespace runs count as a single space).  The content
+ * is hashed as it is read and never copied, so the key stays small however
+ * large the document.
+ */
+public class ContentDeduplicator {
+  private final ResponseCache responseCache;
+  private final LongAdder savedTransactions = new LongAdder();
+  private final LongAdder savedBytes = new LongAdder();
+
+  public ContentDeduplicator() {
+    this(new MemoryResponseCache());
+  }
+
+  /**
+   * @param responseCache cache that holds the responses, e.g., a
+   * {@link DiskResponseCache} to deduplicate across runs
+   */
+  public ContentDeduplicator(final ResponseCache responseCache) {
+    if(responseCache == null) {
+      throw new IllegalArgumentException("Response cache cannot be null.");
+    }
+    this.responseCache = responseCache;
+  }
+
+  public ResponseCache getResponseCache() {
+    return responseCache;
+  }
+
+  /**
+   * @param callName name of the call with its call type prefix
+   * @param callType text or html
+   * @param params parameters of the call with the content set on them
+   *
+   * @return key of the call's content and options
+   */
+  public CacheKey getKey(final String callName, final String callType, final Params params) {
+    return CacheKey.of(callName, callType, params, true);
+  }
+
+  /**
+   * @param key key of the call
+   * @param requestBytes size of the request the call would send
+   *
+   * @return json of the response to the same content or null
+   */
+  public String get(final CacheKey key, final long requestBytes) {
+    final String json = responseCache.get(key);
+    if(json != null) {
+      savedTransactions.increment();
+      savedBytes.add(requestBytes);
+    }
+    return json;
+  }
+
+  public void put(final CacheKey key, final String json) {
+    responseCache.put(key, json);
+  }
+
+  public void invalidate(final CacheKey key) {
+    responseCache.invalidate(key);
+  }
+
+  /**
+   * @return number of calls answered without a request
+   */
+  public long getSavedTransactions() {
+    return savedTransactions.sum();
+  }
+
+  /**
+   * @return request bytes not sent because the content had been analyzed
+   */
+  public long getSavedBytes() {
+    return savedBytes.sum();
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("responseCache", responseCache)
+        .append("savedTransactions", getSavedTransactions())
+        .append("savedBytes", getSavedBytes())
+        .toString();
+  }
+}
@@ -0,0 +1,180 @@
+/**
+ * File: ContentHasher.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+/**
+ * Incremental 128 bit MurmurHash3 (x64 variant) over the characters of
+ * content, by default normalized: leading and trailing whitespace is dropped
+ * and every run of whitespace counts as a single space.  The content is
+ * hashed as it is read, so it is never copied.
+ */
+final class ContentHasher {
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private long h1;
+  private long h2;
+  private long k1;
+  private long k2;
+  // characters in the current 16 byte block
+  private int blockChars;
+  private long length;
+  private boolean hasContent;
+  private boolean isSpacePending;
+  private final boolean isNormalized;
+
+  ContentHasher() {
+    this(true);
+  }
+
+  /**
+   * @param isNormalized false to hash the content exactly as it is
+   */
+  ContentHasher(final boolean isNormalized) {
+    this.isNormalized = isNormalized;
+  }
+
+  /**
+   * @param content content to add; null adds nothing
+   */
+  ContentHasher update(final CharSequence content) {
+    if(content == null) {
+      return this;
+    }
+    final int size = content.length();
+    for(int i = 0; i < size; i++) {
+      final char c = content.charAt(i);
+      if(!isNormalized) {
+        add(c);
+        continue;
+      }
+      if(Character.isWhitespace(c)) {
+        isSpacePending = hasContent;
+        continue;
+      }
+      if(isSpacePending) {
+        add(' ');
+        isSpacePending = false;
+      }
+      add(c);
+      hasContent = true;
+    }
+    return this;
+  }
+
+  /**
+   * End a field, so that content moved from one field to the next changes
+   * the hash.
+   */
+  ContentHasher separate() {
+    add('\0');
+    hasContent = false;
+    isSpacePending = false;
+    return this;
+  }
+
+  /**
+   * @return the hash as 32 hex digits
+   */
+  String finish() {
+    mixFinal();
+    final char[] hex = new char[32];
+    for(int i = 0; i < 16; i++) {
+      hex[i] = HEX[(int) (h1 >>> (60 - 4 * i)) & 0xf];
+      hex[16 + i] = HEX[(int) (h2 >>> (60 - 4 * i)) & 0xf];
+    }
+    return new String(hex);
+  }
+
+  /**
+   * @return the hash as 16 bytes
+   */
+  byte[] finishBytes() {
+    mixFinal();
+    final byte[] bytes = new byte[16];
+    for(int i = 0; i < 8; i++) {
+      bytes[i] = (byte) (h1 >>> (56 - 8 * i));
+      bytes[8 + i] = (byte) (h2 >>> (56 - 8 * i));
+    }
+    return bytes;
+  }
+
+  private void mixFinal() {
+    if(blockChars > 4) {
+      k2 *= C2;
+      k2 = Long.rotateLeft(k2, 33);
+      k2 *= C1;
+      h2 ^= k2;
+    }
+    if(blockChars > 0) {
+      k1 *= C1;
+      k1 = Long.rotateLeft(k1, 31);
+      k1 *= C2;
+      h1 ^= k1;
+    }
+    h1 ^= length;
+    h2 ^= length;
+    h1 += h2;
+    h2 += h1;
+    h1 = mix(h1);
+    h2 = mix(h2);
+    h1 += h2;
+    h2 += h1;
+  }
+
+  private void add(final char c) {
+    if(blockChars < 4) {
+      k1 |= (long) c << (16 * blockChars);
+    }
+    else {
+      k2 |= (long) c << (16 * (blockChars - 4));
+    }
+    length += 2;
+    if(++blockChars == 8) {
+      k1 *= C1;
+      k1 = Long.rotateLeft(k1, 31);
+      k1 *= C2;
+      h1 ^= k1;
+      h1 = Long.rotateLeft(h1, 27);
+      h1 += h2;
+      h1 = h1 * 5 + 0x52dce729;
+      k2 *= C2;
+      k2 = Long.rotateLeft(k2, 33);
+      k2 *= C1;
+      h2 ^= k2;
+      h2 = Long.rotateLeft(h2, 31);
+      h2 += h1;
+      h2 = h2 * 5 + 0x38495ab5;
+      k1 = 0L;
+      k2 = 0L;
+      blockChars = 0;
+    }
+  }
+
+  /**
+   * @return the MurmurHash3 finalizer of the value, which spreads every bit
+   */
+  static long mix(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+}
@@ -0,0 +1,666 @@
+/**
+ * File: DiskResponseCache.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * {@link ResponseCache} kept in a directory, so that responses outlive the
+ * process and can be shared by the JVMs on a host.
+ * <p/>
+ * Responses are appended to a log of fixed size segment files, each record
+ * carrying a CRC32 of its contents so that a torn or half written record is
+ * detected and treated as a miss.  An open addressing hash index in a memory
+ * mapped file points every key at its latest record; a lookup probes the
+ * index and copies the record out of the memory mapped segment in one read,
+ * without taking a lock.  Writers serialize on a lock file, so several
+ * processes may use the same directory (use one instance per directory in a
+ * JVM).
+ * <p/>
+ * When the log grows past max segments the oldest segment is dropped along
+ * with its responses.  {@link #compact()} rewrites the live responses of
+ * the older segments and deletes them, reclaiming the space of replaced and
+ * expired responses.  Times to live are measured in wall clock time, since
+ * entries outlive the process.
+ */
+public class DiskResponseCache extends AbstractResponseCache implements Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DiskResponseCache.class);
+  public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+  public static final int DEFAULT_MAX_SEGMENTS = 16;
+  public static final int DEFAULT_INDEX_SLOTS = 1 << 18;
+  private static final String INDEX_FILE = "index";
+  private static final String LOCK_FILE = "lock";
+  private static final int MAGIC = 0x414c4348;
+  private static final int VERSION = 1;
+  // index header
+  private static final int HEADER_SIZE = 64;
+  private static final int HEADER_MAGIC = 0;
+  private static final int HEADER_VERSION = 4;
+  private static final int HEADER_SLOTS = 8;
+  private static final int HEADER_SEGMENT_SIZE = 12;
+  private static final int HEADER_FIRST_SEGMENT = 16;
+  private static final int HEADER_ACTIVE_SEGMENT = 20;
+  private static final int HEADER_WRITE_OFFSET = 24;
+  private static final int HEADER_USED_SLOTS = 28;
+  // index slot: hash, segment, offset, length; the hash is written last
+  private static final int SLOT_SIZE = 24;
+  private static final long EMPTY = 0L;
+  private static final long TOMBSTONE = 1L;
+  private static final double MAX_LOAD = 0.75D;
+  // record: crc, key length, value length, expires, key hash, value
+  private static final int RECORD_HEADER_SIZE = 20;
+  private static final long NEVER = Long.MAX_VALUE;
+
+  private final File directory;
+  private final int maxSegments;
+  private final int slots;
+  private final int segmentSize;
+  private final FileChannel lockChannel;
+  private final MappedByteBuffer index;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final ConcurrentMap<Integer, MappedByteBuffer> segments = new ConcurrentHashMap<Integer, MappedByteBuffer>();
+  private volatile int firstMappedSegment;
+
+  /**
+   * @param directory directory holding the cache; created if need be
+   */
+  public DiskResponseCache(final File directory) throws IOException {
+    this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_SEGMENTS, DEFAULT_INDEX_SLOTS);
+  }
+
+  /**
+   * The segment size and index slots are fixed when the directory is first
+   * used; an existing cache keeps its own.
+   *
+   * @param directory directory holding the cache; created if need be
+   * @param segmentSize bytes in a segment file; larger responses are not
+   * cached
+   * @param maxSegments segment files kept before the oldest is dropped
+   * @param indexSlots responses the index can point at (it is kept at most
+   * 75% full)
+   */
+  public DiskResponseCache(final File directory, final int segmentSize, final int maxSegments, final int indexSlots) throws IOException {
+    if(directory == null) {
+      throw new IllegalArgumentException("Directory cannot be null.");
+    }
+    if(segmentSize < RECORD_HEADER_SIZE) {
+      throw new IllegalArgumentException("Segment size must be at least " + RECORD_HEADER_SIZE + " [" + segmentSize + "].");
+    }
+    if(maxSegments < 2) {
+      throw new IllegalArgumentException("Max segments must be at least 2 [" + maxSegments + "].");
+    }
+    if(indexSlots < 2 || indexSlots > (Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE) {
+      throw new IllegalArgumentException("Index slots must be at least 2 and at most "
+                                         + (Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE + " [" + indexSlots + "].");
+    }
+    if(!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Could not create cache directory: " + directory);
+    }
+    this.directory = directory;
+    this.maxSegments = maxSegments;
+    this.lockChannel = FileChannel.open(new File(directory, LOCK_FILE).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    final FileLock fileLock = lock();
+    try {
+      final RandomAccessFile indexFile = new RandomAccessFile(new File(directory, INDEX_FILE), "rw");
+      try {
+        if(indexFile.length() == 0) {
+          indexFile.setLength(HEADER_SIZE + (long) indexSlots * SLOT_SIZE);
+          this.index = indexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0L, indexFile.length());
+          index.putInt(HEADER_VERSION, VERSION);
+          index.putInt(HEADER_SLOTS, indexSlots);
+          index.putInt(HEADER_SEGMENT_SIZE, segmentSize);
+          index.putInt(HEADER_FIRST_SEGMENT, 1);
+          index.putInt(HEADER_ACTIVE_SEGMENT, 1);
+          index.putInt(HEADER_MAGIC, MAGIC);
+        }
+        else {
+          this.index = indexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0L, indexFile.length());
+          if(indexFile.length() < HEADER_SIZE || index.getInt(HEADER_MAGIC) != MAGIC || index.getInt(HEADER_VERSION) != VERSION
+             || indexFile.length() != HEADER_SIZE + (long) index.getInt(HEADER_SLOTS) * SLOT_SIZE) {
+            throw new IOException("Not a response cache index: " + new File(directory, INDEX_FILE));
+          }
+        }
+      }
+      finally {
+        // the mapping stays valid once the file is closed
+        indexFile.close();
+      }
+      this.slots = index.getInt(HEADER_SLOTS);
+      this.segmentSize = index.getInt(HEADER_SEGMENT_SIZE);
+    }
+    finally {
+      unlock(fileLock);
+    }
+  }
+
+  public File getDirectory() {
+    return directory;
+  }
+
+  public int getSegmentSize() {
+    return segmentSize;
+  }
+
+  public int getMaxSegments() {
+    return maxSegments;
+  }
+
+  public int getIndexSlots() {
+    return slots;
+  }
+
+  public String get(final CacheKey key) {
+    final byte[] keyBytes = toBytes(key);
+    final long hash = hash(keyBytes);
+    for(int i = 0, slot = getSlot(hash); i < slots; i++, slot = (slot + 1) % slots) {
+      final int position = HEADER_SIZE + slot * SLOT_SIZE;
+      final long slotHash = index.getLong(position);
+      if(slotHash == EMPTY) {
+        break;
+      }
+      if(slotHash != hash) {
+        continue;
+      }
+      final ByteBuffer record = readRecord(index.getInt(position + 8), index.getInt(position + 12), index.getInt(position + 16), keyBytes);
+      if(record != null) {
+        if(System.currentTimeMillis() >= record.getLong(12)) {
+          expirations.increment();
+          break;
+        }
+        hits.increment();
+        return new String(record.array(), RECORD_HEADER_SIZE + keyBytes.length, record.getInt(8), StandardCharsets.UTF_8);
+      }
+    }
+    misses.increment();
+    return null;
+  }
+
+  public void put(final CacheKey key, final String json) {
+    if(json == null) {
+      throw new IllegalArgumentException("Json cannot be null.");
+    }
+    final long timeToLiveMillis = getTimeToLive(key.getCallType());
+    if(timeToLiveMillis == 0) {
+      return;
+    }
+    final long now = System.currentTimeMillis();
+    final long expires = timeToLiveMillis >= NEVER - now ? NEVER : now + timeToLiveMillis;
+    final byte[] keyBytes = toBytes(key);
+    final byte[] valueBytes = json.getBytes(StandardCharsets.UTF_8);
+    final long length = (long) RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length;
+    if(length > segmentSize) {
+      return;
+    }
+    final ByteBuffer record = ByteBuffer.allocate((int) length);
+    record.putInt(0);
+    record.putInt(keyBytes.length);
+    record.putInt(valueBytes.length);
+    record.putLong(expires);
+    record.put(keyBytes);
+    record.put(valueBytes);
+    record.putInt(0, checksum(record.array()));
+    try {
+      final FileLock fileLock = lock();
+      try {
+        reserveSlot();
+        final long position = append(record.array(), true);
+        store(hash(keyBytes), keyBytes, (int) (position >>> 32), (int) position, record.capacity());
+        puts.increment();
+      }
+      finally {
+        unlock(fileLock);
+      }
+    }
+    catch(IOException e) {
+      LOGGER.warn("Could not cache response for " + key.getCallName(), e);
+    }
+  }
+
+  public void invalidate(final CacheKey key) {
+    final byte[] keyBytes = toBytes(key);
+    final long hash = hash(keyBytes);
+    try {
+      final FileLock fileLock = lock();
+      try {
+        final int position = find(hash, keyBytes);
+        if(position >= 0) {
+          index.putLong(position, TOMBSTONE);
+        }
+      }
+      finally {
+        unlock(fileLock);
+      }
+    }
+    catch(IOException e) {
+      LOGGER.warn("Could not invalidate cached response for " + key.getCallName(), e);
+    }
+  }
+
+  public void clear() {
+    try {
+      final FileLock fileLock = lock();
+      try {
+        clearSlots();
+        index.putInt(HEADER_USED_SLOTS, 0);
+        final int active = index.getInt(HEADER_ACTIVE_SEGMENT);
+        final int first = index.getInt(HEADER_FIRST_SEGMENT);
+        // segment numbers are never reused, so no process can mistake an old
+        // mapping for a new segment
+        index.putInt(HEADER_ACTIVE_SEGMENT, active + 1);
+        index.putInt(HEADER_WRITE_OFFSET, 0);
+        index.putInt(HEADER_FIRST_SEGMENT, active + 1);
+        for(int segment = first; segment <= active; segment++) {
+          deleteSegment(segment);
+        }
+      }
+      finally {
+        unlock(fileLock);
+      }
+    }
+    catch(IOException e) {
+      LOGGER.warn("Could not clear the response cache in " + directory, e);
+    }
+  }
+
+  /**
+   * Rewrite the live responses of every segment but the one being appended
+   * to, then delete those segments.  Replaced, invalidated and expired
+   * responses are dropped.
+   */
+  public void compact() throws IOException {
+    final FileLock fileLock = lock();
+    try {
+      final int first = index.getInt(HEADER_FIRST_SEGMENT);
+      final int active = index.getInt(HEADER_ACTIVE_SEGMENT);
+      final long now = System.currentTimeMillis();
+      for(int slot = 0; slot < slots; slot++) {
+        final int position = HEADER_SIZE + slot * SLOT_SIZE;
+        if(index.getLong(position) == EMPTY || index.getLong(position) == TOMBSTONE || index.getInt(position + 8) >= active) {
+          continue;
+        }
+        final ByteBuffer record = readRecord(index.getInt(position + 8), index.getInt(position + 12), index.getInt(position + 16), null);
+        if(record == null || now >= record.getLong(12)) {
+          if(record != null) {
+            expirations.increment();
+          }
+          index.putLong(position, TOMBSTONE);
+          continue;
+        }
+        final long moved = append(record.array(), false);
+        final long hash = index.getLong(position);
+        index.putLong(position, TOMBSTONE);
+        index.putInt(position + 8, (int) (moved >>> 32));
+        index.putInt(position + 12, (int) moved);
+        index.putLong(position, hash);
+      }
+      index.putInt(HEADER_FIRST_SEGMENT, active);
+      for(int segment = first; segment < active; segment++) {
+        deleteSegment(segment);
+      }
+      rebuildIndex();
+    }
+    finally {
+      unlock(fileLock);
+    }
+  }
+
+  public CacheStats getStats() {
+    long size = 0L;
+    for(int slot = 0; slot < slots; slot++) {
+      if(index.getLong(HEADER_SIZE + slot * SLOT_SIZE) > TOMBSTONE) {
+        size++;
+      }
+    }
+    final long weight = (long) (index.getInt(HEADER_ACTIVE_SEGMENT) - index.getInt(HEADER_FIRST_SEGMENT)) * segmentSize
+                        + index.getInt(HEADER_WRITE_OFFSET);
+    return newStats(size, weight);
+  }
+
+  /**
+   * Release the files.  The memory mappings are released once they are no
+   * longer referenced.
+   */
+  public void close() throws IOException {
+    lockChannel.close();
+    segments.clear();
+  }
+
+  /**
+   * @return copy of the record or null if it is missing, torn or (given a
+   * key) for another key
+   */
+  private ByteBuffer readRecord(final int segment, final int offset, final int length, final byte[] keyBytes) {
+    if(segment < index.getInt(HEADER_FIRST_SEGMENT) || length < RECORD_HEADER_SIZE || offset < 0 || offset > segmentSize - length) {
+      return null;
+    }
+    final MappedByteBuffer mapped;
+    try {
+      mapped = getSegment(segment, false);
+    }
+    catch(IOException e) {
+      LOGGER.debug("Could not map segment " + segment + " of " + directory, e);
+      return null;
+    }
+    if(mapped == null) {
+      return null;
+    }
+    final byte[] bytes = new byte[length];
+    final ByteBuffer source = mapped.duplicate();
+    source.position(offset);
+    source.get(bytes);
+    final ByteBuffer record = ByteBuffer.wrap(bytes);
+    if(record.getInt(0) != checksum(bytes)) {
+      LOGGER.debug("torn record at " + segment + ":" + offset + " of " + directory);
+      return null;
+    }
+    final int keyLength = record.getInt(4);
+    if(keyLength < 0 || record.getInt(8) < 0 || (long) RECORD_HEADER_SIZE + keyLength + record.getInt(8) != length) {
+      return null;
+    }
+    if(keyBytes != null && !Arrays.equals(bytes, RECORD_HEADER_SIZE, RECORD_HEADER_SIZE + keyLength, keyBytes, 0, keyBytes.length)) {
+      return null;
+    }
+    return record;
+  }
+
+  /**
+   * @return segment in the high and offset in the low 32 bits of where the
+   * record was written
+   */
+  // guarded by the locks
+  private long append(final byte[] record, final boolean mayEvict) throws IOException {
+    int active = index.getInt(HEADER_ACTIVE_SEGMENT);
+    int offset = index.getInt(HEADER_WRITE_OFFSET);
+    if(offset > segmentSize - record.length) {
+      active++;
+      offset = 0;
+      index.putInt(HEADER_ACTIVE_SEGMENT, active);
+      index.putInt(HEADER_WRITE_OFFSET, 0);
+      while(mayEvict && active - index.getInt(HEADER_FIRST_SEGMENT) >= maxSegments) {
+        evictOldestSegment();
+      }
+    }
+    final ByteBuffer target = getSegment(active, true).duplicate();
+    target.position(offset);
+    target.put(record);
+    index.putInt(HEADER_WRITE_OFFSET, offset + record.length);
+    return ((long) active << 32) | (offset & 0xffffffffL);
+  }
+
+  // guarded by the locks
+  private void store(final long hash, final byte[] keyBytes, final int segment, final int offset, final int length) throws IOException {
+    int target = find(hash, keyBytes);
+    if(target < 0) {
+      for(int i = 0, slot = getSlot(hash); i < slots; i++, slot = (slot + 1) % slots) {
+        final int position = HEADER_SIZE + slot * SLOT_SIZE;
+        final long slotHash = index.getLong(position);
+        if(slotHash == TOMBSTONE) {
+          target = position;
+          break;
+        }
+        if(slotHash == EMPTY) {
+          target = position;
+          index.putInt(HEADER_USED_SLOTS, index.getInt(HEADER_USED_SLOTS) + 1);
+          break;
+        }
+      }
+    }
+    // the hash is written last so that readers never follow a half written
+    // slot to the wrong record; the checksum and key catch the rest
+    index.putLong(target, TOMBSTONE);
+    index.putInt(target + 8, segment);
+    index.putInt(target + 12, offset);
+    index.putInt(target + 16, length);
+    index.putLong(target, hash);
+  }
+
+  /**
+   * Keep a free slot for the next response, dropping the oldest segments
+   * while the index is too full.
+   */
+  // guarded by the locks
+  private void reserveSlot() {
+    if(index.getInt(HEADER_USED_SLOTS) + 1 <= slots * MAX_LOAD) {
+      return;
+    }
+    rebuildIndex();
+    while(index.getInt(HEADER_USED_SLOTS) + 1 > slots * MAX_LOAD) {
+      if(index.getInt(HEADER_FIRST_SEGMENT) >= index.getInt(HEADER_ACTIVE_SEGMENT)) {
+        // every response is in the active segment; start a new one
+        index.putInt(HEADER_ACTIVE_SEGMENT, index.getInt(HEADER_ACTIVE_SEGMENT) + 1);
+        index.putInt(HEADER_WRITE_OFFSET, 0);
+      }
+      evictOldestSegment();
+      rebuildIndex();
+    }
+  }
+
+  /**
+   * @return position of the slot holding the key or -1
+   */
+  // guarded by the locks
+  private int find(final long hash, final byte[] keyBytes) {
+    for(int i = 0, slot = getSlot(hash); i < slots; i++, slot = (slot + 1) % slots) {
+      final int position = HEADER_SIZE + slot * SLOT_SIZE;
+      final long slotHash = index.getLong(position);
+      if(slotHash == EMPTY) {
+        break;
+      }
+      if(slotHash == hash && readRecord(index.getInt(position + 8), index.getInt(position + 12), index.getInt(position + 16), keyBytes) != null) {
+        return position;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Drop the oldest segment and the responses in it.
+   */
+  // guarded by the locks
+  private void evictOldestSegment() {
+    final int first = index.getInt(HEADER_FIRST_SEGMENT);
+    for(int slot = 0; slot < slots; slot++) {
+      final int position = HEADER_SIZE + slot * SLOT_SIZE;
+      if(index.getLong(position) > TOMBSTONE && index.getInt(position + 8) <= first) {
+        index.putLong(position, TOMBSTONE);
+        evictions.increment();
+      }
+    }
+    index.putInt(HEADER_FIRST_SEGMENT, first + 1);
+    deleteSegment(first);
+  }
+
+  /**
+   * Reinsert the live slots, dropping the tombstones.
+   */
+  // guarded by the locks
+  private void rebuildIndex() {
+    final List<long[]> live = new ArrayList<long[]>();
+    for(int slot = 0; slot < slots; slot++) {
+      final int position = HEADER_SIZE + slot * SLOT_SIZE;
+      final long hash = index.getLong(position);
+      if(hash > TOMBSTONE) {
+        live.add(new long[] {hash, index.getInt(position + 8), index.getInt(position + 12), index.getInt(position + 16)});
+      }
+    }
+    clearSlots();
+    for(long[] entry : live) {
+      int slot = getSlot(entry[0]);
+      while(index.getLong(HEADER_SIZE + slot * SLOT_SIZE) != EMPTY) {
+        slot = (slot + 1) % slots;
+      }
+      final int position = HEADER_SIZE + slot * SLOT_SIZE;
+      index.putInt(position + 8, (int) entry[1]);
+      index.putInt(position + 12, (int) entry[2]);
+      index.putInt(position + 16, (int) entry[3]);
+      index.putLong(position, entry[0]);
+    }
+    index.putInt(HEADER_USED_SLOTS, live.size());
+  }
+
+  // guarded by the locks
+  private void clearSlots() {
+    for(int slot = 0; slot < slots; slot++) {
+      index.putLong(HEADER_SIZE + slot * SLOT_SIZE, EMPTY);
+    }
+  }
+
+  private MappedByteBuffer getSegment(final int segment, final boolean create) throws IOException {
+    final int first = index.getInt(HEADER_FIRST_SEGMENT);
+    if(first != firstMappedSegment) {
+      // let go of the mappings of segments dropped by any process
+      firstMappedSegment = first;
+      segments.keySet().removeIf(mapped -> mapped < first);
+    }
+    MappedByteBuffer mapped = segments.get(segment);
+    if(mapped == null) {
+      final File file = getSegmentFile(segment);
+      if(!create && !file.isFile()) {
+        return null;
+      }
+      final RandomAccessFile segmentFile = new RandomAccessFile(file, "rw");
+      try {
+        if(segmentFile.length() < segmentSize) {
+          segmentFile.setLength(segmentSize);
+        }
+        mapped = segmentFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0L, segmentSize);
+      }
+      finally {
+        segmentFile.close();
+      }
+      final MappedByteBuffer existing = segments.putIfAbsent(segment, mapped);
+      if(existing != null) {
+        mapped = existing;
+      }
+    }
+    return mapped;
+  }
+
+  private void deleteSegment(final int segment) {
+    segments.remove(segment);
+    final File file = getSegmentFile(segment);
+    if(file.exists() && !file.delete()) {
+      LOGGER.warn("Could not delete cache segment " + file);
+    }
+  }
+
+  private File getSegmentFile(final int segment) {
+    return new File(directory, String.format(Locale.ENGLISH, "segment-%010d.log", segment));
+  }
+
+  private int getSlot(final long hash) {
+    return (int) Long.remainderUnsigned(hash, slots);
+  }
+
+  private FileLock lock() throws IOException {
+    lock.lock();
+    try {
+      return lockChannel.lock();
+    }
+    catch(IOException | RuntimeException e) {
+      lock.unlock();
+      throw e;
+    }
+  }
+
+  private void unlock(final FileLock fileLock) {
+    try {
+      fileLock.release();
+    }
+    catch(IOException e) {
+      LOGGER.warn("Could not release the lock on " + directory, e);
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return 128 bit hash of the key, so that a record holds no copy of a
+   * long key and a lookup hashes and compares 16 bytes
+   */
+  private static byte[] toBytes(final CacheKey key) {
+    return new ContentHasher(false)
+        .update(key.getCallName())
+        .separate()
+        .update(key.getCallType())
+        .separate()
+        .update(key.getParams())
+        .finishBytes();
+  }
+
+  /**
+   * @return 63 bit FNV-1a hash, greater than {@link #EMPTY} and
+   * {@link #TOMBSTONE} so that a live slot is one with a hash above them
+   */
+  private static long hash(final byte[] bytes) {
+    long hash = 0xcbf29ce484222325L;
+    for(byte b : bytes) {
+      hash ^= b & 0xff;
+      hash *= 0x100000001b3L;
+    }
+    hash &= Long.MAX_VALUE;
+    return hash <= TOMBSTONE ? 2L : hash;
+  }
+
+  /**
+   * @return CRC32 of the record after its checksum
+   */
+  private static int checksum(final byte[] record) {
+    final CRC32 crc = new CRC32();
+    crc.update(record, 4, record.length - 4);
+    return (int) crc.getValue();
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("directory", directory)
+        .append("segmentSize", segmentSize)
+        .append("maxSegments", maxSegments)
+        .append("indexSlots", slots)
+        .append("timeToLive", getTimesToLive())
+        .append("stats", getStats())
+        .toString();
+  }
+}
@@ -0,0 +1,318 @@
+/**
+ * File: MemoryResponseCache.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link ResponseCache} held in memory and bounded by the bytes of json it
+ * holds.
+ * <p/>
+ * The cache is split into segments by key, each guarded by its own lock, so
+ * concurrent callers only contend when their keys fall in the same segment.
+ * Each segment is a segmented LRU: a new response enters the probation
+ * queue and moves to the protected queue (at most 80% of the segment) when
+ * it is hit again; the least recently used response of the probation queue
+ * is evicted first.  Responses seen once therefore cannot flush out the ones
+ * that keep being asked for.
+ * <p/>
+ * Responses expire after the time to live of their call type (url, text or
+ * html), or the default time to live.
+ */
+public class MemoryResponseCache extends AbstractResponseCache {
+  public static final long DEFAULT_MAX_WEIGHT = 64L * 1024L * 1024L;
+  public static final int DEFAULT_SEGMENTS = 16;
+  private static final double PROTECTED_RATIO = 0.8D;
+
+  private final Segment[] segments;
+  private final long maxWeight;
+
+  public MemoryResponseCache() {
+    this(DEFAULT_MAX_WEIGHT, DEFAULT_SEGMENTS);
+  }
+
+  /**
+   * @param maxWeight bytes of json the cache holds at most
+   */
+  public MemoryResponseCache(final long maxWeight) {
+    this(maxWeight, DEFAULT_SEGMENTS);
+  }
+
+  /**
+   * @param maxWeight bytes of json the cache holds at most
+   * @param segments number of independently locked segments; each holds at
+   * most max weight / segments bytes
+   */
+  public MemoryResponseCache(final long maxWeight, final int segments) {
+    if(maxWeight < 1) {
+      throw new IllegalArgumentException("Max weight must be at least 1 [" + maxWeight + "].");
+    }
+    if(segments < 1) {
+      throw new IllegalArgumentException("Segments must be at least 1 [" + segments + "].");
+    }
+    this.maxWeight = maxWeight;
+    this.segments = new Segment[segments];
+    for(int i = 0; i < segments; i++) {
+      this.segments[i] = new Segment(Math.max(maxWeight / segments, 1L));
+    }
+  }
+
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  public String get(final CacheKey key) {
+    final String json = getSegment(key).get(key, System.nanoTime());
+    if(json == null) {
+      misses.increment();
+    }
+    else {
+      hits.increment();
+    }
+    return json;
+  }
+
+  public void put(final CacheKey key, final String json) {
+    if(json == null) {
+      throw new IllegalArgumentException("Json cannot be null.");
+    }
+    final long timeToLiveMillis = getTimeToLive(key.getCallType());
+    if(timeToLiveMillis == 0) {
+      return;
+    }
+    final long now = System.nanoTime();
+    final long timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+    // a time to live too long to add to the clock never expires
+    final long expiresNanos = timeToLiveNanos >= Long.MAX_VALUE / 2 ? 0L : now + timeToLiveNanos;
+    if(getSegment(key).put(key, new Entry(key, json, expiresNanos))) {
+      puts.increment();
+    }
+  }
+
+  public void invalidate(final CacheKey key) {
+    getSegment(key).remove(key);
+  }
+
+  public void clear() {
+    for(Segment segment : segments) {
+      segment.clear();
+    }
+  }
+
+  public CacheStats getStats() {
+    long size = 0L;
+    long weight = 0L;
+    for(Segment segment : segments) {
+      segment.lock.lock();
+      try {
+        size += segment.probation.size() + segment.protectedEntries.size();
+        weight += segment.probationWeight + segment.protectedWeight;
+      }
+      finally {
+        segment.lock.unlock();
+      }
+    }
+    return newStats(size, weight);
+  }
+
+  private Segment getSegment(final CacheKey key) {
+    final int hash = key.hashCode();
+    // spread the high bits, which the modulo would otherwise ignore
+    return segments[Math.floorMod(hash ^ (hash >>> 16), segments.length)];
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("maxWeight", maxWeight)
+        .append("segments", segments.length)
+        .append("timeToLive", getTimesToLive())
+        .append("stats", getStats())
+        .toString();
+  }
+
+  private static class Entry {
+    private final String json;
+    // 0 if it never expires
+    private final long expiresNanos;
+    private final long weight;
+
+    Entry(final CacheKey key, final String json, final long expiresNanos) {
+      this.json = json;
+      this.expiresNanos = expiresNanos;
+      // the key is held as long as the entry; chars are two bytes
+      this.weight = 2L * ((long) key.getCallName().length() + key.getCallType().length() + key.getParams().length() + json.length());
+    }
+
+    long getWeight() {
+      return weight;
+    }
+
+    boolean isExpired(final long now) {
+      return expiresNanos != 0L && now - expiresNanos >= 0;
+    }
+  }
+
+  private class Segment {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long maxWeight;
+    private final long maxProtectedWeight;
+    // guarded by lock; both in least recently used first order
+    private final LinkedHashMap<CacheKey, Entry> probation = new LinkedHashMap<CacheKey, Entry>();
+    private final LinkedHashMap<CacheKey, Entry> protectedEntries = new LinkedHashMap<CacheKey, Entry>(16, 0.75F, true);
+    private long probationWeight;
+    private long protectedWeight;
+
+    Segment(final long maxWeight) {
+      this.maxWeight = maxWeight;
+      this.maxProtectedWeight = (long) (maxWeight * PROTECTED_RATIO);
+    }
+
+    String get(final CacheKey key, final long now) {
+      lock.lock();
+      try {
+        Entry entry = protectedEntries.get(key);
+        if(entry != null) {
+          if(entry.isExpired(now)) {
+            protectedEntries.remove(key);
+            protectedWeight -= entry.getWeight();
+            expirations.increment();
+            return null;
+          }
+          return entry.json;
+        }
+        entry = probation.remove(key);
+        if(entry == null) {
+          return null;
+        }
+        probationWeight -= entry.getWeight();
+        if(entry.isExpired(now)) {
+          expirations.increment();
+          return null;
+        }
+        // hit a second time, so promote it
+        protectedEntries.put(key, entry);
+        protectedWeight += entry.getWeight();
+        demote();
+        return entry.json;
+      }
+      finally {
+        lock.unlock();
+      }
+    }
+
+    /**
+     * @return false if the entry is too heavy to cache
+     */
+    boolean put(final CacheKey key, final Entry entry) {
+      final long weight = entry.getWeight();
+      if(weight > maxWeight) {
+        return false;
+      }
+      lock.lock();
+      try {
+        removeEntry(key);
+        probation.put(key, entry);
+        probationWeight += weight;
+        evict();
+        return true;
+      }
+      finally {
+        lock.unlock();
+      }
+    }
+
+    void remove(final CacheKey key) {
+      lock.lock();
+      try {
+        removeEntry(key);
+      }
+      finally {
+        lock.unlock();
+      }
+    }
+
+    void clear() {
+      lock.lock();
+      try {
+        probation.clear();
+        protectedEntries.clear();
+        probationWeight = 0L;
+        protectedWeight = 0L;
+      }
+      finally {
+        lock.unlock();
+      }
+    }
+
+    // guarded by lock
+    private void removeEntry(final CacheKey key) {
+      Entry removed = probation.remove(key);
+      if(removed != null) {
+        probationWeight -= removed.getWeight();
+      }
+      removed = protectedEntries.remove(key);
+      if(removed != null) {
+        protectedWeight -= removed.getWeight();
+      }
+    }
+
+    /**
+     * Move the least recently used protected entries back to probation until
+     * the protected queue is within its share.
+     */
+    // guarded by lock
+    private void demote() {
+      final Iterator<Map.Entry<CacheKey, Entry>> eldest = protectedEntries.entrySet().iterator();
+      while(protectedWeight > maxProtectedWeight && eldest.hasNext()) {
+        final Map.Entry<CacheKey, Entry> demoted = eldest.next();
+        eldest.remove();
+        protectedWeight -= demoted.getValue().getWeight();
+        probation.put(demoted.getKey(), demoted.getValue());
+        probationWeight += demoted.getValue().getWeight();
+      }
+    }
+
+    // guarded by lock
+    private void evict() {
+      while(probationWeight + protectedWeight > maxWeight) {
+        final LinkedHashMap<CacheKey, Entry> victims = probation.isEmpty() ? protectedEntries : probation;
+        final Iterator<Map.Entry<CacheKey, Entry>> eldest = victims.entrySet().iterator();
+        final Entry evicted = eldest.next().getValue();
+        eldest.remove();
+        if(victims == probation) {
+          probationWeight -= evicted.getWeight();
+        }
+        else {
+          protectedWeight -= evicted.getWeight();
+        }
+        evictions.increment();
+      }
+    }
+  }
+}
@@ -0,0 +1,414 @@
+/**
+ * File: NearDuplicateIndex.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import com.likethecolor.alchemy.api.params.Params;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Answers text and html calls from the response to an earlier call whose
+ * content is nearly the same, e.g., a wire story under another byline or
+ * with another footer.
+ * <p/>
+ * Documents are compared by their 64 bit SimHash fingerprints; two are near
+ * duplicates when their fingerprints differ in at most max distance bits and
+ * the calls have the same name and options.  The fingerprint is split into
+ * max distance + 1 bands, so a near duplicate matches in at least one band
+ * exactly and a lookup only compares the fingerprints that share a band.
+ * <p/>
+ * The index lives in primitive arrays (12 bytes plus at most 8 per band for
+ * each fingerprint) that grow up to max entries, after which the oldest
+ * fingerprints are replaced.  The responses are kept in a
+ * {@link ResponseCache}.  Documents with fewer than min words are left
+ * alone, since a few words make an unstable fingerprint.
+ */
+public class NearDuplicateIndex {
+  public static final int DEFAULT_MAX_ENTRIES = 1 << 20;
+  public static final int DEFAULT_MAX_DISTANCE = 3;
+  public static final int DEFAULT_MIN_WORDS = 50;
+  private static final int MAX_MAX_DISTANCE = 15;
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final int NONE = -1;
+  private static final String FINGERPRINT_PARAM = "&simHash=";
+
+  private final ResponseCache responseCache;
+  private final int maxEntries;
+  private final int maxDistance;
+  private final int bands;
+  private volatile int minWords = DEFAULT_MIN_WORDS;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // guarded by lock; entry i has fingerprints[i] and groups[i] and follows
+  // next[band * capacity + i] in the bucket heads[band * tableSize + bucket]
+  private long[] fingerprints;
+  private int[] groups;
+  private int[] next;
+  private int[] heads;
+  private int capacity;
+  private int tableSize;
+  private int size;
+  // oldest entry once the index is full
+  private int cursor;
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder savedTransactions = new LongAdder();
+  private final LongAdder savedBytes = new LongAdder();
+  private final LongAdder replacements = new LongAdder();
+
+  public NearDuplicateIndex() {
+    this(new MemoryResponseCache());
+  }
+
+  /**
+   * @param responseCache cache that holds the responses
+   */
+  public NearDuplicateIndex(final ResponseCache responseCache) {
+    this(responseCache, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_DISTANCE);
+  }
+
+  /**
+   * @param responseCache cache that holds the responses
+   * @param maxEntries fingerprints kept at most
+   * @param maxDistance bits in which the fingerprints of near duplicates may
+   * differ; 0 finds only documents with the same words
+   */
+  public NearDuplicateIndex(final ResponseCache responseCache, final int maxEntries, final int maxDistance) {
+    if(responseCache == null) {
+      throw new IllegalArgumentException("Response cache cannot be null.");
+    }
+    if(maxEntries < 1) {
+      throw new IllegalArgumentException("Max entries must be at least 1 [" + maxEntries + "].");
+    }
+    if(maxDistance < 0 || maxDistance > MAX_MAX_DISTANCE) {
+      throw new IllegalArgumentException("Max distance must be between 0 and " + MAX_MAX_DISTANCE + " [" + maxDistance + "].");
+    }
+    if(maxEntries > Integer.MAX_VALUE / (maxDistance + 1)) {
+      throw new IllegalArgumentException("Max entries must be at most " + Integer.MAX_VALUE / (maxDistance + 1)
+                                         + " for a max distance of " + maxDistance + " [" + maxEntries + "].");
+    }
+    this.responseCache = responseCache;
+    this.maxEntries = maxEntries;
+    this.maxDistance = maxDistance;
+    this.bands = maxDistance + 1;
+    allocate(Math.min(INITIAL_CAPACITY, maxEntries));
+  }
+
+  public ResponseCache getResponseCache() {
+    return responseCache;
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public int getMaxDistance() {
+    return maxDistance;
+  }
+
+  /**
+   * @param minWords words a document needs to be looked up or indexed
+   */
+  public void setMinWords(final int minWords) {
+    if(minWords < 1) {
+      throw new IllegalArgumentException("Min words must be at least 1 [" + minWords + "].");
+    }
+    this.minWords = minWords;
+  }
+
+  public int getMinWords() {
+    return minWords;
+  }
+
+  /**
+   * @param callName name of the call with its call type prefix
+   * @param callType text or html
+   * @param params parameters of the call with the content set on them
+   * @param requestBytes size of the request the call would send
+   *
+   * @return json of the response to the nearest duplicate or null
+   */
+  public String get(final String callName, final String callType, final Params params, final long requestBytes) {
+    final SimHasher hasher = hash(params);
+    if(hasher.getWords() < minWords) {
+      return null;
+    }
+    final long fingerprint = hasher.finish();
+    final String options = params.toOptionsString();
+    lookups.increment();
+    final int entry;
+    final long nearest;
+    lock.readLock().lock();
+    try {
+      entry = findNearest(fingerprint, getGroup(callName, callType, options));
+      nearest = entry == NONE ? 0L : fingerprints[entry];
+    }
+    finally {
+      lock.readLock().unlock();
+    }
+    if(entry == NONE) {
+      return null;
+    }
+    final String json = responseCache.get(getKey(callName, callType, options, nearest));
+    if(json != null) {
+      savedTransactions.increment();
+      savedBytes.add(requestBytes);
+    }
+    return json;
+  }
+
+  /**
+   * @param callName name of the call with its call type prefix
+   * @param callType text or html
+   * @param params parameters of the call with the content set on them
+   * @param json response to the call
+   */
+  public void put(final String callName, final String callType, final Params params, final String json) {
+    final SimHasher hasher = hash(params);
+    if(hasher.getWords() < minWords) {
+      return;
+    }
+    final long fingerprint = hasher.finish();
+    final String options = params.toOptionsString();
+    final int group = getGroup(callName, callType, options);
+    lock.writeLock().lock();
+    try {
+      if(!contains(fingerprint, group)) {
+        add(fingerprint, group);
+      }
+    }
+    finally {
+      lock.writeLock().unlock();
+    }
+    responseCache.put(getKey(callName, callType, options, fingerprint), json);
+  }
+
+  /**
+   * Forget the fingerprints; the responses stay in the cache.
+   */
+  public void clear() {
+    lock.writeLock().lock();
+    try {
+      allocate(Math.min(INITIAL_CAPACITY, maxEntries));
+    }
+    finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return number of fingerprints in the index
+   */
+  public int getSize() {
+    lock.readLock().lock();
+    try {
+      return size;
+    }
+    finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return number of documents long enough to be looked up
+   */
+  public long getLookups() {
+    return lookups.sum();
+  }
+
+  /**
+   * @return number of calls answered without a request
+   */
+  public long getSavedTransactions() {
+    return savedTransactions.sum();
+  }
+
+  /**
+   * @return request bytes not sent because a near duplicate had been
+   * analyzed
+   */
+  public long getSavedBytes() {
+    return savedBytes.sum();
+  }
+
+  /**
+   * @return number of fingerprints replaced to stay within max entries
+   */
+  public long getReplacements() {
+    return replacements.sum();
+  }
+
+  /**
+   * @return number of bits in which the fingerprints differ
+   */
+  public static int getDistance(final long fingerprint, final long otherFingerprint) {
+    return Long.bitCount(fingerprint ^ otherFingerprint);
+  }
+
+  static long getFingerprint(final CharSequence content, final boolean isHtml) {
+    return new SimHasher(isHtml).update(content).finish();
+  }
+
+  private static SimHasher hash(final Params params) {
+    final boolean isHtml = !StringUtils.isBlank(params.getHtml());
+    return new SimHasher(isHtml).update(isHtml ? params.getHtml() : params.getText());
+  }
+
+  private static CacheKey getKey(final String callName, final String callType, final String options, final long fingerprint) {
+    return new CacheKey(callName, callType, options + FINGERPRINT_PARAM + Long.toHexString(fingerprint));
+  }
+
+  /**
+   * @return hash of the call name, call type and options, which near
+   * duplicates share
+   */
+  private static int getGroup(final String callName, final String callType, final String options) {
+    return (int) ContentHasher.mix(((long) callName.hashCode() << 32 | (callType.hashCode() & 0xffffffffL)) ^ options.hashCode());
+  }
+
+  // guarded by the read lock
+  private int findNearest(final long fingerprint, final int group) {
+    int nearest = NONE;
+    int nearestDistance = maxDistance + 1;
+    for(int band = 0; band < bands && nearestDistance > 0; band++) {
+      for(int entry = heads[band * tableSize + getBucket(fingerprint, group, band)]; entry != NONE; entry = next[band * capacity + entry]) {
+        if(groups[entry] != group) {
+          continue;
+        }
+        final int distance = getDistance(fingerprint, fingerprints[entry]);
+        if(distance < nearestDistance) {
+          nearest = entry;
+          nearestDistance = distance;
+        }
+      }
+    }
+    return nearest;
+  }
+
+  // guarded by the write lock
+  private boolean contains(final long fingerprint, final int group) {
+    for(int entry = heads[getBucket(fingerprint, group, 0)]; entry != NONE; entry = next[entry]) {
+      if(groups[entry] == group && fingerprints[entry] == fingerprint) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // guarded by the write lock
+  private void add(final long fingerprint, final int group) {
+    if(size == capacity && capacity < maxEntries) {
+      grow();
+    }
+    final int entry;
+    if(size < capacity) {
+      entry = size++;
+    }
+    else {
+      entry = cursor;
+      cursor = (cursor + 1) % capacity;
+      unlink(entry);
+      replacements.increment();
+    }
+    fingerprints[entry] = fingerprint;
+    groups[entry] = group;
+    link(entry);
+  }
+
+  // guarded by the write lock
+  private void link(final int entry) {
+    for(int band = 0; band < bands; band++) {
+      final int head = band * tableSize + getBucket(fingerprints[entry], groups[entry], band);
+      next[band * capacity + entry] = heads[head];
+      heads[head] = entry;
+    }
+  }
+
+  // guarded by the write lock
+  private void unlink(final int entry) {
+    for(int band = 0; band < bands; band++) {
+      final int head = band * tableSize + getBucket(fingerprints[entry], groups[entry], band);
+      if(heads[head] == entry) {
+        heads[head] = next[band * capacity + entry];
+        continue;
+      }
+      for(int previous = heads[head]; previous != NONE; previous = next[band * capacity + previous]) {
+        if(next[band * capacity + previous] == entry) {
+          next[band * capacity + previous] = next[band * capacity + entry];
+          break;
+        }
+      }
+    }
+  }
+
+  // guarded by the write lock
+  private void grow() {
+    final long[] oldFingerprints = fingerprints;
+    final int[] oldGroups = groups;
+    final int entries = size;
+    allocate((int) Math.min((long) capacity * 2, maxEntries));
+    System.arraycopy(oldFingerprints, 0, fingerprints, 0, entries);
+    System.arraycopy(oldGroups, 0, groups, 0, entries);
+    for(int entry = 0; entry < entries; entry++) {
+      link(entry);
+    }
+    size = entries;
+  }
+
+  private void allocate(final int capacity) {
+    this.capacity = capacity;
+    // at most one bucket per entry, so chains hold two entries on average
+    this.tableSize = Integer.highestOneBit(capacity);
+    this.fingerprints = new long[capacity];
+    this.groups = new int[capacity];
+    this.next = new int[bands * capacity];
+    this.heads = new int[bands * tableSize];
+    Arrays.fill(heads, NONE);
+    this.size = 0;
+    this.cursor = 0;
+  }
+
+  /**
+   * @return bucket of the fingerprint's band in the band's table
+   */
+  private int getBucket(final long fingerprint, final int group, final int band) {
+    final int from = band * Long.SIZE / bands;
+    final int width = (band + 1) * Long.SIZE / bands - from;
+    final long bits = width == Long.SIZE ? fingerprint : (fingerprint >>> from) & ((1L << width) - 1L);
+    return (int) ContentHasher.mix(bits * 31L + group + ((long) band << 56)) & (tableSize - 1);
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("maxEntries", maxEntries)
+        .append("maxDistance", maxDistance)
+        .append("minWords", minWords)
+        .append("size", getSize())
+        .append("savedTransactions", getSavedTransactions())
+        .append("savedBytes", getSavedBytes())
+        .toString();
+  }
+}
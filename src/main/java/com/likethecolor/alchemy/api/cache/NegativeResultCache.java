@@ -0,0 +1,258 @@
+/**
+ * File: NegativeResultCache.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import com.likethecolor.alchemy.api.CallException;
+import com.likethecolor.alchemy.api.PermanentCallException;
+import com.likethecolor.alchemy.api.TransientCallException;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Remembers calls that failed with a status the service will keep returning
+ * for the same request (e.g., unsupported-text-language), so that repeating
+ * them fails at once instead of spending a request, and possibly a
+ * transaction, on the same answer.
+ * <p/>
+ * Only failures whose status info starts with one of the configured
+ * prefixes are kept, each for the time to live of the longest matching
+ * prefix.  The cache holds at most max entries, dropping the least recently
+ * used.  It is kept apart from the {@link ResponseCache} so that failures
+ * never take the place of responses.
+ */
+public class NegativeResultCache {
+  public static final int DEFAULT_MAX_ENTRIES = 10000;
+  public static final long DEFAULT_TIME_TO_LIVE_MILLIS = TimeUnit.DAYS.toMillis(1L);
+  // the page may be reachable again before long
+  public static final long DEFAULT_CANNOT_RETRIEVE_TIME_TO_LIVE_MILLIS = TimeUnit.MINUTES.toMillis(10L);
+
+  private final int maxEntries;
+  private final ConcurrentMap<String, Long> timeToLiveMillis = new ConcurrentHashMap<String, Long>();
+  private final Lock lock = new ReentrantLock();
+  // guarded by lock; in access order
+  private final LinkedHashMap<CacheKey, Failure> failures = new LinkedHashMap<CacheKey, Failure>(16, 0.75F, true);
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder puts = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+
+  public NegativeResultCache() {
+    this(DEFAULT_MAX_ENTRIES);
+  }
+
+  /**
+   * Keeps unsupported-text-language and content-exceeds-size-limit failures
+   * for a day and cannot-retrieve failures for ten minutes.
+   *
+   * @param maxEntries failures kept at most
+   */
+  public NegativeResultCache(final int maxEntries) {
+    if(maxEntries < 1) {
+      throw new IllegalArgumentException("Max entries must be at least 1 [" + maxEntries + "].");
+    }
+    this.maxEntries = maxEntries;
+    setTimeToLive("unsupported-text-language", DEFAULT_TIME_TO_LIVE_MILLIS);
+    setTimeToLive("content-exceeds-size-limit", DEFAULT_TIME_TO_LIVE_MILLIS);
+    setTimeToLive("cannot-retrieve", DEFAULT_CANNOT_RETRIEVE_TIME_TO_LIVE_MILLIS);
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * @param statusInfoPrefix prefix of the status info of the failures to
+   * keep, e.g., unsupported-text-language or cannot-retrieve
+   * @param timeToLiveMillis how long the failures are kept; 0 to not keep
+   * them
+   */
+  public void setTimeToLive(final String statusInfoPrefix, final long timeToLiveMillis) {
+    if(statusInfoPrefix == null || statusInfoPrefix.isEmpty()) {
+      throw new IllegalArgumentException("Status info prefix cannot be empty.");
+    }
+    if(timeToLiveMillis < 0) {
+      throw new IllegalArgumentException("Time to live cannot be negative [" + timeToLiveMillis + "].");
+    }
+    if(timeToLiveMillis == 0) {
+      this.timeToLiveMillis.remove(statusInfoPrefix);
+    }
+    else {
+      this.timeToLiveMillis.put(statusInfoPrefix, timeToLiveMillis);
+    }
+  }
+
+  /**
+   * @param statusInfo status info returned by the service
+   *
+   * @return time to live of failures with the status info in milliseconds or
+   * 0 if they are not kept
+   */
+  public long getTimeToLive(final String statusInfo) {
+    if(statusInfo == null) {
+      return 0L;
+    }
+    String longestPrefix = null;
+    long timeToLive = 0L;
+    for(Map.Entry<String, Long> entry : timeToLiveMillis.entrySet()) {
+      if(statusInfo.startsWith(entry.getKey()) && (longestPrefix == null || entry.getKey().length() > longestPrefix.length())) {
+        longestPrefix = entry.getKey();
+        timeToLive = entry.getValue();
+      }
+    }
+    return timeToLive;
+  }
+
+  /**
+   * @param key key of the call
+   *
+   * @return new exception like the one the call last failed with or null if
+   * no failure is kept for it
+   */
+  public CallException get(final CacheKey key) {
+    final Failure failure;
+    lock.lock();
+    try {
+      failure = failures.get(key);
+      if(failure != null && System.nanoTime() - failure.expiresNanos >= 0) {
+        failures.remove(key);
+        expirations.increment();
+        misses.increment();
+        return null;
+      }
+    }
+    finally {
+      lock.unlock();
+    }
+    if(failure == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return failure.isTransient ? new TransientCallException(failure.message, failure.statusInfo, failure.httpStatusCode)
+                               : new PermanentCallException(failure.message, failure.statusInfo, failure.httpStatusCode);
+  }
+
+  /**
+   * @param key key of the call
+   * @param failure failure of the call
+   *
+   * @return true if the failure has a status info that is kept
+   */
+  public boolean put(final CacheKey key, final CallException failure) {
+    if(key == null) {
+      throw new IllegalArgumentException("Key cannot be null.");
+    }
+    if(failure == null) {
+      throw new IllegalArgumentException("Failure cannot be null.");
+    }
+    final long timeToLiveMillis = getTimeToLive(failure.getStatusInfo());
+    if(timeToLiveMillis == 0) {
+      return false;
+    }
+    final Failure entry = new Failure(failure, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis));
+    lock.lock();
+    try {
+      failures.put(key, entry);
+      final Iterator<Failure> eldest = failures.values().iterator();
+      while(failures.size() > maxEntries) {
+        eldest.next();
+        eldest.remove();
+        evictions.increment();
+      }
+    }
+    finally {
+      lock.unlock();
+    }
+    puts.increment();
+    return true;
+  }
+
+  public void invalidate(final CacheKey key) {
+    lock.lock();
+    try {
+      failures.remove(key);
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  public void clear() {
+    lock.lock();
+    try {
+      failures.clear();
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return counters of the cache; the weight is the number of failures kept
+   */
+  public CacheStats getStats() {
+    final int size;
+    lock.lock();
+    try {
+      size = failures.size();
+    }
+    finally {
+      lock.unlock();
+    }
+    return new CacheStats(hits.sum(), misses.sum(), puts.sum(), evictions.sum(), expirations.sum(), size, size);
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("maxEntries", maxEntries)
+        .append("timeToLive", timeToLiveMillis)
+        .append("stats", getStats())
+        .toString();
+  }
+
+  private static class Failure {
+    private final String message;
+    private final String statusInfo;
+    private final int httpStatusCode;
+    private final boolean isTransient;
+    private final long expiresNanos;
+
+    Failure(final CallException failure, final long expiresNanos) {
+      this.message = failure.getMessage();
+      this.statusInfo = failure.getStatusInfo();
+      this.httpStatusCode = failure.getHttpStatusCode();
+      this.isTransient = failure.isTransient();
+      this.expiresNanos = expiresNanos;
+    }
+  }
+}
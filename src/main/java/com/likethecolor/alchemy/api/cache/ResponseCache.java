@@ -0,0 +1,57 @@
+/**
+ * File: ResponseCache.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+/**
+ * Cache of successful responses put in front of
+ * {@link com.likethecolor.alchemy.api.Client#call(com.likethecolor.alchemy.api.call.AbstractCall)}.
+ * Responses are stored as the json text the service returned, so every hit
+ * is parsed into a response of its own.  Implementations must be safe for
+ * concurrent use.
+ *
+ * @see MemoryResponseCache
+ */
+public interface ResponseCache {
+  /**
+   * @param key call name, call type and encoded parameters
+   *
+   * @return json text of the cached response or null if there is none (or it
+   * has expired)
+   */
+  public String get(CacheKey key);
+
+  /**
+   * @param key call name, call type and encoded parameters
+   * @param json json text of a response whose status is OK
+   */
+  public void put(CacheKey key, String json);
+
+  /**
+   * @param key entry to remove
+   */
+  public void invalidate(CacheKey key);
+
+  /**
+   * Remove every entry.
+   */
+  public void clear();
+
+  /**
+   * @return snapshot of the cache's counters
+   */
+  public CacheStats getStats();
+}
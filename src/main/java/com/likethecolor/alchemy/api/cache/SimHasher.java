@@ -0,0 +1,118 @@
+/**
+ * File: SimHasher.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+/**
+ * Incremental 64 bit SimHash of a document.  The features are the
+ * overlapping pairs of words (runs of letters and digits, ignoring case), so
+ * documents that share most of their sentences get fingerprints that differ
+ * in few bits.  Markup between angle brackets is skipped in html.
+ */
+final class SimHasher {
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final long GOLDEN_RATIO = 0x9e3779b97f4a7c15L;
+
+  private final int[] weights = new int[Long.SIZE];
+  private final boolean isHtml;
+  private boolean isInTag;
+  private boolean isInWord;
+  private long wordHash = FNV_OFFSET;
+  private long previousWord;
+  private int words;
+
+  /**
+   * @param isHtml true to skip markup
+   */
+  SimHasher(final boolean isHtml) {
+    this.isHtml = isHtml;
+  }
+
+  /**
+   * @param content content to add; null adds nothing
+   */
+  SimHasher update(final CharSequence content) {
+    if(content == null) {
+      return this;
+    }
+    final int size = content.length();
+    for(int i = 0; i < size; i++) {
+      final char c = content.charAt(i);
+      if(isHtml) {
+        if(isInTag) {
+          isInTag = c != '>';
+          continue;
+        }
+        if(c == '<') {
+          endWord();
+          isInTag = true;
+          continue;
+        }
+      }
+      if(Character.isLetterOrDigit(c)) {
+        wordHash ^= Character.toLowerCase(c);
+        wordHash *= FNV_PRIME;
+        isInWord = true;
+      }
+      else {
+        endWord();
+      }
+    }
+    return this;
+  }
+
+  /**
+   * @return number of words seen so far
+   */
+  int getWords() {
+    return words;
+  }
+
+  long finish() {
+    endWord();
+    if(words == 1) {
+      add(previousWord);
+    }
+    long fingerprint = 0L;
+    for(int bit = 0; bit < Long.SIZE; bit++) {
+      if(weights[bit] > 0) {
+        fingerprint |= 1L << bit;
+      }
+    }
+    return fingerprint;
+  }
+
+  private void endWord() {
+    if(!isInWord) {
+      return;
+    }
+    final long word = ContentHasher.mix(wordHash);
+    if(words > 0) {
+      add(ContentHasher.mix(previousWord * GOLDEN_RATIO + word));
+    }
+    previousWord = word;
+    words++;
+    wordHash = FNV_OFFSET;
+    isInWord = false;
+  }
+
+  private void add(final long feature) {
+    for(int bit = 0; bit < Long.SIZE; bit++) {
+      weights[bit] += ((feature >>> bit) & 1L) == 0L ? -1 : 1;
+    }
+  }
+}
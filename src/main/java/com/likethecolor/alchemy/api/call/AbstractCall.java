@@ -21,10 +21,21 @@ import com.likethecolor.alchemy.api.call.type.CallType;
 import com.likethecolor.alchemy.api.entity.AbstractAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.params.Params;
+import com.likethecolor.alchemy.api.params.ResultSpec;
+import com.likethecolor.alchemy.api.parser.ParserRegistry;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.json.AbstractParser;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.Reader;
 
 public abstract class AbstractCall<T extends AbstractAlchemyEntity> {
   private CallType callType;
   private Params params;
+  private long timeoutMillis;
+  private Projection projection = Projection.ALL;
 
   public AbstractCall(final CallType callType) {
     this(callType, new Params());
@@ -37,7 +48,63 @@ public abstract class AbstractCall<T extends AbstractAlchemyEntity> {
 
   public abstract String getName();
 
-  public abstract Response<T> parse(final String jsonString);
+  public Response<T> parse(final String jsonString) {
+    return getParser().parse(jsonString, getProjection());
+  }
+
+  /**
+   * Parse a response body as it is read, without building a json object.
+   *
+   * @param reader response body
+   *
+   * @return response holding the entities found in the body
+   *
+   * @throws IOException if the body cannot be read or is not a JSON object
+   */
+  public Response<T> parseStream(final Reader reader) throws IOException {
+    return getParser().parseStream(reader, getProjection());
+  }
+
+  /**
+   * Parse a response body as it is read into the given response, which is
+   * handed each entity as soon as it has been read.
+   *
+   * @param reader response body
+   * @param response response to populate
+   *
+   * @return the response
+   *
+   * @throws IOException if the body cannot be read or is not a JSON object
+   */
+  public Response<T> parseStream(final Reader reader, final Response<T> response) throws IOException {
+    return getParser().parseStream(new JsonPullParser(reader), getProjection(), response);
+  }
+
+  /**
+   * Parse a response body that has already been turned into a json object
+   * (e.g., one whose status was checked with
+   * {@link com.likethecolor.alchemy.api.validator.OutputStatusValidator#validate(JSONObject)})
+   * so the body is not tokenized a second time.
+   *
+   * @param jsonObject parsed response body
+   *
+   * @return response holding the entities found in the json object
+   */
+  public Response<T> parseJSONObject(final JSONObject jsonObject) {
+    return getParser().parseJSONObject(jsonObject, getProjection());
+  }
+
+  /**
+   * Parsers are stateless, so the one registered for this call's name is
+   * shared by every call; a call whose parser is not registered overrides
+   * this.
+   *
+   * @return parser that turns this call's output into entities
+   */
+  @SuppressWarnings("unchecked")
+  protected AbstractParser<T> getParser() {
+    return (AbstractParser<T>) ParserRegistry.getInstance().getParser(getName());
+  }
 
   public void setCallType(final CallType callType) {
     this.callType = callType;
@@ -58,4 +125,65 @@ public abstract class AbstractCall<T extends AbstractAlchemyEntity> {
     }
     return new Params();
   }
+
+  /**
+   * Set the deadline for this call, measured from when the client starts it.
+   * The deadline covers waiting for a connection, connecting, sending the
+   * request, reading the response and parsing it.  Zero, the default, uses
+   * the client's call timeout.
+   *
+   * @param timeoutMillis deadline in milliseconds or 0 for the client's
+   * default
+   *
+   * @see com.likethecolor.alchemy.api.Client#setCallTimeout(long)
+   */
+  public AbstractCall<T> setTimeout(final long timeoutMillis) {
+    if(timeoutMillis < 0) {
+      throw new IllegalArgumentException("Timeout cannot be negative [" + timeoutMillis + "].");
+    }
+    this.timeoutMillis = timeoutMillis;
+    return this;
+  }
+
+  public long getTimeout() {
+    return timeoutMillis;
+  }
+
+  /**
+   * Set the parts of each entity to parse.  Facets left out are skipped as
+   * the output is read, so nothing is built for them.  The default,
+   * {@link Projection#ALL}, parses everything.
+   *
+   * @param projection facets of the entities to parse
+   *
+   * @see Projection#of(Projection.Facet...)
+   */
+  public AbstractCall<T> setProjection(final Projection projection) {
+    if(projection == null) {
+      throw new IllegalArgumentException("Projection cannot be null.");
+    }
+    this.projection = projection;
+    return this;
+  }
+
+  public Projection getProjection() {
+    return projection;
+  }
+
+  /**
+   * Shape the request and the parsing to what the caller needs.  The params
+   * are set to ask the service for only the needed results and facets, and
+   * the projection to parse only those facets.
+   *
+   * @param spec results and facets needed
+   *
+   * @throws IllegalArgumentException if this call's params cannot be shaped
+   */
+  public AbstractCall<T> shape(final ResultSpec spec) {
+    if(spec == null) {
+      throw new IllegalArgumentException("Result spec cannot be null.");
+    }
+    spec.shape(getParams());
+    return setProjection(spec.getProjection());
+  }
 }
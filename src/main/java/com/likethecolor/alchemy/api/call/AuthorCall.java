@@ -21,9 +21,7 @@ import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.call.type.CallType;
 import com.likethecolor.alchemy.api.call.type.CallTypeText;
 import com.likethecolor.alchemy.api.entity.AuthorAlchemyEntity;
-import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.params.Params;
-import com.likethecolor.alchemy.api.parser.json.AuthorParser;
 
 public class AuthorCall extends AbstractCall<AuthorAlchemyEntity> {
   public AuthorCall(final CallType callType) {
@@ -42,9 +40,4 @@ public class AuthorCall extends AbstractCall<AuthorAlchemyEntity> {
   public String getName() {
     return Constants.CALL_NAME_AUTHOR;
   }
-
-  @Override
-  public Response<AuthorAlchemyEntity> parse(String jsonString) {
-    return new AuthorParser().parse(jsonString);
-  }
 }
@@ -19,8 +19,6 @@ package com.likethecolor.alchemy.api.call;
 import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.call.type.CallTypeUrl;
 import com.likethecolor.alchemy.api.entity.ImageEntity;
-import com.likethecolor.alchemy.api.entity.Response;
-import com.likethecolor.alchemy.api.parser.json.ImageParser;
 
 import java.util.IllegalFormatException;
 
@@ -33,9 +31,4 @@ public class ImageCall extends AbstractCall<ImageEntity> {
   public String getName() {
     return Constants.CALL_NAME_IMAGE_RANKED_KEYWORDS;
   }
-
-  @Override
-  public Response<ImageEntity> parse(String jsonString) {
-    return new ImageParser().parse(jsonString);
-  }
 }
@@ -20,10 +20,8 @@ package com.likethecolor.alchemy.api.call;
 import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.call.type.CallType;
 import com.likethecolor.alchemy.api.entity.LanguageAlchemyEntity;
-import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.params.LanguageParams;
 import com.likethecolor.alchemy.api.params.Params;
-import com.likethecolor.alchemy.api.parser.json.LanguageParser;
 
 public class LanguageCall extends AbstractCall<LanguageAlchemyEntity> {
   public LanguageCall(final CallType callType) {
@@ -38,9 +36,4 @@ public class LanguageCall extends AbstractCall<LanguageAlchemyEntity> {
   public String getName() {
     return Constants.CALL_NAME_LANGUAGE;
   }
-
-  @Override
-  public Response<LanguageAlchemyEntity> parse(String jsonString) {
-    return new LanguageParser().parse(jsonString);
-  }
 }
@@ -20,9 +20,7 @@ package com.likethecolor.alchemy.api.call;
 import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.call.type.CallType;
 import com.likethecolor.alchemy.api.entity.MicroformatAlchemyEntity;
-import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.params.Params;
-import com.likethecolor.alchemy.api.parser.json.MicroformatParser;
 
 public class MicroformatDataCall extends AbstractCall<MicroformatAlchemyEntity> {
   public MicroformatDataCall(final CallType callType) {
@@ -37,9 +35,4 @@ public class MicroformatDataCall extends AbstractCall<MicroformatAlchemyEntity>
   public String getName() {
     return Constants.CALL_NAME_MICROFORMAT_DATA;
   }
-
-  @Override
-  public Response<MicroformatAlchemyEntity> parse(String jsonString) {
-    return new MicroformatParser().parse(jsonString);
-  }
 }
@@ -20,10 +20,8 @@ package com.likethecolor.alchemy.api.call;
 import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.call.type.CallType;
 import com.likethecolor.alchemy.api.entity.ConceptAlchemyEntity;
-import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.params.ConceptParams;
 import com.likethecolor.alchemy.api.params.Params;
-import com.likethecolor.alchemy.api.parser.json.ConceptParser;
 
 public class RankedConceptsCall extends AbstractCall<ConceptAlchemyEntity> {
   public RankedConceptsCall(final CallType callType) {
@@ -38,9 +36,4 @@ public class RankedConceptsCall extends AbstractCall<ConceptAlchemyEntity> {
   public String getName() {
     return Constants.CALL_NAME_RANKED_CONCEPTS;
   }
-
-  @Override
-  public Response<ConceptAlchemyEntity> parse(String jsonString) {
-    return new ConceptParser().parse(jsonString);
-  }
 }
@@ -20,10 +20,8 @@ package com.likethecolor.alchemy.api.call;
 import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.call.type.CallType;
 import com.likethecolor.alchemy.api.entity.KeywordAlchemyEntity;
-import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.params.KeywordParams;
 import com.likethecolor.alchemy.api.params.Params;
-import com.likethecolor.alchemy.api.parser.json.KeywordParser;
 
 public class RankedKeywordsCall extends AbstractCall<KeywordAlchemyEntity> {
   public RankedKeywordsCall(final CallType callType) {
@@ -38,9 +36,4 @@ public class RankedKeywordsCall extends AbstractCall<KeywordAlchemyEntity> {
   public String getName() {
     return Constants.CALL_NAME_RANKED_KEYWORDS;
   }
-
-  @Override
-  public Response<KeywordAlchemyEntity> parse(String jsonString) {
-    return new KeywordParser().parse(jsonString);
-  }
 }
@@ -20,10 +20,8 @@ package com.likethecolor.alchemy.api.call;
 import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.call.type.CallType;
 import com.likethecolor.alchemy.api.entity.NamedEntityAlchemyEntity;
-import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.params.NamedEntityParams;
 import com.likethecolor.alchemy.api.params.Params;
-import com.likethecolor.alchemy.api.parser.json.NamedEntityParser;
 
 public class RankedNamedEntitiesCall extends AbstractCall<NamedEntityAlchemyEntity> {
   public RankedNamedEntitiesCall(final CallType callType) {
@@ -38,9 +36,4 @@ public class RankedNamedEntitiesCall extends AbstractCall<NamedEntityAlchemyEnti
   public String getName() {
     return Constants.CALL_NAME_RANKED_NAMED_ENTITIES;
   }
-
-  @Override
-  public Response<NamedEntityAlchemyEntity> parse(String jsonString) {
-    return new NamedEntityParser().parse(jsonString);
-  }
 }
@@ -20,10 +20,8 @@ package com.likethecolor.alchemy.api.call;
 import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.call.type.CallType;
 import com.likethecolor.alchemy.api.entity.TaxonomyAlchemyEntity;
-import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.params.TaxonomyParams;
 import com.likethecolor.alchemy.api.params.Params;
-import com.likethecolor.alchemy.api.parser.json.TaxonomiesParser;
 
 public class RankedTaxonomyCall extends AbstractCall<TaxonomyAlchemyEntity> {
   public RankedTaxonomyCall(final CallType callType) {
@@ -38,9 +36,4 @@ public class RankedTaxonomyCall extends AbstractCall<TaxonomyAlchemyEntity> {
   public String getName() {
     return Constants.CALL_NAME_RANKED_TAXONOMY;
   }
-
-  @Override
-  public Response<TaxonomyAlchemyEntity> parse(String jsonString) {
-    return new TaxonomiesParser().parse(jsonString);
-  }
 }
@@ -20,9 +20,7 @@ package com.likethecolor.alchemy.api.call;
 import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.call.type.CallType;
 import com.likethecolor.alchemy.api.entity.HeaderAlchemyEntity;
-import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.params.Params;
-import com.likethecolor.alchemy.api.parser.json.TextParser;
 
 public class RawTextCall extends AbstractCall<HeaderAlchemyEntity> {
   public RawTextCall(final CallType callType) {
@@ -37,9 +35,4 @@ public class RawTextCall extends AbstractCall<HeaderAlchemyEntity> {
   public String getName() {
     return Constants.CALL_NAME_RAW_TEXT;
   }
-
-  @Override
-  public Response<HeaderAlchemyEntity> parse(String jsonString) {
-    return new TextParser().parse(jsonString);
-  }
 }
@@ -20,10 +20,8 @@ package com.likethecolor.alchemy.api.call;
 import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.call.type.CallType;
 import com.likethecolor.alchemy.api.entity.RelationAlchemyEntity;
-import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.params.Params;
 import com.likethecolor.alchemy.api.params.RelationParams;
-import com.likethecolor.alchemy.api.parser.json.RelationsParser;
 
 public class RelationsCall extends AbstractCall<RelationAlchemyEntity> {
   public RelationsCall(final CallType callType) {
@@ -38,9 +36,4 @@ public class RelationsCall extends AbstractCall<RelationAlchemyEntity> {
   public String getName() {
     return Constants.CALL_NAME_RELATIONS;
   }
-
-  @Override
-  public Response<RelationAlchemyEntity> parse(String jsonString) {
-    return new RelationsParser().parse(jsonString);
-  }
 }
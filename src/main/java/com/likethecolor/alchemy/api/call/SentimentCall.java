@@ -19,10 +19,8 @@ package com.likethecolor.alchemy.api.call;
 
 import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.call.type.CallType;
-import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.entity.SentimentAlchemyEntity;
 import com.likethecolor.alchemy.api.params.Params;
-import com.likethecolor.alchemy.api.parser.json.SentimentParser;
 
 public class SentimentCall extends AbstractCall<SentimentAlchemyEntity> {
   public SentimentCall(final CallType callType) {
@@ -37,9 +35,4 @@ public class SentimentCall extends AbstractCall<SentimentAlchemyEntity> {
   public String getName() {
     return Constants.CALL_NAME_SENTIMENT;
   }
-
-  @Override
-  public Response<SentimentAlchemyEntity> parse(String jsonString) {
-    return new SentimentParser().parse(jsonString);
-  }
 }
@@ -19,11 +19,9 @@ package com.likethecolor.alchemy.api.call;
 
 import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.call.type.CallType;
-import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.entity.SentimentAlchemyEntity;
 import com.likethecolor.alchemy.api.params.Params;
 import com.likethecolor.alchemy.api.params.TargetedSentimentParams;
-import com.likethecolor.alchemy.api.parser.json.SentimentParser;
 
 public class TargetedSentimentCall extends AbstractCall<SentimentAlchemyEntity> {
   public TargetedSentimentCall(final CallType callType) {
@@ -38,9 +36,4 @@ public class TargetedSentimentCall extends AbstractCall<SentimentAlchemyEntity>
   public String getName() {
     return Constants.CALL_NAME_TARGETED_SENTIMENT;
   }
-
-  @Override
-  public Response<SentimentAlchemyEntity> parse(String jsonString) {
-    return new SentimentParser().parse(jsonString);
-  }
 }
@@ -20,10 +20,8 @@ package com.likethecolor.alchemy.api.call;
 import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.call.type.CallType;
 import com.likethecolor.alchemy.api.entity.HeaderAlchemyEntity;
-import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.params.Params;
 import com.likethecolor.alchemy.api.params.TextParams;
-import com.likethecolor.alchemy.api.parser.json.TextParser;
 
 public class TextCall extends AbstractCall<HeaderAlchemyEntity> {
   public TextCall(final CallType callType) {
@@ -38,9 +36,4 @@ public class TextCall extends AbstractCall<HeaderAlchemyEntity> {
   public String getName() {
     return Constants.CALL_NAME_TEXT;
   }
-
-  @Override
-  public Response<HeaderAlchemyEntity> parse(String jsonString) {
-    return new TextParser().parse(jsonString);
-  }
 }
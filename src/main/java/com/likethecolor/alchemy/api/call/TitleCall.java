@@ -19,10 +19,8 @@ package com.likethecolor.alchemy.api.call;
 
 import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.call.type.CallType;
-import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.entity.TitleAlchemyEntity;
 import com.likethecolor.alchemy.api.params.Params;
-import com.likethecolor.alchemy.api.parser.json.TitleParser;
 
 public class TitleCall extends AbstractCall<TitleAlchemyEntity> {
   public TitleCall(final CallType callType) {
@@ -37,9 +35,4 @@ public class TitleCall extends AbstractCall<TitleAlchemyEntity> {
   public String getName() {
     return Constants.CALL_NAME_TITLE;
   }
-
-  @Override
-  public Response<TitleAlchemyEntity> parse(String jsonString) {
-    return new TitleParser().parse(jsonString);
-  }
 }
@@ -99,8 +99,9 @@ public class ConceptParams extends Params {
     return xPath;
   }
 
-  public String toString() {
-    return new StringBuilder(super.toString())
+  @Override
+  protected StringBuilder appendOptions(final StringBuilder builder) {
+    return super.appendOptions(builder)
         .append(createParam(Constants.PARAM_SOURCE_TEXT, sourceText))
         .append(createParam(Constants.PARAM_SHOW_SOURCE_TEXT,
             isShowSourceText() ? 1 : 0))
@@ -108,7 +109,6 @@ public class ConceptParams extends Params {
         .append(createParam(Constants.PARAM_XPATH, encode(xPath)))
         .append(createParam(Constants.PARAM_MAX_RETRIEVE, maxRetrieve))
         .append(createParam(Constants.PARAM_LINKED_DATA,
-            isLinkedData ? 1 : 0))
-        .toString();
+            isLinkedData ? 1 : 0));
   }
 }
@@ -128,8 +128,9 @@ public class KeywordParams extends Params {
     return xPath;
   }
 
-  public String toString() {
-    return new StringBuilder(super.toString())
+  @Override
+  protected StringBuilder appendOptions(final StringBuilder builder) {
+    return super.appendOptions(builder)
         .append(createParam(Constants.PARAM_BASE_URL, encode(baseUrl)))
         .append(createParam(Constants.PARAM_CONSTRAINT_QUERY, encode(constraintQuery)))
         .append(createParam(Constants.PARAM_KEYWORD_EXTRACT_MODE, encode(keywordExtractMode)))
@@ -139,7 +140,6 @@ public class KeywordParams extends Params {
         .append(createParam(Constants.PARAM_SHOW_SOURCE_TEXT,
             isShowSourceText ? 1 : 0))
         .append(createParam(Constants.PARAM_SOURCE_TEXT, sourceText))
-        .append(createParam(Constants.PARAM_XPATH, encode(xPath)))
-        .toString();
+        .append(createParam(Constants.PARAM_XPATH, encode(xPath)));
   }
 }
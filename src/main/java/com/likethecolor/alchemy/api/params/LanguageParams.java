@@ -66,11 +66,11 @@ public class LanguageParams extends Params {
     return xPath;
   }
 
-  public String toString() {
-    return new StringBuilder(super.toString())
+  @Override
+  protected StringBuilder appendOptions(final StringBuilder builder) {
+    return super.appendOptions(builder)
         .append(createParam(Constants.PARAM_CONSTRAINT_QUERY, encode(constraintQuery)))
         .append(createParam(Constants.PARAM_SOURCE_TEXT, sourceText))
-        .append(createParam(Constants.PARAM_XPATH, encode(xPath)))
-        .toString();
+        .append(createParam(Constants.PARAM_XPATH, encode(xPath)));
   }
 }
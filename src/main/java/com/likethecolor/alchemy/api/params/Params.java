@@ -76,13 +76,36 @@ public class Params {
 
   @Override
   public String toString() {
-    return new StringBuilder()
+    return appendOptions(new StringBuilder()
         .append(createParam(Constants.PARAM_HTML, encode(html)))
-        .append(createParam(Constants.PARAM_TEXT, encode(text)))
+        .append(createParam(Constants.PARAM_TEXT, encode(text))))
+        .toString();
+  }
+
+  /**
+   * Return the encoded parameters other than the html and the text.  Those
+   * can be whole documents, so a POST body writes them out itself rather
+   * than building them into a string.
+   *
+   * @return encoded parameters, each starting with an ampersand
+   */
+  public String toOptionsString() {
+    return appendOptions(new StringBuilder()).toString();
+  }
+
+  /**
+   * Append the encoded parameters other than the html and the text.
+   * Subclasses append their own parameters after calling this.
+   *
+   * @param builder builder to append to
+   *
+   * @return the builder
+   */
+  protected StringBuilder appendOptions(final StringBuilder builder) {
+    return builder
         .append(createParam(Constants.PARAM_URL, encode(url)))
         .append(createParam(Constants.PARAM_LANGUAGE, encode(language.toString().toLowerCase())))
-        .append(createParam(Constants.PARAM_OUTPUT_FORMAT, Constants.DEFAULT_OUTPUT_FORMAT))
-        .toString();
+        .append(createParam(Constants.PARAM_OUTPUT_FORMAT, Constants.DEFAULT_OUTPUT_FORMAT));
   }
 
   protected String createParam(final String paramName, final String paramValue) {
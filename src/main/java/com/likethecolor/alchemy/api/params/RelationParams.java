@@ -165,8 +165,9 @@ public class RelationParams extends Params {
     return xPath;
   }
 
-  public String toString() {
-    return new StringBuilder(super.toString())
+  @Override
+  protected StringBuilder appendOptions(final StringBuilder builder) {
+    return super.appendOptions(builder)
         .append(createParam(Constants.PARAM_BASE_URL, encode(baseUrl)))
         .append(createParam(Constants.PARAM_CONSTRAINT_QUERY, encode(constraintQuery)))
         .append(createParam(Constants.PARAM_COREFERENCE, isCoreference ? 1 : 0))
@@ -184,7 +185,6 @@ public class RelationParams extends Params {
         .append(createParam(Constants.PARAM_SHOW_SOURCE_TEXT,
             isShowSourceText ? 1 : 0))
         .append(createParam(Constants.PARAM_SOURCE_TEXT, sourceText))
-        .append(createParam(Constants.PARAM_XPATH, encode(xPath)))
-        .toString();
+        .append(createParam(Constants.PARAM_XPATH, encode(xPath)));
   }
 }
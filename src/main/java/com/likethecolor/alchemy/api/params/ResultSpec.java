@@ -0,0 +1,175 @@
+/**
+ * File: ResultSpec.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.params;
+
+import com.likethecolor.alchemy.api.Constants;
+import com.likethecolor.alchemy.api.parser.Projection;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+import java.util.EnumSet;
+
+/**
+ * What a caller needs from a ranked call: how many results and which
+ * {@link Projection.Facet}s of each.  The spec is compiled into the smallest
+ * parameters that still return those facets, so the service neither computes
+ * nor sends the rest, and into the {@link Projection} that parses them.
+ * <p/>
+ * For example, the top 10 named entities with their sentiment and no linked
+ * data:
+ * <pre>
+ * call.shape(new ResultSpec().setMaxResults(10).include(Projection.Facet.SENTIMENT));
+ * </pre>
+ * Shaping sets the result count, the show source text flag and the flag of
+ * every facet the call type supports; other parameters (language, xpath,
+ * source text mode, etc.) are left as they are.
+ */
+public class ResultSpec {
+  private int maxResults = Constants.DEFAULT_MAX_RETRIEVE;
+  private final EnumSet<Projection.Facet> facets = EnumSet.noneOf(Projection.Facet.class);
+  private boolean isShowSourceText;
+
+  /**
+   * @param maxResults number of results to retrieve (1 - 100)
+   */
+  public ResultSpec setMaxResults(final int maxResults) {
+    if(maxResults < Constants.MIN_MAX_RETRIEVE || maxResults > Constants.MAX_MAX_RETRIEVE) {
+      throw new IllegalArgumentException("Max results must be between " + Constants.MIN_MAX_RETRIEVE + " and "
+                                         + Constants.MAX_MAX_RETRIEVE + " [" + maxResults + "].");
+    }
+    this.maxResults = maxResults;
+    return this;
+  }
+
+  public int getMaxResults() {
+    return maxResults;
+  }
+
+  /**
+   * @param facets facets needed in addition to the core fields
+   */
+  public ResultSpec include(final Projection.Facet... facets) {
+    if(facets == null) {
+      throw new IllegalArgumentException("Facets cannot be null.");
+    }
+    for(Projection.Facet facet : facets) {
+      if(facet == null) {
+        throw new IllegalArgumentException("Facet cannot be null.");
+      }
+      this.facets.add(facet);
+    }
+    return this;
+  }
+
+  public boolean includes(final Projection.Facet facet) {
+    return facets.contains(facet);
+  }
+
+  /**
+   * @param isShowSourceText true if the response should carry the text the
+   * results were extracted from
+   */
+  public ResultSpec setIsShowSourceText(final boolean isShowSourceText) {
+    this.isShowSourceText = isShowSourceText;
+    return this;
+  }
+
+  public boolean isShowSourceText() {
+    return isShowSourceText;
+  }
+
+  /**
+   * @return projection that parses the needed facets
+   */
+  public Projection getProjection() {
+    return Projection.of(facets.toArray(new Projection.Facet[facets.size()]));
+  }
+
+  /**
+   * Set the result count and facet flags of the given parameters to what this
+   * spec needs.
+   *
+   * @param params parameters of a named entity, relation, keyword or concept
+   * call
+   *
+   * @throws IllegalArgumentException if the parameters are of another call
+   */
+  public void shape(final Params params) {
+    if(params instanceof NamedEntityParams) {
+      shape((NamedEntityParams) params);
+    }
+    else if(params instanceof RelationParams) {
+      shape((RelationParams) params);
+    }
+    else if(params instanceof KeywordParams) {
+      shape((KeywordParams) params);
+    }
+    else if(params instanceof ConceptParams) {
+      shape((ConceptParams) params);
+    }
+    else {
+      throw new IllegalArgumentException("Params cannot be shaped: " + (params == null ? null : params.getClass().getName()));
+    }
+  }
+
+  private void shape(final NamedEntityParams params) {
+    final boolean isDisambiguated = includes(Projection.Facet.DISAMBIGUATED);
+    params.setMaxRetrieve(maxResults);
+    params.setIsSentiment(includes(Projection.Facet.SENTIMENT));
+    params.setIsQuotations(includes(Projection.Facet.QUOTATIONS));
+    params.setIsDisambiguate(isDisambiguated);
+    params.setIsLinkedData(isDisambiguated);
+    params.setIsShowSourceText(isShowSourceText);
+  }
+
+  private void shape(final RelationParams params) {
+    final boolean isEntity = includes(Projection.Facet.ENTITY);
+    // the disambiguation is only sent inside the entity
+    final boolean isDisambiguated = isEntity && includes(Projection.Facet.DISAMBIGUATED);
+    params.setMaxRetrieve(maxResults);
+    params.setIsSentiment(includes(Projection.Facet.SENTIMENT));
+    params.setIsEntities(isEntity);
+    params.setIsDisambiguate(isDisambiguated);
+    params.setIsLinkedData(isDisambiguated);
+    params.setIsShowSourceText(isShowSourceText);
+  }
+
+  private void shape(final KeywordParams params) {
+    params.setMaxRetrieve(maxResults);
+    params.setIsShowSentiment(includes(Projection.Facet.SENTIMENT));
+    params.setIsShowSourceText(isShowSourceText);
+  }
+
+  private void shape(final ConceptParams params) {
+    params.setMaxRetrieve(maxResults);
+    params.setIsLinkedData(includes(Projection.Facet.DISAMBIGUATED));
+    params.setIsShowSourceText(isShowSourceText);
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("maxResults", maxResults)
+        .append("facets", facets)
+        .append("isShowSourceText", isShowSourceText)
+        .toString();
+  }
+}
@@ -42,11 +42,11 @@ public class TargetedSentimentParams extends Params {
     return target;
   }
 
-  public String toString() {
-    return new StringBuilder(super.toString())
+  @Override
+  protected StringBuilder appendOptions(final StringBuilder builder) {
+    return super.appendOptions(builder)
         .append(createParam(Constants.PARAM_SHOW_SOURCE_TEXT,
             isShowSourceText ? 1 : 0))
-        .append(createParam(Constants.PARAM_TARGET, encode(target)))
-        .toString();
+        .append(createParam(Constants.PARAM_TARGET, encode(target)));
   }
 }
@@ -79,12 +79,11 @@ public class TaxonomyParams extends Params {
   }
 
   @Override
-  public String toString() {
-    return new StringBuilder(super.toString())
+  protected StringBuilder appendOptions(final StringBuilder builder) {
+    return super.appendOptions(builder)
         .append(createParam(Constants.PARAM_BASE_URL, encode(baseUrl)))
         .append(createParam(Constants.PARAM_CONSTRAINT_QUERY, encode(constraintQuery)))
         .append(createParam(Constants.PARAM_SOURCE_TEXT, sourceText))
-        .append(createParam(Constants.PARAM_XPATH, encode(xPath)))
-        .toString();
+        .append(createParam(Constants.PARAM_XPATH, encode(xPath)));
   }
 }
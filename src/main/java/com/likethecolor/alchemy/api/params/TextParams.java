@@ -39,11 +39,11 @@ public class TextParams extends Params {
     return useMetaData;
   }
 
-  public String toString() {
-    return new StringBuilder(super.toString())
+  @Override
+  protected StringBuilder appendOptions(final StringBuilder builder) {
+    return super.appendOptions(builder)
         .append(createParam(Constants.PARAM_EXTRACT_LINKS,
             isExtractLinks ? 1 : 0))
-        .append(createParam(Constants.PARAM_USE_META_DATA, useMetaData ? 1 : 0))
-        .toString();
+        .append(createParam(Constants.PARAM_USE_META_DATA, useMetaData ? 1 : 0));
   }
 }
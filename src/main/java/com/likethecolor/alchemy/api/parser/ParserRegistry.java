@@ -0,0 +1,106 @@
+/**
+ * File: ParserRegistry.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.parser;
+
+import com.likethecolor.alchemy.api.Constants;
+import com.likethecolor.alchemy.api.parser.json.AbstractParser;
+import com.likethecolor.alchemy.api.parser.json.AuthorParser;
+import com.likethecolor.alchemy.api.parser.json.ConceptParser;
+import com.likethecolor.alchemy.api.parser.json.ImageParser;
+import com.likethecolor.alchemy.api.parser.json.KeywordParser;
+import com.likethecolor.alchemy.api.parser.json.LanguageParser;
+import com.likethecolor.alchemy.api.parser.json.MicroformatParser;
+import com.likethecolor.alchemy.api.parser.json.NamedEntityParser;
+import com.likethecolor.alchemy.api.parser.json.RelationsParser;
+import com.likethecolor.alchemy.api.parser.json.SentimentParser;
+import com.likethecolor.alchemy.api.parser.json.TaxonomiesParser;
+import com.likethecolor.alchemy.api.parser.json.TextParser;
+import com.likethecolor.alchemy.api.parser.json.TitleParser;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps the name of each call ({@link
+ * com.likethecolor.alchemy.api.call.AbstractCall#getName()}) to the parser
+ * for its output.  Parsers are stateless, so one instance per call name is
+ * shared by every call and every thread.
+ * <p/>
+ * The parsers for the calls in this library are registered up front; a
+ * custom call can register its own parser under its name.
+ */
+public class ParserRegistry {
+  private static final ParserRegistry INSTANCE = new ParserRegistry();
+
+  private final Map<String, AbstractParser<?>> parsers = new ConcurrentHashMap<String, AbstractParser<?>>();
+
+  private ParserRegistry() {
+    final SentimentParser sentimentParser = new SentimentParser();
+    final TextParser textParser = new TextParser();
+    register(Constants.CALL_NAME_AUTHOR, new AuthorParser());
+    register(Constants.CALL_NAME_IMAGE_RANKED_KEYWORDS, new ImageParser());
+    register(Constants.CALL_NAME_LANGUAGE, new LanguageParser());
+    register(Constants.CALL_NAME_MICROFORMAT_DATA, new MicroformatParser());
+    register(Constants.CALL_NAME_RANKED_CONCEPTS, new ConceptParser());
+    register(Constants.CALL_NAME_RANKED_KEYWORDS, new KeywordParser());
+    register(Constants.CALL_NAME_RANKED_NAMED_ENTITIES, new NamedEntityParser());
+    register(Constants.CALL_NAME_RANKED_TAXONOMY, new TaxonomiesParser());
+    register(Constants.CALL_NAME_RAW_TEXT, textParser);
+    register(Constants.CALL_NAME_RELATIONS, new RelationsParser());
+    register(Constants.CALL_NAME_SENTIMENT, sentimentParser);
+    register(Constants.CALL_NAME_TARGETED_SENTIMENT, sentimentParser);
+    register(Constants.CALL_NAME_TEXT, textParser);
+    register(Constants.CALL_NAME_TITLE, new TitleParser());
+  }
+
+  public static ParserRegistry getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Register the parser for a call, replacing any parser registered for it
+   * before.  The parser is shared, so it must not keep state between parses.
+   *
+   * @param callName name of the call
+   * @param parser parser for the call's output
+   */
+  public void register(final String callName, final AbstractParser<?> parser) {
+    if(callName == null) {
+      throw new IllegalArgumentException("Call name cannot be null.");
+    }
+    if(parser == null) {
+      throw new IllegalArgumentException("Parser cannot be null.");
+    }
+    parsers.put(callName, parser);
+  }
+
+  /**
+   * @param callName name of the call
+   *
+   * @return parser for the call's output
+   */
+  public AbstractParser<?> getParser(final String callName) {
+    if(callName == null) {
+      throw new IllegalArgumentException("Call name cannot be null.");
+    }
+    final AbstractParser<?> parser = parsers.get(callName);
+    if(parser == null) {
+      throw new IllegalArgumentException("No parser registered for call: " + callName);
+    }
+    return parser;
+  }
+}
@@ -0,0 +1,137 @@
+/**
+ * File: Projection.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.parser;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The parts of each entity a call's response is parsed into.  The core
+ * fields of an entity (e.g., the text, type, relevance and count of a named
+ * entity) are always read; each {@link Facet} left out of the projection is
+ * skipped while the output is read, so nothing is built for it and the
+ * entity keeps its default (no sentiment, no quotations, an empty
+ * disambiguation).
+ * <p/>
+ * A projection only changes what is parsed.  To stop the service sending a
+ * part at all, turn it off in the call's parameters as well, or shape the
+ * call from a {@link com.likethecolor.alchemy.api.params.ResultSpec}.
+ */
+public final class Projection {
+  /**
+   * Optional parts of an entity.
+   */
+  public enum Facet {
+    /**
+     * Sentiment of a keyword, named entity, quotation or relation subject
+     * and object.
+     */
+    SENTIMENT,
+    /**
+     * Quotations of a named entity.
+     */
+    QUOTATIONS,
+    /**
+     * Disambiguation (linked data) of a named entity, concept or relation
+     * entity.
+     */
+    DISAMBIGUATED,
+    /**
+     * Typed entity of a relation subject or object.
+     */
+    ENTITY
+  }
+
+  /**
+   * Every facet; the default.
+   */
+  public static final Projection ALL = new Projection(EnumSet.allOf(Facet.class));
+
+  /**
+   * No facets: core fields only.
+   */
+  public static final Projection CORE = new Projection(EnumSet.noneOf(Facet.class));
+
+  private final Set<Facet> facets;
+
+  private Projection(final EnumSet<Facet> facets) {
+    this.facets = Collections.unmodifiableSet(facets);
+  }
+
+  /**
+   * @param facets facets to parse in addition to the core fields
+   *
+   * @return projection of the core fields and the given facets
+   */
+  public static Projection of(final Facet... facets) {
+    if(facets == null) {
+      throw new IllegalArgumentException("Facets cannot be null.");
+    }
+    final EnumSet<Facet> set = EnumSet.noneOf(Facet.class);
+    for(Facet facet : facets) {
+      if(facet == null) {
+        throw new IllegalArgumentException("Facet cannot be null.");
+      }
+      set.add(facet);
+    }
+    return new Projection(set);
+  }
+
+  /**
+   * @param facet facet to check
+   *
+   * @return true if the facet is parsed
+   */
+  public boolean includes(final Facet facet) {
+    return facets.contains(facet);
+  }
+
+  public Set<Facet> getFacets() {
+    return facets;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if(this == o) {
+      return true;
+    }
+    if(o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    return facets.equals(((Projection) o).facets);
+  }
+
+  @Override
+  public int hashCode() {
+    return facets.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("facets", facets)
+        .toString();
+  }
+}
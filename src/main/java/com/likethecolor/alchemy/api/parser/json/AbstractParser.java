@@ -19,49 +19,260 @@ package com.likethecolor.alchemy.api.parser.json;
 
 import com.likethecolor.alchemy.api.entity.AbstractAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.entity.SentimentAlchemyEntity;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
+import com.likethecolor.alchemy.api.parser.stream.JsonToken;
+import org.apache.commons.lang.StringUtils;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.Reader;
+
 /**
  * Abstract class that parsers should inherit from. As a template pattern it
  * provides some template methods that are used by most subclasses.
+ * <p/>
+ * There are two ways to parse.  {@link #parse(String)} and
+ * {@link #parseJSONObject(JSONObject)} work on an org.json object holding the
+ * whole output.  {@link #parseStream(Reader)} reads the output in a single forward
+ * pass with a {@link JsonPullParser} and fills the response as it goes,
+ * without building the object; the next* and begin* helpers read a value
+ * the same way the get* helpers do, so both ways give the same response.
+ * <p/>
+ * Parsers hold no state between calls: the object or pull parser being read
+ * is passed to every method that needs it.  A parser can therefore be reused
+ * and shared between threads; see {@link
+ * com.likethecolor.alchemy.api.parser.ParserRegistry}.
  */
 public abstract class AbstractParser<T extends AbstractAlchemyEntity> {
   private static final Logger LOGGER = LoggerFactory.getLogger(AbstractParser.class);
   private static final String TRUTHY_INITIAL_CHARACTER = "y";
-  private JSONObject jsonObject;
 
   public Response<T> parse(final String jsonString) {
-    jsonObject = getJSONObject(jsonString);
-    Response<T> response = parseHeader();
-    populateResponse(response);
+    return parse(jsonString, Projection.ALL);
+  }
+
+  /**
+   * @param jsonString API output
+   * @param projection facets of the entities to parse
+   *
+   * @return response holding the header and the entities
+   */
+  public Response<T> parse(final String jsonString, final Projection projection) {
+    return parseJSONObject(getJSONObject(jsonString), projection);
+  }
+
+  /**
+   * Populate a response from a json object that has already been parsed.
+   *
+   * @param jsonObject json object holding the API output
+   *
+   * @return response holding the header and the entities
+   */
+  public Response<T> parseJSONObject(final JSONObject jsonObject) {
+    return parseJSONObject(jsonObject, Projection.ALL);
+  }
+
+  /**
+   * Populate a response from a json object that has already been parsed.
+   *
+   * @param jsonObject json object holding the API output
+   * @param projection facets of the entities to parse
+   *
+   * @return response holding the header and the entities
+   */
+  public Response<T> parseJSONObject(final JSONObject jsonObject, final Projection projection) {
+    checkProjection(projection);
+    Response<T> response = parseHeader(jsonObject);
+    populateResponse(jsonObject, response, projection);
     return response;
   }
 
-  protected abstract void populateResponse(final Response<T> response);
+  /**
+   * Populate a response by reading the API output as it streams in.
+   *
+   * @param reader API output; it is not closed
+   *
+   * @return response holding the header and the entities
+   *
+   * @throws IOException if the output cannot be read or is not a JSON object
+   */
+  public Response<T> parseStream(final Reader reader) throws IOException {
+    return parseStream(reader, Projection.ALL);
+  }
+
+  /**
+   * Populate a response by reading the API output as it streams in.  The
+   * facets left out of the projection are skipped without being decoded.
+   *
+   * @param reader API output; it is not closed
+   * @param projection facets of the entities to parse
+   *
+   * @return response holding the header and the entities
+   *
+   * @throws IOException if the output cannot be read or is not a JSON object
+   */
+  public Response<T> parseStream(final Reader reader, final Projection projection) throws IOException {
+    return parseStream(new JsonPullParser(reader), projection);
+  }
 
-  private Response<T> parseHeader() {
-    Response<T> response = new Response<T>();
-    response.setLanguage(getString(JSONConstants.RESULTS_LANGUAGE, getJSONObject()));
-    response.setStatus(getString(JSONConstants.RESULTS_STATUS, getJSONObject()));
-    response.setStatusInfo(getString(JSONConstants.RESULTS_STATUS_INFO, getJSONObject()));
-    response.setText(getString(JSONConstants.RESULTS_TEXT, getJSONObject()));
-    response.setURL(getString(JSONConstants.RESULTS_URL, getJSONObject()));
-    response.setUsage(getString(JSONConstants.RESULTS_USAGE, getJSONObject()));
+  /**
+   * Populate a response from the object that is the parser's next value.
+   *
+   * @param parser parser positioned before the API output object
+   *
+   * @return response holding the header and the entities
+   *
+   * @throws IOException if the output cannot be read or is not a JSON object
+   */
+  public Response<T> parseStream(final JsonPullParser parser) throws IOException {
+    return parseStream(parser, Projection.ALL);
+  }
+
+  /**
+   * Populate a response from the object that is the parser's next value.
+   *
+   * @param parser parser positioned before the API output object
+   * @param projection facets of the entities to parse
+   *
+   * @return response holding the header and the entities
+   *
+   * @throws IOException if the output cannot be read or is not a JSON object
+   */
+  public Response<T> parseStream(final JsonPullParser parser, final Projection projection) throws IOException {
+    return parseStream(parser, projection, new Response<T>());
+  }
+
+  /**
+   * Populate the given response from the object that is the parser's next
+   * value.  Each entity is added to the response as soon as it has been read,
+   * so a response that overrides {@link Response#addEntity} receives the
+   * entities while the rest of the output is still being read.
+   *
+   * @param parser parser positioned before the API output object
+   * @param projection facets of the entities to parse
+   * @param response response to populate
+   *
+   * @return the response
+   *
+   * @throws IOException if the output cannot be read or is not a JSON object
+   */
+  public Response<T> parseStream(final JsonPullParser parser, final Projection projection, final Response<T> response) throws IOException {
+    checkProjection(projection);
+    if(response == null) {
+      throw new IllegalArgumentException("Response cannot be null.");
+    }
+    parser.beginObject();
+    populateResponse(parser, response, projection);
+    parser.endObject();
     return response;
   }
 
   /**
-   * Return the json object that was created in the {@link #parse(String)}
-   * method.
+   * Add the entities found in the output object to the response.
+   *
+   * @param jsonObject API output
+   * @param response response to populate
+   * @param projection facets of the entities to parse
+   */
+  protected abstract void populateResponse(final JSONObject jsonObject, final Response<T> response, final Projection projection);
+
+  /**
+   * Read the members of the output object.  Header members are set on the
+   * response and every other member is handed to
+   * {@link #parseMember(String, JsonPullParser, Response, Projection)}.
+   * Parsers that build an entity from several top level members override
+   * this instead.
+   *
+   * @param parser parser positioned after the opening brace
+   * @param response response to populate
+   * @param projection facets of the entities to parse
+   *
+   * @throws IOException if the output cannot be read
+   */
+  protected void populateResponse(final JsonPullParser parser, final Response<T> response, final Projection projection) throws IOException {
+    while(parser.hasNext()) {
+      final String key = parser.nextName();
+      if(!parseHeader(key, parser, response) && !parseMember(key, parser, response, projection)) {
+        parser.skipValue();
+      }
+    }
+  }
+
+  /**
+   * Read the value of a top level member that is not part of the header.
+   *
+   * @param key name of the member
+   * @param parser parser positioned before the value
+   * @param response response to populate
+   * @param projection facets of the entities to parse
+   *
+   * @return false if the member is not used, in which case the value has not
+   * been read
+   *
+   * @throws IOException if the output cannot be read
+   */
+  protected boolean parseMember(final String key, final JsonPullParser parser, final Response<T> response, final Projection projection) throws IOException {
+    return false;
+  }
+
+  /**
+   * Read the value of a top level member if it is part of the header.
+   *
+   * @param key name of the member
+   * @param parser parser positioned before the value
+   * @param response response to populate
    *
-   * @return json object that was created in the {@link #parse(String)} method
+   * @return false if the member is not part of the header, in which case the
+   * value has not been read
+   *
+   * @throws IOException if the output cannot be read
    */
-  public JSONObject getJSONObject() {
-    return jsonObject;
+  protected boolean parseHeader(final String key, final JsonPullParser parser, final Response<T> response) throws IOException {
+    if(JSONConstants.RESULTS_LANGUAGE.equals(key)) {
+      response.setLanguage(nextString(key, parser));
+    }
+    else if(JSONConstants.RESULTS_STATUS.equals(key)) {
+      response.setStatus(nextString(key, parser));
+    }
+    else if(JSONConstants.RESULTS_STATUS_INFO.equals(key)) {
+      response.setStatusInfo(nextString(key, parser));
+    }
+    else if(JSONConstants.RESULTS_TEXT.equals(key)) {
+      response.setText(nextString(key, parser));
+    }
+    else if(JSONConstants.RESULTS_URL.equals(key)) {
+      response.setURL(nextString(key, parser));
+    }
+    else if(JSONConstants.RESULTS_USAGE.equals(key)) {
+      response.setUsage(nextString(key, parser));
+    }
+    else {
+      return false;
+    }
+    return true;
+  }
+
+  private Response<T> parseHeader(final JSONObject jsonObject) {
+    Response<T> response = new Response<T>();
+    response.setLanguage(getString(JSONConstants.RESULTS_LANGUAGE, jsonObject));
+    response.setStatus(getString(JSONConstants.RESULTS_STATUS, jsonObject));
+    response.setStatusInfo(getString(JSONConstants.RESULTS_STATUS_INFO, jsonObject));
+    response.setText(getString(JSONConstants.RESULTS_TEXT, jsonObject));
+    response.setURL(getString(JSONConstants.RESULTS_URL, jsonObject));
+    response.setUsage(getString(JSONConstants.RESULTS_USAGE, jsonObject));
+    return response;
+  }
+
+  private static void checkProjection(final Projection projection) {
+    if(projection == null) {
+      throw new IllegalArgumentException("Projection cannot be null.");
+    }
   }
 
   /**
@@ -329,6 +540,290 @@ public abstract class AbstractParser<T extends AbstractAlchemyEntity> {
     return json;
   }
 
+  /**
+   * Read the next value as a boolean the way
+   * {@link #getBoolean(String, JSONObject)} does: true/false in any case, or
+   * else true if the value starts with {@link #TRUTHY_INITIAL_CHARACTER}.
+   *
+   * @param key name of the member being read
+   * @param parser parser positioned before the value
+   *
+   * @return boolean value
+   *
+   * @throws IOException if the output cannot be read
+   */
+  protected Boolean nextBoolean(final String key, final JsonPullParser parser) throws IOException {
+    final Object value = nextScalar(parser);
+    if(value instanceof Boolean) {
+      return (Boolean) value;
+    }
+    if(value instanceof String) {
+      final String stringValue = (String) value;
+      if(stringValue.equalsIgnoreCase(Boolean.TRUE.toString())) {
+        return Boolean.TRUE;
+      }
+      if(stringValue.equalsIgnoreCase(Boolean.FALSE.toString())) {
+        return Boolean.FALSE;
+      }
+    }
+    LOGGER.debug("Could not get boolean for key: " + key);
+    LOGGER.debug("Trying to get the truthy value");
+    // an object or array reads as {... or [... which is never truthy
+    return value != null && isTruthy(value.toString());
+  }
+
+  /**
+   * Read the next value as a double the way
+   * {@link #getDouble(String, JSONObject)} does.
+   *
+   * @param key name of the member being read
+   * @param parser parser positioned before the value
+   *
+   * @return double value or null if the value is not a number
+   *
+   * @throws IOException if the output cannot be read
+   */
+  protected Double nextDouble(final String key, final JsonPullParser parser) throws IOException {
+    final Object value = nextScalar(parser);
+    if(value instanceof Number) {
+      return ((Number) value).doubleValue();
+    }
+    final Double doubleValue = toDouble(value);
+    if(doubleValue == null) {
+      LOGGER.error("Could not get Double for key: " + key);
+    }
+    return doubleValue;
+  }
+
+  /**
+   * Read the next value as an integer the way
+   * {@link #getInteger(String, JSONObject)} does.
+   *
+   * @param key name of the member being read
+   * @param parser parser positioned before the value
+   *
+   * @return integer value or null if the value is not a number
+   *
+   * @throws IOException if the output cannot be read
+   */
+  protected Integer nextInteger(final String key, final JsonPullParser parser) throws IOException {
+    final Object value = nextScalar(parser);
+    if(value instanceof Number) {
+      return ((Number) value).intValue();
+    }
+    final Double doubleValue = toDouble(value);
+    if(doubleValue == null) {
+      LOGGER.error("Could not get Integer for key: " + key);
+      return null;
+    }
+    return (int) doubleValue.doubleValue();
+  }
+
+  /**
+   * Read the next value as a long the way
+   * {@link #getLong(String, JSONObject)} does.
+   *
+   * @param key name of the member being read
+   * @param parser parser positioned before the value
+   *
+   * @return long value or null if the value is not a number
+   *
+   * @throws IOException if the output cannot be read
+   */
+  protected Long nextLong(final String key, final JsonPullParser parser) throws IOException {
+    final Object value = nextScalar(parser);
+    if(value instanceof Number) {
+      return ((Number) value).longValue();
+    }
+    final Double doubleValue = toDouble(value);
+    if(doubleValue == null) {
+      LOGGER.error("Could not get Long for key: " + key);
+      return null;
+    }
+    return (long) doubleValue.doubleValue();
+  }
+
+  /**
+   * Read the next value as a string the way
+   * {@link #getString(String, JSONObject)} does: numbers, booleans and null
+   * as their text and an object or array as its JSON text (in the member
+   * order org.json would give).
+   *
+   * @param key name of the member (or array) being read
+   * @param parser parser positioned before the value
+   *
+   * @return string value or null for a left out array element
+   *
+   * @throws IOException if the output cannot be read
+   */
+  protected String nextString(final String key, final JsonPullParser parser) throws IOException {
+    final JsonToken token = parser.peek();
+    if(token.isStructure()) {
+      final String json = parser.nextJson();
+      try {
+        return token == JsonToken.OBJECT ? new JSONObject(json).toString() : new JSONArray(json).toString();
+      }
+      catch(JSONException e) {
+        LOGGER.error("Could not get String for key: " + key, e);
+        return json;
+      }
+    }
+    final Object value = parser.nextScalar();
+    return value == null ? null : value.toString();
+  }
+
+  /**
+   * Step into the next value if it is an object, as
+   * {@link #getJSONObject(String, JSONObject)} would return it.
+   *
+   * @param key name of the member being read
+   * @param parser parser positioned before the value
+   *
+   * @return true if the parser is now inside the object; false if the value
+   * was something else, in which case it has been skipped
+   *
+   * @throws IOException if the output cannot be read
+   */
+  protected boolean beginObject(final String key, final JsonPullParser parser) throws IOException {
+    if(parser.peek() == JsonToken.OBJECT) {
+      parser.beginObject();
+      return true;
+    }
+    LOGGER.error("Could not get JSONObject for key: " + key);
+    parser.skipValue();
+    return false;
+  }
+
+  /**
+   * Step into the next value if it is an array, as
+   * {@link #getJSONArray(String, JSONObject)} would return it.
+   *
+   * @param key name of the member being read
+   * @param parser parser positioned before the value
+   *
+   * @return true if the parser is now inside the array; false if the value
+   * was something else, in which case it has been skipped
+   *
+   * @throws IOException if the output cannot be read
+   */
+  protected boolean beginArray(final String key, final JsonPullParser parser) throws IOException {
+    if(parser.peek() == JsonToken.ARRAY) {
+      parser.beginArray();
+      return true;
+    }
+    LOGGER.error("Could not get JSONArray for key: " + key);
+    parser.skipValue();
+    return false;
+  }
+
+  /**
+   * Step into the next element of an array of objects.  A left out element
+   * reads as an empty object, as with {@link #getJSONObject(JSONArray, int)}.
+   * An element that is not an object is skipped and also reads as an empty
+   * object (org.json fails the whole parse with a ClassCastException).
+   *
+   * @param key name of the array being read
+   * @param parser parser positioned before the element
+   *
+   * @return true if the parser is now inside the element; false if it reads
+   * as an empty object, in which case it has been skipped
+   *
+   * @throws IOException if the output cannot be read
+   */
+  protected boolean beginElement(final String key, final JsonPullParser parser) throws IOException {
+    final JsonToken token = parser.peek();
+    if(token == JsonToken.OBJECT) {
+      parser.beginObject();
+      return true;
+    }
+    if(token != JsonToken.ABSENT) {
+      LOGGER.error("Could not get JSONObject from JSONArray for key: " + key);
+    }
+    parser.skipValue();
+    return false;
+  }
+
+  /**
+   * Read the next value as a sentiment object (type, score and mixed).
+   *
+   * @param key name of the member being read
+   * @param parser parser positioned before the value
+   * @param isObjectEnough true if an object with none of the sentiment
+   * members still makes a sentiment (as it does for entities and relations
+   * but not for keywords)
+   *
+   * @return sentiment or null if the value is not an object or holds no
+   * sentiment
+   *
+   * @throws IOException if the output cannot be read
+   */
+  protected SentimentAlchemyEntity nextSentiment(final String key, final JsonPullParser parser, final boolean isObjectEnough) throws IOException {
+    if(!beginObject(key, parser)) {
+      return null;
+    }
+    String type = null;
+    Double score = null;
+    Integer mixed = null;
+    while(parser.hasNext()) {
+      final String name = parser.nextName();
+      if(JSONConstants.SENTIMENT_TYPE_KEY.equals(name)) {
+        type = nextString(name, parser);
+      }
+      else if(JSONConstants.SENTIMENT_SCORE_KEY.equals(name)) {
+        score = nextDouble(name, parser);
+      }
+      else if(JSONConstants.SENTIMENT_MIXED_KEY.equals(name)) {
+        mixed = nextInteger(name, parser);
+      }
+      else {
+        parser.skipValue();
+      }
+    }
+    parser.endObject();
+    if(!isObjectEnough && StringUtils.isBlank(type) && score == null && mixed == null) {
+      return null;
+    }
+    final SentimentAlchemyEntity sentiment = new SentimentAlchemyEntity();
+    if(!StringUtils.isBlank(type)) {
+      sentiment.setType(type);
+    }
+    if(score != null) {
+      sentiment.setScore(score);
+    }
+    if(mixed != null) {
+      sentiment.setIsMixed(mixed);
+    }
+    return sentiment;
+  }
+
+  /**
+   * @return the next value if it is a string, number, boolean or null; null
+   * (after skipping it) if it is an object or array
+   */
+  private static Object nextScalar(final JsonPullParser parser) throws IOException {
+    if(parser.peek().isStructure()) {
+      parser.skipValue();
+      return null;
+    }
+    return parser.nextScalar();
+  }
+
+  /**
+   * @return the value as a double the way org.json converts a string or null
+   * if it is not a number
+   */
+  private static Double toDouble(final Object value) {
+    if(value instanceof String) {
+      try {
+        return Double.valueOf((String) value);
+      }
+      catch(NumberFormatException e) {
+        return null;
+      }
+    }
+    return null;
+  }
+
   /**
    * Does the JSONObject have a specified key?
    *
@@ -19,13 +19,16 @@ package com.likethecolor.alchemy.api.parser.json;
 
 import com.likethecolor.alchemy.api.entity.AuthorAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 public class AuthorParser extends AbstractParser<AuthorAlchemyEntity> {
   @Override
-  protected void populateResponse(Response<AuthorAlchemyEntity> response) {
-    final JSONObject jsonObject = getJSONObject();
+  protected void populateResponse(final JSONObject jsonObject, final Response<AuthorAlchemyEntity> response, final Projection projection) {
     final String author = getString(JSONConstants.AUTHOR_KEY, jsonObject);
 
     if(!StringUtils.isBlank(author)) {
@@ -33,4 +36,21 @@ public class AuthorParser extends AbstractParser<AuthorAlchemyEntity> {
       response.addEntity(entity);
     }
   }
+
+  @Override
+  protected void populateResponse(final JsonPullParser parser, final Response<AuthorAlchemyEntity> response, final Projection projection) throws IOException {
+    String author = null;
+    while(parser.hasNext()) {
+      final String key = parser.nextName();
+      if(JSONConstants.AUTHOR_KEY.equals(key)) {
+        author = nextString(key, parser);
+      }
+      else if(!parseHeader(key, parser, response)) {
+        parser.skipValue();
+      }
+    }
+    if(!StringUtils.isBlank(author)) {
+      response.addEntity(new AuthorAlchemyEntity(author));
+    }
+  }
 }
@@ -20,19 +20,24 @@ package com.likethecolor.alchemy.api.parser.json;
 import com.likethecolor.alchemy.api.entity.ConceptAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.DisambiguatedAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 public class ConceptParser extends AbstractParser<ConceptAlchemyEntity> {
+  private static final DisambiguatedEntityParser DISAMBIGUATED_PARSER = new DisambiguatedEntityParser();
+
   public ConceptParser() {
     super();
   }
 
   @Override
-  protected void populateResponse(final Response<ConceptAlchemyEntity> response) {
-    final JSONObject jsonObject = getJSONObject();
+  protected void populateResponse(final JSONObject jsonObject, final Response<ConceptAlchemyEntity> response, final Projection projection) {
     final JSONArray concepts = getJSONArray(JSONConstants.RANKED_CONCEPTS, jsonObject);
 
     if(concepts.length() > 0) {
@@ -47,7 +52,9 @@ public class ConceptParser extends AbstractParser<ConceptAlchemyEntity> {
         score = getDouble(JSONConstants.RANKED_CONCEPTS_SCORE_KEY, conceptJsonObject);
         if(isValidConcept(concept, score)) {
           entity = new ConceptAlchemyEntity(concept, score);
-          addDisambiguated(entity, conceptJsonObject);
+          if(projection.includes(Projection.Facet.DISAMBIGUATED)) {
+            addDisambiguated(entity, conceptJsonObject);
+          }
 
           response.addEntity(entity);
         }
@@ -55,10 +62,50 @@ public class ConceptParser extends AbstractParser<ConceptAlchemyEntity> {
     }
   }
 
-  private void addDisambiguated(final ConceptAlchemyEntity entity, final JSONObject conceptJsonObject) {
-    final DisambiguatedEntityParser parser = new DisambiguatedEntityParser();
+  /**
+   * A concept carries its disambiguation links as members of its own object.
+   */
+  @Override
+  protected boolean parseMember(final String key, final JsonPullParser parser, final Response<ConceptAlchemyEntity> response, final Projection projection) throws IOException {
+    if(!JSONConstants.RANKED_CONCEPTS.equals(key)) {
+      return false;
+    }
+    if(beginArray(key, parser)) {
+      final boolean isDisambiguatedIncluded = projection.includes(Projection.Facet.DISAMBIGUATED);
+      while(parser.hasNext()) {
+        String concept = null;
+        Double score = null;
+        final DisambiguatedAlchemyEntity disambiguatedAlchemyEntity = isDisambiguatedIncluded ? new DisambiguatedAlchemyEntity() : null;
+        if(beginElement(key, parser)) {
+          while(parser.hasNext()) {
+            final String name = parser.nextName();
+            if(JSONConstants.RANKED_CONCEPTS_TEXT_KEY.equals(name)) {
+              concept = nextString(name, parser);
+            }
+            else if(JSONConstants.RANKED_CONCEPTS_SCORE_KEY.equals(name)) {
+              score = nextDouble(name, parser);
+            }
+            else if(!isDisambiguatedIncluded || !DISAMBIGUATED_PARSER.parseField(name, parser, disambiguatedAlchemyEntity)) {
+              parser.skipValue();
+            }
+          }
+          parser.endObject();
+        }
+        if(isValidConcept(concept, score)) {
+          final ConceptAlchemyEntity entity = new ConceptAlchemyEntity(concept, score);
+          if(disambiguatedAlchemyEntity != null) {
+            entity.setDisambiguatedAlchemyEntity(disambiguatedAlchemyEntity);
+          }
+          response.addEntity(entity);
+        }
+      }
+      parser.endArray();
+    }
+    return true;
+  }
 
-    DisambiguatedAlchemyEntity disambiguatedAlchemyEntity = parser.getEntity(conceptJsonObject);
+  private void addDisambiguated(final ConceptAlchemyEntity entity, final JSONObject conceptJsonObject) {
+    DisambiguatedAlchemyEntity disambiguatedAlchemyEntity = DISAMBIGUATED_PARSER.getEntity(conceptJsonObject);
     if(disambiguatedAlchemyEntity == null) {
       return;
     }
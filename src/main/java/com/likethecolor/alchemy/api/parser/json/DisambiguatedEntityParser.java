@@ -19,12 +19,16 @@ package com.likethecolor.alchemy.api.parser.json;
 
 import com.likethecolor.alchemy.api.entity.DisambiguatedAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 class DisambiguatedEntityParser extends AbstractParser<DisambiguatedAlchemyEntity> {
   @Override
-  protected void populateResponse(final Response response) {
+  protected void populateResponse(final JSONObject jsonObject, final Response response, final Projection projection) {
   }
 
   public DisambiguatedAlchemyEntity getEntity(final JSONObject jsonObject) {
@@ -80,4 +84,99 @@ class DisambiguatedEntityParser extends AbstractParser<DisambiguatedAlchemyEntit
     }
     return entity;
   }
+
+  /**
+   * Read the disambiguated entity that is the next value.  A value that is
+   * not an object gives an empty entity, as {@link #getEntity(JSONObject)}
+   * does for a missing one.
+   *
+   * @param key name of the member being read
+   * @param parser parser positioned before the value
+   *
+   * @return disambiguated entity
+   *
+   * @throws IOException if the output cannot be read
+   */
+  public DisambiguatedAlchemyEntity getEntity(final String key, final JsonPullParser parser) throws IOException {
+    final DisambiguatedAlchemyEntity entity = new DisambiguatedAlchemyEntity();
+    if(beginObject(key, parser)) {
+      while(parser.hasNext()) {
+        final String name = parser.nextName();
+        if(!parseField(name, parser, entity)) {
+          parser.skipValue();
+        }
+      }
+      parser.endObject();
+    }
+    return entity;
+  }
+
+  /**
+   * Set the field named by the key from the next value.
+   *
+   * @param key name of the member being read
+   * @param parser parser positioned before the value
+   * @param entity entity to set the field on
+   *
+   * @return false if the key does not name a disambiguated field, in which
+   * case the value has not been read
+   *
+   * @throws IOException if the output cannot be read
+   */
+  boolean parseField(final String key, final JsonPullParser parser, final DisambiguatedAlchemyEntity entity) throws IOException {
+    if(JSONConstants.DISAMBIGUATED_NAME_KEY.equals(key)) {
+      entity.setName(nextString(key, parser));
+    }
+    else if(JSONConstants.DISAMBIGUATED_CENSUS_KEY.equals(key)) {
+      entity.setCensus(nextString(key, parser));
+    }
+    else if(JSONConstants.DISAMBIGUATED_CIA_FACTBOOK_KEY.equals(key)) {
+      entity.setCIAFactbook(nextString(key, parser));
+    }
+    else if(JSONConstants.DISAMBIGUATED_CRUNCHBASE_KEY.equals(key)) {
+      entity.setCrunchbase(nextString(key, parser));
+    }
+    else if(JSONConstants.DISAMBIGUATED_DBPEDIA_KEY.equals(key)) {
+      entity.setDBPedia(nextString(key, parser));
+    }
+    else if(JSONConstants.DISAMBIGUATED_FREEBASE_KEY.equals(key)) {
+      entity.setFreebase(nextString(key, parser));
+    }
+    else if(JSONConstants.DISAMBIGUATED_GEO_KEY.equals(key)) {
+      entity.setGeo(nextString(key, parser));
+    }
+    else if(JSONConstants.DISAMBIGUATED_GEONAMES_KEY.equals(key)) {
+      entity.setGeonames(nextString(key, parser));
+    }
+    else if(JSONConstants.DISAMBIGUATED_MUSIC_BRAINZ_KEY.equals(key)) {
+      entity.setMusicBrainz(nextString(key, parser));
+    }
+    else if(JSONConstants.DISAMBIGUATED_OPENCYC_KEY.equals(key)) {
+      entity.setOpencyc(nextString(key, parser));
+    }
+    else if(JSONConstants.DISAMBIGUATED_SEMANTIC_CRUNCHBASE_KEY.equals(key)) {
+      entity.setSemanticCrunchbase(nextString(key, parser));
+    }
+    else if(JSONConstants.DISAMBIGUATED_UMBEL_KEY.equals(key)) {
+      entity.setUmbel(nextString(key, parser));
+    }
+    else if(JSONConstants.DISAMBIGUATED_WEBSITE_KEY.equals(key)) {
+      entity.setWebsite(nextString(key, parser));
+    }
+    else if(JSONConstants.DISAMBIGUATED_YAGO_KEY.equals(key)) {
+      entity.setYago(nextString(key, parser));
+    }
+    else if(JSONConstants.DISAMBIGUATED_SUBTYPE_KEY.equals(key)) {
+      if(beginArray(key, parser)) {
+        while(parser.hasNext()) {
+          entity.addSubtype(nextString(key, parser));
+        }
+        parser.endArray();
+      }
+    }
+    else {
+      return false;
+    }
+    return true;
+  }
 }
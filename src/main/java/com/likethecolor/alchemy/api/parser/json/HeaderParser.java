@@ -18,12 +18,14 @@
 package com.likethecolor.alchemy.api.parser.json;
 
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.Projection;
+import org.json.JSONObject;
 
 /**
  * Parses just the header.
  */
 public class HeaderParser extends AbstractParser {
   @Override
-  protected void populateResponse(final Response response) {
+  protected void populateResponse(final JSONObject jsonObject, final Response response, final Projection projection) {
   }
 }
@@ -18,19 +18,22 @@ package com.likethecolor.alchemy.api.parser.json;
 
 import com.likethecolor.alchemy.api.entity.ImageEntity;
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 public class ImageParser extends AbstractParser<ImageEntity> {
   public ImageParser() {
     super();
   }
   
   @Override
-  protected void populateResponse(Response<ImageEntity> response) {
-    JSONObject jsonObject = getJSONObject();
+  protected void populateResponse(final JSONObject jsonObject, final Response<ImageEntity> response, final Projection projection) {
     JSONArray imageKeywords = getJSONArray(JSONConstants.IMAGE_KEYWORDS_KEY, jsonObject);
 
     if(imageKeywords.length() > 0) {
@@ -51,6 +54,39 @@ public class ImageParser extends AbstractParser<ImageEntity> {
     }
   }
 
+  @Override
+  protected boolean parseMember(final String key, final JsonPullParser parser, final Response<ImageEntity> response, final Projection projection) throws IOException {
+    if(!JSONConstants.IMAGE_KEYWORDS_KEY.equals(key)) {
+      return false;
+    }
+    if(beginArray(key, parser)) {
+      while(parser.hasNext()) {
+        String imageKeyword = null;
+        Double score = null;
+        if(beginElement(key, parser)) {
+          while(parser.hasNext()) {
+            final String name = parser.nextName();
+            if(JSONConstants.IMAGE_KEYWORD_TEXT_KEY.equals(name)) {
+              imageKeyword = nextString(name, parser);
+            }
+            else if(JSONConstants.IMAGE_KEYWORD_SCORE_KEY.equals(name)) {
+              score = nextDouble(name, parser);
+            }
+            else {
+              parser.skipValue();
+            }
+          }
+          parser.endObject();
+        }
+        if(isValidImage(imageKeyword, score)) {
+          response.addEntity(new ImageEntity(imageKeyword, score));
+        }
+      }
+      parser.endArray();
+    }
+    return true;
+  }
+
   /**
    * Return a json object from the provided array.  Return an empty object if
    * there is any problems fetching the concept data.
@@ -20,15 +20,18 @@ package com.likethecolor.alchemy.api.parser.json;
 import com.likethecolor.alchemy.api.entity.KeywordAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.entity.SentimentAlchemyEntity;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 public class KeywordParser extends AbstractParser<KeywordAlchemyEntity> {
   @Override
-  protected void populateResponse(final Response<KeywordAlchemyEntity> response) {
-    final JSONObject jsonObject = getJSONObject();
+  protected void populateResponse(final JSONObject jsonObject, final Response<KeywordAlchemyEntity> response, final Projection projection) {
     final JSONArray keywords = getJSONArray(JSONConstants.RANKED_KEYWORDS, jsonObject);
     if(keywords.length() > 0) {
       KeywordAlchemyEntity entity;
@@ -42,11 +45,53 @@ public class KeywordParser extends AbstractParser<KeywordAlchemyEntity> {
         score = getDouble(JSONConstants.RANKED_KEYWORDS_SCORE_KEY, keywordJsonObject);
         if(isValidKeyword(keyword, score)) {
           entity = new KeywordAlchemyEntity(keyword, score);
-          entity.setSentiment(getSentiment(keywordJsonObject));
+          if(projection.includes(Projection.Facet.SENTIMENT)) {
+            entity.setSentiment(getSentiment(keywordJsonObject));
+          }
+          response.addEntity(entity);
+        }
+      }
+    }
+  }
+
+  @Override
+  protected boolean parseMember(final String key, final JsonPullParser parser, final Response<KeywordAlchemyEntity> response, final Projection projection) throws IOException {
+    if(!JSONConstants.RANKED_KEYWORDS.equals(key)) {
+      return false;
+    }
+    if(beginArray(key, parser)) {
+      final boolean isSentimentIncluded = projection.includes(Projection.Facet.SENTIMENT);
+      while(parser.hasNext()) {
+        String keyword = null;
+        Double score = null;
+        SentimentAlchemyEntity sentiment = null;
+        if(beginElement(key, parser)) {
+          while(parser.hasNext()) {
+            final String name = parser.nextName();
+            if(JSONConstants.RANKED_KEYWORDS_TEXT_KEY.equals(name)) {
+              keyword = nextString(name, parser);
+            }
+            else if(JSONConstants.RANKED_KEYWORDS_SCORE_KEY.equals(name)) {
+              score = nextDouble(name, parser);
+            }
+            else if(isSentimentIncluded && JSONConstants.SENTIMENT_KEY.equals(name)) {
+              sentiment = nextSentiment(name, parser, false);
+            }
+            else {
+              parser.skipValue();
+            }
+          }
+          parser.endObject();
+        }
+        if(isValidKeyword(keyword, score)) {
+          final KeywordAlchemyEntity entity = new KeywordAlchemyEntity(keyword, score);
+          entity.setSentiment(sentiment);
           response.addEntity(entity);
         }
       }
+      parser.endArray();
     }
+    return true;
   }
 
   /**
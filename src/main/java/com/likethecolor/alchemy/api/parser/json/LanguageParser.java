@@ -19,13 +19,16 @@ package com.likethecolor.alchemy.api.parser.json;
 
 import com.likethecolor.alchemy.api.entity.LanguageAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 public class LanguageParser extends AbstractParser<LanguageAlchemyEntity> {
   @Override
-  protected void populateResponse(Response<LanguageAlchemyEntity> response) {
-    final JSONObject jsonObject = getJSONObject();
+  protected void populateResponse(final JSONObject jsonObject, final Response<LanguageAlchemyEntity> response, final Projection projection) {
     final String ethnologue = getString(JSONConstants.LANGUAGE_ETHNOLOGUE_KEY, jsonObject);
     final String language = getString(JSONConstants.LANGUAGE_LANGUAGE_KEY, jsonObject);
     final String iso6391 = getString(JSONConstants.LANGUAGE_ISO6391_KEY, jsonObject);
@@ -46,4 +49,53 @@ public class LanguageParser extends AbstractParser<LanguageAlchemyEntity> {
       response.addEntity(entity);
     }
   }
+
+  /**
+   * The detected language is the same member as the header's language, so it
+   * is taken from the response once the header has been read.
+   */
+  @Override
+  protected void populateResponse(final JsonPullParser parser, final Response<LanguageAlchemyEntity> response, final Projection projection) throws IOException {
+    String ethnologue = null;
+    String iso6391 = null;
+    String iso6392 = null;
+    String iso6393 = null;
+    String numberOfNativeSpeakers = null;
+    String wikipedia = null;
+    while(parser.hasNext()) {
+      final String key = parser.nextName();
+      if(JSONConstants.LANGUAGE_ETHNOLOGUE_KEY.equals(key)) {
+        ethnologue = nextString(key, parser);
+      }
+      else if(JSONConstants.LANGUAGE_ISO6391_KEY.equals(key)) {
+        iso6391 = nextString(key, parser);
+      }
+      else if(JSONConstants.LANGUAGE_ISO6392_KEY.equals(key)) {
+        iso6392 = nextString(key, parser);
+      }
+      else if(JSONConstants.LANGUAGE_ISO6393_KEY.equals(key)) {
+        iso6393 = nextString(key, parser);
+      }
+      else if(JSONConstants.LANGUAGE_NUMBER_OF_NATIVE_SPEAKERS_KEY.equals(key)) {
+        numberOfNativeSpeakers = nextString(key, parser);
+      }
+      else if(JSONConstants.LANGUAGE_WIKIPEDIA_KEY.equals(key)) {
+        wikipedia = nextString(key, parser);
+      }
+      else if(!parseHeader(key, parser, response)) {
+        parser.skipValue();
+      }
+    }
+    final String language = response.getLanguage();
+    if(!StringUtils.isBlank(language)) {
+      final LanguageAlchemyEntity entity = new LanguageAlchemyEntity(language);
+      entity.setEthnologue(ethnologue);
+      entity.setIso6391(iso6391);
+      entity.setIso6392(iso6392);
+      entity.setIso6393(iso6393);
+      entity.setNumberOfNativeSpeakers(numberOfNativeSpeakers);
+      entity.setWikipedia(wikipedia);
+      response.addEntity(entity);
+    }
+  }
 }
@@ -19,14 +19,17 @@ package com.likethecolor.alchemy.api.parser.json;
 
 import com.likethecolor.alchemy.api.entity.MicroformatAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 public class MicroformatParser extends AbstractParser<MicroformatAlchemyEntity> {
   @Override
-  protected void populateResponse(Response<MicroformatAlchemyEntity> response) {
-    final JSONObject jsonObject = getJSONObject();
+  protected void populateResponse(final JSONObject jsonObject, final Response<MicroformatAlchemyEntity> response, final Projection projection) {
     final JSONArray microformats = getJSONArray(JSONConstants.MICROFORMATS_KEY, jsonObject);
 
     MicroformatAlchemyEntity entity;
@@ -46,6 +49,39 @@ public class MicroformatParser extends AbstractParser<MicroformatAlchemyEntity>
     }
   }
 
+  @Override
+  protected boolean parseMember(final String key, final JsonPullParser parser, final Response<MicroformatAlchemyEntity> response, final Projection projection) throws IOException {
+    if(!JSONConstants.MICROFORMATS_KEY.equals(key)) {
+      return false;
+    }
+    if(beginArray(key, parser)) {
+      while(parser.hasNext()) {
+        String data = null;
+        String field = null;
+        if(beginElement(key, parser)) {
+          while(parser.hasNext()) {
+            final String name = parser.nextName();
+            if(JSONConstants.MICROFORMATS_DATA_KEY.equals(name)) {
+              data = nextString(name, parser);
+            }
+            else if(JSONConstants.MICROFORMATS_FIELD_KEY.equals(name)) {
+              field = nextString(name, parser);
+            }
+            else {
+              parser.skipValue();
+            }
+          }
+          parser.endObject();
+        }
+        if(isValid(data, field)) {
+          response.addEntity(new MicroformatAlchemyEntity(data, field));
+        }
+      }
+      parser.endArray();
+    }
+    return true;
+  }
+
   private boolean isValid(final String data, final String field) {
     return !StringUtils.isBlank(data)
         || !StringUtils.isBlank(field);
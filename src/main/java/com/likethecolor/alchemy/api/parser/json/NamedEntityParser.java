@@ -22,14 +22,21 @@ import com.likethecolor.alchemy.api.entity.NamedEntityAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.QuotationAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.entity.SentimentAlchemyEntity;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 public class NamedEntityParser extends AbstractParser<NamedEntityAlchemyEntity> {
+  private static final DisambiguatedEntityParser DISAMBIGUATED_PARSER = new DisambiguatedEntityParser();
+
   @Override
-  protected void populateResponse(final Response<NamedEntityAlchemyEntity> response) {
-    final JSONObject jsonObject = getJSONObject();
+  protected void populateResponse(final JSONObject jsonObject, final Response<NamedEntityAlchemyEntity> response, final Projection projection) {
     final JSONArray namedEntities = getJSONArray(JSONConstants.RANKED_NAMED_ENTITIES, jsonObject);
     if(namedEntities.length() > 0) {
       NamedEntityAlchemyEntity entity;
@@ -48,32 +55,138 @@ public class NamedEntityParser extends AbstractParser<NamedEntityAlchemyEntity>
         count = getInteger(JSONConstants.RANKED_NAMED_ENTITIES_COUNT_KEY, namedEntityJsonObject);
         if(isValidNamedEntity(score, text)) {
           entity = new NamedEntityAlchemyEntity(text, type, count, score);
-          sentimentAlchemyEntity = getSentiment(namedEntityJsonObject);
+          if(projection.includes(Projection.Facet.SENTIMENT)) {
+            sentimentAlchemyEntity = getSentiment(namedEntityJsonObject);
+            if(sentimentAlchemyEntity != null) {
+              entity.setSentiment(sentimentAlchemyEntity);
+            }
+          }
+
+          if(projection.includes(Projection.Facet.QUOTATIONS)) {
+            addQuotations(entity, namedEntityJsonObject, projection);
+          }
+          if(projection.includes(Projection.Facet.DISAMBIGUATED)) {
+            addDisambiguated(entity, namedEntityJsonObject);
+          }
+          response.addEntity(entity);
+        }
+      }
+    }
+  }
+
+  @Override
+  protected boolean parseMember(final String key, final JsonPullParser parser, final Response<NamedEntityAlchemyEntity> response, final Projection projection) throws IOException {
+    if(!JSONConstants.RANKED_NAMED_ENTITIES.equals(key)) {
+      return false;
+    }
+    if(beginArray(key, parser)) {
+      final boolean isSentimentIncluded = projection.includes(Projection.Facet.SENTIMENT);
+      final boolean isQuotationsIncluded = projection.includes(Projection.Facet.QUOTATIONS);
+      final boolean isDisambiguatedIncluded = projection.includes(Projection.Facet.DISAMBIGUATED);
+      while(parser.hasNext()) {
+        Integer count = null;
+        Double score = null;
+        String text = null;
+        String type = null;
+        SentimentAlchemyEntity sentimentAlchemyEntity = null;
+        List<QuotationAlchemyEntity> quotations = null;
+        DisambiguatedAlchemyEntity disambiguatedAlchemyEntity = null;
+        if(beginElement(key, parser)) {
+          while(parser.hasNext()) {
+            final String name = parser.nextName();
+            if(JSONConstants.RANKED_NAMED_ENTITIES_TEXT_KEY.equals(name)) {
+              text = nextString(name, parser);
+            }
+            else if(JSONConstants.RANKED_NAMED_ENTITIES_TYPE_KEY.equals(name)) {
+              type = nextString(name, parser);
+            }
+            else if(JSONConstants.RANKED_NAMED_ENTITIES_SCORE_KEY.equals(name)) {
+              score = nextDouble(name, parser);
+            }
+            else if(JSONConstants.RANKED_NAMED_ENTITIES_COUNT_KEY.equals(name)) {
+              count = nextInteger(name, parser);
+            }
+            else if(isSentimentIncluded && JSONConstants.SENTIMENT_KEY.equals(name)) {
+              sentimentAlchemyEntity = nextSentiment(name, parser, true);
+            }
+            else if(isQuotationsIncluded && JSONConstants.QUOTATIONS_KEY.equals(name)) {
+              quotations = getQuotations(name, parser, isSentimentIncluded);
+            }
+            else if(isDisambiguatedIncluded && JSONConstants.RANKED_NAMED_ENTITIES_DISAMBIGUATED_KEY.equals(name)) {
+              disambiguatedAlchemyEntity = DISAMBIGUATED_PARSER.getEntity(name, parser);
+            }
+            else {
+              parser.skipValue();
+            }
+          }
+          parser.endObject();
+        }
+        if(isValidNamedEntity(score, text)) {
+          final NamedEntityAlchemyEntity entity = new NamedEntityAlchemyEntity(text, type, count, score);
           if(sentimentAlchemyEntity != null) {
             entity.setSentiment(sentimentAlchemyEntity);
           }
-
-          addQuotations(entity, namedEntityJsonObject);
-          addDisambiguated(entity, namedEntityJsonObject);
+          if(quotations != null) {
+            for(QuotationAlchemyEntity quotation : quotations) {
+              entity.addQuotation(quotation);
+            }
+          }
+          if(disambiguatedAlchemyEntity != null) {
+            entity.setDisambiguatedAlchemyEntity(disambiguatedAlchemyEntity);
+          }
           response.addEntity(entity);
         }
       }
+      parser.endArray();
     }
+    return true;
+  }
+
+  private List<QuotationAlchemyEntity> getQuotations(final String key, final JsonPullParser parser, final boolean isSentimentIncluded) throws IOException {
+    final List<QuotationAlchemyEntity> quotations = new ArrayList<QuotationAlchemyEntity>();
+    if(beginArray(key, parser)) {
+      while(parser.hasNext()) {
+        String quotation = null;
+        SentimentAlchemyEntity sentimentAlchemyEntity = null;
+        if(beginElement(key, parser)) {
+          while(parser.hasNext()) {
+            final String name = parser.nextName();
+            if(JSONConstants.QUOTATIONS_QUOTATION_KEY.equals(name)) {
+              quotation = nextString(name, parser);
+            }
+            else if(isSentimentIncluded && JSONConstants.SENTIMENT_KEY.equals(name)) {
+              sentimentAlchemyEntity = nextSentiment(name, parser, true);
+            }
+            else {
+              parser.skipValue();
+            }
+          }
+          parser.endObject();
+        }
+        if(!StringUtils.isBlank(quotation)) {
+          final QuotationAlchemyEntity quotationAlchemyEntity = new QuotationAlchemyEntity(quotation);
+          if(sentimentAlchemyEntity != null) {
+            quotationAlchemyEntity.setSentiment(sentimentAlchemyEntity);
+          }
+          quotations.add(quotationAlchemyEntity);
+        }
+      }
+      parser.endArray();
+    }
+    return quotations;
   }
 
   private void addDisambiguated(final NamedEntityAlchemyEntity entity, final JSONObject namedEntityJsonObject) {
     final JSONObject disambiguatedJsonObject = getJSONObject(JSONConstants.RANKED_NAMED_ENTITIES_DISAMBIGUATED_KEY, namedEntityJsonObject);
 
-    final DisambiguatedEntityParser parser = new DisambiguatedEntityParser();
-
-    DisambiguatedAlchemyEntity disambiguatedAlchemyEntity = parser.getEntity(disambiguatedJsonObject);
+    DisambiguatedAlchemyEntity disambiguatedAlchemyEntity = DISAMBIGUATED_PARSER.getEntity(disambiguatedJsonObject);
     if(disambiguatedAlchemyEntity == null) {
       return;
     }
     entity.setDisambiguatedAlchemyEntity(disambiguatedAlchemyEntity);
   }
 
-  private void addQuotations(final NamedEntityAlchemyEntity entity, final JSONObject namedEntityJsonObject) {
+  private void addQuotations(final NamedEntityAlchemyEntity entity, final JSONObject namedEntityJsonObject, final Projection projection) {
     JSONArray quotations = getJSONArray(JSONConstants.QUOTATIONS_KEY, namedEntityJsonObject);
     if(quotations.length() > 0) {
       JSONObject quotationJsonObject;
@@ -86,9 +199,11 @@ public class NamedEntityParser extends AbstractParser<NamedEntityAlchemyEntity>
 
         if(!StringUtils.isBlank(quotation)) {
           quotationAlchemyEntity = new QuotationAlchemyEntity(quotation);
-          sentimentAlchemyEntity = getSentiment(quotationJsonObject);
-          if(sentimentAlchemyEntity != null) {
-            quotationAlchemyEntity.setSentiment(sentimentAlchemyEntity);
+          if(projection.includes(Projection.Facet.SENTIMENT)) {
+            sentimentAlchemyEntity = getSentiment(quotationJsonObject);
+            if(sentimentAlchemyEntity != null) {
+              quotationAlchemyEntity.setSentiment(sentimentAlchemyEntity);
+            }
           }
           entity.addQuotation(quotationAlchemyEntity);
         }
@@ -19,13 +19,13 @@ package com.likethecolor.alchemy.api.parser.json;
 
 import com.likethecolor.alchemy.api.entity.QuotationAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.Projection;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 public class QuotationParser extends AbstractParser<QuotationAlchemyEntity> {
   @Override
-  protected void populateResponse(Response<QuotationAlchemyEntity> response) {
-    final JSONObject jsonObject = getJSONObject();
+  protected void populateResponse(final JSONObject jsonObject, final Response<QuotationAlchemyEntity> response, final Projection projection) {
     final JSONArray quotation = getJSONArray(JSONConstants.QUOTATIONS_QUOTATION_KEY, jsonObject);
   }
 }
@@ -26,14 +26,19 @@ import com.likethecolor.alchemy.api.entity.DisambiguatedAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.RelationAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.entity.SentimentAlchemyEntity;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 public class RelationsParser extends AbstractParser<RelationAlchemyEntity> {
+  private static final DisambiguatedEntityParser DISAMBIGUATED_PARSER = new DisambiguatedEntityParser();
+
   @Override
-  protected void populateResponse(Response<RelationAlchemyEntity> response) {
-    final JSONObject jsonObject = getJSONObject();
+  protected void populateResponse(final JSONObject jsonObject, final Response<RelationAlchemyEntity> response, final Projection projection) {
     final JSONArray relations = getJSONArray(JSONConstants.RELATIONS_KEY, jsonObject);
     if(relations != null) {
       RelationAlchemyEntity entity;
@@ -42,11 +47,44 @@ public class RelationsParser extends AbstractParser<RelationAlchemyEntity> {
         entity = new RelationAlchemyEntity();
         JSONObject o = getJSONObject(relations, i);
         addAction(entity, getJSONObject(JSONConstants.RELATIONS_ACTION_KEY, o));
-        addSubject(entity, getJSONObject(JSONConstants.RELATIONS_SUBJECT_KEY, o));
-        addObject(entity, getJSONObject(JSONConstants.RELATIONS_OBJECT_KEY, o));
+        addSubject(entity, getJSONObject(JSONConstants.RELATIONS_SUBJECT_KEY, o), projection);
+        addObject(entity, getJSONObject(JSONConstants.RELATIONS_OBJECT_KEY, o), projection);
+        response.addEntity(entity);
+      }
+    }
+  }
+
+  @Override
+  protected boolean parseMember(final String key, final JsonPullParser parser, final Response<RelationAlchemyEntity> response, final Projection projection) throws IOException {
+    if(!JSONConstants.RELATIONS_KEY.equals(key)) {
+      return false;
+    }
+    if(beginArray(key, parser)) {
+      while(parser.hasNext()) {
+        final RelationAlchemyEntity entity = new RelationAlchemyEntity();
+        if(beginElement(key, parser)) {
+          while(parser.hasNext()) {
+            final String name = parser.nextName();
+            if(JSONConstants.RELATIONS_ACTION_KEY.equals(name)) {
+              addAction(entity, name, parser);
+            }
+            else if(JSONConstants.RELATIONS_SUBJECT_KEY.equals(name)) {
+              addSubject(entity, name, parser, projection);
+            }
+            else if(JSONConstants.RELATIONS_OBJECT_KEY.equals(name)) {
+              addObject(entity, name, parser, projection);
+            }
+            else {
+              parser.skipValue();
+            }
+          }
+          parser.endObject();
+        }
         response.addEntity(entity);
       }
+      parser.endArray();
     }
+    return true;
   }
 
   private void addAction(final RelationAlchemyEntity entity, final JSONObject jsonObject) {
@@ -74,21 +112,25 @@ public class RelationsParser extends AbstractParser<RelationAlchemyEntity> {
     }
   }
 
-  private void addSubject(final RelationAlchemyEntity entity, final JSONObject jsonObject) {
+  private void addSubject(final RelationAlchemyEntity entity, final JSONObject jsonObject, final Projection projection) {
     if(jsonObject != null) {
       final String text = getString(JSONConstants.RELATIONS_SUBJECT_TEXT_KEY, jsonObject);
 
       final AlchemySubject subject = new AlchemySubject();
       subject.setText(text);
 
-      final SentimentAlchemyEntity sentimentAlchemyEntity = getSentiment(JSONConstants.SENTIMENT_KEY, jsonObject);
-      if(sentimentAlchemyEntity != null) {
-        subject.setSentiment(sentimentAlchemyEntity);
+      if(projection.includes(Projection.Facet.SENTIMENT)) {
+        final SentimentAlchemyEntity sentimentAlchemyEntity = getSentiment(JSONConstants.SENTIMENT_KEY, jsonObject);
+        if(sentimentAlchemyEntity != null) {
+          subject.setSentiment(sentimentAlchemyEntity);
+        }
       }
 
-      AlchemyEntity alchemyEntity = getEntity(jsonObject);
-      if(alchemyEntity != null) {
-        subject.setEntity(alchemyEntity);
+      if(projection.includes(Projection.Facet.ENTITY)) {
+        AlchemyEntity alchemyEntity = getEntity(jsonObject, projection);
+        if(alchemyEntity != null) {
+          subject.setEntity(alchemyEntity);
+        }
       }
 
       if(isValidSubject(subject)) {
@@ -97,25 +139,29 @@ public class RelationsParser extends AbstractParser<RelationAlchemyEntity> {
     }
   }
 
-  private void addObject(final RelationAlchemyEntity entity, final JSONObject jsonObject) {
+  private void addObject(final RelationAlchemyEntity entity, final JSONObject jsonObject, final Projection projection) {
     if(jsonObject != null) {
       final String text = getString(JSONConstants.RELATIONS_OBJECT_TEXT_KEY, jsonObject);
       final AlchemyObject object = new AlchemyObject();
       object.setText(text);
 
-      SentimentAlchemyEntity sentimentAlchemyEntity = getSentiment(JSONConstants.SENTIMENT_KEY, jsonObject);
-      if(sentimentAlchemyEntity != null) {
-        object.setSentiment(sentimentAlchemyEntity);
-      }
+      if(projection.includes(Projection.Facet.SENTIMENT)) {
+        SentimentAlchemyEntity sentimentAlchemyEntity = getSentiment(JSONConstants.SENTIMENT_KEY, jsonObject);
+        if(sentimentAlchemyEntity != null) {
+          object.setSentiment(sentimentAlchemyEntity);
+        }
 
-      sentimentAlchemyEntity = getSentiment(JSONConstants.RELATIONS_SENTIMENT_FROM_SUBJECT_KEY, jsonObject);
-      if(sentimentAlchemyEntity != null) {
-        object.setSentimentFromSubject(sentimentAlchemyEntity);
+        sentimentAlchemyEntity = getSentiment(JSONConstants.RELATIONS_SENTIMENT_FROM_SUBJECT_KEY, jsonObject);
+        if(sentimentAlchemyEntity != null) {
+          object.setSentimentFromSubject(sentimentAlchemyEntity);
+        }
       }
 
-      AlchemyEntity alchemyEntity = getEntity(jsonObject);
-      if(alchemyEntity != null) {
-        object.setEntity(alchemyEntity);
+      if(projection.includes(Projection.Facet.ENTITY)) {
+        AlchemyEntity alchemyEntity = getEntity(jsonObject, projection);
+        if(alchemyEntity != null) {
+          object.setEntity(alchemyEntity);
+        }
       }
 
       if(isValidObject(object)) {
@@ -124,19 +170,188 @@ public class RelationsParser extends AbstractParser<RelationAlchemyEntity> {
     }
   }
 
+  private void addAction(final RelationAlchemyEntity entity, final String key, final JsonPullParser parser) throws IOException {
+    if(!beginObject(key, parser)) {
+      return;
+    }
+    String text = null;
+    String lematized = null;
+    AlchemyVerb verb = null;
+    while(parser.hasNext()) {
+      final String name = parser.nextName();
+      if(JSONConstants.RELATIONS_ACTION_TEXT_KEY.equals(name)) {
+        text = nextString(name, parser);
+      }
+      else if(JSONConstants.RELATIONS_LEMMATIZED_KEY.equals(name)) {
+        lematized = nextString(name, parser);
+      }
+      else if(JSONConstants.RELATIONS_VERB_KEY.equals(name)) {
+        verb = getVerb(name, parser);
+      }
+      else {
+        parser.skipValue();
+      }
+    }
+    parser.endObject();
+    final AlchemyAction action = new AlchemyAction();
+    action.setText(text);
+    action.setLematized(lematized);
+    if(verb != null && isValidVerb(verb)) {
+      action.setVerb(verb);
+    }
+    if(isValidAction(action)) {
+      entity.setAction(action);
+    }
+  }
+
+  private AlchemyVerb getVerb(final String key, final JsonPullParser parser) throws IOException {
+    if(!beginObject(key, parser)) {
+      return null;
+    }
+    String verbText = null;
+    String tense = null;
+    Integer isNegated = null;
+    while(parser.hasNext()) {
+      final String name = parser.nextName();
+      if(JSONConstants.RELATIONS_VERB_TEXT_KEY.equals(name)) {
+        verbText = nextString(name, parser);
+      }
+      else if(JSONConstants.RELATIONS_VERB_TENSE_KEY.equals(name)) {
+        tense = nextString(name, parser);
+      }
+      else if(JSONConstants.RELATIONS_VERB_NEGATED_KEY.equals(name)) {
+        isNegated = nextInteger(name, parser);
+      }
+      else {
+        parser.skipValue();
+      }
+    }
+    parser.endObject();
+    return new AlchemyVerb(isNegated, tense, verbText);
+  }
+
+  private void addSubject(final RelationAlchemyEntity entity, final String key, final JsonPullParser parser, final Projection projection) throws IOException {
+    if(!beginObject(key, parser)) {
+      return;
+    }
+    String text = null;
+    SentimentAlchemyEntity sentimentAlchemyEntity = null;
+    AlchemyEntity alchemyEntity = null;
+    while(parser.hasNext()) {
+      final String name = parser.nextName();
+      if(JSONConstants.RELATIONS_SUBJECT_TEXT_KEY.equals(name)) {
+        text = nextString(name, parser);
+      }
+      else if(projection.includes(Projection.Facet.SENTIMENT) && JSONConstants.SENTIMENT_KEY.equals(name)) {
+        sentimentAlchemyEntity = nextSentiment(name, parser, true);
+      }
+      else if(projection.includes(Projection.Facet.ENTITY) && JSONConstants.RELATIONS_ENTITY_KEY.equals(name)) {
+        alchemyEntity = getEntity(name, parser, projection);
+      }
+      else {
+        parser.skipValue();
+      }
+    }
+    parser.endObject();
+    final AlchemySubject subject = new AlchemySubject();
+    subject.setText(text);
+    if(sentimentAlchemyEntity != null) {
+      subject.setSentiment(sentimentAlchemyEntity);
+    }
+    if(alchemyEntity != null) {
+      subject.setEntity(alchemyEntity);
+    }
+    if(isValidSubject(subject)) {
+      entity.setSubject(subject);
+    }
+  }
+
+  private void addObject(final RelationAlchemyEntity entity, final String key, final JsonPullParser parser, final Projection projection) throws IOException {
+    if(!beginObject(key, parser)) {
+      return;
+    }
+    String text = null;
+    SentimentAlchemyEntity sentimentAlchemyEntity = null;
+    SentimentAlchemyEntity sentimentFromSubject = null;
+    AlchemyEntity alchemyEntity = null;
+    while(parser.hasNext()) {
+      final String name = parser.nextName();
+      if(JSONConstants.RELATIONS_OBJECT_TEXT_KEY.equals(name)) {
+        text = nextString(name, parser);
+      }
+      else if(projection.includes(Projection.Facet.SENTIMENT) && JSONConstants.SENTIMENT_KEY.equals(name)) {
+        sentimentAlchemyEntity = nextSentiment(name, parser, true);
+      }
+      else if(projection.includes(Projection.Facet.SENTIMENT) && JSONConstants.RELATIONS_SENTIMENT_FROM_SUBJECT_KEY.equals(name)) {
+        sentimentFromSubject = nextSentiment(name, parser, true);
+      }
+      else if(projection.includes(Projection.Facet.ENTITY) && JSONConstants.RELATIONS_ENTITY_KEY.equals(name)) {
+        alchemyEntity = getEntity(name, parser, projection);
+      }
+      else {
+        parser.skipValue();
+      }
+    }
+    parser.endObject();
+    final AlchemyObject object = new AlchemyObject();
+    object.setText(text);
+    if(sentimentAlchemyEntity != null) {
+      object.setSentiment(sentimentAlchemyEntity);
+    }
+    if(sentimentFromSubject != null) {
+      object.setSentimentFromSubject(sentimentFromSubject);
+    }
+    if(alchemyEntity != null) {
+      object.setEntity(alchemyEntity);
+    }
+    if(isValidObject(object)) {
+      entity.setObject(object);
+    }
+  }
+
+  private AlchemyEntity getEntity(final String key, final JsonPullParser parser, final Projection projection) throws IOException {
+    String type = null;
+    String text = null;
+    DisambiguatedAlchemyEntity disambiguatedAlchemyEntity = null;
+    if(beginObject(key, parser)) {
+      while(parser.hasNext()) {
+        final String name = parser.nextName();
+        if(JSONConstants.RELATIONS_ENTITY_TYPE_KEY.equals(name)) {
+          type = nextString(name, parser);
+        }
+        else if(JSONConstants.RELATIONS_ENTITY_TEXT_KEY.equals(name)) {
+          text = nextString(name, parser);
+        }
+        else if(projection.includes(Projection.Facet.DISAMBIGUATED) && JSONConstants.DISAMBIGUATED_KEY.equals(name)) {
+          disambiguatedAlchemyEntity = DISAMBIGUATED_PARSER.getEntity(name, parser);
+        }
+        else {
+          parser.skipValue();
+        }
+      }
+      parser.endObject();
+    }
+    if(StringUtils.isBlank(type) && StringUtils.isBlank(text)) {
+      return null;
+    }
+    final AlchemyEntity entity = new AlchemyEntity(text, type);
+    if(disambiguatedAlchemyEntity != null) {
+      entity.setDisambiguatedAlchemyEntity(disambiguatedAlchemyEntity);
+    }
+    return entity;
+  }
+
   private void addDisambiguated(final AlchemyEntity entity, final JSONObject json) {
     final JSONObject disambiguatedJsonObject = getJSONObject(JSONConstants.DISAMBIGUATED_KEY, json);
 
-    final DisambiguatedEntityParser parser = new DisambiguatedEntityParser();
-
-    DisambiguatedAlchemyEntity disambiguatedAlchemyEntity = parser.getEntity(disambiguatedJsonObject);
+    DisambiguatedAlchemyEntity disambiguatedAlchemyEntity = DISAMBIGUATED_PARSER.getEntity(disambiguatedJsonObject);
     if(disambiguatedAlchemyEntity == null) {
       return;
     }
     entity.setDisambiguatedAlchemyEntity(disambiguatedAlchemyEntity);
   }
 
-  private AlchemyEntity getEntity(final JSONObject jsonObject) {
+  private AlchemyEntity getEntity(final JSONObject jsonObject, final Projection projection) {
     final JSONObject entityJsonObject = getJSONObject(JSONConstants.RELATIONS_ENTITY_KEY, jsonObject);
     final String type = getString(JSONConstants.RELATIONS_ENTITY_TYPE_KEY, entityJsonObject);
     final String text = getString(JSONConstants.RELATIONS_ENTITY_TEXT_KEY, entityJsonObject);
@@ -145,7 +360,9 @@ public class RelationsParser extends AbstractParser<RelationAlchemyEntity> {
     if(!StringUtils.isBlank(type) || !StringUtils.isBlank(text)) {
       entity = new AlchemyEntity(text, type);
 
-      addDisambiguated(entity, entityJsonObject);
+      if(projection.includes(Projection.Facet.DISAMBIGUATED)) {
+        addDisambiguated(entity, entityJsonObject);
+      }
     }
     return entity;
   }
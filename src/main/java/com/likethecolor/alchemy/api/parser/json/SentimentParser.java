@@ -20,13 +20,16 @@ package com.likethecolor.alchemy.api.parser.json;
 import com.likethecolor.alchemy.api.entity.SentimentAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.entity.SentimentAlchemyEntity;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 public class SentimentParser extends AbstractParser<SentimentAlchemyEntity> {
   @Override
-  protected void populateResponse(final Response<SentimentAlchemyEntity> response) {
-    final JSONObject jsonObject = getJSONObject();
+  protected void populateResponse(final JSONObject jsonObject, final Response<SentimentAlchemyEntity> response, final Projection projection) {
     final JSONObject sentimentJsonObject = getJSONObject(JSONConstants.TARGETED_SENTIMENT_KEY, jsonObject);
     final Integer isMixed = getInteger(JSONConstants.TARGETED_SENTIMENT_MIXED_KEY, sentimentJsonObject);
     final Double score = getDouble(JSONConstants.TARGETED_SENTIMENT_SCORE_KEY, sentimentJsonObject);
@@ -47,6 +50,15 @@ public class SentimentParser extends AbstractParser<SentimentAlchemyEntity> {
     }
   }
 
+  @Override
+  protected boolean parseMember(final String key, final JsonPullParser parser, final Response<SentimentAlchemyEntity> response, final Projection projection) throws IOException {
+    if(!JSONConstants.TARGETED_SENTIMENT_KEY.equals(key)) {
+      return false;
+    }
+    response.addEntity(nextSentiment(key, parser, true));
+    return true;
+  }
+
   /**
    * Return true if at least one of the values is not null/empty.
    *
@@ -19,14 +19,17 @@ package com.likethecolor.alchemy.api.parser.json;
 
 import com.likethecolor.alchemy.api.entity.TaxonomyAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 public class TaxonomiesParser extends AbstractParser<TaxonomyAlchemyEntity> {
-  protected void populateResponse(final Response<TaxonomyAlchemyEntity> response) {
-    final JSONObject jsonObject = getJSONObject();
+  protected void populateResponse(final JSONObject jsonObject, final Response<TaxonomyAlchemyEntity> response, final Projection projection) {
     final JSONArray taxonomies = getJSONArray(JSONConstants.TAXONOMY_KEY, jsonObject);
 
     if(taxonomies.length() > 0) {
@@ -49,6 +52,43 @@ public class TaxonomiesParser extends AbstractParser<TaxonomyAlchemyEntity> {
     }
   }
 
+  @Override
+  protected boolean parseMember(final String key, final JsonPullParser parser, final Response<TaxonomyAlchemyEntity> response, final Projection projection) throws IOException {
+    if(!JSONConstants.TAXONOMY_KEY.equals(key)) {
+      return false;
+    }
+    if(beginArray(key, parser)) {
+      while(parser.hasNext()) {
+        Boolean isConfident = null;
+        String label = null;
+        Double score = null;
+        if(beginElement(key, parser)) {
+          while(parser.hasNext()) {
+            final String name = parser.nextName();
+            if(JSONConstants.TAXONOMY_CONFIDENCE_KEY.equals(name)) {
+              isConfident = nextBoolean(name, parser);
+            }
+            else if(JSONConstants.TAXONOMY_LABEL_KEY.equals(name)) {
+              label = nextString(name, parser);
+            }
+            else if(JSONConstants.TAXONOMY_SCORE_KEY.equals(name)) {
+              score = nextDouble(name, parser);
+            }
+            else {
+              parser.skipValue();
+            }
+          }
+          parser.endObject();
+        }
+        if(isValidTaxonomy(label, score)) {
+          response.addEntity(new TaxonomyAlchemyEntity(label, score, isConfident));
+        }
+      }
+      parser.endArray();
+    }
+    return true;
+  }
+
   /**
    * Return a json object from the provided array.  Return an empty object if
    * there is any problems fetching the taxonomy data.
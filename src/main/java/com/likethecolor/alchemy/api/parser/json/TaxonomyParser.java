@@ -19,12 +19,15 @@ package com.likethecolor.alchemy.api.parser.json;
 
 import com.likethecolor.alchemy.api.entity.TaxonomyAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 public class TaxonomyParser extends AbstractParser<TaxonomyAlchemyEntity> {
-  protected void populateResponse(final Response<TaxonomyAlchemyEntity> response) {
-    final JSONObject jsonObject = getJSONObject();
+  protected void populateResponse(final JSONObject jsonObject, final Response<TaxonomyAlchemyEntity> response, final Projection projection) {
     final Boolean isConfident = getBoolean(JSONConstants.TAXONOMY_CONFIDENCE_KEY, jsonObject);
     final String label = getString(JSONConstants.TAXONOMY_LABEL_KEY, jsonObject);
     final Double score = getDouble(JSONConstants.TAXONOMY_SCORE_KEY, jsonObject);
@@ -34,6 +37,31 @@ public class TaxonomyParser extends AbstractParser<TaxonomyAlchemyEntity> {
     }
   }
 
+  @Override
+  protected void populateResponse(final JsonPullParser parser, final Response<TaxonomyAlchemyEntity> response, final Projection projection) throws IOException {
+    Boolean isConfident = null;
+    String label = null;
+    Double score = null;
+    while(parser.hasNext()) {
+      final String key = parser.nextName();
+      if(JSONConstants.TAXONOMY_CONFIDENCE_KEY.equals(key)) {
+        isConfident = nextBoolean(key, parser);
+      }
+      else if(JSONConstants.TAXONOMY_LABEL_KEY.equals(key)) {
+        label = nextString(key, parser);
+      }
+      else if(JSONConstants.TAXONOMY_SCORE_KEY.equals(key)) {
+        score = nextDouble(key, parser);
+      }
+      else if(!parseHeader(key, parser, response)) {
+        parser.skipValue();
+      }
+    }
+    if(isValidTaxonomy(label, score)) {
+      response.addEntity(new TaxonomyAlchemyEntity(label, score, isConfident));
+    }
+  }
+
   /**
    * Return true if at least one of the values is not null/empty.
    *
@@ -19,9 +19,11 @@ package com.likethecolor.alchemy.api.parser.json;
 
 import com.likethecolor.alchemy.api.entity.HeaderAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.Projection;
+import org.json.JSONObject;
 
 public class TextParser extends AbstractParser<HeaderAlchemyEntity> {
   @Override
-  protected void populateResponse(Response<HeaderAlchemyEntity> response) {
+  protected void populateResponse(final JSONObject jsonObject, final Response<HeaderAlchemyEntity> response, final Projection projection) {
   }
 }
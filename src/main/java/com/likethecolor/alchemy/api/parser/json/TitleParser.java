@@ -19,17 +19,37 @@ package com.likethecolor.alchemy.api.parser.json;
 
 import com.likethecolor.alchemy.api.entity.TitleAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.apache.commons.lang.StringUtils;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 public class TitleParser extends AbstractParser<TitleAlchemyEntity> {
   @Override
-  protected void populateResponse(Response<TitleAlchemyEntity> response) {
-    final JSONObject jsonObject = getJSONObject();
+  protected void populateResponse(final JSONObject jsonObject, final Response<TitleAlchemyEntity> response, final Projection projection) {
 
     final String title = getString(JSONConstants.TITLE_KEY, jsonObject);
     if(!StringUtils.isBlank(title)) {
       response.addEntity(new TitleAlchemyEntity(title));
     }
   }
+
+  @Override
+  protected void populateResponse(final JsonPullParser parser, final Response<TitleAlchemyEntity> response, final Projection projection) throws IOException {
+    String title = null;
+    while(parser.hasNext()) {
+      final String key = parser.nextName();
+      if(JSONConstants.TITLE_KEY.equals(key)) {
+        title = nextString(key, parser);
+      }
+      else if(!parseHeader(key, parser, response)) {
+        parser.skipValue();
+      }
+    }
+    if(!StringUtils.isBlank(title)) {
+      response.addEntity(new TitleAlchemyEntity(title));
+    }
+  }
 }
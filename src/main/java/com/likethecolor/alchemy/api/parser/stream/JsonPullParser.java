@@ -0,0 +1,802 @@
+/**
+ * File: JsonPullParser.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.parser.stream;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads a JSON document one token at a time, front to back, without building
+ * a tree.  The caller walks the document with {@link #beginObject()},
+ * {@link #hasNext()}, {@link #nextName()}, {@link #nextScalar()} and friends
+ * and skips what it does not need with {@link #skipValue()}.
+ * <p/>
+ * The grammar is the lenient one of the org.json tokenizer the parsers were
+ * written against, so any document it accepts reads the same here: single
+ * quoted strings, unquoted words, '=' or '=&gt;' after a name, ';' between
+ * values, '(' and ')' around arrays, trailing commas and left out array
+ * elements are all allowed, and unquoted values are typed the way
+ * {@code JSONObject.stringToValue} types them (hex and octal integers
+ * included).  Documents it rejects (a repeated name in an object, a
+ * non-finite number as a member, a missing value) are rejected with a
+ * {@link JsonSyntaxException}.  As with org.json anything after the closing
+ * brace of the top level object is ignored.
+ * <p/>
+ * Instances are not thread safe; use one per document.
+ */
+public class JsonPullParser {
+  /**
+   * Value of an unquoted null.
+   */
+  public static final Object NULL = new Object() {
+    @Override
+    public String toString() {
+      return "null";
+    }
+  };
+
+  private static final int BUFFER_SIZE = 8192;
+  private static final int INITIAL_DEPTH = 16;
+
+  // where an open object or array is between its brackets
+  private static final int BEFORE_FIRST = 0;
+  private static final int HAS_NEXT = 1;
+  private static final int AFTER_NAME = 2;
+  private static final int AFTER_VALUE = 3;
+  private static final int CLOSED = 4;
+
+  private final Reader reader;
+  private final char[] buffer;
+  private int position;
+  private int limit;
+  // characters read before the start of the buffer
+  private long offset;
+  // the last call to next() hit the end of the input
+  private boolean isEnd;
+  private final StringBuilder text = new StringBuilder();
+
+  private int depth;
+  private int[] states = new int[INITIAL_DEPTH];
+  // closing bracket of each open object or array
+  private char[] closers = new char[INITIAL_DEPTH];
+  // names read so far in each open object
+  private final List<Set<String>> names = new ArrayList<Set<String>>();
+
+  /**
+   * @param reader source of the document; it is not closed
+   */
+  public JsonPullParser(final Reader reader) {
+    if(reader == null) {
+      throw new IllegalArgumentException("Reader cannot be null.");
+    }
+    this.reader = reader;
+    this.buffer = new char[BUFFER_SIZE];
+  }
+
+  /**
+   * @param json the document
+   */
+  public JsonPullParser(final String json) {
+    if(json == null) {
+      throw new IllegalArgumentException("JSON string cannot be null.");
+    }
+    this.reader = null;
+    this.buffer = json.toCharArray();
+    this.limit = buffer.length;
+  }
+
+  /**
+   * @return kind of the next value, which is not consumed
+   *
+   * @throws IOException if the document cannot be read
+   */
+  public JsonToken peek() throws IOException {
+    beforeValue();
+    final char c = nextClean();
+    back();
+    switch(c) {
+      case '"':
+      case '\'':
+        return JsonToken.STRING;
+      case '{':
+        return JsonToken.OBJECT;
+      case '[':
+      case '(':
+        return JsonToken.ARRAY;
+      case ',':
+        return isInArray() ? JsonToken.ABSENT : JsonToken.LITERAL;
+      default:
+        return JsonToken.LITERAL;
+    }
+  }
+
+  /**
+   * Consume the opening brace of an object.
+   *
+   * @throws IOException if the next value is not an object
+   */
+  public void beginObject() throws IOException {
+    beforeValue();
+    if(nextClean() != '{') {
+      throw syntaxError("A JSONObject text must begin with '{'");
+    }
+    push('}');
+  }
+
+  /**
+   * Skip whatever members of the current object have not been read and
+   * consume its closing brace.
+   *
+   * @throws IOException if the document cannot be read
+   */
+  public void endObject() throws IOException {
+    getFrame(true);
+    while(hasNext()) {
+      nextName();
+      skipValue();
+    }
+    pop();
+  }
+
+  /**
+   * Consume the opening bracket of an array.
+   *
+   * @throws IOException if the next value is not an array
+   */
+  public void beginArray() throws IOException {
+    beforeValue();
+    final char c = nextClean();
+    if(c == '[') {
+      push(']');
+    }
+    else if(c == '(') {
+      push(')');
+    }
+    else {
+      throw syntaxError("A JSONArray text must start with '['");
+    }
+  }
+
+  /**
+   * Skip whatever elements of the current array have not been read and
+   * consume its closing bracket.
+   *
+   * @throws IOException if the document cannot be read
+   */
+  public void endArray() throws IOException {
+    getFrame(false);
+    while(hasNext()) {
+      skipValue();
+    }
+    pop();
+  }
+
+  /**
+   * @return true if the current object has another member or the current
+   * array another element
+   *
+   * @throws IOException if the document cannot be read
+   */
+  public boolean hasNext() throws IOException {
+    if(depth == 0) {
+      throw new IllegalStateException("Not in an object or array.");
+    }
+    final int frame = depth - 1;
+    final int state = states[frame];
+    if(state == HAS_NEXT) {
+      return true;
+    }
+    if(state == CLOSED) {
+      return false;
+    }
+    if(state == AFTER_NAME) {
+      throw new IllegalStateException("Expected the value of the last name.");
+    }
+    final char closer = closers[frame];
+    char c = nextClean();
+    if(state == AFTER_VALUE) {
+      if(c == ',' || c == ';') {
+        c = nextClean();
+        if(c == ']' && closer != '}' || c == '}' && closer == '}') {
+          return close(frame);
+        }
+        if(c == 0 && closer == '}') {
+          throw syntaxError("A JSONObject text must end with '}'");
+        }
+      }
+      else if(closer == '}') {
+        if(c != '}') {
+          throw syntaxError("Expected a ',' or '}'");
+        }
+        return close(frame);
+      }
+      else if(c == ']' || c == ')') {
+        if(c != closer) {
+          throw syntaxError("Expected a '" + closer + "'");
+        }
+        return close(frame);
+      }
+      else {
+        throw syntaxError("Expected a ',' or ']'");
+      }
+    }
+    else if(closer == '}') {
+      if(c == 0) {
+        throw syntaxError("A JSONObject text must end with '}'");
+      }
+      if(c == '}') {
+        return close(frame);
+      }
+    }
+    else if(c == ']') {
+      return close(frame);
+    }
+    back();
+    states[frame] = HAS_NEXT;
+    return true;
+  }
+
+  /**
+   * @return name of the next member of the current object
+   *
+   * @throws IOException if the name is malformed or repeats one already read
+   * in the object
+   */
+  public String nextName() throws IOException {
+    final int frame = getFrame(true);
+    if(!hasNext()) {
+      throw new IllegalStateException("No more members in the object.");
+    }
+    final char c = nextClean();
+    final String name;
+    switch(c) {
+      case '"':
+      case '\'':
+        name = readString(c);
+        break;
+      case '{':
+      case '[':
+      case '(':
+        throw syntaxError("Expected a name");
+      default:
+        back();
+        name = toValue(readLiteral()).toString();
+    }
+    final char separator = nextClean();
+    if(separator == '=') {
+      if(next() != '>') {
+        back();
+      }
+    }
+    else if(separator != ':') {
+      throw syntaxError("Expected a ':' after a key");
+    }
+    if(!names.get(frame).add(name)) {
+      throw syntaxError("Duplicate key \"" + name + "\"");
+    }
+    states[frame] = AFTER_NAME;
+    return name;
+  }
+
+  /**
+   * Read a string, number, boolean or null.
+   *
+   * @return a String for a quoted value, {@link #NULL} for null, a Boolean,
+   * an Integer, a Long or a Double for an unquoted value that reads as one,
+   * the String itself for any other unquoted value and null for a left out
+   * array element
+   *
+   * @throws IOException if the value is malformed
+   */
+  public Object nextScalar() throws IOException {
+    beforeValue();
+    final char c = nextClean();
+    if(c == ',' && isInArray()) {
+      // a left out array element
+      back();
+      afterValue();
+      return null;
+    }
+    final Object value;
+    switch(c) {
+      case '"':
+      case '\'':
+        value = readString(c);
+        break;
+      case '{':
+      case '[':
+      case '(':
+        back();
+        throw new IllegalStateException("Expected a scalar but was " + (c == '{' ? "an object." : "an array."));
+      default:
+        back();
+        value = checkValue(toValue(readLiteral()));
+    }
+    afterValue();
+    return value;
+  }
+
+  /**
+   * Read the next value, whatever it is, as JSON text.  Members and elements
+   * keep their order, strings are re-quoted with double quotes and unquoted
+   * values are copied as they are, so the text parses to the same value.
+   *
+   * @return the next value as JSON text
+   *
+   * @throws IOException if the value is malformed
+   */
+  public String nextJson() throws IOException {
+    final StringBuilder json = new StringBuilder();
+    writeValue(json);
+    return json.toString();
+  }
+
+  /**
+   * Skip the next value, including everything inside it.
+   *
+   * @throws IOException if the value is malformed
+   */
+  public void skipValue() throws IOException {
+    beforeValue();
+    final char c = nextClean();
+    if(c == ',' && isInArray()) {
+      // a left out array element
+      back();
+      afterValue();
+      return;
+    }
+    switch(c) {
+      case '"':
+      case '\'':
+        scanString(c);
+        break;
+      case '{':
+        back();
+        beginObject();
+        endObject();
+        return;
+      case '[':
+      case '(':
+        back();
+        beginArray();
+        endArray();
+        return;
+      default:
+        back();
+        final String literal = readLiteral();
+        if(isInObject()) {
+          checkValue(toValue(literal));
+        }
+    }
+    afterValue();
+  }
+
+  private void writeValue(final StringBuilder json) throws IOException {
+    beforeValue();
+    final char c = nextClean();
+    back();
+    if(c == ',' && isInArray()) {
+      // a left out array element
+      nextScalar();
+      json.append("null");
+      return;
+    }
+    switch(c) {
+      case '{':
+        beginObject();
+        json.append('{');
+        while(hasNext()) {
+          if(json.charAt(json.length() - 1) != '{') {
+            json.append(',');
+          }
+          quote(nextName(), json);
+          json.append(':');
+          writeValue(json);
+        }
+        endObject();
+        json.append('}');
+        break;
+      case '[':
+      case '(':
+        beginArray();
+        json.append('[');
+        while(hasNext()) {
+          if(json.charAt(json.length() - 1) != '[') {
+            json.append(',');
+          }
+          writeValue(json);
+        }
+        endArray();
+        json.append(']');
+        break;
+      case '"':
+      case '\'':
+        quote((String) nextScalar(), json);
+        break;
+      default:
+        final String literal = readLiteral();
+        if(isInObject()) {
+          checkValue(toValue(literal));
+        }
+        json.append(literal);
+        afterValue();
+    }
+  }
+
+  /**
+   * Type an unquoted value the way {@code JSONObject.stringToValue} does,
+   * without the exceptions it uses for control flow.
+   *
+   * @param s trimmed unquoted value
+   *
+   * @return Boolean, {@link #NULL}, Integer, Long, Double or the string
+   */
+  static Object toValue(final String s) {
+    if(s.length() == 0) {
+      return s;
+    }
+    if(s.equalsIgnoreCase("true")) {
+      return Boolean.TRUE;
+    }
+    if(s.equalsIgnoreCase("false")) {
+      return Boolean.FALSE;
+    }
+    if(s.equalsIgnoreCase("null")) {
+      return NULL;
+    }
+    final char b = s.charAt(0);
+    if((b >= '0' && b <= '9') || b == '.' || b == '-' || b == '+') {
+      if(b == '0') {
+        final Integer value;
+        if(s.length() > 2 && (s.charAt(1) == 'x' || s.charAt(1) == 'X')) {
+          value = parseInteger(s, 2, 16);
+        }
+        else {
+          value = parseInteger(s, 0, 8);
+        }
+        if(value != null) {
+          return value;
+        }
+      }
+      if(isInteger(s, 0, 10)) {
+        final Integer value = parseInteger(s, 0, 10);
+        if(value != null) {
+          return value;
+        }
+        try {
+          return Long.valueOf(s);
+        }
+        catch(NumberFormatException e) {
+          // too large for a long
+        }
+      }
+      try {
+        return Double.valueOf(s);
+      }
+      catch(NumberFormatException e) {
+        // a word that starts like a number
+      }
+    }
+    return s;
+  }
+
+  private static Integer parseInteger(final String s, final int from, final int radix) {
+    if(!isInteger(s, from, radix)) {
+      return null;
+    }
+    try {
+      return Integer.valueOf(Integer.parseInt(s, from, s.length(), radix));
+    }
+    catch(NumberFormatException e) {
+      // too large for an int
+      return null;
+    }
+  }
+
+  /**
+   * @return true if the characters from the index on are an optional sign
+   * and at least one digit
+   */
+  private static boolean isInteger(final String s, final int from, final int radix) {
+    int i = from;
+    if(i < s.length() && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+      i++;
+    }
+    if(i == s.length()) {
+      return false;
+    }
+    for(; i < s.length(); i++) {
+      if(Character.digit(s.charAt(i), radix) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void quote(final String s, final StringBuilder json) {
+    json.append('"');
+    for(int i = 0; i < s.length(); i++) {
+      final char c = s.charAt(i);
+      if(c == '"' || c == '\\') {
+        json.append('\\').append(c);
+      }
+      else if(c < ' ') {
+        json.append(String.format("\\u%04x", (int) c));
+      }
+      else {
+        json.append(c);
+      }
+    }
+    json.append('"');
+  }
+
+  /**
+   * org.json refuses to put a non-finite number in an object.
+   */
+  private Object checkValue(final Object value) throws JsonSyntaxException {
+    if(value instanceof Double && isInObject() && (((Double) value).isInfinite() || ((Double) value).isNaN())) {
+      throw syntaxError("JSON does not allow non-finite numbers.");
+    }
+    return value;
+  }
+
+  private String readString(final char quote) throws IOException {
+    scanString(quote);
+    return text.toString();
+  }
+
+  /**
+   * Decode the rest of a quoted string into {@link #text}.
+   */
+  private void scanString(final char quote) throws IOException {
+    text.setLength(0);
+    for(;;) {
+      final int start = position;
+      while(position < limit) {
+        final char c = buffer[position];
+        if(c == quote || c == '\\' || c == '\n' || c == '\r' || c == 0) {
+          break;
+        }
+        position++;
+      }
+      text.append(buffer, start, position - start);
+      if(position == limit) {
+        if(!fill()) {
+          throw syntaxError("Unterminated string");
+        }
+        continue;
+      }
+      final char c = buffer[position++];
+      if(c == quote) {
+        return;
+      }
+      if(c != '\\') {
+        throw syntaxError("Unterminated string");
+      }
+      final char escaped = next();
+      switch(escaped) {
+        case 'b':
+          text.append('\b');
+          break;
+        case 't':
+          text.append('\t');
+          break;
+        case 'n':
+          text.append('\n');
+          break;
+        case 'f':
+          text.append('\f');
+          break;
+        case 'r':
+          text.append('\r');
+          break;
+        case 'u':
+          text.append(readHex(4));
+          break;
+        case 'x':
+          text.append(readHex(2));
+          break;
+        default:
+          text.append(escaped);
+      }
+    }
+  }
+
+  private char readHex(final int length) throws IOException {
+    int value = 0;
+    for(int i = 0; i < length; i++) {
+      final int digit = Character.digit(next(), 16);
+      if(isEnd) {
+        throw syntaxError("Substring bounds error");
+      }
+      if(digit < 0) {
+        throw syntaxError("Illegal escape.");
+      }
+      value = (value << 4) | digit;
+    }
+    return (char) value;
+  }
+
+  /**
+   * @return the unquoted value up to the next delimiter, trimmed
+   */
+  private String readLiteral() throws IOException {
+    text.setLength(0);
+    for(;;) {
+      final char c = next();
+      if(isDelimiter(c)) {
+        back();
+        break;
+      }
+      text.append(c);
+    }
+    int start = 0;
+    int end = text.length();
+    while(start < end && text.charAt(start) <= ' ') {
+      start++;
+    }
+    while(end > start && text.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    if(start == end) {
+      throw syntaxError("Missing value");
+    }
+    return text.substring(start, end);
+  }
+
+  private static boolean isDelimiter(final char c) {
+    switch(c) {
+      case ',':
+      case ':':
+      case ']':
+      case '}':
+      case '/':
+      case '\\':
+      case '"':
+      case '[':
+      case '{':
+      case ';':
+      case '=':
+      case '#':
+        return true;
+      default:
+        return c < ' ';
+    }
+  }
+
+  /**
+   * @return next character or 0 at the end of the input
+   */
+  private char next() throws IOException {
+    if(position == limit && !fill()) {
+      isEnd = true;
+      return 0;
+    }
+    isEnd = false;
+    return buffer[position++];
+  }
+
+  /**
+   * Step back over the character just read by {@link #next()}.
+   */
+  private void back() {
+    if(!isEnd) {
+      position--;
+    }
+  }
+
+  private char nextClean() throws IOException {
+    for(;;) {
+      final char c = next();
+      if(c == 0 || c > ' ') {
+        return c;
+      }
+    }
+  }
+
+  /**
+   * @return false at the end of the input
+   */
+  private boolean fill() throws IOException {
+    if(reader == null) {
+      return false;
+    }
+    int count;
+    do {
+      count = reader.read(buffer, 0, buffer.length);
+    }
+    while(count == 0);
+    if(count < 0) {
+      return false;
+    }
+    offset += limit;
+    position = 0;
+    limit = count;
+    return true;
+  }
+
+  private void beforeValue() {
+    if(depth > 0) {
+      final int frame = depth - 1;
+      if(closers[frame] == '}' ? states[frame] != AFTER_NAME : states[frame] != HAS_NEXT) {
+        throw new IllegalStateException(closers[frame] == '}' ? "Expected a name." : "Expected a call to hasNext().");
+      }
+    }
+  }
+
+  private void afterValue() {
+    if(depth > 0) {
+      states[depth - 1] = AFTER_VALUE;
+    }
+  }
+
+  private void push(final char closer) {
+    if(depth == states.length) {
+      states = Arrays.copyOf(states, depth * 2);
+      closers = Arrays.copyOf(closers, depth * 2);
+    }
+    states[depth] = BEFORE_FIRST;
+    closers[depth] = closer;
+    if(closer == '}') {
+      while(names.size() <= depth) {
+        names.add(null);
+      }
+      final Set<String> objectNames = names.get(depth);
+      if(objectNames == null) {
+        names.set(depth, new HashSet<String>());
+      }
+      else {
+        objectNames.clear();
+      }
+    }
+    depth++;
+  }
+
+  private void pop() {
+    depth--;
+    afterValue();
+  }
+
+  private boolean close(final int frame) {
+    states[frame] = CLOSED;
+    return false;
+  }
+
+  private int getFrame(final boolean isObject) {
+    if(depth == 0 || (closers[depth - 1] == '}') != isObject) {
+      throw new IllegalStateException(isObject ? "Not in an object." : "Not in an array.");
+    }
+    return depth - 1;
+  }
+
+  private boolean isInObject() {
+    return depth > 0 && closers[depth - 1] == '}';
+  }
+
+  private boolean isInArray() {
+    return depth > 0 && closers[depth - 1] != '}';
+  }
+
+  private JsonSyntaxException syntaxError(final String message) {
+    return new JsonSyntaxException(message, offset + position);
+  }
+}
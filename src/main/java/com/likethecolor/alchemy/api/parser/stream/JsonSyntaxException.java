@@ -0,0 +1,54 @@
+/**
+ * File: JsonSyntaxException.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.parser.stream;
+
+import java.io.IOException;
+
+/**
+ * The document is not JSON that org.json would accept.
+ */
+public class JsonSyntaxException extends IOException {
+  private static final long serialVersionUID = 1L;
+
+  private final long offset;
+
+  /**
+   * @param message what was wrong
+   * @param offset number of characters read when the problem was found
+   */
+  public JsonSyntaxException(final String message, final long offset) {
+    super(message + " at character " + offset);
+    this.offset = offset;
+  }
+
+  /**
+   * @param message what was wrong
+   * @param cause failure of another parser that rejected the document
+   */
+  public JsonSyntaxException(final String message, final Throwable cause) {
+    super(message, cause);
+    this.offset = -1L;
+  }
+
+  /**
+   * @return number of characters read when the problem was found or -1 if
+   * it is not known
+   */
+  public long getOffset() {
+    return offset;
+  }
+}
@@ -0,0 +1,56 @@
+/**
+ * File: JsonToken.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.parser.stream;
+
+/**
+ * Kind of the next value in the document, as returned by
+ * {@link JsonPullParser#peek()}.
+ */
+public enum JsonToken {
+  /**
+   * An object ({@code {...}}).
+   */
+  OBJECT,
+
+  /**
+   * An array ({@code [...]} or {@code (...)}).
+   */
+  ARRAY,
+
+  /**
+   * A single or double quoted string.
+   */
+  STRING,
+
+  /**
+   * An unquoted value: a number, true, false, null or a bare word.
+   */
+  LITERAL,
+
+  /**
+   * An array element left out between two commas ({@code [1,,2]}), which
+   * reads as null.
+   */
+  ABSENT;
+
+  /**
+   * @return true if the value is an object or an array
+   */
+  public boolean isStructure() {
+    return this == OBJECT || this == ARRAY;
+  }
+}
@@ -0,0 +1,39 @@
+/**
+ * File: AsyncTransport.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link Transport} that can send a request without blocking the calling
+ * thread.  {@link com.likethecolor.alchemy.api.Client#callAsync} uses this when
+ * the client's transport implements it.
+ *
+ * @see HttpClientTransport
+ */
+public interface AsyncTransport extends Transport {
+  /**
+   * Send the request.  The returned future completes, on one of the
+   * transport's own threads, once the whole body has arrived; reading the
+   * body of the completed response never blocks on the network.
+   *
+   * @param request request to send
+   *
+   * @return future response with a fully buffered body
+   */
+  public CompletableFuture<TransportResponse> executeAsync(final TransportRequest request);
+}
@@ -0,0 +1,49 @@
+/**
+ * File: BodyInputStream.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import java.io.FilterInputStream;
+import java.io.InputStream;
+
+/**
+ * Base class for the streams that frame a response body on a keep-alive
+ * connection.  The framing is what tells the pool whether the connection is
+ * positioned at the start of the next response and can therefore be reused.
+ */
+abstract class BodyInputStream extends FilterInputStream {
+  BodyInputStream(final InputStream in) {
+    super(in);
+  }
+
+  /**
+   * @return true if the whole body has been read off the connection
+   */
+  abstract boolean isComplete();
+
+  /**
+   * The connection outlives the body; {@link PooledTransport} decides whether
+   * to close it.
+   */
+  @Override
+  public void close() {
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+}
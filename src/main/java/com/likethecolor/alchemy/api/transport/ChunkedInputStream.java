@@ -0,0 +1,125 @@
+/**
+ * File: ChunkedInputStream.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes a body sent with "Transfer-Encoding: chunked".  Trailers are read
+ * and discarded so that the connection is left at the start of the next
+ * response.
+ */
+class ChunkedInputStream extends BodyInputStream {
+  private long chunkRemaining;
+  private boolean isChunkStarted;
+  private boolean isComplete;
+
+  ChunkedInputStream(final InputStream in) {
+    super(in);
+  }
+
+  @Override
+  public int read() throws IOException {
+    if(!ensureChunk()) {
+      return -1;
+    }
+    final int b = in.read();
+    if(b == -1) {
+      throw new EOFException("Connection closed in the middle of a chunk");
+    }
+    chunkRemaining--;
+    return b;
+  }
+
+  @Override
+  public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+    if(!ensureChunk()) {
+      return -1;
+    }
+    final int count = in.read(buffer, offset, (int) Math.min(length, chunkRemaining));
+    if(count == -1) {
+      throw new EOFException("Connection closed in the middle of a chunk");
+    }
+    chunkRemaining -= count;
+    return count;
+  }
+
+  @Override
+  public int available() throws IOException {
+    if(isComplete) {
+      return 0;
+    }
+    return (int) Math.min(in.available(), chunkRemaining);
+  }
+
+  @Override
+  boolean isComplete() {
+    return isComplete;
+  }
+
+  /**
+   * Position the stream on a chunk with data in it.
+   *
+   * @return false if the last chunk has been read
+   */
+  private boolean ensureChunk() throws IOException {
+    if(isComplete) {
+      return false;
+    }
+    if(chunkRemaining > 0) {
+      return true;
+    }
+    if(chunkRemaining == 0 && isChunkStarted) {
+      // CRLF that terminates the previous chunk's data
+      HttpConnection.readLine(in);
+    }
+    final String sizeLine = HttpConnection.readLine(in);
+    if(sizeLine == null) {
+      throw new EOFException("Connection closed before the last chunk");
+    }
+    chunkRemaining = parseChunkSize(sizeLine);
+    isChunkStarted = true;
+    if(chunkRemaining == 0) {
+      // trailers end with an empty line
+      String trailer;
+      do {
+        trailer = HttpConnection.readLine(in);
+      }
+      while(trailer != null && trailer.length() > 0);
+      isComplete = true;
+      return false;
+    }
+    return true;
+  }
+
+  private long parseChunkSize(final String sizeLine) throws IOException {
+    final int extension = sizeLine.indexOf(';');
+    final String size = (extension == -1 ? sizeLine : sizeLine.substring(0, extension)).trim();
+    try {
+      final long chunkSize = Long.parseLong(size, 16);
+      if(chunkSize < 0) {
+        throw new IOException("Invalid chunk size: " + sizeLine);
+      }
+      return chunkSize;
+    }
+    catch(NumberFormatException e) {
+      throw new IOException("Invalid chunk size: " + sizeLine);
+    }
+  }
+}
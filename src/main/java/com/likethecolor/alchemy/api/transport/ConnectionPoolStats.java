@@ -0,0 +1,123 @@
+/**
+ * File: ConnectionPoolStats.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * Point in time snapshot of the counters kept by a {@link PooledTransport}.
+ */
+public class ConnectionPoolStats {
+  private final long requests;
+  private final long connectionsCreated;
+  private final long connectionsReused;
+  private final long connectionsEvicted;
+  private final long connectionsClosed;
+  private final int idleConnections;
+  private final int leasedConnections;
+
+  public ConnectionPoolStats(final long requests, final long connectionsCreated, final long connectionsReused,
+                             final long connectionsEvicted, final long connectionsClosed,
+                             final int idleConnections, final int leasedConnections) {
+    this.requests = requests;
+    this.connectionsCreated = connectionsCreated;
+    this.connectionsReused = connectionsReused;
+    this.connectionsEvicted = connectionsEvicted;
+    this.connectionsClosed = connectionsClosed;
+    this.idleConnections = idleConnections;
+    this.leasedConnections = leasedConnections;
+  }
+
+  /**
+   * @return number of requests sent
+   */
+  public long getRequests() {
+    return requests;
+  }
+
+  /**
+   * @return number of connections opened (each one a TCP connect and, for
+   * https, a TLS handshake)
+   */
+  public long getConnectionsCreated() {
+    return connectionsCreated;
+  }
+
+  /**
+   * @return number of requests that were sent on an already open connection
+   */
+  public long getConnectionsReused() {
+    return connectionsReused;
+  }
+
+  /**
+   * @return number of idle connections closed because they exceeded the idle
+   * timeout
+   */
+  public long getConnectionsEvicted() {
+    return connectionsEvicted;
+  }
+
+  /**
+   * @return total number of connections closed for any reason
+   */
+  public long getConnectionsClosed() {
+    return connectionsClosed;
+  }
+
+  /**
+   * @return number of open connections waiting in the pool
+   */
+  public int getIdleConnections() {
+    return idleConnections;
+  }
+
+  /**
+   * @return number of connections currently carrying a request
+   */
+  public int getLeasedConnections() {
+    return leasedConnections;
+  }
+
+  /**
+   * @return fraction of requests that reused a connection (0.0 - 1.0)
+   */
+  public double getReuseRatio() {
+    if(requests == 0) {
+      return 0.0D;
+    }
+    return (double) connectionsReused / requests;
+  }
+
+  @Override
+  public String toString() {
+    return toString(ToStringStyle.DEFAULT_STYLE);
+  }
+
+  public String toString(final ToStringStyle style) {
+    return new ToStringBuilder(this, style)
+        .append("requests", requests)
+        .append("connectionsCreated", connectionsCreated)
+        .append("connectionsReused", connectionsReused)
+        .append("connectionsEvicted", connectionsEvicted)
+        .append("connectionsClosed", connectionsClosed)
+        .append("idleConnections", idleConnections)
+        .append("leasedConnections", leasedConnections)
+        .toString();
+  }
+}
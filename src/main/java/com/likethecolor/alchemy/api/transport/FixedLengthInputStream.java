@@ -0,0 +1,70 @@
+/**
+ * File: FixedLengthInputStream.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads exactly Content-Length bytes of a body from a connection that stays
+ * open afterwards.  Closing this stream does not close the connection.
+ */
+class FixedLengthInputStream extends BodyInputStream {
+  private long remaining;
+
+  FixedLengthInputStream(final InputStream in, final long length) {
+    super(in);
+    this.remaining = length;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if(remaining <= 0) {
+      return -1;
+    }
+    final int b = in.read();
+    if(b == -1) {
+      throw new EOFException("Connection closed with " + remaining + " body bytes outstanding");
+    }
+    remaining--;
+    return b;
+  }
+
+  @Override
+  public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+    if(remaining <= 0) {
+      return -1;
+    }
+    final int count = in.read(buffer, offset, (int) Math.min(length, remaining));
+    if(count == -1) {
+      throw new EOFException("Connection closed with " + remaining + " body bytes outstanding");
+    }
+    remaining -= count;
+    return count;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return (int) Math.min(in.available(), remaining);
+  }
+
+  @Override
+  boolean isComplete() {
+    return remaining <= 0;
+  }
+}
@@ -0,0 +1,365 @@
+/**
+ * File: Http2Transport.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpClient;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@link AsyncTransport} that multiplexes many concurrent calls as HTTP/2
+ * streams over a few TCP connections to the gateway.
+ * <p/>
+ * The transport owns a fixed number of connections (each backed by its own
+ * JDK {@link java.net.http.HttpClient}, which keeps a single HTTP/2 connection
+ * per host) and allows at most max concurrent streams on each.  A request is
+ * sent on the least loaded connection; once every connection is at its limit
+ * requests queue in arrival order until a stream finishes.  Keep the limit at
+ * or below the server's advertised SETTINGS_MAX_CONCURRENT_STREAMS.
+ * <p/>
+ * The protocol is negotiated per connection (ALPN for https, an h2c upgrade
+ * for http).  A server that will not speak HTTP/2 is talked to over HTTP/1.1
+ * instead; the same limits then bound the number of HTTP/1.1 requests in
+ * flight.  {@link #getHttp2Responses()} and {@link #getHttp11Responses()} show
+ * which protocol was used.
+ */
+public class Http2Transport implements AsyncTransport {
+  public static final int DEFAULT_CONNECTIONS = 2;
+  public static final int DEFAULT_MAX_CONCURRENT_STREAMS = 100;
+
+  private final Connection[] connections;
+  private final int maxConcurrentStreams;
+  private final Deque<CompletableFuture<Connection>> waiters = new ArrayDeque<CompletableFuture<Connection>>();
+  private final Lock lock = new ReentrantLock();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong queuedRequests = new AtomicLong();
+  private final AtomicLong http2Responses = new AtomicLong();
+  private final AtomicLong http11Responses = new AtomicLong();
+
+  public Http2Transport() {
+    this(DEFAULT_CONNECTIONS, DEFAULT_MAX_CONCURRENT_STREAMS);
+  }
+
+  /**
+   * @param connections number of connections to spread streams over
+   * @param maxConcurrentStreams streams allowed in flight on one connection
+   */
+  public Http2Transport(final int connections, final int maxConcurrentStreams) {
+    this(connections, maxConcurrentStreams, HttpClient.newBuilder());
+  }
+
+  /**
+   * @param connections number of connections to spread streams over
+   * @param maxConcurrentStreams streams allowed in flight on one connection
+   * @param builder configured client builder (executor, proxy, SSL context,
+   * etc.); its protocol version is set to HTTP/2
+   */
+  public Http2Transport(final int connections, final int maxConcurrentStreams, final HttpClient.Builder builder) {
+    if(connections < 1) {
+      throw new IllegalArgumentException("Connections must be at least 1 [" + connections + "].");
+    }
+    if(maxConcurrentStreams < 1) {
+      throw new IllegalArgumentException("Max concurrent streams must be at least 1 [" + maxConcurrentStreams + "].");
+    }
+    if(builder == null) {
+      throw new IllegalArgumentException("HTTP client builder cannot be null.");
+    }
+    builder.version(HttpClient.Version.HTTP_2);
+    this.connections = new Connection[connections];
+    for(int i = 0; i < connections; i++) {
+      this.connections[i] = new Connection(new HttpClientTransport(builder.build()));
+    }
+    this.maxConcurrentStreams = maxConcurrentStreams;
+  }
+
+  public int getConnections() {
+    return connections.length;
+  }
+
+  public int getMaxConcurrentStreams() {
+    return maxConcurrentStreams;
+  }
+
+  /**
+   * @return number of requests sent
+   */
+  public long getRequests() {
+    return requests.get();
+  }
+
+  /**
+   * @return number of requests that had to wait for a free stream
+   */
+  public long getQueuedRequests() {
+    return queuedRequests.get();
+  }
+
+  /**
+   * @return number of streams currently in flight across all connections
+   */
+  public int getActiveStreams() {
+    lock.lock();
+    try {
+      int active = 0;
+      for(Connection connection : connections) {
+        active += connection.activeStreams;
+      }
+      return active;
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return number of responses received over HTTP/2
+   */
+  public long getHttp2Responses() {
+    return http2Responses.get();
+  }
+
+  /**
+   * @return number of responses received over HTTP/1.1 because the server
+   * did not negotiate HTTP/2
+   */
+  public long getHttp11Responses() {
+    return http11Responses.get();
+  }
+
+  /**
+   * The stream is held until the response is closed.
+   */
+  public TransportResponse execute(final TransportRequest request) throws IOException {
+    final Connection connection = await(acquire(), request);
+    try {
+      final TransportResponse response = connection.transport.execute(request);
+      record(response);
+      return new StreamResponse(response, connection);
+    }
+    catch(IOException e) {
+      release(connection);
+      throw e;
+    }
+    catch(RuntimeException e) {
+      release(connection);
+      throw e;
+    }
+  }
+
+  /**
+   * The stream is released as soon as the (fully buffered) response arrives.
+   * Cancelling the returned future gives up the place of a request queued
+   * for a stream, so it is never sent, or cancels the exchange of one
+   * already sent.
+   */
+  public CompletableFuture<TransportResponse> executeAsync(final TransportRequest request) {
+    final CompletableFuture<TransportResponse> result = new CompletableFuture<TransportResponse>();
+    final AtomicReference<CompletableFuture<TransportResponse>> exchange = new AtomicReference<CompletableFuture<TransportResponse>>();
+    final CompletableFuture<Connection> stream = acquire();
+    stream.thenAccept(connection -> {
+      if(result.isDone()) {
+        // cancelled (or timed out by the caller) while queued for a stream
+        release(connection);
+        return;
+      }
+      if(request.hasDeadline() && System.nanoTime() - request.getDeadline() >= 0) {
+        // the deadline passed while queued for a stream
+        release(connection);
+        result.completeExceptionally(new SocketTimeoutException("Timed out waiting for a stream for " + request.getURL().getPath()));
+        return;
+      }
+      final CompletableFuture<TransportResponse> sent = connection.transport.executeAsync(request);
+      exchange.set(sent);
+      sent.whenComplete((response, throwable) -> {
+        release(connection);
+        if(throwable != null) {
+          result.completeExceptionally(throwable);
+          return;
+        }
+        record(response);
+        if(!result.complete(response)) {
+          response.close();
+        }
+      });
+      if(result.isDone()) {
+        // cancelled while the exchange was being started
+        sent.cancel(true);
+      }
+    });
+    result.whenComplete((response, throwable) -> {
+      if(throwable != null) {
+        // a waiter that is cancelled is skipped when a stream is handed on
+        stream.cancel(false);
+        final CompletableFuture<TransportResponse> sent = exchange.get();
+        if(sent != null) {
+          sent.cancel(true);
+        }
+      }
+    });
+    return result;
+  }
+
+  /**
+   * The JDK clients own their connections and release them once they are no
+   * longer referenced.
+   */
+  public void close() {
+  }
+
+  private CompletableFuture<Connection> acquire() {
+    requests.incrementAndGet();
+    lock.lock();
+    try {
+      Connection leastLoaded = connections[0];
+      for(int i = 1; i < connections.length; i++) {
+        if(connections[i].activeStreams < leastLoaded.activeStreams) {
+          leastLoaded = connections[i];
+        }
+      }
+      if(leastLoaded.activeStreams < maxConcurrentStreams) {
+        leastLoaded.activeStreams++;
+        return CompletableFuture.completedFuture(leastLoaded);
+      }
+      final CompletableFuture<Connection> waiter = new CompletableFuture<Connection>();
+      waiters.add(waiter);
+      queuedRequests.incrementAndGet();
+      return waiter;
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Hand the stream to the longest waiting request, or return it to the
+   * connection when nobody is waiting.
+   */
+  private void release(final Connection connection) {
+    CompletableFuture<Connection> next;
+    lock.lock();
+    try {
+      do {
+        next = waiters.poll();
+      }
+      while(next != null && next.isDone());
+      if(next == null) {
+        connection.activeStreams--;
+      }
+    }
+    finally {
+      lock.unlock();
+    }
+    // completed outside the lock since it runs the waiter's continuation
+    if(next != null && !next.complete(connection)) {
+      release(connection);
+    }
+  }
+
+  private Connection await(final CompletableFuture<Connection> future, final TransportRequest request) throws IOException {
+    try {
+      if(request.hasDeadline()) {
+        return future.get(request.getTimeout(0L), TimeUnit.MILLISECONDS);
+      }
+      return future.get();
+    }
+    catch(InterruptedException e) {
+      abandon(future);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for a stream for " + request.getURL().getPath());
+    }
+    catch(TimeoutException e) {
+      abandon(future);
+      throw new SocketTimeoutException("Timed out waiting for a stream for " + request.getURL().getPath());
+    }
+    catch(ExecutionException e) {
+      // the waiter is only ever completed normally
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  /**
+   * Give up waiting for a stream, handing it on if it was granted meanwhile.
+   */
+  private void abandon(final CompletableFuture<Connection> future) {
+    if(!future.cancel(false)) {
+      release(future.join());
+    }
+  }
+
+  private void record(final TransportResponse response) {
+    if(response instanceof HttpClientTransport.HttpClientResponse
+       && ((HttpClientTransport.HttpClientResponse) response).getVersion() == HttpClient.Version.HTTP_2) {
+      http2Responses.incrementAndGet();
+    }
+    else {
+      http11Responses.incrementAndGet();
+    }
+  }
+
+  private static class Connection {
+    private final HttpClientTransport transport;
+    // guarded by the transport's lock
+    private int activeStreams;
+
+    Connection(final HttpClientTransport transport) {
+      this.transport = transport;
+    }
+  }
+
+  private class StreamResponse implements TransportResponse {
+    private final TransportResponse response;
+    private final Connection connection;
+    private boolean isReleased;
+
+    StreamResponse(final TransportResponse response, final Connection connection) {
+      this.response = response;
+      this.connection = connection;
+    }
+
+    public int getStatusCode() {
+      return response.getStatusCode();
+    }
+
+    public String getHeader(final String name) {
+      return response.getHeader(name);
+    }
+
+    public InputStream getInputStream() {
+      return response.getInputStream();
+    }
+
+    public void close() {
+      response.close();
+      if(!isReleased) {
+        isReleased = true;
+        release(connection);
+      }
+    }
+  }
+}
@@ -0,0 +1,196 @@
+/**
+ * File: HttpClientTransport.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link AsyncTransport} built on the JDK's non-blocking
+ * {@link java.net.http.HttpClient}.  Asynchronous requests hold no thread
+ * while they wait on the network, so a single client can keep thousands of
+ * calls in flight.
+ */
+public class HttpClientTransport implements AsyncTransport {
+  // headers the JDK client computes itself and refuses to have set
+  private static final Set<String> RESTRICTED_HEADERS = new HashSet<String>(
+      Arrays.asList("connection", "content-length", "expect", "host", "upgrade"));
+
+  private final HttpClient httpClient;
+
+  public HttpClientTransport() {
+    this(HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .build());
+  }
+
+  /**
+   * @param httpClient configured client (executor, proxy, SSL context, etc.)
+   */
+  public HttpClientTransport(final HttpClient httpClient) {
+    if(httpClient == null) {
+      throw new IllegalArgumentException("HTTP client cannot be null.");
+    }
+    this.httpClient = httpClient;
+  }
+
+  public HttpClient getHttpClient() {
+    return httpClient;
+  }
+
+  public TransportResponse execute(final TransportRequest request) throws IOException {
+    try {
+      // the body is read under the read timeout and the deadline, which the
+      // request timeout stops covering once the headers are in
+      final HttpResponse<InputStream> response = httpClient.send(toHttpRequest(request), responseInfo -> new TimedBodyInputStream(request));
+      return new HttpClientResponse(response.version(), response.statusCode(), response.headers(), response.body());
+    }
+    catch(InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for " + request.getURL().getPath());
+    }
+  }
+
+  /**
+   * The body is buffered before the returned future completes.  Cancelling
+   * the future cancels the exchange.
+   */
+  public CompletableFuture<TransportResponse> executeAsync(final TransportRequest request) {
+    final HttpRequest httpRequest;
+    try {
+      httpRequest = toHttpRequest(request);
+    }
+    catch(IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    // the body is collected under the read timeout and the deadline, as in
+    // execute
+    final CompletableFuture<HttpResponse<byte[]>> exchange = httpClient.sendAsync(httpRequest,
+        responseInfo -> new TimedByteArraySubscriber(request));
+    final CompletableFuture<TransportResponse> result = new CompletableFuture<TransportResponse>();
+    exchange.whenComplete((response, throwable) -> {
+      if(throwable != null) {
+        result.completeExceptionally(throwable);
+      }
+      else {
+        result.complete(new HttpClientResponse(response.version(), response.statusCode(), response.headers(),
+            new ByteArrayInputStream(response.body())));
+      }
+    });
+    // cancelling a dependent of the exchange would leave the exchange running
+    result.whenComplete((response, throwable) -> {
+      if(throwable != null) {
+        exchange.cancel(true);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * The JDK client owns its connection pool and releases it once the client
+   * is no longer referenced.
+   */
+  public void close() {
+  }
+
+  HttpRequest toHttpRequest(final TransportRequest request) throws IOException {
+    final HttpRequest.Builder builder;
+    try {
+      builder = HttpRequest.newBuilder(request.getURL().toURI());
+    }
+    catch(URISyntaxException e) {
+      throw new IOException("Invalid URL: " + request.getURL(), e);
+    }
+    for(Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+      if(!RESTRICTED_HEADERS.contains(header.getKey().toLowerCase(Locale.ENGLISH))) {
+        builder.header(header.getKey(), header.getValue());
+      }
+    }
+    // the JDK client takes its connect timeout from HttpClient.Builder only;
+    // the request timeout stands in for the read timeout and covers the
+    // exchange up to the response headers
+    final int timeoutMillis = request.getTimeout(request.getReadTimeout());
+    if(timeoutMillis > 0) {
+      builder.timeout(Duration.ofMillis(timeoutMillis));
+    }
+    final byte[] body = request.getBody();
+    if(TransportRequest.METHOD_GET.equals(request.getMethod())) {
+      builder.GET();
+    }
+    else {
+      builder.method(request.getMethod(), body == null ? HttpRequest.BodyPublishers.noBody()
+                                                       : HttpRequest.BodyPublishers.ofByteArray(body));
+    }
+    return builder.build();
+  }
+
+  static class HttpClientResponse implements TransportResponse {
+    private final HttpClient.Version version;
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final InputStream body;
+
+    HttpClientResponse(final HttpClient.Version version, final int statusCode, final HttpHeaders headers, final InputStream body) {
+      this.version = version;
+      this.statusCode = statusCode;
+      this.headers = headers;
+      this.body = body;
+    }
+
+    /**
+     * @return protocol version the response was received over
+     */
+    HttpClient.Version getVersion() {
+      return version;
+    }
+
+    public int getStatusCode() {
+      return statusCode;
+    }
+
+    public String getHeader(final String name) {
+      return headers.firstValue(name).orElse(null);
+    }
+
+    public InputStream getInputStream() {
+      return body;
+    }
+
+    public void close() {
+      try {
+        body.close();
+      }
+      catch(IOException e) {
+        // ignore
+      }
+    }
+  }
+}
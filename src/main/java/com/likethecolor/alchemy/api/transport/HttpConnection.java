@@ -0,0 +1,556 @@
+/**
+ * File: HttpConnection.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.ProtocolException;
+import java.net.Proxy;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * One persistent HTTP/1.1 connection (plain or TLS) to a single host,
+ * directly or through an HTTP or SOCKS proxy.  A connection carries one
+ * request at a time; {@link PooledTransport} hands it out and takes it back.
+ */
+class HttpConnection {
+  private static final String CHARSET = "ISO-8859-1";
+  private static final String CRLF = "\r\n";
+  private static final String HTTPS = "https";
+  private static final int BUFFER_SIZE = 8192;
+  private static final int MAX_LINE_LENGTH = 65536;
+  static final int HTTP_PROXY_AUTHENTICATION_REQUIRED = 407;
+  private static final String BASIC = "Basic";
+
+  private final String route;
+  private final Socket socket;
+  // requests sent to an HTTP proxy (rather than through a tunnel) name the
+  // whole url
+  private final boolean isProxied;
+  // Proxy-Authorization sent with every request to an HTTP proxy, or null
+  private final String proxyAuthorization;
+  private final InputStream in;
+  private final OutputStream out;
+  private int requestCount;
+  private long idleSince;
+  private boolean isKeepAlive;
+  // request whose read timeout and deadline apply to reads from the socket
+  private TransportRequest request;
+
+  private HttpConnection(final String route, final Socket socket, final boolean isProxied, final String proxyAuthorization)
+      throws IOException {
+    this.route = route;
+    this.socket = socket;
+    this.isProxied = isProxied;
+    this.proxyAuthorization = proxyAuthorization;
+    this.in = new BufferedInputStream(new TimeoutInputStream(socket.getInputStream()), BUFFER_SIZE);
+    this.out = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+  }
+
+  /**
+   * Open a new connection to the host in the url of the request, performing
+   * the TLS handshake (with hostname verification) for https urls.  An https
+   * connection through an HTTP proxy is tunnelled with CONNECT.  The
+   * request's connect timeout bounds the connect, its read timeout the
+   * tunnel and the handshake, and its deadline all of them.
+   *
+   * @param proxy proxy to go through or {@link Proxy#NO_PROXY}
+   * @param proxyAuthorization value of the Proxy-Authorization header sent
+   * to an HTTP proxy or null
+   *
+   * @throws ProxyAuthenticationException if the proxy refused the tunnel
+   * with 407 Proxy Authentication Required
+   */
+  static HttpConnection open(final TransportRequest request, final SSLSocketFactory sslSocketFactory, final Proxy proxy,
+                             final String proxyAuthorization) throws IOException {
+    final URL url = request.getURL();
+    final String host = url.getHost();
+    final int port = getPort(url);
+    final boolean isHttpProxy = proxy.type() == Proxy.Type.HTTP;
+    // the socket speaks SOCKS itself
+    Socket socket = proxy.type() == Proxy.Type.SOCKS ? new Socket(proxy) : new Socket();
+    try {
+      socket.setTcpNoDelay(true);
+      socket.setKeepAlive(true);
+      socket.connect(getAddress(proxy, host, port), request.getTimeout(request.getConnectTimeout()));
+      if(isSecure(url)) {
+        socket.setSoTimeout(request.getTimeout(request.getReadTimeout()));
+        if(isHttpProxy) {
+          tunnel(socket, host, port, proxyAuthorization);
+        }
+        final SSLSocket sslSocket = (SSLSocket) sslSocketFactory.createSocket(socket, host, port, true);
+        final SSLParameters parameters = sslSocket.getSSLParameters();
+        parameters.setEndpointIdentificationAlgorithm("HTTPS");
+        sslSocket.setSSLParameters(parameters);
+        sslSocket.startHandshake();
+        socket = sslSocket;
+      }
+      final boolean isProxied = isHttpProxy && !isSecure(url);
+      return new HttpConnection(getRoute(url, proxy), socket, isProxied, isProxied ? proxyAuthorization : null);
+    }
+    catch(IOException e) {
+      closeQuietly(socket);
+      throw e;
+    }
+  }
+
+  /**
+   * @return address to connect the socket to: the host itself, the HTTP
+   * proxy or, for a SOCKS proxy, the host left for the proxy to resolve
+   */
+  private static InetSocketAddress getAddress(final Proxy proxy, final String host, final int port) {
+    if(proxy.type() == Proxy.Type.SOCKS) {
+      return InetSocketAddress.createUnresolved(host, port);
+    }
+    if(proxy.type() == Proxy.Type.HTTP) {
+      final InetSocketAddress address = (InetSocketAddress) proxy.address();
+      return address.isUnresolved() ? new InetSocketAddress(address.getHostString(), address.getPort()) : address;
+    }
+    return new InetSocketAddress(host, port);
+  }
+
+  /**
+   * Have the HTTP proxy at the other end of the socket open a tunnel to the
+   * host.
+   */
+  private static void tunnel(final Socket socket, final String host, final int port, final String proxyAuthorization)
+      throws IOException {
+    final String authority = host + ":" + port;
+    final StringBuilder head = new StringBuilder(128)
+        .append("CONNECT ").append(authority).append(" HTTP/1.1").append(CRLF)
+        .append("Host: ").append(authority).append(CRLF);
+    if(proxyAuthorization != null) {
+      head.append("Proxy-Authorization: ").append(proxyAuthorization).append(CRLF);
+    }
+    head.append(CRLF);
+    final OutputStream out = socket.getOutputStream();
+    out.write(head.toString().getBytes(CHARSET));
+    out.flush();
+    // unbuffered, so that nothing past the proxy's answer is read
+    final InputStream in = socket.getInputStream();
+    final String statusLine = readLine(in);
+    if(statusLine == null) {
+      throw new EOFException("Proxy closed the connection before answering CONNECT " + authority);
+    }
+    final Map<String, String> headers = new HashMap<String, String>();
+    if(!readHeaders(in, headers)) {
+      throw new EOFException("Proxy closed the connection while answering CONNECT " + authority);
+    }
+    final String[] parts = statusLine.split(" ", 3);
+    final String status = parts.length < 2 || !parts[0].startsWith("HTTP/") ? null : parts[1];
+    if(!"200".equals(status)) {
+      final String message = "Unable to tunnel through proxy to " + authority + ": " + statusLine;
+      if(String.valueOf(HTTP_PROXY_AUTHENTICATION_REQUIRED).equals(status)) {
+        throw new ProxyAuthenticationException(message, headers.get("proxy-authenticate"));
+      }
+      throw new IOException(message);
+    }
+  }
+
+  /**
+   * Ask the authenticator for credentials to answer a proxy's Basic
+   * challenge; other schemes are not supported.
+   *
+   * @param authenticator authenticator to ask or null for the default one
+   * @param url url of the request the proxy refused
+   * @param proxy HTTP proxy that sent the challenge
+   * @param challenge value of the Proxy-Authenticate header or null
+   *
+   * @return value of the Proxy-Authorization header or null if there is no
+   * Basic challenge or no credentials
+   */
+  static String getProxyAuthorization(final Authenticator authenticator, final URL url, final Proxy proxy, final String challenge) {
+    if(challenge == null || proxy.type() != Proxy.Type.HTTP) {
+      return null;
+    }
+    final int scheme = challenge.toLowerCase(Locale.ENGLISH).indexOf(BASIC.toLowerCase(Locale.ENGLISH));
+    if(scheme == -1) {
+      return null;
+    }
+    final InetSocketAddress address = (InetSocketAddress) proxy.address();
+    final PasswordAuthentication authentication = Authenticator.requestPasswordAuthentication(authenticator,
+        address.getHostString(), address.getAddress(), address.getPort(), url.getProtocol(), getRealm(challenge.substring(scheme)),
+        BASIC, url, Authenticator.RequestorType.PROXY);
+    if(authentication == null) {
+      return null;
+    }
+    final String credentials = authentication.getUserName() + ":" + new String(authentication.getPassword());
+    return BASIC + " " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @return realm of a Basic challenge, e.g. proxy for Basic realm="proxy",
+   * or an empty string
+   */
+  private static String getRealm(final String challenge) {
+    final int realm = challenge.toLowerCase(Locale.ENGLISH).indexOf("realm=\"");
+    if(realm == -1) {
+      return "";
+    }
+    final int start = realm + "realm=\"".length();
+    final int end = challenge.indexOf('"', start);
+    return end == -1 ? challenge.substring(start) : challenge.substring(start, end);
+  }
+
+  /**
+   * @return scheme, host and port of the url
+   */
+  private static String getRoute(final URL url) {
+    return url.getProtocol().toLowerCase(Locale.ENGLISH) + "://"
+           + url.getHost().toLowerCase(Locale.ENGLISH) + ":" + getPort(url);
+  }
+
+  /**
+   * Key under which connections to the host in the url through the proxy
+   * are pooled; a connection through one proxy is never handed out for
+   * another.
+   */
+  static String getRoute(final URL url, final Proxy proxy) {
+    final String route = getRoute(url);
+    return proxy.type() == Proxy.Type.DIRECT ? route : route + " via " + proxy;
+  }
+
+  String getRoute() {
+    return route;
+  }
+
+  /**
+   * @return true if requests go to an HTTP proxy rather than to the host or
+   * through a tunnel
+   */
+  boolean isProxied() {
+    return isProxied;
+  }
+
+  String getProxyAuthorization() {
+    return proxyAuthorization;
+  }
+
+  /**
+   * @return true if this connection has already carried a request
+   */
+  boolean isReused() {
+    return requestCount > 1;
+  }
+
+  long getIdleSince() {
+    return idleSince;
+  }
+
+  /**
+   * Stop the request last sent on this connection from closing it when the
+   * request is cancelled.
+   */
+  void detach() {
+    final TransportRequest current = request;
+    if(current != null) {
+      current.setCancelHandler(null);
+      request = null;
+    }
+  }
+
+  void markIdle(final long now) {
+    idleSince = now;
+  }
+
+  boolean isKeepAlive() {
+    return isKeepAlive;
+  }
+
+  boolean isOpen() {
+    return !socket.isClosed() && !socket.isInputShutdown() && !socket.isOutputShutdown();
+  }
+
+  void writeRequest(final TransportRequest request) throws IOException {
+    request.checkDeadline();
+    this.request = request;
+    // cancelling the request closes the connection, failing the blocked
+    // read or write
+    request.setCancelHandler(this::close);
+    requestCount++;
+    final URL url = request.getURL();
+    final StringBuilder head = new StringBuilder(256)
+        .append(request.getMethod()).append(' ').append(isProxied ? getAbsoluteTarget(url) : getRequestTarget(url))
+        .append(" HTTP/1.1").append(CRLF)
+        .append("Host: ").append(getHostHeader(url)).append(CRLF)
+        .append("Connection: keep-alive").append(CRLF);
+    if(proxyAuthorization != null) {
+      head.append("Proxy-Authorization: ").append(proxyAuthorization).append(CRLF);
+    }
+    for(Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+      if(!"Content-Length".equalsIgnoreCase(header.getKey())) {
+        head.append(header.getKey()).append(": ").append(header.getValue()).append(CRLF);
+      }
+    }
+    final RequestBody body = request.getRequestBody();
+    if(body != null) {
+      head.append("Content-Length: ").append(body.getContentLength()).append(CRLF);
+    }
+    head.append(CRLF);
+
+    out.write(head.toString().getBytes(CHARSET));
+    if(body != null) {
+      body.writeTo(out);
+    }
+    out.flush();
+  }
+
+  /**
+   * Read the status line and headers of the response.
+   *
+   * @param headers map into which the (lower case) header names and values
+   * are put
+   *
+   * @return status code
+   */
+  int readResponseHead(final Map<String, String> headers) throws IOException {
+    final String statusLine = readLine(in);
+    if(statusLine == null) {
+      throw new EOFException("Connection closed before the status line was read");
+    }
+    final String[] parts = statusLine.split(" ", 3);
+    if(parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+      throw new ProtocolException("Invalid status line: " + statusLine);
+    }
+    final int statusCode;
+    try {
+      statusCode = Integer.parseInt(parts[1]);
+    }
+    catch(NumberFormatException e) {
+      throw new ProtocolException("Invalid status line: " + statusLine);
+    }
+
+    if(!readHeaders(in, headers)) {
+      throw new EOFException("Connection closed while reading headers");
+    }
+
+    final String connection = headers.get("connection");
+    if("HTTP/1.0".equals(parts[0])) {
+      isKeepAlive = connection != null && connection.toLowerCase(Locale.ENGLISH).contains("keep-alive");
+    }
+    else {
+      isKeepAlive = connection == null || !connection.toLowerCase(Locale.ENGLISH).contains("close");
+    }
+    return statusCode;
+  }
+
+  /**
+   * Return the stream that frames the response body according to the headers
+   * already read by {@link #readResponseHead(Map)}.
+   */
+  BodyInputStream getBodyInputStream(final Map<String, String> headers) throws IOException {
+    final String transferEncoding = headers.get("transfer-encoding");
+    if(transferEncoding != null && transferEncoding.toLowerCase(Locale.ENGLISH).contains("chunked")) {
+      return new ChunkedInputStream(in);
+    }
+    final String contentLength = headers.get("content-length");
+    if(contentLength != null) {
+      try {
+        return new FixedLengthInputStream(in, Long.parseLong(contentLength.trim()));
+      }
+      catch(NumberFormatException e) {
+        throw new ProtocolException("Invalid Content-Length: " + contentLength);
+      }
+    }
+    // no framing - the body runs until the server closes the connection
+    isKeepAlive = false;
+    return new UntilCloseInputStream(in);
+  }
+
+  void close() {
+    closeQuietly(socket);
+  }
+
+  /**
+   * Read header lines up to the empty line that ends them.
+   *
+   * @param headers map into which the (lower case) header names and values
+   * are put; repeated headers are joined with commas
+   *
+   * @return false if the stream ended before the empty line
+   */
+  private static boolean readHeaders(final InputStream in, final Map<String, String> headers) throws IOException {
+    String line;
+    while((line = readLine(in)) != null && line.length() > 0) {
+      final int colon = line.indexOf(':');
+      if(colon > 0) {
+        final String name = line.substring(0, colon).trim().toLowerCase(Locale.ENGLISH);
+        final String value = line.substring(colon + 1).trim();
+        final String previous = headers.get(name);
+        headers.put(name, previous == null ? value : previous + ", " + value);
+      }
+    }
+    return line != null;
+  }
+
+  /**
+   * Read a CRLF (or LF) terminated line in ISO-8859-1.
+   *
+   * @return line without the terminator or null at end of stream
+   */
+  static String readLine(final InputStream in) throws IOException {
+    final ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+    int b;
+    while((b = in.read()) != -1) {
+      if(b == '\n') {
+        break;
+      }
+      if(line.size() >= MAX_LINE_LENGTH) {
+        throw new ProtocolException("Header line exceeds " + MAX_LINE_LENGTH + " bytes");
+      }
+      line.write(b);
+    }
+    if(b == -1 && line.size() == 0) {
+      return null;
+    }
+    final String value = line.toString(CHARSET);
+    if(value.endsWith("\r")) {
+      return value.substring(0, value.length() - 1);
+    }
+    return value;
+  }
+
+  private static boolean isSecure(final URL url) {
+    return HTTPS.equalsIgnoreCase(url.getProtocol());
+  }
+
+  private static int getPort(final URL url) {
+    return url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+  }
+
+  private static String getRequestTarget(final URL url) {
+    final String file = url.getFile();
+    return file == null || file.length() == 0 ? "/" : file;
+  }
+
+  private static String getAbsoluteTarget(final URL url) {
+    return url.getProtocol().toLowerCase(Locale.ENGLISH) + "://" + getHostHeader(url) + getRequestTarget(url);
+  }
+
+  private static String getHostHeader(final URL url) {
+    if(url.getPort() == -1 || url.getPort() == url.getDefaultPort()) {
+      return url.getHost();
+    }
+    return url.getHost() + ":" + url.getPort();
+  }
+
+  private static void closeQuietly(final Socket socket) {
+    try {
+      socket.close();
+    }
+    catch(IOException e) {
+      // ignore
+    }
+  }
+
+  /**
+   * Body with neither a Content-Length nor chunked encoding.
+   */
+  private static class UntilCloseInputStream extends BodyInputStream {
+    private boolean isComplete;
+
+    UntilCloseInputStream(final InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int b = in.read();
+      isComplete = b == -1;
+      return b;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+      final int count = in.read(buffer, offset, length);
+      isComplete = count == -1;
+      return count;
+    }
+
+    @Override
+    boolean isComplete() {
+      return isComplete;
+    }
+  }
+
+  /**
+   * Applies the current request's read timeout, shortened to the time left
+   * until its deadline, to every read from the socket.
+   */
+  private class TimeoutInputStream extends FilterInputStream {
+    TimeoutInputStream(final InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      setTimeout();
+      return super.read();
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      setTimeout();
+      return super.read(b, off, len);
+    }
+
+    private void setTimeout() throws IOException {
+      final TransportRequest current = request;
+      socket.setSoTimeout(current == null ? 0 : current.getTimeout(current.getReadTimeout()));
+    }
+  }
+
+  /**
+   * Thrown when an HTTP proxy refuses to open a tunnel until the client
+   * authenticates.
+   */
+  static class ProxyAuthenticationException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final String challenge;
+
+    ProxyAuthenticationException(final String message, final String challenge) {
+      super(message);
+      this.challenge = challenge;
+    }
+
+    /**
+     * @return value of the Proxy-Authenticate header or null
+     */
+    String getChallenge() {
+      return challenge;
+    }
+  }
+}
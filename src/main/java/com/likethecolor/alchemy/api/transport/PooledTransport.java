@@ -0,0 +1,563 @@
+/**
+ * File: PooledTransport.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.Authenticator;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * The default {@link Transport}.  It keeps a bounded pool of persistent
+ * HTTP/1.1 connections per host so that consecutive calls skip the TCP connect
+ * and the TLS handshake.
+ * <p/>
+ * Three limits shape the pool:
+ * <ul>
+ * <li>max connections per host - number of connections (in use or idle) that
+ * may be open to one host; callers wait for a connection once it is reached</li>
+ * <li>max idle connections - number of idle connections kept across all hosts;
+ * connections released beyond this are closed</li>
+ * <li>idle timeout - idle connections older than this are closed rather than
+ * reused (servers drop idle keep-alive connections on their own schedule)</li>
+ * </ul>
+ * A pooled connection that turns out to have been closed by the server is
+ * detected on use and the request is sent once more on a new connection.
+ * <p/>
+ * The request's connect and read timeouts apply to the socket, and its
+ * deadline bounds the wait for a connection as well as every connect and
+ * read; running out of time surfaces as a
+ * {@link java.net.SocketTimeoutException}.  {@link TransportRequest#cancel()
+ * Cancelling} a request closes the connection it is being exchanged on.
+ * <p/>
+ * New connections go through the proxies the {@link ProxySelector} picks for
+ * the url, by default {@link ProxySelector#getDefault()} (which honors the
+ * http.proxyHost, https.proxyHost and socksProxyHost system properties).
+ * https requests are tunnelled through an HTTP proxy with CONNECT.  An HTTP
+ * proxy that answers 407 Proxy Authentication Required with a Basic
+ * challenge is sent the credentials the {@link Authenticator} gives for it,
+ * by default the one set with {@link Authenticator#setDefault(Authenticator)};
+ * they are then sent up front on every new connection through that proxy.
+ * Connections are pooled per host and proxy.
+ */
+public class PooledTransport implements Transport {
+  private static final Logger LOGGER = LoggerFactory.getLogger(PooledTransport.class);
+  public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 32;
+  public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 16;
+  public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 20000L;
+
+  private final ConcurrentMap<String, HostPool> hostPools = new ConcurrentHashMap<String, HostPool>();
+  // Proxy-Authorization to send to each proxy that asked for credentials
+  private final ConcurrentMap<Proxy, String> proxyAuthorizations = new ConcurrentHashMap<Proxy, String>();
+  private final AtomicInteger idleConnections = new AtomicInteger();
+  private final AtomicInteger leasedConnections = new AtomicInteger();
+  private final AtomicLong requests = new AtomicLong();
+  private final AtomicLong connectionsCreated = new AtomicLong();
+  private final AtomicLong connectionsReused = new AtomicLong();
+  private final AtomicLong connectionsEvicted = new AtomicLong();
+  private final AtomicLong connectionsClosed = new AtomicLong();
+
+  private volatile int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+  private volatile int maxConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+  private volatile long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+  private volatile SSLSocketFactory sslSocketFactory = (SSLSocketFactory) SSLSocketFactory.getDefault();
+  // null to use the default selector at the time of each connect
+  private volatile ProxySelector proxySelector;
+  // null to use the default authenticator
+  private volatile Authenticator proxyAuthenticator;
+  private volatile boolean isClosed;
+
+  /**
+   * Set the number of idle connections kept open across all hosts.
+   *
+   * @param maxIdleConnections size of the idle pool (0 disables keep-alive)
+   */
+  public void setMaxIdleConnections(final int maxIdleConnections) {
+    if(maxIdleConnections < 0) {
+      throw new IllegalArgumentException("Max idle connections cannot be negative [" + maxIdleConnections + "].");
+    }
+    this.maxIdleConnections = maxIdleConnections;
+  }
+
+  public int getMaxIdleConnections() {
+    return maxIdleConnections;
+  }
+
+  /**
+   * Set the number of connections that may be open to a single host.  This
+   * applies to hosts first contacted after the call; set it before the
+   * transport is used.
+   *
+   * @param maxConnectionsPerHost per-host connection limit
+   */
+  public void setMaxConnectionsPerHost(final int maxConnectionsPerHost) {
+    if(maxConnectionsPerHost < 1) {
+      throw new IllegalArgumentException("Max connections per host must be at least 1 [" + maxConnectionsPerHost + "].");
+    }
+    this.maxConnectionsPerHost = maxConnectionsPerHost;
+  }
+
+  public int getMaxConnectionsPerHost() {
+    return maxConnectionsPerHost;
+  }
+
+  /**
+   * Set how long a connection may sit idle in the pool before it is closed.
+   *
+   * @param idleTimeoutMillis idle timeout in milliseconds
+   */
+  public void setIdleTimeout(final long idleTimeoutMillis) {
+    if(idleTimeoutMillis < 0) {
+      throw new IllegalArgumentException("Idle timeout cannot be negative [" + idleTimeoutMillis + "].");
+    }
+    this.idleTimeoutMillis = idleTimeoutMillis;
+  }
+
+  public long getIdleTimeout() {
+    return idleTimeoutMillis;
+  }
+
+  public void setSSLSocketFactory(final SSLSocketFactory sslSocketFactory) {
+    if(sslSocketFactory == null) {
+      throw new IllegalArgumentException("SSL socket factory cannot be null.");
+    }
+    this.sslSocketFactory = sslSocketFactory;
+  }
+
+  /**
+   * @param proxySelector selector that picks the proxies for each new
+   * connection or null to use {@link ProxySelector#getDefault()}
+   */
+  public void setProxySelector(final ProxySelector proxySelector) {
+    this.proxySelector = proxySelector;
+  }
+
+  public ProxySelector getProxySelector() {
+    return proxySelector;
+  }
+
+  /**
+   * @param proxyAuthenticator authenticator asked for the credentials of an
+   * HTTP proxy that requires them or null to use the default authenticator
+   */
+  public void setProxyAuthenticator(final Authenticator proxyAuthenticator) {
+    this.proxyAuthenticator = proxyAuthenticator;
+  }
+
+  public Authenticator getProxyAuthenticator() {
+    return proxyAuthenticator;
+  }
+
+  public TransportResponse execute(final TransportRequest request) throws IOException {
+    if(isClosed) {
+      throw new IOException("Transport is closed");
+    }
+    requests.incrementAndGet();
+    if(request.isCancelled()) {
+      throw new InterruptedIOException("Request cancelled for " + request.getURL().getPath());
+    }
+
+    final ProxySelector configured = this.proxySelector;
+    final ProxySelector selector = configured == null ? ProxySelector.getDefault() : configured;
+    final URI uri;
+    try {
+      uri = request.getURL().toURI();
+    }
+    catch(URISyntaxException e) {
+      throw new IOException("Invalid URL: " + request.getURL(), e);
+    }
+    List<Proxy> proxies = selector == null ? null : selector.select(uri);
+    if(proxies == null || proxies.isEmpty()) {
+      proxies = Collections.singletonList(Proxy.NO_PROXY);
+    }
+    // go through the first of the selected proxies that can be reached,
+    // telling the selector about the ones that cannot
+    IOException failure = null;
+    for(Proxy proxy : proxies) {
+      final HostPool hostPool = getHostPool(HttpConnection.getRoute(request.getURL(), proxy));
+      hostPool.acquirePermit(request);
+      boolean isPermitHeld = true;
+      try {
+        HttpConnection connection = hostPool.poll();
+        if(connection == null) {
+          try {
+            connection = open(request, proxy);
+          }
+          catch(IOException e) {
+            if(proxy.type() != Proxy.Type.DIRECT) {
+              selector.connectFailed(uri, proxy.address(), e);
+            }
+            if(failure == null) {
+              failure = e;
+            }
+            else {
+              failure.addSuppressed(e);
+            }
+            continue;
+          }
+        }
+        isPermitHeld = false;
+        return send(request, proxy, hostPool, connection);
+      }
+      finally {
+        if(isPermitHeld) {
+          hostPool.releasePermit();
+        }
+      }
+    }
+    throw failure;
+  }
+
+  /**
+   * Close idle connections that have exceeded the idle timeout.  This also
+   * happens as connections are released, so calling it is only needed to trim
+   * the pool of a transport that has gone quiet.
+   */
+  public void evictIdleConnections() {
+    final long now = System.currentTimeMillis();
+    for(HostPool hostPool : hostPools.values()) {
+      hostPool.evictExpired(now);
+    }
+  }
+
+  /**
+   * @return snapshot of the pool counters
+   */
+  public ConnectionPoolStats getStats() {
+    return new ConnectionPoolStats(requests.get(), connectionsCreated.get(), connectionsReused.get(),
+        connectionsEvicted.get(), connectionsClosed.get(), idleConnections.get(), leasedConnections.get());
+  }
+
+  public void close() {
+    isClosed = true;
+    for(HostPool hostPool : hostPools.values()) {
+      hostPool.closeIdle();
+    }
+  }
+
+  private HostPool getHostPool(final String route) {
+    HostPool hostPool = hostPools.get(route);
+    if(hostPool == null) {
+      final HostPool newHostPool = new HostPool(route, maxConnectionsPerHost);
+      hostPool = hostPools.putIfAbsent(route, newHostPool);
+      if(hostPool == null) {
+        hostPool = newHostPool;
+      }
+    }
+    return hostPool;
+  }
+
+  /**
+   * Send the request on the connection, or on a new one through the same
+   * proxy if the pooled connection turns out to be stale or the proxy asks
+   * for credentials it was not sent.  The host pool's permit goes with the
+   * response or is released.
+   */
+  private TransportResponse send(final TransportRequest request, final Proxy proxy, final HostPool hostPool,
+                                 HttpConnection connection) throws IOException {
+    boolean isPermitHeld = true;
+    boolean isAuthenticated = false;
+    try {
+      leasedConnections.incrementAndGet();
+      while(true) {
+        try {
+          connection.writeRequest(request);
+          final Map<String, String> headers = new HashMap<String, String>();
+          final int statusCode = connection.readResponseHead(headers);
+          if(isAuthenticated || statusCode != HttpConnection.HTTP_PROXY_AUTHENTICATION_REQUIRED || !connection.isProxied()
+             || authenticate(request, proxy, headers.get("proxy-authenticate"), connection.getProxyAuthorization()) == null) {
+            final BodyInputStream body = connection.getBodyInputStream(headers);
+            if(connection.isReused()) {
+              connectionsReused.incrementAndGet();
+            }
+            isPermitHeld = false;
+            return new PooledResponse(hostPool, connection, statusCode, headers, body);
+          }
+        }
+        catch(IOException e) {
+          leasedConnections.decrementAndGet();
+          closeConnection(connection);
+          if(!connection.isReused() || e instanceof SocketTimeoutException || request.isCancelled()) {
+            throw e;
+          }
+          LOGGER.debug("Pooled connection to " + hostPool.route + " went stale, retrying on a new connection", e);
+          connection = open(request, proxy);
+          leasedConnections.incrementAndGet();
+          continue;
+        }
+        // send the request once more with the proxy's credentials
+        isAuthenticated = true;
+        leasedConnections.decrementAndGet();
+        closeConnection(connection);
+        connection = open(request, proxy);
+        leasedConnections.incrementAndGet();
+      }
+    }
+    finally {
+      if(isPermitHeld) {
+        hostPool.releasePermit();
+      }
+    }
+  }
+
+  private HttpConnection open(final TransportRequest request, final Proxy proxy) throws IOException {
+    final String proxyAuthorization = proxy.type() == Proxy.Type.HTTP ? proxyAuthorizations.get(proxy) : null;
+    HttpConnection connection;
+    try {
+      connection = HttpConnection.open(request, sslSocketFactory, proxy, proxyAuthorization);
+    }
+    catch(HttpConnection.ProxyAuthenticationException e) {
+      final String renewed = authenticate(request, proxy, e.getChallenge(), proxyAuthorization);
+      if(renewed == null) {
+        throw e;
+      }
+      connection = HttpConnection.open(request, sslSocketFactory, proxy, renewed);
+    }
+    connectionsCreated.incrementAndGet();
+    LOGGER.debug("Opened connection to " + connection.getRoute() + (proxy.type() == Proxy.Type.DIRECT ? "" : " through " + proxy));
+    return connection;
+  }
+
+  /**
+   * Ask for the credentials that answer the proxy's challenge and keep them
+   * for the next connections through the proxy.
+   *
+   * @param refused Proxy-Authorization the proxy refused or null
+   *
+   * @return Proxy-Authorization to send or null if there is none but the one
+   * refused
+   */
+  private String authenticate(final TransportRequest request, final Proxy proxy, final String challenge, final String refused) {
+    final String proxyAuthorization = HttpConnection.getProxyAuthorization(proxyAuthenticator, request.getURL(), proxy, challenge);
+    if(proxyAuthorization == null || proxyAuthorization.equals(refused)) {
+      return null;
+    }
+    proxyAuthorizations.put(proxy, proxyAuthorization);
+    return proxyAuthorization;
+  }
+
+  private void release(final HostPool hostPool, final HttpConnection connection, final boolean isBodyComplete) {
+    leasedConnections.decrementAndGet();
+    connection.detach();
+    try {
+      if(isBodyComplete && !isClosed && connection.isKeepAlive() && connection.isOpen()) {
+        if(idleConnections.incrementAndGet() <= maxIdleConnections) {
+          final long now = System.currentTimeMillis();
+          connection.markIdle(now);
+          hostPool.offer(connection);
+          hostPool.evictExpired(now);
+          return;
+        }
+        idleConnections.decrementAndGet();
+      }
+      closeConnection(connection);
+    }
+    finally {
+      hostPool.releasePermit();
+    }
+  }
+
+  private void closeConnection(final HttpConnection connection) {
+    connection.close();
+    connectionsClosed.incrementAndGet();
+  }
+
+  /**
+   * Idle connections and the connection limit for one scheme/host/port.
+   */
+  private class HostPool {
+    private final String route;
+    private final Semaphore permits;
+    // most recently used first; expired connections collect at the tail.
+    // guarded by a j.u.c. lock rather than a monitor so that a virtual thread
+    // contending for it does not pin its carrier thread
+    private final Deque<HttpConnection> idle = new ArrayDeque<HttpConnection>();
+    private final Lock lock = new ReentrantLock();
+
+    HostPool(final String route, final int maxConnections) {
+      this.route = route;
+      this.permits = new Semaphore(maxConnections, true);
+    }
+
+    void acquirePermit(final TransportRequest request) throws IOException {
+      try {
+        if(!request.hasDeadline()) {
+          permits.acquire();
+        }
+        else if(!permits.tryAcquire(request.getTimeout(0L), TimeUnit.MILLISECONDS)) {
+          throw new SocketTimeoutException("Timed out waiting for a connection to " + route);
+        }
+      }
+      catch(InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Interrupted waiting for a connection to " + route);
+      }
+    }
+
+    void releasePermit() {
+      permits.release();
+    }
+
+    /**
+     * @return the most recently used live connection or null
+     */
+    HttpConnection poll() {
+      final long now = System.currentTimeMillis();
+      HttpConnection connection;
+      while(true) {
+        lock.lock();
+        try {
+          connection = idle.pollFirst();
+        }
+        finally {
+          lock.unlock();
+        }
+        if(connection == null) {
+          return null;
+        }
+        idleConnections.decrementAndGet();
+        if(isExpired(connection, now)) {
+          connectionsEvicted.incrementAndGet();
+          closeConnection(connection);
+        }
+        else if(!connection.isOpen()) {
+          closeConnection(connection);
+        }
+        else {
+          return connection;
+        }
+      }
+    }
+
+    void offer(final HttpConnection connection) {
+      lock.lock();
+      try {
+        idle.offerFirst(connection);
+      }
+      finally {
+        lock.unlock();
+      }
+    }
+
+    void evictExpired(final long now) {
+      HttpConnection connection;
+      while(true) {
+        lock.lock();
+        try {
+          connection = idle.peekLast();
+          if(connection == null || !isExpired(connection, now)) {
+            return;
+          }
+          idle.pollLast();
+        }
+        finally {
+          lock.unlock();
+        }
+        idleConnections.decrementAndGet();
+        connectionsEvicted.incrementAndGet();
+        closeConnection(connection);
+      }
+    }
+
+    void closeIdle() {
+      HttpConnection connection;
+      while(true) {
+        lock.lock();
+        try {
+          connection = idle.pollFirst();
+        }
+        finally {
+          lock.unlock();
+        }
+        if(connection == null) {
+          return;
+        }
+        idleConnections.decrementAndGet();
+        closeConnection(connection);
+      }
+    }
+
+    private boolean isExpired(final HttpConnection connection, final long now) {
+      return now - connection.getIdleSince() > idleTimeoutMillis;
+    }
+  }
+
+  /**
+   * Response whose close() hands the connection back to its host pool.
+   */
+  private class PooledResponse implements TransportResponse {
+    private final HostPool hostPool;
+    private final HttpConnection connection;
+    private final int statusCode;
+    private final Map<String, String> headers;
+    private final BodyInputStream body;
+    private boolean isReleased;
+
+    PooledResponse(final HostPool hostPool, final HttpConnection connection, final int statusCode,
+                   final Map<String, String> headers, final BodyInputStream body) {
+      this.hostPool = hostPool;
+      this.connection = connection;
+      this.statusCode = statusCode;
+      this.headers = headers;
+      this.body = body;
+    }
+
+    public int getStatusCode() {
+      return statusCode;
+    }
+
+    public String getHeader(final String name) {
+      return name == null ? null : headers.get(name.toLowerCase(Locale.ENGLISH));
+    }
+
+    public InputStream getInputStream() {
+      return body;
+    }
+
+    public void close() {
+      if(isReleased) {
+        return;
+      }
+      isReleased = true;
+      release(hostPool, connection, body.isComplete());
+    }
+  }
+}
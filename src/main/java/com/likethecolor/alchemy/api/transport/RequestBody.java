@@ -0,0 +1,42 @@
+/**
+ * File: RequestBody.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A request body that is written straight to the connection instead of
+ * being held as one byte array.
+ */
+public interface RequestBody {
+  /**
+   * @return exact number of bytes {@link #writeTo(OutputStream)} writes
+   */
+  public long getContentLength();
+
+  /**
+   * Write the body.  A transport may call this more than once, e.g. to
+   * resend the request on a new connection, so every call must write the
+   * same bytes.
+   *
+   * @param out stream to write to; it is not closed
+   *
+   * @throws IOException if writing fails
+   */
+  public void writeTo(final OutputStream out) throws IOException;
+}
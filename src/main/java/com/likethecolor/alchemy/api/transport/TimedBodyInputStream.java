@@ -0,0 +1,174 @@
+/**
+ * File: TimedBodyInputStream.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body of a response from the JDK's {@link java.net.http.HttpClient}, read
+ * as it arrives.  The client's request timeout only covers the exchange up to
+ * the response headers, so a read that waits longer than the read timeout,
+ * or past the deadline, fails with a {@link SocketTimeoutException} and
+ * cancels the rest of the body.
+ */
+class TimedBodyInputStream extends InputStream implements HttpResponse.BodySubscriber<InputStream> {
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+  // marks the end of the body; compared by identity
+  private static final List<ByteBuffer> END = new ArrayList<ByteBuffer>(0);
+
+  private final TransportRequest request;
+  private final BlockingQueue<List<ByteBuffer>> received = new LinkedBlockingQueue<List<ByteBuffer>>();
+  private volatile Flow.Subscription subscription;
+  private volatile Throwable failure;
+  private volatile boolean isClosed;
+  // read by the reading thread only
+  private List<ByteBuffer> buffers = new ArrayList<ByteBuffer>(0);
+  private int nextBuffer;
+  private ByteBuffer buffer = EMPTY;
+  private boolean isEnd;
+
+  TimedBodyInputStream(final TransportRequest request) {
+    this.request = request;
+  }
+
+  public CompletionStage<InputStream> getBody() {
+    return CompletableFuture.completedFuture(this);
+  }
+
+  public void onSubscribe(final Flow.Subscription subscription) {
+    this.subscription = subscription;
+    if(isClosed) {
+      subscription.cancel();
+    }
+    else {
+      subscription.request(1L);
+    }
+  }
+
+  public void onNext(final List<ByteBuffer> item) {
+    received.add(item);
+  }
+
+  public void onError(final Throwable throwable) {
+    failure = throwable;
+    received.add(END);
+  }
+
+  public void onComplete() {
+    received.add(END);
+  }
+
+  @Override
+  public int read() throws IOException {
+    final byte[] b = new byte[1];
+    return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+  }
+
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    if(isClosed) {
+      throw new IOException("Stream closed");
+    }
+    if(len == 0) {
+      return 0;
+    }
+    while(!buffer.hasRemaining()) {
+      if(isEnd) {
+        return -1;
+      }
+      if(nextBuffer < buffers.size()) {
+        buffer = buffers.get(nextBuffer++);
+        continue;
+      }
+      buffers = take();
+      nextBuffer = 0;
+      if(buffers == END) {
+        isEnd = true;
+        final Throwable cause = failure;
+        if(cause instanceof IOException) {
+          throw (IOException) cause;
+        }
+        if(cause != null) {
+          throw new IOException("Could not read the body for " + request.getURL().getPath(), cause);
+        }
+        return -1;
+      }
+      subscription.request(1L);
+    }
+    final int count = Math.min(len, buffer.remaining());
+    buffer.get(b, off, count);
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+
+  /**
+   * Cancel the rest of the body.
+   */
+  @Override
+  public void close() {
+    if(isClosed) {
+      return;
+    }
+    isClosed = true;
+    final Flow.Subscription subscription = this.subscription;
+    if(subscription != null) {
+      subscription.cancel();
+    }
+    received.clear();
+  }
+
+  /**
+   * @return next buffers of the body, waiting at most the read timeout or
+   * until the deadline
+   */
+  private List<ByteBuffer> take() throws IOException {
+    try {
+      final int timeoutMillis = request.getTimeout(request.getReadTimeout());
+      final List<ByteBuffer> next = timeoutMillis == 0 ? received.take() : received.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+      if(next == null) {
+        throw new SocketTimeoutException("Read timed out for " + request.getURL().getPath());
+      }
+      return next;
+    }
+    catch(InterruptedException e) {
+      close();
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted reading the body for " + request.getURL().getPath());
+    }
+    catch(SocketTimeoutException e) {
+      close();
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/**
+ * File: TimedByteArraySubscriber.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Body of a response from the JDK's {@link java.net.http.HttpClient},
+ * collected into a byte array without holding a thread.  As with
+ * {@link TimedBodyInputStream}, a body that stops arriving for longer than
+ * the read timeout, or is still arriving at the deadline, fails with a
+ * {@link SocketTimeoutException} and the rest of it is cancelled.
+ */
+class TimedByteArraySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+  // the timer task only completes a future, so it runs on the timer thread
+  private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+  private final TransportRequest request;
+  private final HttpResponse.BodySubscriber<byte[]> bytes = HttpResponse.BodySubscribers.ofByteArray();
+  private final CompletableFuture<byte[]> body = new CompletableFuture<byte[]>();
+  private volatile Flow.Subscription subscription;
+  // when the last buffers were received
+  private volatile long receivedNanos = System.nanoTime();
+
+  TimedByteArraySubscriber(final TransportRequest request) {
+    this.request = request;
+    bytes.getBody().whenComplete((value, throwable) -> {
+      if(throwable != null) {
+        body.completeExceptionally(throwable);
+      }
+      else {
+        body.complete(value);
+      }
+    });
+  }
+
+  public CompletionStage<byte[]> getBody() {
+    return body;
+  }
+
+  public void onSubscribe(final Flow.Subscription subscription) {
+    this.subscription = subscription;
+    bytes.onSubscribe(subscription);
+    checkTimeout();
+  }
+
+  public void onNext(final List<ByteBuffer> item) {
+    receivedNanos = System.nanoTime();
+    bytes.onNext(item);
+  }
+
+  public void onError(final Throwable throwable) {
+    bytes.onError(throwable);
+  }
+
+  public void onComplete() {
+    bytes.onComplete();
+  }
+
+  /**
+   * Fail the body if the read timeout has passed since the last buffers or
+   * the deadline has passed, otherwise check again when either could next
+   * pass.
+   */
+  private void checkTimeout() {
+    if(body.isDone()) {
+      return;
+    }
+    final long readTimeoutMillis = request.getReadTimeout();
+    final long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - receivedNanos);
+    final int timeoutMillis;
+    try {
+      if(readTimeoutMillis > 0 && idleMillis >= readTimeoutMillis) {
+        throw new SocketTimeoutException("Read timed out for " + request.getURL().getPath());
+      }
+      timeoutMillis = request.getTimeout(readTimeoutMillis == 0 ? 0L : readTimeoutMillis - idleMillis);
+    }
+    catch(IOException e) {
+      body.completeExceptionally(e);
+      subscription.cancel();
+      return;
+    }
+    if(timeoutMillis > 0) {
+      CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS, DIRECT_EXECUTOR).execute(this::checkTimeout);
+    }
+  }
+}
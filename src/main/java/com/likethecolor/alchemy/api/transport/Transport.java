@@ -0,0 +1,49 @@
+/**
+ * File: Transport.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import java.io.IOException;
+
+/**
+ * The HTTP layer used by the {@link com.likethecolor.alchemy.api.Client} to
+ * talk to the AlchemyAPI service.  Implementations are expected to be thread
+ * safe; a single transport is shared by every call made through a client.
+ *
+ * @see PooledTransport
+ */
+public interface Transport {
+  /**
+   * Send the request and return the response once the status line and headers
+   * have been read.  The body is left on the wire: the caller must read it
+   * from {@link TransportResponse#getInputStream()} and then
+   * {@link TransportResponse#close()} the response so the underlying
+   * connection can be reused.
+   *
+   * @param request request to send
+   *
+   * @return response whose body has not yet been read
+   *
+   * @throws IOException if the request could not be sent or the response
+   * could not be read
+   */
+  public TransportResponse execute(final TransportRequest request) throws IOException;
+
+  /**
+   * Release any resources (e.g., idle connections) held by this transport.
+   */
+  public void close();
+}
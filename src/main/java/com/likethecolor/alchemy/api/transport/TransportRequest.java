@@ -0,0 +1,279 @@
+/**
+ * File: TransportRequest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A single HTTP request to be sent by a {@link Transport}.
+ */
+public class TransportRequest {
+  public static final String METHOD_GET = "GET";
+  public static final String METHOD_POST = "POST";
+
+  private final String method;
+  private final URL url;
+  private final Map<String, String> headers;
+  private RequestBody body;
+  private long connectTimeoutMillis;
+  private long readTimeoutMillis;
+  private long deadlineNanos;
+  private boolean hasDeadline;
+  // guarded by this
+  private boolean isCancelled;
+  private Runnable cancelHandler;
+
+  public TransportRequest(final String method, final URL url) {
+    if(method == null) {
+      throw new IllegalArgumentException("Method cannot be null.");
+    }
+    if(url == null) {
+      throw new IllegalArgumentException("URL cannot be null.");
+    }
+    this.method = method;
+    this.url = url;
+    this.headers = new LinkedHashMap<String, String>();
+  }
+
+  /**
+   * @return new request with the same method, url, headers, body, timeouts
+   * and deadline that can be sent and cancelled on its own
+   */
+  public TransportRequest copy() {
+    final TransportRequest copy = new TransportRequest(method, url);
+    copy.headers.putAll(headers);
+    copy.body = body;
+    copy.connectTimeoutMillis = connectTimeoutMillis;
+    copy.readTimeoutMillis = readTimeoutMillis;
+    copy.deadlineNanos = deadlineNanos;
+    copy.hasDeadline = hasDeadline;
+    return copy;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public URL getURL() {
+    return url;
+  }
+
+  public void setHeader(final String name, final String value) {
+    headers.put(name, value);
+  }
+
+  public String getHeader(final String name) {
+    return headers.get(name);
+  }
+
+  public Map<String, String> getHeaders() {
+    return Collections.unmodifiableMap(headers);
+  }
+
+  public void setBody(final byte[] body) {
+    this.body = body == null ? null : new ByteArrayRequestBody(body);
+  }
+
+  /**
+   * Set a body that the transport writes straight to the connection.
+   *
+   * @param body request body or null for none
+   */
+  public void setBody(final RequestBody body) {
+    this.body = body;
+  }
+
+  /**
+   * Return the request body or null if the request does not have one.
+   *
+   * @return request body or null
+   */
+  public RequestBody getRequestBody() {
+    return body;
+  }
+
+  /**
+   * Return the request body as a byte array or null if the request does not
+   * have one.  A body set as a {@link RequestBody} is written into a new
+   * array on each call.
+   *
+   * @return request body or null
+   */
+  public byte[] getBody() {
+    if(body == null) {
+      return null;
+    }
+    if(body instanceof ByteArrayRequestBody) {
+      return ((ByteArrayRequestBody) body).bytes;
+    }
+    final ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(body.getContentLength(), Integer.MAX_VALUE - 8));
+    try {
+      body.writeTo(out);
+    }
+    catch(IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Set how long the transport waits for a new connection to be
+   * established.
+   *
+   * @param connectTimeoutMillis timeout in milliseconds (0 waits indefinitely)
+   */
+  public void setConnectTimeout(final long connectTimeoutMillis) {
+    if(connectTimeoutMillis < 0) {
+      throw new IllegalArgumentException("Connect timeout cannot be negative [" + connectTimeoutMillis + "].");
+    }
+    this.connectTimeoutMillis = connectTimeoutMillis;
+  }
+
+  public long getConnectTimeout() {
+    return connectTimeoutMillis;
+  }
+
+  /**
+   * Set how long the transport waits for any single read from the server.
+   *
+   * @param readTimeoutMillis timeout in milliseconds (0 waits indefinitely)
+   */
+  public void setReadTimeout(final long readTimeoutMillis) {
+    if(readTimeoutMillis < 0) {
+      throw new IllegalArgumentException("Read timeout cannot be negative [" + readTimeoutMillis + "].");
+    }
+    this.readTimeoutMillis = readTimeoutMillis;
+  }
+
+  public long getReadTimeout() {
+    return readTimeoutMillis;
+  }
+
+  /**
+   * Set the time by which the whole exchange (waiting for a connection,
+   * connecting, writing the request and reading the response) must be done.
+   *
+   * @param deadlineNanos deadline on the {@link System#nanoTime()} clock
+   */
+  public void setDeadline(final long deadlineNanos) {
+    this.deadlineNanos = deadlineNanos;
+    this.hasDeadline = true;
+  }
+
+  public boolean hasDeadline() {
+    return hasDeadline;
+  }
+
+  /**
+   * @return deadline on the {@link System#nanoTime()} clock; only meaningful
+   * if {@link #hasDeadline()}
+   */
+  public long getDeadline() {
+    return deadlineNanos;
+  }
+
+  /**
+   * Abandon the request.  A transport that is blocked sending it or reading
+   * its response, e.g. {@link PooledTransport}, closes the connection so
+   * that the exchange fails at once rather than when the response arrives.
+   */
+  public void cancel() {
+    synchronized(this) {
+      if(isCancelled) {
+        return;
+      }
+      isCancelled = true;
+      if(cancelHandler != null) {
+        cancelHandler.run();
+      }
+    }
+  }
+
+  public synchronized boolean isCancelled() {
+    return isCancelled;
+  }
+
+  /**
+   * Set what cancelling the request does while it is being sent.  The
+   * handler runs at once if the request has already been cancelled.
+   *
+   * @param cancelHandler handler or null once the exchange is over
+   */
+  synchronized void setCancelHandler(final Runnable cancelHandler) {
+    this.cancelHandler = cancelHandler;
+    if(isCancelled && cancelHandler != null) {
+      cancelHandler.run();
+    }
+  }
+
+  /**
+   * @throws SocketTimeoutException if the deadline has passed
+   */
+  public void checkDeadline() throws SocketTimeoutException {
+    if(hasDeadline && deadlineNanos - System.nanoTime() <= 0) {
+      throw new SocketTimeoutException("Deadline exceeded for " + url.getPath());
+    }
+  }
+
+  /**
+   * Combine a timeout with the time left until the deadline.
+   *
+   * @param timeoutMillis timeout in milliseconds (0 for none)
+   *
+   * @return the smaller of the timeout and the time left in milliseconds, or 0
+   * if neither applies
+   *
+   * @throws SocketTimeoutException if the deadline has passed
+   */
+  public int getTimeout(final long timeoutMillis) throws SocketTimeoutException {
+    long timeout = timeoutMillis;
+    if(hasDeadline) {
+      final long remainingNanos = deadlineNanos - System.nanoTime();
+      if(remainingNanos <= 0) {
+        throw new SocketTimeoutException("Deadline exceeded for " + url.getPath());
+      }
+      // round up so that a sub-millisecond remainder does not mean "no timeout"
+      final long remainingMillis = (remainingNanos + 999999L) / 1000000L;
+      timeout = timeout == 0 ? remainingMillis : Math.min(timeout, remainingMillis);
+    }
+    return (int) Math.min(timeout, Integer.MAX_VALUE);
+  }
+
+  private static class ByteArrayRequestBody implements RequestBody {
+    private final byte[] bytes;
+
+    ByteArrayRequestBody(final byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    public long getContentLength() {
+      return bytes.length;
+    }
+
+    public void writeTo(final OutputStream out) throws IOException {
+      out.write(bytes);
+    }
+  }
+}
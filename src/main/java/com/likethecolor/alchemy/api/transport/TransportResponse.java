@@ -0,0 +1,53 @@
+/**
+ * File: TransportResponse.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import java.io.Closeable;
+import java.io.InputStream;
+
+/**
+ * The response to a {@link TransportRequest}.  The body must be read (or
+ * abandoned) and the response closed; closing a fully read response is what
+ * hands a keep-alive connection back to its pool.
+ */
+public interface TransportResponse extends Closeable {
+  /**
+   * @return HTTP status code (e.g., 200)
+   */
+  public int getStatusCode();
+
+  /**
+   * Return the value of the named header or null if it was not sent.  Header
+   * names are case insensitive.
+   *
+   * @param name header name
+   *
+   * @return value of the header or null
+   */
+  public String getHeader(final String name);
+
+  /**
+   * @return stream from which the (de-chunked) response body is read
+   */
+  public InputStream getInputStream();
+
+  /**
+   * Release the response.  This does not throw: a connection that cannot be
+   * cleanly returned to its pool is closed.
+   */
+  public void close();
+}
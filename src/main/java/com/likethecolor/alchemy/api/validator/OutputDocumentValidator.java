@@ -25,4 +25,15 @@ public class OutputDocumentValidator {
       throw new IllegalArgumentException("Output JSON cannot be null.");
     }
   }
+
+  public static void validate(final CharSequence json) {
+    if(json != null) {
+      for(int i = 0; i < json.length(); i++) {
+        if(!Character.isWhitespace(json.charAt(i))) {
+          return;
+        }
+      }
+    }
+    throw new IllegalArgumentException("Output JSON cannot be null.");
+  }
 }
@@ -17,28 +17,87 @@
  */
 package com.likethecolor.alchemy.api.validator;
 
+import com.likethecolor.alchemy.api.PermanentCallException;
+import com.likethecolor.alchemy.api.RateLimitExceededException;
+import com.likethecolor.alchemy.api.TransientCallException;
 import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.parser.json.HeaderParser;
 import org.apache.commons.lang.StringUtils;
+import org.json.JSONObject;
 
 import java.io.IOException;
 
+/**
+ * Checks the status of the API output.  A status other than OK is thrown as a
+ * {@link TransientCallException} when the call may succeed later (the daily
+ * transaction limit was hit) and as a {@link PermanentCallException}
+ * otherwise, including when the page to analyze could not be retrieved.
+ */
 public class OutputStatusValidator {
+  // status info values that can clear up without the call changing
+  private static final String[] TRANSIENT_STATUS_INFO_PREFIXES = {
+      RateLimitExceededException.STATUS_INFO
+  };
+  private static final HeaderParser HEADER_PARSER = new HeaderParser();
+
   public static void validate(final String jsonString) throws IOException {
     OutputDocumentValidator.validate(jsonString);
 
-    final Response response = new HeaderParser().parse(jsonString);
-    final Response.STATUS status = response.getStatus();
-    final String statusInfo = response.getStatusInfo();
-    validate(status, statusInfo, jsonString);
+    final Response<?> response = HEADER_PARSER.parse(jsonString);
+    validate(response.getStatus(), response.getStatusInfo());
+  }
+
+  /**
+   * Validate the status of output that has already been parsed.
+   *
+   * @param jsonObject parsed API output
+   *
+   * @throws IOException if the status is not OK
+   */
+  public static void validate(final JSONObject jsonObject) throws IOException {
+    final Response<?> response = HEADER_PARSER.parseJSONObject(jsonObject);
+    validate(response.getStatus(), response.getStatusInfo());
+  }
+
+  /**
+   * Validate the status of output that has already been parsed into a
+   * response.
+   *
+   * @param response parsed API output
+   *
+   * @throws IOException if the status is not OK
+   */
+  public static void validate(final Response<?> response) throws IOException {
+    validate(response.getStatus(), response.getStatusInfo());
+  }
+
+  /**
+   * @param statusInfo status info returned with a status other than OK
+   *
+   * @return true if the status info names a failure that may clear up if the
+   * call is made again
+   */
+  public static boolean isTransient(final String statusInfo) {
+    if(statusInfo == null) {
+      return false;
+    }
+    for(String prefix : TRANSIENT_STATUS_INFO_PREFIXES) {
+      if(statusInfo.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
   }
 
-  private static void validate(final Response.STATUS status, final String statusInfo, final String originalJsonString) throws IOException {
+  private static void validate(final Response.STATUS status, final String statusInfo) throws IOException {
     if(null == status || status != Response.STATUS.OK) {
-      if(!StringUtils.isBlank(statusInfo)) {
-        throw new IOException("Error making API call: " + statusInfo + " - original json string: " + originalJsonString);
+      // the output itself is left out of the message; it is logged at debug
+      // level by the client
+      final String message = "Error making API call: " + (StringUtils.isBlank(statusInfo) ? status : statusInfo);
+      if(isTransient(statusInfo)) {
+        throw new TransientCallException(message, statusInfo, 0);
       }
-      throw new IOException("Error making API call: " + status + " - original json string: " + originalJsonString);
+      throw new PermanentCallException(message, statusInfo, 0);
     }
   }
 }
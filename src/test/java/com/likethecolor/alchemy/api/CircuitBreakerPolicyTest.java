@@ -0,0 +1,87 @@
+/**
+ * File: CircuitBreakerPolicyTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerPolicyTest {
+  @Test
+  public void testDefaults() {
+    final CircuitBreakerPolicy policy = new CircuitBreakerPolicy();
+
+    assertEquals(CircuitBreakerPolicy.DEFAULT_FAILURE_RATE_THRESHOLD, policy.getFailureRateThreshold(), 0.0D);
+    assertEquals(CircuitBreakerPolicy.DEFAULT_SLOW_CALL_RATE_THRESHOLD, policy.getSlowCallRateThreshold(), 0.0D);
+    assertEquals(CircuitBreakerPolicy.DEFAULT_SLOW_CALL_DURATION_MILLIS, policy.getSlowCallDuration());
+    assertEquals(CircuitBreakerPolicy.DEFAULT_WINDOW_SIZE, policy.getWindowSize());
+    assertEquals(CircuitBreakerPolicy.DEFAULT_MIN_CALLS, policy.getMinCalls());
+    assertEquals(CircuitBreakerPolicy.DEFAULT_OPEN_DURATION_MILLIS, policy.getOpenDuration());
+    assertEquals(CircuitBreakerPolicy.DEFAULT_HALF_OPEN_CALLS, policy.getHalfOpenCalls());
+  }
+
+  @Test
+  public void testIsFailure() {
+    final CircuitBreakerPolicy policy = new CircuitBreakerPolicy();
+
+    assertTrue(policy.isFailure(new TransientCallException("Server returned HTTP response code: 503")));
+    assertTrue(policy.isFailure(new CallTimeoutException("timed out")));
+    assertTrue(policy.isFailure(new IOException("Connection reset")));
+    assertFalse(policy.isFailure(new PermanentCallException("invalid-api-key")));
+    assertFalse(policy.isFailure(new InterruptedIOException("interrupted")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetFailureRateThreshold_Zero() {
+    new CircuitBreakerPolicy().setFailureRateThreshold(0.0D);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetSlowCallRateThreshold_OverHundred() {
+    new CircuitBreakerPolicy().setSlowCallRateThreshold(101.0D);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetSlowCallDuration_Negative() {
+    new CircuitBreakerPolicy().setSlowCallDuration(-1L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetWindowSize_Zero() {
+    new CircuitBreakerPolicy().setWindowSize(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMinCalls_Zero() {
+    new CircuitBreakerPolicy().setMinCalls(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetOpenDuration_Negative() {
+    new CircuitBreakerPolicy().setOpenDuration(-1L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetHalfOpenCalls_Zero() {
+    new CircuitBreakerPolicy().setHalfOpenCalls(0);
+  }
+}
@@ -0,0 +1,188 @@
+/**
+ * File: CircuitBreakerTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest {
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1L);
+  private static final long SLOW = TimeUnit.SECONDS.toNanos(20L);
+
+  @Test
+  public void testOpensOnFailureRate() {
+    final CircuitBreaker breaker = new CircuitBreaker("host/URLGetTitle", getPolicy(0L));
+
+    for(int i = 0; i < 5; i++) {
+      assertTrue(breaker.tryAcquire());
+      breaker.onSuccess(FAST);
+    }
+    for(int i = 0; i < 4; i++) {
+      assertTrue(breaker.tryAcquire());
+      breaker.onFailure(FAST);
+      assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+    assertTrue(breaker.tryAcquire());
+    breaker.onFailure(FAST);
+
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    assertEquals(50.0D, breaker.getFailureRate(), 0.0D);
+  }
+
+  @Test
+  public void testOpensOnSlowCallRate() {
+    final CircuitBreakerPolicy policy = getPolicy(60000L);
+    policy.setSlowCallRateThreshold(50.0D);
+    final CircuitBreaker breaker = new CircuitBreaker("host/URLGetTitle", policy);
+
+    for(int i = 0; i < 10; i++) {
+      assertTrue(breaker.tryAcquire());
+      breaker.onSuccess(i % 2 == 0 ? SLOW : FAST);
+    }
+
+    assertEquals(50.0D, breaker.getSlowCallRate(), 0.0D);
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+  }
+
+  @Test
+  public void testNoRatesBeforeMinCalls() {
+    final CircuitBreaker breaker = new CircuitBreaker("host/URLGetTitle", getPolicy(0L));
+
+    for(int i = 0; i < 9; i++) {
+      assertTrue(breaker.tryAcquire());
+      breaker.onFailure(FAST);
+    }
+
+    assertEquals(-1.0D, breaker.getFailureRate(), 0.0D);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  public void testOldOutcomesLeaveTheWindow() {
+    final CircuitBreaker breaker = new CircuitBreaker("host/URLGetTitle", getPolicy(0L));
+
+    for(int i = 0; i < 4; i++) {
+      breaker.tryAcquire();
+      breaker.onFailure(FAST);
+    }
+    for(int i = 0; i < 20; i++) {
+      breaker.tryAcquire();
+      breaker.onSuccess(FAST);
+    }
+
+    assertEquals(0.0D, breaker.getFailureRate(), 0.0D);
+  }
+
+  @Test
+  public void testOpenRefusesUntilOpenDurationPasses() {
+    final CircuitBreaker breaker = open(getPolicy(60000L));
+
+    assertFalse(breaker.tryAcquire());
+    assertFalse(breaker.tryAcquire());
+    assertEquals(2L, breaker.getNotPermittedCalls());
+  }
+
+  @Test
+  public void testHalfOpenCloses() {
+    final List<String> changes = new ArrayList<String>();
+    final CircuitBreaker breaker = open(getPolicy(0L));
+    breaker.setListener((circuitBreaker, from, to) -> changes.add(from + "->" + to));
+
+    // the open duration has passed: two trial requests are let through
+    assertTrue(breaker.tryAcquire());
+    assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    assertTrue(breaker.tryAcquire());
+    assertFalse(breaker.tryAcquire());
+    breaker.onSuccess(FAST);
+    breaker.onSuccess(FAST);
+
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    assertEquals(-1.0D, breaker.getFailureRate(), 0.0D);
+    assertEquals(2, changes.size());
+    assertEquals("OPEN->HALF_OPEN", changes.get(0));
+    assertEquals("HALF_OPEN->CLOSED", changes.get(1));
+  }
+
+  @Test
+  public void testHalfOpenReopens() {
+    final CircuitBreaker breaker = open(getPolicy(0L));
+
+    assertTrue(breaker.tryAcquire());
+    assertTrue(breaker.tryAcquire());
+    breaker.onFailure(FAST);
+    breaker.onSuccess(FAST);
+
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+  }
+
+  @Test
+  public void testHalfOpenIgnoredReleasesPermit() {
+    final CircuitBreaker breaker = open(getPolicy(0L));
+
+    assertTrue(breaker.tryAcquire());
+    assertTrue(breaker.tryAcquire());
+    breaker.onIgnored();
+
+    assertTrue(breaker.tryAcquire());
+  }
+
+  @Test
+  public void testListenerFailureIsIgnored() {
+    final CircuitBreaker breaker = new CircuitBreaker("host/URLGetTitle", getPolicy(0L));
+    breaker.setListener((circuitBreaker, from, to) -> {
+      throw new IllegalStateException("broken listener");
+    });
+
+    for(int i = 0; i < 10; i++) {
+      breaker.tryAcquire();
+      breaker.onFailure(FAST);
+    }
+
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_NullPolicy() {
+    new CircuitBreaker("host/URLGetTitle", null);
+  }
+
+  private static CircuitBreakerPolicy getPolicy(final long openDurationMillis) {
+    final CircuitBreakerPolicy policy = new CircuitBreakerPolicy();
+    policy.setWindowSize(20);
+    policy.setMinCalls(10);
+    policy.setOpenDuration(openDurationMillis);
+    policy.setHalfOpenCalls(2);
+    return policy;
+  }
+
+  private static CircuitBreaker open(final CircuitBreakerPolicy policy) {
+    final CircuitBreaker breaker = new CircuitBreaker("host/URLGetTitle", policy);
+    for(int i = 0; i < 10; i++) {
+      breaker.tryAcquire();
+      breaker.onFailure(FAST);
+    }
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    return breaker;
+  }
+}
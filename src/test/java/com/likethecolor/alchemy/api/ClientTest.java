@@ -0,0 +1,1852 @@
+/**
+ * File: ClientTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import com.likethecolor.alchemy.api.cache.CacheKey;
+import com.likethecolor.alchemy.api.cache.ContentDeduplicator;
+import com.likethecolor.alchemy.api.cache.DiskResponseCache;
+import com.likethecolor.alchemy.api.cache.MemoryResponseCache;
+import com.likethecolor.alchemy.api.cache.NearDuplicateIndex;
+import com.likethecolor.alchemy.api.cache.NegativeResultCache;
+import com.likethecolor.alchemy.api.call.AbstractCall;
+import com.likethecolor.alchemy.api.call.RankedNamedEntitiesCall;
+import com.likethecolor.alchemy.api.call.TextCall;
+import com.likethecolor.alchemy.api.call.TitleCall;
+import com.likethecolor.alchemy.api.call.type.CallTypeText;
+import com.likethecolor.alchemy.api.call.type.CallTypeUrl;
+import com.likethecolor.alchemy.api.entity.AbstractAlchemyEntity;
+import com.likethecolor.alchemy.api.entity.NamedEntityAlchemyEntity;
+import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.entity.TitleAlchemyEntity;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonSyntaxException;
+import com.likethecolor.alchemy.api.transport.PooledTransport;
+import com.likethecolor.alchemy.api.transport.Transport;
+import com.likethecolor.alchemy.api.transport.TransportRequest;
+import com.likethecolor.alchemy.api.transport.TransportResponse;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ClientTest {
+  private static final String API_KEY = "0a1b2c3d4e5f6g7h8i9j";
+  private static final String TITLE = "Authorities: Pilot accused of faking death found in Florida - CNN.com";
+  private static final String JSON = "{\"status\": \"OK\", \"url\": \"http://www.cnn.com/\", \"title\": \"" + TITLE + "\"}";
+  private static final String JSON_ERROR = "{\"status\": \"ERROR\", \"statusInfo\": \"invalid-api-key\"}";
+  private static final String JSON_TEXT = "{\"status\": \"OK\", \"url\": \"http://www.cnn.com/\", \"text\": \"text\"}";
+  private static final String JSON_LIMIT = "{\"status\": \"ERROR\", \"statusInfo\": \"daily-transaction-limit-exceeded\"}";
+  private static final String ENTITY_SCHRENKER = "{\"type\": \"Person\", \"relevance\": \"0.9\", \"count\": \"2\", \"text\": \"Marcus Schrenker\"}";
+  private static final String ENTITY_TAMPA = "{\"type\": \"City\", \"relevance\": \"0.5\", \"count\": \"1\", \"text\": \"Tampa\"}";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testDefaultTransport() {
+    final Client client = new Client(API_KEY);
+
+    assertTrue(client.getTransport() instanceof PooledTransport);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetTransport_Null() {
+    new Client(API_KEY).setTransport(null);
+  }
+
+  @Test
+  public void testCall_Url() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+
+    final Response<TitleAlchemyEntity> response = client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+
+    assertEquals(TITLE, response.iterator().next().getTitle());
+    final TransportRequest request = transport.getRequests().get(0);
+    assertEquals(TransportRequest.METHOD_GET, request.getMethod());
+    assertEquals("/calls/url/URLGetTitle", request.getURL().getPath());
+    assertTrue(request.getURL().getQuery().startsWith("apikey=" + API_KEY + "&url=http%3A%2F%2Fwww.cnn.com%2F"));
+    assertNull(request.getBody());
+  }
+
+  @Test
+  public void testCall_Text() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+
+    client.call(new TitleCall(new CallTypeText("some text")));
+
+    final TransportRequest request = transport.getRequests().get(0);
+    assertEquals(TransportRequest.METHOD_POST, request.getMethod());
+    assertEquals("/calls/text/TextGetTitle", request.getURL().getPath());
+    assertEquals("application/x-www-form-urlencoded", request.getHeader("Content-Type"));
+    assertEquals("apikey=" + API_KEY + "&text=some+text&language=detect&outputMode=json", new String(request.getBody()));
+  }
+
+  @Test(expected = IOException.class)
+  public void testCall_StatusError() throws IOException {
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport(JSON_ERROR));
+
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+  }
+
+  @Test
+  public void testCall_LargeText() throws IOException {
+    final StringBuilder text = new StringBuilder();
+    while(text.length() < 50000) {
+      text.append("Z\u00fcrich  \u6771\u4eac  ");
+    }
+    text.append("end");
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport("{\"status\": \"OK\",\n  \"title\": \"" + text + "\"\n}\n"));
+
+    final Response<TitleAlchemyEntity> response = client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+
+    assertEquals(text.toString(), response.iterator().next().getTitle());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCall_EmptyBody() throws IOException {
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport(" \n"));
+
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+  }
+
+  @Test
+  public void testCall_AcceptEncoding() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    client.setCompressionEnabled(false);
+    client.call(new TitleCall(new CallTypeText("some text")));
+
+    assertEquals("gzip, deflate", transport.getRequests().get(0).getHeader("Accept-Encoding"));
+    assertNull(transport.getRequests().get(1).getHeader("Accept-Encoding"));
+  }
+
+  @Test
+  public void testCall_GzipMetrics() throws IOException {
+    final byte[] json = JSON.getBytes(StandardCharsets.UTF_8);
+    final byte[] gzipped = ResponseBodyTest.gzip(json);
+    final List<CallMetrics> metrics = new ArrayList<CallMetrics>();
+    final Client client = new Client(API_KEY);
+    client.setTransport(new Transport() {
+      public TransportResponse execute(final TransportRequest request) {
+        return new MockTransport.MockResponse(200, gzipped, Map.of("Content-Encoding", "gzip"));
+      }
+
+      public void close() {
+      }
+    });
+    client.setCallMetricsListener(metrics::add);
+
+    final Response<TitleAlchemyEntity> response = client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+
+    assertEquals(TITLE, response.iterator().next().getTitle());
+    assertEquals(1, metrics.size());
+    assertEquals("URLGetTitle", metrics.get(0).getCallName());
+    assertEquals("gzip", metrics.get(0).getContentEncoding());
+    assertEquals(gzipped.length, metrics.get(0).getWireBytes());
+    assertEquals(json.length, metrics.get(0).getDecodedBytes());
+  }
+
+  @Test
+  public void testCall_MetricsListenerFailureIsIgnored() throws IOException {
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport(JSON));
+    client.setCallMetricsListener(metrics -> {
+      throw new IllegalStateException("broken listener");
+    });
+
+    assertEquals(TITLE, client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).iterator().next().getTitle());
+  }
+
+  @Test(expected = IOException.class)
+  public void testCall_NotJson() throws IOException {
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport("<html>Service Unavailable</html>"));
+
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+  }
+
+  @Test(expected = IOException.class)
+  public void testCall_HttpError() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    transport.setStatusCode(500);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+  }
+
+  @Test
+  public void testCallAsync() throws Exception {
+    final MockTransport transport = new MockTransport(JSON);
+    final AtomicInteger parses = new AtomicInteger();
+    final Executor executor = command -> {
+      parses.incrementAndGet();
+      command.run();
+    };
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setParseExecutor(executor);
+
+    final CompletableFuture<Response<TitleAlchemyEntity>> future = client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+
+    assertEquals(TITLE, future.get().iterator().next().getTitle());
+    assertEquals(1, transport.getAsyncRequests());
+    assertEquals(1, parses.get());
+  }
+
+  @Test
+  public void testCallAsync_BlockingTransport() throws Exception {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport.blocking());
+
+    final CompletableFuture<Response<TitleAlchemyEntity>> future = client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+
+    assertEquals(TITLE, future.get().iterator().next().getTitle());
+    assertEquals(0, transport.getAsyncRequests());
+    assertEquals(1, transport.getRequests().size());
+  }
+
+  @Test
+  public void testCallAsync_StatusError() throws InterruptedException {
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport(JSON_ERROR));
+
+    try {
+      client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).get();
+      fail("expected the future to fail");
+    }
+    catch(ExecutionException e) {
+      assertTrue(e.getCause() instanceof IOException);
+    }
+  }
+
+  @Test
+  public void testCallAll() throws IOException {
+    final MockTransport transport = new MockTransport(request -> "{\"status\": \"OK\", \"title\": \"" + request.getURL().getQuery().split("&")[1] + "\"}");
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+
+    final List<AbstractCall<?>> calls = new ArrayList<AbstractCall<?>>();
+    for(int i = 0; i < 50; i++) {
+      calls.add(new TitleCall(new CallTypeUrl("http://www.cnn.com/" + i)));
+    }
+    final List<Response<?>> responses = client.callAll(calls);
+
+    assertEquals(50, responses.size());
+    for(int i = 0; i < 50; i++) {
+      final TitleAlchemyEntity entity = (TitleAlchemyEntity) responses.get(i).iterator().next();
+      assertEquals("url=http%3A%2F%2Fwww.cnn.com%2F" + i, entity.getTitle());
+    }
+  }
+
+  @Test
+  public void testCallAll_BoundedConcurrency() throws IOException {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    final MockTransport transport = new MockTransport(request -> {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(5L);
+      }
+      catch(InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      inFlight.decrementAndGet();
+      return JSON;
+    });
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setMaxConcurrency(3);
+
+    final List<AbstractCall<?>> calls = new ArrayList<AbstractCall<?>>();
+    for(int i = 0; i < 30; i++) {
+      calls.add(new TitleCall(new CallTypeUrl("http://www.cnn.com/" + i)));
+    }
+    client.callAll(calls);
+
+    assertEquals(30, transport.getRequests().size());
+    assertTrue(maxInFlight.get() <= 3);
+  }
+
+  @Test
+  public void testCallAll_Virtual() throws IOException {
+    Assume.assumeTrue(ExecutionMode.VIRTUAL.isSupported());
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport(JSON));
+    client.setExecutionMode(ExecutionMode.VIRTUAL);
+
+    final List<AbstractCall<?>> calls = new ArrayList<AbstractCall<?>>();
+    for(int i = 0; i < 100; i++) {
+      calls.add(new TitleCall(new CallTypeUrl("http://www.cnn.com/" + i)));
+    }
+
+    assertEquals(100, client.callAll(calls).size());
+  }
+
+  @Test
+  public void testCallAll_Failure() {
+    final MockTransport transport = new MockTransport(request -> request.getURL().getQuery().contains("bad") ? JSON_ERROR : JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setMaxConcurrency(1);
+
+    final List<AbstractCall<?>> calls = new ArrayList<AbstractCall<?>>();
+    calls.add(new TitleCall(new CallTypeUrl("http://www.cnn.com/good")));
+    calls.add(new TitleCall(new CallTypeUrl("http://www.cnn.com/bad")));
+    for(int i = 0; i < 10; i++) {
+      calls.add(new TitleCall(new CallTypeUrl("http://www.cnn.com/" + i)));
+    }
+    try {
+      client.callAll(calls);
+      fail("expected the batch to fail");
+    }
+    catch(IOException e) {
+      assertTrue(e.getMessage().contains("invalid-api-key"));
+    }
+    // no new calls are started after the failure
+    assertTrue(transport.getRequests().size() < calls.size());
+  }
+
+  @Test
+  public void testCallAll_Empty() throws IOException {
+    assertTrue(new Client(API_KEY).callAll(new ArrayList<AbstractCall<?>>()).isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMaxConcurrency_Zero() {
+    new Client(API_KEY).setMaxConcurrency(0);
+  }
+
+  @Test
+  public void testExecutionMode() {
+    final Client client = new Client(API_KEY);
+
+    assertEquals(ExecutionMode.PLATFORM, client.getExecutionMode());
+    assertTrue(ExecutionMode.PLATFORM.isSupported());
+    assertEquals(Client.DEFAULT_MAX_CONCURRENCY, client.getMaxConcurrency());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetParseExecutor_Null() {
+    new Client(API_KEY).setParseExecutor(null);
+  }
+
+  @Test
+  public void testParserEngineIsStreamingByDefault() {
+    assertEquals(ParserEngine.STREAMING, new Client(API_KEY).getParserEngine());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetParserEngine_Null() {
+    new Client(API_KEY).setParserEngine(null);
+  }
+
+  @Test
+  public void testCall_ParserEnginesAgree() throws IOException {
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport(JSON));
+
+    final Response<TitleAlchemyEntity> streamed = client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    client.setParserEngine(ParserEngine.ORG_JSON);
+    final Response<TitleAlchemyEntity> parsed = client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+
+    assertEquals(parsed, streamed);
+    assertEquals(TITLE, streamed.iterator().next().getTitle());
+  }
+
+  @Test
+  public void testCall_MalformedOutputIsPermanent() throws IOException {
+    for(ParserEngine parserEngine : ParserEngine.values()) {
+      final MockTransport transport = new MockTransport("<html>Service Unavailable</html>");
+      final Client client = new Client(API_KEY);
+      client.setTransport(transport);
+      client.setRetryPolicy(fastRetryPolicy(3));
+      client.setParserEngine(parserEngine);
+
+      try {
+        client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+        fail("expected the call to fail");
+      }
+      catch(PermanentCallException e) {
+        assertTrue(e.getCause() instanceof JsonSyntaxException);
+      }
+      assertEquals(1, transport.getRequests().size());
+    }
+  }
+
+  @Test
+  public void testCall_ErrorStatusWithStreamingParser() throws IOException {
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport(JSON_ERROR));
+
+    try {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      fail("expected the call to fail");
+    }
+    catch(PermanentCallException e) {
+      assertEquals("invalid-api-key", e.getStatusInfo());
+    }
+  }
+
+  @Test
+  public void testTimeoutDefaults() {
+    final Client client = new Client(API_KEY);
+
+    assertEquals(Client.DEFAULT_CONNECT_TIMEOUT_MILLIS, client.getConnectTimeout());
+    assertEquals(Client.DEFAULT_READ_TIMEOUT_MILLIS, client.getReadTimeout());
+    assertEquals(0L, client.getCallTimeout());
+  }
+
+  @Test
+  public void testCall_Timeouts() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setConnectTimeout(1000L);
+    client.setReadTimeout(2000L);
+
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+
+    final TransportRequest request = transport.getRequests().get(0);
+    assertEquals(1000L, request.getConnectTimeout());
+    assertEquals(2000L, request.getReadTimeout());
+    assertFalse(request.hasDeadline());
+  }
+
+  @Test
+  public void testCall_CallTimeout() throws IOException {
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport(sleepingResponder(200L, new CountDownLatch(1))));
+    client.setCallTimeout(50L);
+
+    try {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      fail("expected the call to time out");
+    }
+    catch(CallTimeoutException e) {
+      assertTrue(e.getMessage().contains("/calls/url/URLGetTitle"));
+    }
+  }
+
+  @Test
+  public void testCall_CallTimeoutOverridesClient() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setCallTimeout(1L);
+
+    final long start = System.nanoTime();
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")).setTimeout(60000L));
+
+    final TransportRequest request = transport.getRequests().get(0);
+    assertTrue(request.hasDeadline());
+    assertTrue(request.getDeadline() - start >= TimeUnit.SECONDS.toNanos(59L));
+  }
+
+  @Test
+  public void testCallAsync_CallTimeout() throws Exception {
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport(sleepingResponder(10000L, interrupted)).blocking());
+    client.setCallTimeout(50L);
+
+    final long start = System.nanoTime();
+    try {
+      client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).get();
+      fail("expected the future to time out");
+    }
+    catch(ExecutionException e) {
+      assertTrue(e.getCause() instanceof CallTimeoutException);
+    }
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5L));
+    // the blocking call is abandoned
+    assertTrue(interrupted.await(5L, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testCallAsync_Cancel() throws Exception {
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    final MockTransport transport = new MockTransport(sleepingResponder(10000L, interrupted));
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport.blocking());
+
+    final CompletableFuture<Response<TitleAlchemyEntity>> future = client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    while(transport.getRequests().isEmpty()) {
+      Thread.sleep(1L);
+    }
+    future.cancel(true);
+
+    assertTrue(future.isCancelled());
+    assertTrue(interrupted.await(5L, TimeUnit.SECONDS));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetConnectTimeout_Negative() {
+    new Client(API_KEY).setConnectTimeout(-1L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetReadTimeout_Negative() {
+    new Client(API_KEY).setReadTimeout(-1L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetCallTimeout_Negative() {
+    new Client(API_KEY).setCallTimeout(-1L);
+  }
+
+  @Test
+  public void testCall_RetriesTransientFailure() throws IOException {
+    final AtomicInteger attempts = new AtomicInteger();
+    final MockTransport transport = new MockTransport(JSON);
+    transport.setStatusCodes(request -> attempts.incrementAndGet() < 3 ? 503 : 200);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setRetryPolicy(fastRetryPolicy(3));
+
+    assertEquals(TITLE, client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).iterator().next().getTitle());
+
+    assertEquals(3, transport.getRequests().size());
+    final RetryStats stats = client.getRetryStats();
+    assertEquals(1L, stats.getCalls());
+    assertEquals(2L, stats.getRetries());
+    assertEquals(1L, stats.getRecoveredCalls());
+    assertEquals(0L, stats.getExhaustedCalls());
+  }
+
+  @Test
+  public void testCall_PermanentFailureIsNotRetried() throws IOException {
+    final MockTransport transport = new MockTransport(JSON_ERROR);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setRetryPolicy(fastRetryPolicy(3));
+
+    try {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      fail("expected the call to fail");
+    }
+    catch(PermanentCallException e) {
+      assertEquals("invalid-api-key", e.getStatusInfo());
+    }
+    assertEquals(1, transport.getRequests().size());
+    assertEquals(0L, client.getRetryStats().getRetries());
+  }
+
+  @Test
+  public void testCall_ServerErrorIsRetriedUntilExhausted() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    transport.setStatusCode(503);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setRetryPolicy(fastRetryPolicy(4));
+
+    try {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      fail("expected the call to fail");
+    }
+    catch(TransientCallException e) {
+      assertEquals(503, e.getHttpStatusCode());
+    }
+    assertEquals(4, transport.getRequests().size());
+    assertEquals(3L, client.getRetryStats().getRetries());
+    assertEquals(1L, client.getRetryStats().getExhaustedCalls());
+  }
+
+  @Test
+  public void testCall_ClientErrorIsPermanent() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    transport.setStatusCode(403);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+
+    try {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      fail("expected the call to fail");
+    }
+    catch(PermanentCallException e) {
+      assertEquals(403, e.getHttpStatusCode());
+    }
+    assertEquals(1, transport.getRequests().size());
+  }
+
+  @Test
+  public void testCall_RetryBudget() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    transport.setStatusCode(503);
+    final RetryPolicy policy = fastRetryPolicy(3);
+    policy.setBudgetRatio(0.0D);
+    policy.setBudgetBurst(1);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setRetryPolicy(policy);
+
+    for(int i = 0; i < 2; i++) {
+      try {
+        client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+        fail("expected the call to fail");
+      }
+      catch(TransientCallException e) {
+        // expected
+      }
+    }
+    // one retry for the first call, none left for the second
+    assertEquals(3, transport.getRequests().size());
+    assertEquals(1L, client.getRetryStats().getRetries());
+    assertEquals(2L, client.getRetryStats().getBudgetDeniedRetries());
+  }
+
+  @Test
+  public void testCall_DailyLimitIsNotRetried() throws IOException {
+    final MockTransport transport = new MockTransport(JSON_LIMIT);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setRetryPolicy(fastRetryPolicy(3));
+
+    try {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      fail("expected the call to fail");
+    }
+    catch(TransientCallException e) {
+      assertEquals("daily-transaction-limit-exceeded", e.getStatusInfo());
+    }
+    assertEquals(1, transport.getRequests().size());
+    assertEquals(0L, client.getRetryStats().getRetries());
+  }
+
+  @Test
+  public void testCall_NotRetriedByDefault() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    transport.setStatusCode(503);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+
+    try {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      fail("expected the call to fail");
+    }
+    catch(TransientCallException e) {
+      // expected
+    }
+    assertEquals(1, transport.getRequests().size());
+    assertEquals(1, client.getRetryPolicy().getMaxAttempts());
+  }
+
+  @Test
+  public void testCall_RetryPolicyNone() throws IOException {
+    final MockTransport transport = new MockTransport(JSON_LIMIT);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setRetryPolicy(RetryPolicy.none());
+
+    try {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      fail("expected the call to fail");
+    }
+    catch(TransientCallException e) {
+      // expected
+    }
+    assertEquals(1, transport.getRequests().size());
+    assertEquals(0L, client.getRetryStats().getExhaustedCalls());
+  }
+
+  @Test
+  public void testCall_NoRetryPastDeadline() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    transport.setStatusCode(503);
+    final RetryPolicy policy = new RetryPolicy();
+    policy.setInitialBackoff(5000L);
+    policy.setJitter(0.0D);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setRetryPolicy(policy);
+    client.setCallTimeout(1000L);
+
+    try {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      fail("expected the call to fail");
+    }
+    catch(TransientCallException e) {
+      // expected
+    }
+    assertEquals(1, transport.getRequests().size());
+  }
+
+  @Test
+  public void testCallAsync_RetriesTransientFailure() throws Exception {
+    final AtomicInteger attempts = new AtomicInteger();
+    final MockTransport transport = new MockTransport(JSON);
+    transport.setStatusCodes(request -> attempts.incrementAndGet() < 2 ? 503 : 200);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setRetryPolicy(fastRetryPolicy(3));
+
+    assertEquals(TITLE, client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).get().iterator().next().getTitle());
+    assertEquals(2, transport.getAsyncRequests());
+    assertEquals(1L, client.getRetryStats().getRecoveredCalls());
+  }
+
+  @Test
+  public void testCallAsync_BlockingTransportRetriesTransientFailure() throws Exception {
+    final AtomicInteger attempts = new AtomicInteger();
+    final MockTransport transport = new MockTransport(JSON);
+    transport.setStatusCodes(request -> attempts.incrementAndGet() < 2 ? 503 : 200);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport.blocking());
+    client.setRetryPolicy(fastRetryPolicy(3));
+
+    assertEquals(TITLE, client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).get().iterator().next().getTitle());
+    assertEquals(2, transport.getRequests().size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetRetryPolicy_Null() {
+    new Client(API_KEY).setRetryPolicy(null);
+  }
+
+  @Test
+  public void testCall_HedgeWins() throws Exception {
+    final AtomicInteger requests = new AtomicInteger();
+    final CountDownLatch interrupted = new CountDownLatch(1);
+    final Function<TransportRequest, String> slow = sleepingResponder(10000L, interrupted);
+    final MockTransport transport = new MockTransport(request -> requests.incrementAndGet() == 6 ? slow.apply(request) : JSON);
+    final HedgingPolicy policy = new HedgingPolicy();
+    policy.setMinSamples(5);
+    policy.setMinDelay(50L);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport.blocking());
+    client.setParseExecutor(Executors.newCachedThreadPool());
+    client.setHedgingPolicy(policy);
+
+    for(int i = 0; i < 5; i++) {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    }
+    final long start = System.nanoTime();
+    assertEquals(TITLE, client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).iterator().next().getTitle());
+
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5L));
+    assertEquals(7, transport.getRequests().size());
+    final HedgingStats stats = client.getHedgingStats();
+    assertEquals(1L, stats.getHedgesSent());
+    assertEquals(1L, stats.getHedgesWon());
+    assertEquals(50L, stats.getHedgeDelayMillis());
+    // the slow request is cancelled
+    assertTrue(interrupted.await(5L, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testCall_HedgeOnDefaultExecutors() throws Exception {
+    final AtomicInteger requests = new AtomicInteger();
+    final List<String> threads = new CopyOnWriteArrayList<String>();
+    final CountDownLatch cancelled = new CountDownLatch(1);
+    final MockTransport transport = new MockTransport(request -> {
+      if(requests.incrementAndGet() == 6) {
+        threads.add(Thread.currentThread().getName());
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+        while(!request.isCancelled() && System.nanoTime() - deadline < 0) {
+          LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1L));
+        }
+        if(request.isCancelled()) {
+          cancelled.countDown();
+        }
+      }
+      return JSON;
+    });
+    final HedgingPolicy policy = new HedgingPolicy();
+    policy.setMinSamples(5);
+    policy.setMinDelay(50L);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport.blocking());
+    client.setHedgingPolicy(policy);
+
+    for(int i = 0; i < 5; i++) {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    }
+    assertEquals(TITLE, client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).iterator().next().getTitle());
+
+    assertEquals(1L, client.getHedgingStats().getHedgesWon());
+    // the losing request is cancelled, not only its thread interrupted
+    assertTrue(cancelled.await(5L, TimeUnit.SECONDS));
+    // blocking requests never run on the common pool
+    assertTrue(threads.get(0), threads.get(0).startsWith("alchemy-io-"));
+  }
+
+  @Test
+  public void testCall_HedgeBudget() throws Exception {
+    final AtomicInteger requests = new AtomicInteger();
+    final Function<TransportRequest, String> slow = sleepingResponder(200L, new CountDownLatch(1));
+    final MockTransport transport = new MockTransport(request -> requests.incrementAndGet() == 2 ? slow.apply(request) : JSON);
+    final HedgingPolicy policy = new HedgingPolicy();
+    policy.setMinSamples(1);
+    policy.setMinDelay(20L);
+    policy.setBudgetRatio(0.0D);
+    policy.setBudgetBurst(0);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setHedgingPolicy(policy);
+
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+
+    assertEquals(2, transport.getRequests().size());
+    assertEquals(0L, client.getHedgingStats().getHedgesSent());
+    assertEquals(1L, client.getHedgingStats().getBudgetDeniedHedges());
+  }
+
+  @Test
+  public void testCall_NoHedgeBeforeMinSamples() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setHedgingPolicy(new HedgingPolicy());
+
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+
+    assertEquals(-1L, client.getHedgingStats().getHedgeDelayMillis());
+    assertEquals(0L, client.getHedgingStats().getHedgesSent());
+  }
+
+  @Test
+  public void testHedgingIsOffByDefault() {
+    assertNull(new Client(API_KEY).getHedgingPolicy());
+  }
+
+  @Test
+  public void testCall_CircuitBreakerOpens() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    transport.setStatusCode(503);
+    final List<CircuitBreaker.State> changes = new ArrayList<CircuitBreaker.State>();
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setRetryPolicy(RetryPolicy.none());
+    client.setCircuitBreakerPolicy(circuitBreakerPolicy());
+    client.setCircuitBreakerListener((circuitBreaker, from, to) -> changes.add(to));
+
+    for(int i = 0; i < 5; i++) {
+      try {
+        client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+        fail("expected the call to fail");
+      }
+      catch(CircuitBreakerOpenException e) {
+        fail("the breaker opened too soon");
+      }
+      catch(TransientCallException e) {
+        // expected
+      }
+    }
+    try {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      fail("expected the call to fail fast");
+    }
+    catch(CircuitBreakerOpenException e) {
+      assertTrue(e.getCircuitBreakerName().endsWith("/URLGetTitle"));
+    }
+
+    assertEquals(5, transport.getRequests().size());
+    assertEquals(1, changes.size());
+    assertEquals(CircuitBreaker.State.OPEN, changes.get(0));
+    assertEquals(1, client.getCircuitBreakers().size());
+    final CircuitBreaker circuitBreaker = client.getCircuitBreakers().get(0);
+    assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    assertEquals(circuitBreaker, client.getCircuitBreaker(circuitBreaker.getName()));
+    assertEquals(1L, circuitBreaker.getNotPermittedCalls());
+  }
+
+  @Test
+  public void testCall_CircuitBreakerIsPerCallName() throws IOException {
+    final MockTransport transport = new MockTransport(request -> request.getURL().getPath().endsWith("URLGetTitle") ? JSON_LIMIT : JSON_TEXT);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setRetryPolicy(RetryPolicy.none());
+    client.setCircuitBreakerPolicy(circuitBreakerPolicy());
+
+    for(int i = 0; i < 5; i++) {
+      try {
+        client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      }
+      catch(TransientCallException e) {
+        // expected
+      }
+    }
+
+    client.call(new TextCall(new CallTypeUrl("http://www.cnn.com/")));
+    assertEquals(2, client.getCircuitBreakers().size());
+  }
+
+  @Test
+  public void testCall_PermanentFailuresDoNotOpenCircuitBreaker() throws IOException {
+    final MockTransport transport = new MockTransport(JSON_ERROR);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setCircuitBreakerPolicy(circuitBreakerPolicy());
+
+    for(int i = 0; i < 10; i++) {
+      try {
+        client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      }
+      catch(PermanentCallException e) {
+        // expected
+      }
+    }
+
+    assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreakers().get(0).getState());
+    assertEquals(10, transport.getRequests().size());
+  }
+
+  @Test
+  public void testCall_CircuitBreakerFallback() throws Exception {
+    final MockTransport transport = new MockTransport(JSON);
+    transport.setStatusCode(500);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setRetryPolicy(RetryPolicy.none());
+    client.setCircuitBreakerPolicy(circuitBreakerPolicy());
+    client.setCircuitBreakerFallback(new CircuitBreakerFallback() {
+      public <T extends AbstractAlchemyEntity> Response<T> onOpen(final AbstractCall<T> call, final CircuitBreakerOpenException e) {
+        return call.parse("{\"status\": \"OK\", \"title\": \"fallback\"}");
+      }
+    });
+
+    for(int i = 0; i < 5; i++) {
+      try {
+        client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      }
+      catch(TransientCallException e) {
+        // expected
+      }
+    }
+
+    assertEquals("fallback", client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).iterator().next().getTitle());
+    assertEquals("fallback", client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).get().iterator().next().getTitle());
+    assertEquals(5, transport.getRequests().size());
+  }
+
+  @Test
+  public void testCallAsync_CircuitBreakerOpen() throws Exception {
+    final MockTransport transport = new MockTransport(JSON);
+    transport.setStatusCode(502);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setRetryPolicy(RetryPolicy.none());
+    client.setCircuitBreakerPolicy(circuitBreakerPolicy());
+
+    for(int i = 0; i < 6; i++) {
+      try {
+        client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).get();
+        fail("expected the call to fail");
+      }
+      catch(ExecutionException e) {
+        assertTrue(e.getCause() instanceof TransientCallException);
+        assertEquals(i == 5, e.getCause() instanceof CircuitBreakerOpenException);
+      }
+    }
+    assertEquals(5, transport.getAsyncRequests());
+  }
+
+  @Test
+  public void testCall_RateLimited() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    final RateLimitPolicy policy = new RateLimitPolicy(20.0D, 0L);
+    policy.setBurst(1);
+    client.setRateLimitPolicy(policy);
+
+    final long start = System.nanoTime();
+    for(int i = 0; i < 3; i++) {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    }
+    final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertTrue(elapsedMillis >= 90L);
+    final RateLimiter rateLimiter = client.getRateLimiter();
+    assertEquals(3L, rateLimiter.getDailyTransactions());
+    assertEquals(2L, rateLimiter.getThrottledRequests());
+    assertTrue(rateLimiter.getThrottledMillis() >= 90L);
+  }
+
+  @Test
+  public void testCall_RateLimitDailyLimit() throws Exception {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setRateLimitPolicy(new RateLimitPolicy(1000.0D, 1L));
+
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    try {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      fail("expected the daily limit to be reached");
+    }
+    catch(RateLimitExceededException e) {
+      assertEquals(RateLimitExceededException.STATUS_INFO, e.getStatusInfo());
+    }
+    try {
+      client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).get();
+      fail("expected the daily limit to be reached");
+    }
+    catch(ExecutionException e) {
+      assertTrue(e.getCause() instanceof RateLimitExceededException);
+    }
+    assertEquals(1, transport.getRequests().size() + transport.getAsyncRequests());
+    assertEquals(2L, client.getRateLimiter().getRejectedRequests());
+  }
+
+  @Test
+  public void testCall_RateLimitPermitReturnedWhenCircuitBreakerOpen() throws Exception {
+    final MockTransport transport = new MockTransport(JSON);
+    transport.setStatusCode(502);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setRetryPolicy(RetryPolicy.none());
+    client.setCircuitBreakerPolicy(circuitBreakerPolicy());
+    client.setRateLimitPolicy(new RateLimitPolicy(1000.0D, 100L));
+
+    for(int i = 0; i < 7; i++) {
+      try {
+        if(i % 2 == 0) {
+          client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+        }
+        else {
+          client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).get();
+        }
+        fail("expected the call to fail");
+      }
+      catch(TransientCallException | ExecutionException e) {
+        // expected
+      }
+    }
+    assertEquals(5, transport.getRequests().size());
+    assertEquals(5L, client.getRateLimiter().getDailyTransactions());
+  }
+
+  @Test
+  public void testCall_RateLimitIsPerApiKey() throws IOException {
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport(JSON));
+    client.setRateLimitPolicy(new RateLimitPolicy(1000.0D, 1L));
+
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    final RateLimiter rateLimiter = client.getRateLimiter();
+    client.setAPIKey("1a1b2c3d4e5f6g7h8i9j");
+    assertNotSame(rateLimiter, client.getRateLimiter());
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    assertEquals(1L, client.getRateLimiter().getDailyTransactions());
+  }
+
+  @Test
+  public void testCall_RateLimitPermitAfterDeadline() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setCallTimeout(50L);
+    final RateLimitPolicy policy = new RateLimitPolicy(1.0D, 0L);
+    policy.setBurst(1);
+    client.setRateLimitPolicy(policy);
+
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    try {
+      client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      fail("expected the call to time out");
+    }
+    catch(CallTimeoutException e) {
+      // expected
+    }
+    assertEquals(1, transport.getRequests().size());
+  }
+
+  @Test
+  public void testCallAsync_RateLimited() throws Exception {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    final RateLimitPolicy policy = new RateLimitPolicy(20.0D, 0L);
+    policy.setBurst(1);
+    client.setRateLimitPolicy(policy);
+
+    final long start = System.nanoTime();
+    final List<CompletableFuture<Response<TitleAlchemyEntity>>> futures = new ArrayList<CompletableFuture<Response<TitleAlchemyEntity>>>();
+    for(int i = 0; i < 3; i++) {
+      futures.add(client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))));
+    }
+    for(CompletableFuture<Response<TitleAlchemyEntity>> future : futures) {
+      assertEquals(TITLE, future.get().iterator().next().getTitle());
+    }
+
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 90L);
+    assertEquals(2L, client.getRateLimiter().getThrottledRequests());
+  }
+
+  @Test
+  public void testRateLimitingIsOffByDefault() {
+    final Client client = new Client(API_KEY);
+
+    assertNull(client.getRateLimitPolicy());
+    assertNull(client.getRateLimiter());
+  }
+
+  @Test
+  public void testCallAll_ConcurrencyLimit() throws IOException {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport(request -> {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(10L);
+      }
+      catch(InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      inFlight.decrementAndGet();
+      return JSON;
+    }).blocking());
+    client.setMaxConcurrency(8);
+    client.setConcurrencyLimitPolicy(concurrencyLimitPolicy(2, 100));
+
+    final List<AbstractCall<?>> calls = new ArrayList<AbstractCall<?>>();
+    for(int i = 0; i < 16; i++) {
+      calls.add(new TitleCall(new CallTypeUrl("http://www.cnn.com/" + i)));
+    }
+    assertEquals(16, client.callAll(calls).size());
+
+    assertTrue(maxInFlight.get() <= 2);
+    final ConcurrencyLimiter limiter = client.getConcurrencyLimiter();
+    assertEquals(0, limiter.getInFlight());
+    assertEquals(0, limiter.getQueueDepth());
+  }
+
+  @Test
+  public void testCallAsync_ConcurrencyLimitQueues() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      final Client client = new Client(API_KEY);
+      client.setTransport(new MockTransport(latchedResponder(release)));
+      client.setParseExecutor(executor);
+      client.setConcurrencyLimitPolicy(concurrencyLimitPolicy(1, 10));
+
+      final CompletableFuture<Response<TitleAlchemyEntity>> first = client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      final CompletableFuture<Response<TitleAlchemyEntity>> second = client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      final ConcurrencyLimiter limiter = client.getConcurrencyLimiter();
+      assertEquals(1, limiter.getInFlight());
+      assertEquals(1, limiter.getQueueDepth());
+
+      release.countDown();
+      assertEquals(TITLE, first.get(5L, TimeUnit.SECONDS).iterator().next().getTitle());
+      assertEquals(TITLE, second.get(5L, TimeUnit.SECONDS).iterator().next().getTitle());
+      assertEquals(0, limiter.getInFlight());
+      assertEquals(1L, limiter.getQueuedCalls());
+    }
+    finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCallAsync_ConcurrencyLimitRejects() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      final Client client = new Client(API_KEY);
+      client.setTransport(new MockTransport(latchedResponder(release)));
+      client.setParseExecutor(executor);
+      client.setConcurrencyLimitPolicy(concurrencyLimitPolicy(1, 0));
+      client.setRateLimitPolicy(new RateLimitPolicy(1000.0D, 100L));
+
+      final CompletableFuture<Response<TitleAlchemyEntity>> first = client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      try {
+        client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).get(5L, TimeUnit.SECONDS);
+        fail("expected the call to be rejected");
+      }
+      catch(ExecutionException e) {
+        assertTrue(e.getCause() instanceof ConcurrencyLimitExceededException);
+      }
+
+      release.countDown();
+      assertEquals(TITLE, first.get(5L, TimeUnit.SECONDS).iterator().next().getTitle());
+      assertEquals(1L, client.getConcurrencyLimiter().getRejectedCalls());
+      assertEquals(1L, client.getRateLimiter().getDailyTransactions());
+    }
+    finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCallAsync_ConcurrencyLimitSlotAfterDeadline() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      final Client client = new Client(API_KEY);
+      client.setTransport(new MockTransport(latchedResponder(release)));
+      client.setParseExecutor(executor);
+      client.setConcurrencyLimitPolicy(concurrencyLimitPolicy(1, 10));
+
+      final CompletableFuture<Response<TitleAlchemyEntity>> first = client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      try {
+        client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/")).setTimeout(20L)).get(5L, TimeUnit.SECONDS);
+        fail("expected the call to time out");
+      }
+      catch(ExecutionException e) {
+        assertTrue(e.getCause() instanceof CallTimeoutException);
+      }
+
+      release.countDown();
+      first.get(5L, TimeUnit.SECONDS);
+      assertEquals(0, client.getConcurrencyLimiter().getInFlight());
+    }
+    finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testConcurrencyLimitIsOffByDefault() {
+    final Client client = new Client(API_KEY);
+
+    assertNull(client.getConcurrencyLimitPolicy());
+    assertNull(client.getConcurrencyLimiter());
+  }
+
+  private static ConcurrencyLimitPolicy concurrencyLimitPolicy(final int limit, final int maxQueueSize) {
+    final ConcurrencyLimitPolicy policy = new ConcurrencyLimitPolicy();
+    policy.setInitialLimit(limit);
+    policy.setMaxLimit(limit);
+    policy.setMaxQueueSize(maxQueueSize);
+    return policy;
+  }
+
+  /**
+   * @return responder that answers once the latch is released
+   */
+  private static Function<TransportRequest, String> latchedResponder(final CountDownLatch release) {
+    return request -> {
+      try {
+        release.await(5L, TimeUnit.SECONDS);
+      }
+      catch(InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return JSON;
+    };
+  }
+
+  @Test
+  public void testCall_CoalescesIdenticalCalls() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final MockTransport transport = new MockTransport(latchedResponder(release));
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport.blocking());
+    client.setCoalescingEnabled(true);
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      final List<Future<Response<TitleAlchemyEntity>>> futures = new ArrayList<Future<Response<TitleAlchemyEntity>>>();
+      for(int i = 0; i < 4; i++) {
+        futures.add(executor.submit(() -> client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")))));
+      }
+      final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+      while(client.getCoalescedCalls() < 3 && System.nanoTime() < deadline) {
+        Thread.sleep(1L);
+      }
+      release.countDown();
+
+      final List<Response<TitleAlchemyEntity>> responses = new ArrayList<Response<TitleAlchemyEntity>>();
+      for(Future<Response<TitleAlchemyEntity>> future : futures) {
+        responses.add(future.get(5L, TimeUnit.SECONDS));
+        assertEquals(TITLE, responses.get(responses.size() - 1).iterator().next().getTitle());
+      }
+      assertEquals(1, transport.getRequests().size());
+      assertEquals(3L, client.getCoalescedCalls());
+      // every caller gets its own copy
+      assertNotSame(responses.get(0), responses.get(1));
+      assertEquals(responses.get(0), responses.get(1));
+    }
+    finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCallAsync_CoalescesIdenticalCalls() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final MockTransport transport = new MockTransport(latchedResponder(release));
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      final Client client = new Client(API_KEY);
+      client.setTransport(transport);
+      client.setParseExecutor(executor);
+      client.setCoalescingEnabled(true);
+
+      final CompletableFuture<Response<TitleAlchemyEntity>> first = client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      final CompletableFuture<Response<TitleAlchemyEntity>> second = client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      final CompletableFuture<Response<TitleAlchemyEntity>> other = client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/other")));
+      // cancelling one caller leaves the shared call running
+      first.cancel(true);
+      release.countDown();
+
+      assertEquals(TITLE, second.get(5L, TimeUnit.SECONDS).iterator().next().getTitle());
+      assertEquals(TITLE, other.get(5L, TimeUnit.SECONDS).iterator().next().getTitle());
+      assertEquals(2, transport.getAsyncRequests());
+      assertEquals(1L, client.getCoalescedCalls());
+    }
+    finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCallAsync_CoalescedCallsShareFailure() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final MockTransport transport = new MockTransport(latchedResponder(release));
+    transport.setStatusCode(503);
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      final Client client = new Client(API_KEY);
+      client.setTransport(transport);
+      client.setParseExecutor(executor);
+      client.setRetryPolicy(RetryPolicy.none());
+      client.setCoalescingEnabled(true);
+
+      final List<CompletableFuture<Response<TitleAlchemyEntity>>> futures = new ArrayList<CompletableFuture<Response<TitleAlchemyEntity>>>();
+      for(int i = 0; i < 2; i++) {
+        futures.add(client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))));
+      }
+      release.countDown();
+
+      for(CompletableFuture<Response<TitleAlchemyEntity>> future : futures) {
+        try {
+          future.get(5L, TimeUnit.SECONDS);
+          fail("expected the call to fail");
+        }
+        catch(ExecutionException e) {
+          assertTrue(e.getCause() instanceof TransientCallException);
+        }
+      }
+      assertEquals(1, transport.getAsyncRequests());
+    }
+    finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCallAsync_CoalescingKeepsProjectionsApart() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final MockTransport transport = new MockTransport(latchedResponder(release));
+    final ExecutorService executor = Executors.newCachedThreadPool();
+    try {
+      final Client client = new Client(API_KEY);
+      client.setTransport(transport);
+      client.setParseExecutor(executor);
+      client.setCoalescingEnabled(true);
+
+      final TitleCall core = new TitleCall(new CallTypeUrl("http://www.cnn.com/"));
+      core.setProjection(Projection.CORE);
+      final CompletableFuture<Response<TitleAlchemyEntity>> first = client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+      final CompletableFuture<Response<TitleAlchemyEntity>> second = client.callAsync(core);
+      release.countDown();
+
+      assertEquals(TITLE, first.get(5L, TimeUnit.SECONDS).iterator().next().getTitle());
+      assertEquals(TITLE, second.get(5L, TimeUnit.SECONDS).iterator().next().getTitle());
+      assertEquals(2, transport.getAsyncRequests());
+      assertEquals(0L, client.getCoalescedCalls());
+    }
+    finally {
+      release.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCall_CoalescingOnlyJoinsCallsInFlight() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    client.setCoalescingEnabled(true);
+
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+
+    assertEquals(2, transport.getRequests().size());
+    assertEquals(0L, client.getCoalescedCalls());
+  }
+
+  @Test
+  public void testCoalescingIsOffByDefault() {
+    assertFalse(new Client(API_KEY).isCoalescingEnabled());
+  }
+
+  @Test
+  public void testCall_ResponseCache() throws Exception {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    final MemoryResponseCache cache = new MemoryResponseCache();
+    client.setResponseCache(cache);
+
+    final Response<TitleAlchemyEntity> first = client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    final Response<TitleAlchemyEntity> second = client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    final Response<TitleAlchemyEntity> third = client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).get();
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/other")));
+
+    assertEquals(2, transport.getRequests().size());
+    assertEquals(first, second);
+    assertNotSame(second, third);
+    assertEquals(TITLE, third.iterator().next().getTitle());
+    assertEquals(2L, cache.getStats().getHits());
+    assertEquals(2L, cache.getStats().getMisses());
+  }
+
+  @Test
+  public void testCall_ResponseCacheSkipsErrors() throws IOException {
+    final MockTransport transport = new MockTransport(JSON_ERROR);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    final MemoryResponseCache cache = new MemoryResponseCache();
+    client.setResponseCache(cache);
+
+    for(int i = 0; i < 2; i++) {
+      try {
+        client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+        fail("expected the call to fail");
+      }
+      catch(PermanentCallException e) {
+        // expected
+      }
+    }
+    assertEquals(2, transport.getRequests().size());
+    assertEquals(0L, cache.getStats().getPuts());
+  }
+
+  @Test
+  public void testCall_ResponseCacheDropsCorruptEntry() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    final MemoryResponseCache cache = new MemoryResponseCache();
+    client.setResponseCache(cache);
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    final CacheKey key = new CacheKey("URLGetTitle", "url", transport.getRequests().get(0).getURL().getQuery()
+        .substring(("apikey=" + API_KEY).length()));
+    assertEquals(JSON, cache.get(key));
+    cache.put(key, "not json");
+
+    assertEquals(TITLE, client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).iterator().next().getTitle());
+    assertEquals(2, transport.getRequests().size());
+  }
+
+  @Test
+  public void testCall_DiskResponseCacheOutlivesClient() throws IOException {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    final DiskResponseCache cache = new DiskResponseCache(folder.getRoot(), 4096, 4, 64);
+    client.setResponseCache(cache);
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    cache.close();
+
+    final Client restarted = new Client(API_KEY);
+    restarted.setTransport(transport);
+    final DiskResponseCache reopened = new DiskResponseCache(folder.getRoot(), 4096, 4, 64);
+    restarted.setResponseCache(reopened);
+    try {
+      assertEquals(TITLE, restarted.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).iterator().next().getTitle());
+      assertEquals(1, transport.getRequests().size());
+    }
+    finally {
+      reopened.close();
+    }
+  }
+
+  @Test
+  public void testCall_NegativeResultCache() throws Exception {
+    final MockTransport transport = new MockTransport("{\"status\": \"ERROR\", \"statusInfo\": \"unsupported-text-language\"}");
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    final NegativeResultCache cache = new NegativeResultCache();
+    client.setNegativeResultCache(cache);
+
+    for(int i = 0; i < 3; i++) {
+      try {
+        client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+        fail("expected the call to fail");
+      }
+      catch(PermanentCallException e) {
+        assertEquals("unsupported-text-language", e.getStatusInfo());
+      }
+    }
+    try {
+      client.callAsync(new TitleCall(new CallTypeUrl("http://www.cnn.com/"))).get();
+      fail("expected the call to fail");
+    }
+    catch(ExecutionException e) {
+      assertTrue(e.getCause() instanceof PermanentCallException);
+    }
+
+    assertEquals(1, transport.getRequests().size());
+    assertEquals(3L, cache.getStats().getHits());
+  }
+
+  @Test
+  public void testCall_NegativeResultCacheSkipsOtherFailures() throws IOException {
+    final MockTransport transport = new MockTransport(JSON_ERROR);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    final NegativeResultCache cache = new NegativeResultCache();
+    client.setNegativeResultCache(cache);
+
+    for(int i = 0; i < 2; i++) {
+      try {
+        client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+        fail("expected the call to fail");
+      }
+      catch(PermanentCallException e) {
+        // expected
+      }
+    }
+    assertEquals(2, transport.getRequests().size());
+    assertEquals(0L, cache.getStats().getPuts());
+  }
+
+  @Test
+  public void testNegativeResultCacheIsOffByDefault() {
+    assertNull(new Client(API_KEY).getNegativeResultCache());
+  }
+
+  @Test
+  public void testCall_ContentDeduplicator() throws Exception {
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    final ContentDeduplicator deduplicator = new ContentDeduplicator();
+    client.setContentDeduplicator(deduplicator);
+
+    client.call(new TitleCall(new CallTypeText("Pilot accused of faking death found in Florida")));
+    final Response<TitleAlchemyEntity> copy = client.call(new TitleCall(new CallTypeText("Pilot accused of faking\n\ndeath found in Florida ")));
+    final Response<TitleAlchemyEntity> asyncCopy = client.callAsync(new TitleCall(new CallTypeText("Pilot accused of faking death found in Florida"))).get();
+    client.call(new TitleCall(new CallTypeText("Pilot found in Florida")));
+    // urls are left to the response cache
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+    client.call(new TitleCall(new CallTypeUrl("http://www.cnn.com/")));
+
+    assertEquals(4, transport.getRequests().size());
+    assertEquals(TITLE, copy.iterator().next().getTitle());
+    assertEquals(TITLE, asyncCopy.iterator().next().getTitle());
+    assertEquals(2L, deduplicator.getSavedTransactions());
+    // the copy with extra whitespace would have sent a longer request
+    assertTrue(deduplicator.getSavedBytes() > 2L * transport.getRequests().get(0).getRequestBody().getContentLength());
+  }
+
+  @Test
+  public void testContentDeduplicatorIsOffByDefault() {
+    assertNull(new Client(API_KEY).getContentDeduplicator());
+  }
+
+  @Test
+  public void testCall_NearDuplicateIndex() throws Exception {
+    final String story = "Authorities say a pilot accused of faking his own death by parachuting from his plane was found"
+                         + " in a campground in Florida on Tuesday. The plane crashed in a swamp after flying on autopilot"
+                         + " for more than an hour. Investigators had been searching for him since Sunday, when fighter jets"
+                         + " followed the plane across three states.";
+    final MockTransport transport = new MockTransport(JSON);
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport);
+    final NearDuplicateIndex index = new NearDuplicateIndex(new MemoryResponseCache(), 1000, 8);
+    index.setMinWords(20);
+    client.setNearDuplicateIndex(index);
+
+    client.call(new TitleCall(new CallTypeText(story)));
+    final Response<TitleAlchemyEntity> copy = client.call(new TitleCall(new CallTypeText("By Staff Reporter. " + story)));
+    client.call(new TitleCall(new CallTypeText("The city council voted on Monday to extend the hours of the public library")));
+
+    assertEquals(2, transport.getRequests().size());
+    assertEquals(TITLE, copy.iterator().next().getTitle());
+    assertEquals(1L, index.getSavedTransactions());
+  }
+
+  @Test
+  public void testNearDuplicateIndexIsOffByDefault() {
+    assertNull(new Client(API_KEY).getNearDuplicateIndex());
+  }
+
+  @Test
+  public void testResponseCacheIsOffByDefault() {
+    assertNull(new Client(API_KEY).getResponseCache());
+  }
+
+  @Test
+  public void testStream_DeliversEntitiesWhileDownloading() throws IOException {
+    final List<NamedEntityAlchemyEntity> entities = new ArrayList<NamedEntityAlchemyEntity>();
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport(new AtomicInteger(), attempt -> chunkedResponse(chunk -> {
+      // the first entity is out before the rest of the body arrives
+      assertEquals(1, entities.size());
+    }, "{\"status\": \"OK\", \"url\": \"http://www.cnn.com/\", \"entities\": [" + ENTITY_SCHRENKER + ", ", ENTITY_TAMPA + "]}")));
+
+    final Response<NamedEntityAlchemyEntity> response = client.stream(new RankedNamedEntitiesCall(new CallTypeUrl("http://www.cnn.com/")), entities::add);
+
+    assertEquals(2, entities.size());
+    assertEquals("Marcus Schrenker", entities.get(0).getText());
+    assertEquals("Tampa", entities.get(1).getText());
+    assertEquals(Response.STATUS.OK, response.getStatus());
+    assertEquals("http://www.cnn.com/", response.getURL());
+    assertEquals(0, response.size());
+  }
+
+  @Test
+  public void testStream_HoldsEntitiesUntilStatusIsRead() throws IOException {
+    final List<NamedEntityAlchemyEntity> entities = new ArrayList<NamedEntityAlchemyEntity>();
+    final Client client = new Client(API_KEY);
+    client.setTransport(transport(new AtomicInteger(), attempt -> chunkedResponse(chunk -> {
+      assertTrue(entities.isEmpty());
+    }, "{\"entities\": [" + ENTITY_SCHRENKER + ", " + ENTITY_TAMPA + "], ", "\"status\": \"OK\"}")));
+
+    client.stream(new RankedNamedEntitiesCall(new CallTypeUrl("http://www.cnn.com/")), entities::add);
+
+    assertEquals(2, entities.size());
+  }
+
+  @Test
+  public void testStream_FailsFastOnErrorStatus() throws IOException {
+    final List<NamedEntityAlchemyEntity> entities = new ArrayList<NamedEntityAlchemyEntity>();
+    final Client client = new Client(API_KEY);
+    client.setRetryPolicy(RetryPolicy.none());
+    client.setTransport(transport(new AtomicInteger(), attempt -> chunkedResponse(chunk -> {
+      throw new IOException("body read past the status");
+    }, "{\"status\": \"ERROR\", \"statusInfo\": \"invalid-api-key\", ", "\"entities\": [" + ENTITY_SCHRENKER + "]}")));
+
+    try {
+      client.stream(new RankedNamedEntitiesCall(new CallTypeUrl("http://www.cnn.com/")), entities::add);
+      fail("expected the call to fail");
+    }
+    catch(PermanentCallException e) {
+      assertEquals("invalid-api-key", e.getStatusInfo());
+    }
+    assertTrue(entities.isEmpty());
+  }
+
+  @Test
+  public void testStream_ErrorStatusAfterEntities() throws IOException {
+    final List<NamedEntityAlchemyEntity> entities = new ArrayList<NamedEntityAlchemyEntity>();
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport("{\"entities\": [" + ENTITY_SCHRENKER + "], \"status\": \"ERROR\", \"statusInfo\": \"invalid-api-key\"}"));
+
+    try {
+      client.stream(new RankedNamedEntitiesCall(new CallTypeUrl("http://www.cnn.com/")), entities::add);
+      fail("expected the call to fail");
+    }
+    catch(PermanentCallException e) {
+      assertEquals("invalid-api-key", e.getStatusInfo());
+    }
+    assertTrue(entities.isEmpty());
+  }
+
+  @Test
+  public void testStream_NotRetriedOnceAnEntityIsDelivered() {
+    final List<NamedEntityAlchemyEntity> entities = new ArrayList<NamedEntityAlchemyEntity>();
+    final AtomicInteger requests = new AtomicInteger();
+    final Client client = new Client(API_KEY);
+    client.setRetryPolicy(fastRetryPolicy(3));
+    client.setTransport(transport(requests, attempt -> chunkedResponse(chunk -> {
+      throw new IOException("Connection reset");
+    }, "{\"status\": \"OK\", \"entities\": [" + ENTITY_SCHRENKER + ", ", ENTITY_TAMPA + "]}")));
+
+    try {
+      client.stream(new RankedNamedEntitiesCall(new CallTypeUrl("http://www.cnn.com/")), entities::add);
+      fail("expected the call to fail");
+    }
+    catch(IOException e) {
+      assertEquals("Connection reset", e.getMessage());
+    }
+    assertEquals(1, requests.get());
+    assertEquals(1, entities.size());
+  }
+
+  @Test
+  public void testStream_RetriedBeforeAnEntityIsDelivered() throws IOException {
+    final List<NamedEntityAlchemyEntity> entities = new ArrayList<NamedEntityAlchemyEntity>();
+    final AtomicInteger requests = new AtomicInteger();
+    final Client client = new Client(API_KEY);
+    client.setRetryPolicy(fastRetryPolicy(3));
+    client.setTransport(transport(requests, attempt -> chunkedResponse(chunk -> {
+      if(attempt == 1) {
+        throw new IOException("Connection reset");
+      }
+    }, "{\"status\": \"OK\", ", "\"entities\": [" + ENTITY_SCHRENKER + ", " + ENTITY_TAMPA + "]}")));
+
+    client.stream(new RankedNamedEntitiesCall(new CallTypeUrl("http://www.cnn.com/")), entities::add);
+
+    assertEquals(2, requests.get());
+    assertEquals(2, entities.size());
+  }
+
+  @Test
+  public void testStream_Projection() throws IOException {
+    final List<NamedEntityAlchemyEntity> entities = new ArrayList<NamedEntityAlchemyEntity>();
+    final Client client = new Client(API_KEY);
+    client.setTransport(new MockTransport("{\"status\": \"OK\", \"entities\": [{\"type\": \"City\", \"text\": \"Tampa\", \"relevance\": \"0.5\", \"count\": \"1\", "
+                                          + "\"sentiment\": {\"type\": \"positive\", \"score\": \"0.4\"}}]}"));
+    final RankedNamedEntitiesCall call = new RankedNamedEntitiesCall(new CallTypeUrl("http://www.cnn.com/"));
+    call.setProjection(Projection.CORE);
+
+    client.stream(call, entities::add);
+
+    assertEquals(1, entities.size());
+    assertNull(entities.get(0).getSentiment());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testStream_NullListener() throws IOException {
+    new Client(API_KEY).stream(new RankedNamedEntitiesCall(new CallTypeUrl("http://www.cnn.com/")), null);
+  }
+
+  private static CircuitBreakerPolicy circuitBreakerPolicy() {
+    final CircuitBreakerPolicy policy = new CircuitBreakerPolicy();
+    policy.setMinCalls(5);
+    policy.setWindowSize(10);
+    return policy;
+  }
+
+  private static RetryPolicy fastRetryPolicy(final int maxAttempts) {
+    final RetryPolicy policy = new RetryPolicy();
+    policy.setMaxAttempts(maxAttempts);
+    policy.setInitialBackoff(1L);
+    return policy;
+  }
+
+  /**
+   * @return responder that sleeps before answering and counts down the latch
+   * if it is interrupted
+   */
+  private static Function<TransportRequest, String> sleepingResponder(final long sleepMillis, final CountDownLatch interrupted) {
+    return request -> {
+      try {
+        Thread.sleep(sleepMillis);
+      }
+      catch(InterruptedException e) {
+        interrupted.countDown();
+      }
+      return JSON;
+    };
+  }
+
+  /**
+   * @return transport that answers the nth request (counted from 1) with the
+   * response the function gives for n
+   */
+  private static Transport transport(final AtomicInteger requests, final Function<Integer, TransportResponse> responses) {
+    return new Transport() {
+      public TransportResponse execute(final TransportRequest request) {
+        return responses.apply(requests.incrementAndGet());
+      }
+
+      public void close() {
+      }
+    };
+  }
+
+  /**
+   * @return response whose body arrives in the given chunks; the hook runs
+   * before each chunk after the first is read
+   */
+  private static TransportResponse chunkedResponse(final ChunkHook hook, final String... chunks) {
+    final InputStream body = new InputStream() {
+      private int chunk;
+      private InputStream current = new ByteArrayInputStream(chunks[0].getBytes(StandardCharsets.UTF_8));
+
+      @Override
+      public int read() throws IOException {
+        final byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+      }
+
+      @Override
+      public int read(final byte[] b, final int off, final int len) throws IOException {
+        int read = current.read(b, off, len);
+        while(read == -1 && chunk + 1 < chunks.length) {
+          hook.beforeChunk(++chunk);
+          current = new ByteArrayInputStream(chunks[chunk].getBytes(StandardCharsets.UTF_8));
+          read = current.read(b, off, len);
+        }
+        return read;
+      }
+    };
+    return new TransportResponse() {
+      public int getStatusCode() {
+        return 200;
+      }
+
+      public String getHeader(final String name) {
+        return null;
+      }
+
+      public InputStream getInputStream() {
+        return body;
+      }
+
+      public void close() {
+      }
+    };
+  }
+
+  private interface ChunkHook {
+    void beforeChunk(final int chunk) throws IOException;
+  }
+}
@@ -0,0 +1,91 @@
+/**
+ * File: ConcurrencyLimitPolicyTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrencyLimitPolicyTest {
+  @Test
+  public void testDefaults() {
+    final ConcurrencyLimitPolicy policy = new ConcurrencyLimitPolicy();
+
+    assertEquals(ConcurrencyLimitPolicy.DEFAULT_INITIAL_LIMIT, policy.getInitialLimit());
+    assertEquals(ConcurrencyLimitPolicy.DEFAULT_MIN_LIMIT, policy.getMinLimit());
+    assertEquals(ConcurrencyLimitPolicy.DEFAULT_MAX_LIMIT, policy.getMaxLimit());
+    assertEquals(ConcurrencyLimitPolicy.DEFAULT_BACKOFF_RATIO, policy.getBackoffRatio(), 0.0D);
+    assertEquals(ConcurrencyLimitPolicy.DEFAULT_LATENCY_TOLERANCE, policy.getLatencyTolerance(), 0.0D);
+    assertEquals(ConcurrencyLimitPolicy.DEFAULT_MAX_QUEUE_SIZE, policy.getMaxQueueSize());
+  }
+
+  @Test
+  public void testIsOverload() {
+    final ConcurrencyLimitPolicy policy = new ConcurrencyLimitPolicy();
+
+    assertTrue(policy.isOverload(new TransientCallException("Server returned HTTP response code: 503")));
+    assertTrue(policy.isOverload(new CallTimeoutException("timed out")));
+    assertTrue(policy.isOverload(new IOException("Connection reset")));
+    assertFalse(policy.isOverload(new PermanentCallException("invalid-api-key")));
+    assertFalse(policy.isOverload(new InterruptedIOException("interrupted")));
+    assertFalse(policy.isOverload(new RateLimitExceededException("daily-transaction-limit-exceeded")));
+    assertFalse(policy.isOverload(new TransientCallException("limit", RateLimitExceededException.STATUS_INFO, 200)));
+  }
+
+  @Test
+  public void testSetLatencyTolerance_Zero() {
+    final ConcurrencyLimitPolicy policy = new ConcurrencyLimitPolicy();
+    policy.setLatencyTolerance(0.0D);
+
+    assertEquals(0.0D, policy.getLatencyTolerance(), 0.0D);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetLatencyTolerance_One() {
+    new ConcurrencyLimitPolicy().setLatencyTolerance(1.0D);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetInitialLimit_Zero() {
+    new ConcurrencyLimitPolicy().setInitialLimit(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMinLimit_Zero() {
+    new ConcurrencyLimitPolicy().setMinLimit(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMaxLimit_Zero() {
+    new ConcurrencyLimitPolicy().setMaxLimit(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetBackoffRatio_One() {
+    new ConcurrencyLimitPolicy().setBackoffRatio(1.0D);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMaxQueueSize_Negative() {
+    new ConcurrencyLimitPolicy().setMaxQueueSize(-1);
+  }
+}
@@ -0,0 +1,162 @@
+/**
+ * File: ConcurrencyLimiterTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConcurrencyLimiterTest {
+  @Test
+  public void testAcquire_QueuesOverLimit() throws IOException {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(policy(2, 10));
+
+    assertTrue(limiter.acquire().isDone());
+    assertTrue(limiter.tryAcquire());
+    assertFalse(limiter.tryAcquire());
+    final CompletableFuture<Void> waiter = limiter.acquire();
+    assertFalse(waiter.isDone());
+    assertEquals(2, limiter.getInFlight());
+    assertEquals(1, limiter.getQueueDepth());
+    assertEquals(1L, limiter.getQueuedCalls());
+
+    limiter.onIgnored();
+    assertTrue(waiter.isDone());
+    assertEquals(2, limiter.getInFlight());
+    assertEquals(0, limiter.getQueueDepth());
+  }
+
+  @Test
+  public void testAcquire_QueueFull() throws IOException {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(policy(1, 1));
+
+    limiter.acquire();
+    limiter.acquire();
+    try {
+      limiter.acquire();
+      fail("expected the queue to be full");
+    }
+    catch(ConcurrencyLimitExceededException e) {
+      assertTrue(e.isTransient());
+    }
+    assertEquals(1L, limiter.getRejectedCalls());
+  }
+
+  @Test
+  public void testAcquire_CancelledWaiterLeavesQueue() throws IOException {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(policy(1, 1));
+
+    limiter.acquire();
+    limiter.abandon(limiter.acquire());
+    assertEquals(0, limiter.getQueueDepth());
+    final CompletableFuture<Void> waiter = limiter.acquire();
+
+    limiter.onIgnored();
+    assertTrue(waiter.isDone());
+    assertEquals(1, limiter.getInFlight());
+  }
+
+  @Test
+  public void testAbandon_GrantedSlotIsGivenBack() throws IOException {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(policy(1, 1));
+
+    limiter.abandon(limiter.acquire());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  public void testOnSuccess_IncreasesLimitInUse() throws IOException {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(policy(1, 10));
+
+    limiter.acquire();
+    limiter.onSuccess(System.nanoTime());
+    assertEquals(2, limiter.getLimit());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  public void testOnSuccess_UnusedLimitDoesNotGrow() throws IOException {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(policy(10, 10));
+
+    limiter.acquire();
+    limiter.onSuccess(System.nanoTime());
+    assertEquals(10, limiter.getLimit());
+  }
+
+  @Test
+  public void testOnSuccess_SlowRequestDecreasesLimit() throws IOException {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(policy(10, 10));
+
+    limiter.acquire();
+    limiter.onSuccess(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(10L));
+    limiter.acquire();
+    limiter.onSuccess(System.nanoTime() - TimeUnit.SECONDS.toNanos(1L));
+    assertEquals(5, limiter.getLimit());
+  }
+
+  @Test
+  public void testOnFailure_DecreasesOncePerRoundTrip() throws IOException {
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(policy(8, 10));
+
+    final long startNanos = System.nanoTime();
+    limiter.acquire();
+    limiter.acquire();
+    limiter.onFailure(startNanos);
+    assertEquals(4, limiter.getLimit());
+    // sent before the decrease
+    limiter.onFailure(startNanos);
+    assertEquals(4, limiter.getLimit());
+
+    limiter.acquire();
+    limiter.onFailure(System.nanoTime());
+    assertEquals(2, limiter.getLimit());
+  }
+
+  @Test
+  public void testOnFailure_MinLimit() throws IOException {
+    final ConcurrencyLimitPolicy policy = policy(2, 10);
+    policy.setMinLimit(2);
+    final ConcurrencyLimiter limiter = new ConcurrencyLimiter(policy);
+
+    limiter.acquire();
+    limiter.onFailure(System.nanoTime());
+    assertEquals(2, limiter.getLimit());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_MinLimitAboveMaxLimit() {
+    final ConcurrencyLimitPolicy policy = new ConcurrencyLimitPolicy();
+    policy.setMinLimit(10);
+    policy.setMaxLimit(5);
+    new ConcurrencyLimiter(policy);
+  }
+
+  private static ConcurrencyLimitPolicy policy(final int initialLimit, final int maxQueueSize) {
+    final ConcurrencyLimitPolicy policy = new ConcurrencyLimitPolicy();
+    policy.setInitialLimit(initialLimit);
+    policy.setMaxQueueSize(maxQueueSize);
+    policy.setBackoffRatio(0.5D);
+    return policy;
+  }
+}
@@ -0,0 +1,120 @@
+/**
+ * File: FormRequestBodyTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import com.likethecolor.alchemy.api.params.NamedEntityParams;
+import com.likethecolor.alchemy.api.params.Params;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class FormRequestBodyTest {
+  private static final String API_KEY_PARAM = "apikey=0a1b2c3d4e5f6g7h8i9j";
+
+  @Test
+  public void testWriteTo_Text() throws IOException {
+    final Params params = new Params();
+    params.setText("Authorities: Pilot accused of faking death found in Florida - CNN.com");
+
+    assertForm(params);
+  }
+
+  @Test
+  public void testWriteTo_Html() throws IOException {
+    final NamedEntityParams params = new NamedEntityParams();
+    params.setHtml("<html><body><p class=\"a&b\">50% off ~ tab\there</p></body></html>");
+    params.setMaxRetrieve(10);
+
+    assertForm(params);
+  }
+
+  @Test
+  public void testWriteTo_NonAscii() throws IOException {
+    final Params params = new Params();
+    params.setText("Zürich – 東京 😀 naïve   ok");
+
+    assertForm(params);
+  }
+
+  @Test
+  public void testWriteTo_UnpairedSurrogate() throws IOException {
+    final Params params = new Params();
+    params.setText("a\ud83db\ude00c");
+
+    assertForm(params);
+  }
+
+  @Test
+  public void testWriteTo_Large() throws IOException {
+    final StringBuilder text = new StringBuilder();
+    while(text.length() < 200000) {
+      text.append("<p>Größe & \"Qualität\" 東京 😀</p>\n");
+    }
+    final Params params = new Params();
+    params.setHtml(text.toString());
+
+    assertForm(params);
+  }
+
+  @Test
+  public void testWriteTo_NoContent() throws IOException {
+    final Params params = new Params();
+    params.setURL("http://www.cnn.com/");
+
+    assertForm(params);
+  }
+
+  @Test
+  public void testWriteTo_Repeatable() throws IOException {
+    final Params params = new Params();
+    params.setText("some text");
+    final FormRequestBody body = new FormRequestBody(API_KEY_PARAM, params);
+
+    assertArrayEquals(write(body), write(body));
+  }
+
+  @Test
+  public void testGetEncodedLength() {
+    assertEquals(0L, FormRequestBody.getEncodedLength(""));
+    assertEquals(3L, FormRequestBody.getEncodedLength("a b"));
+    assertEquals(3L, FormRequestBody.getEncodedLength("&"));
+    assertEquals(6L, FormRequestBody.getEncodedLength("ü"));
+    assertEquals(9L, FormRequestBody.getEncodedLength("東"));
+    assertEquals(12L, FormRequestBody.getEncodedLength("😀"));
+  }
+
+  private void assertForm(final Params params) throws IOException {
+    final FormRequestBody body = new FormRequestBody(API_KEY_PARAM, params);
+    final byte[] expected = (API_KEY_PARAM + params.toString()).getBytes(StandardCharsets.UTF_8);
+
+    final byte[] actual = write(body);
+
+    assertEquals(new String(expected, StandardCharsets.UTF_8), new String(actual, StandardCharsets.UTF_8));
+    assertEquals(expected.length, body.getContentLength());
+  }
+
+  private byte[] write(final FormRequestBody body) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    body.writeTo(out);
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,70 @@
+/**
+ * File: HedgingPolicyTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HedgingPolicyTest {
+  @Test
+  public void testDefaults() {
+    final HedgingPolicy policy = new HedgingPolicy();
+
+    assertEquals(HedgingPolicy.DEFAULT_PERCENTILE, policy.getPercentile(), 0.0D);
+    assertEquals(HedgingPolicy.DEFAULT_MIN_DELAY_MILLIS, policy.getMinDelay());
+    assertEquals(HedgingPolicy.DEFAULT_WINDOW_SIZE, policy.getWindowSize());
+    assertEquals(HedgingPolicy.DEFAULT_MIN_SAMPLES, policy.getMinSamples());
+    assertEquals(HedgingPolicy.DEFAULT_BUDGET_RATIO, policy.getBudgetRatio(), 0.0D);
+    assertEquals(HedgingPolicy.DEFAULT_BUDGET_BURST, policy.getBudgetBurst());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetPercentile_Zero() {
+    new HedgingPolicy().setPercentile(0.0D);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetPercentile_OverHundred() {
+    new HedgingPolicy().setPercentile(100.1D);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMinDelay_Negative() {
+    new HedgingPolicy().setMinDelay(-1L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetWindowSize_Zero() {
+    new HedgingPolicy().setWindowSize(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMinSamples_Zero() {
+    new HedgingPolicy().setMinSamples(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetBudgetRatio_Negative() {
+    new HedgingPolicy().setBudgetRatio(-1.0D);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetBudgetBurst_Negative() {
+    new HedgingPolicy().setBudgetBurst(-1);
+  }
+}
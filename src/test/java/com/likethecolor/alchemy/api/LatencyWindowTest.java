@@ -0,0 +1,59 @@
+/**
+ * File: LatencyWindowTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyWindowTest {
+  @Test
+  public void testGetPercentile_TooFewSamples() {
+    final LatencyWindow window = new LatencyWindow(10, 3);
+
+    window.record(1L);
+    window.record(2L);
+
+    assertEquals(-1L, window.getPercentile(50.0D));
+  }
+
+  @Test
+  public void testGetPercentile() {
+    final LatencyWindow window = new LatencyWindow(100, 1);
+    for(int i = 100; i > 0; i--) {
+      window.record(i);
+    }
+
+    assertEquals(50L, window.getPercentile(50.0D));
+    assertEquals(95L, window.getPercentile(95.0D));
+    assertEquals(100L, window.getPercentile(100.0D));
+    assertEquals(1L, window.getPercentile(0.5D));
+  }
+
+  @Test
+  public void testOldestLatenciesAreReplaced() {
+    final LatencyWindow window = new LatencyWindow(4, 1);
+    for(int i = 0; i < 4; i++) {
+      window.record(1000L);
+    }
+    for(int i = 0; i < 4; i++) {
+      window.record(10L);
+    }
+
+    assertEquals(10L, window.getPercentile(100.0D));
+  }
+}
@@ -0,0 +1,138 @@
+/**
+ * File: MockTransport.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import com.likethecolor.alchemy.api.transport.AsyncTransport;
+import com.likethecolor.alchemy.api.transport.Transport;
+import com.likethecolor.alchemy.api.transport.TransportRequest;
+import com.likethecolor.alchemy.api.transport.TransportResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Transport that answers every request from a function instead of the
+ * network and records what it was asked to send.
+ */
+public class MockTransport implements AsyncTransport {
+  private final Function<TransportRequest, String> responder;
+  private final List<TransportRequest> requests = new CopyOnWriteArrayList<TransportRequest>();
+  private final AtomicInteger asyncRequests = new AtomicInteger();
+  private volatile Function<TransportRequest, Integer> statusCodes = request -> 200;
+
+  public MockTransport(final String body) {
+    this(request -> body);
+  }
+
+  public MockTransport(final Function<TransportRequest, String> responder) {
+    this.responder = responder;
+  }
+
+  public void setStatusCode(final int statusCode) {
+    this.statusCodes = request -> statusCode;
+  }
+
+  /**
+   * @param statusCodes function giving the status code of the response to
+   * each request
+   */
+  public void setStatusCodes(final Function<TransportRequest, Integer> statusCodes) {
+    this.statusCodes = statusCodes;
+  }
+
+  public List<TransportRequest> getRequests() {
+    return requests;
+  }
+
+  public int getAsyncRequests() {
+    return asyncRequests.get();
+  }
+
+  public TransportResponse execute(final TransportRequest request) throws IOException {
+    requests.add(request);
+    return new MockResponse(statusCodes.apply(request), responder.apply(request));
+  }
+
+  public CompletableFuture<TransportResponse> executeAsync(final TransportRequest request) {
+    asyncRequests.incrementAndGet();
+    requests.add(request);
+    final int status = statusCodes.apply(request);
+    return CompletableFuture.supplyAsync(() -> new MockResponse(status, responder.apply(request)));
+  }
+
+  public void close() {
+  }
+
+  /**
+   * @return a transport that does not implement {@link AsyncTransport}
+   */
+  public Transport blocking() {
+    final MockTransport delegate = this;
+    return new Transport() {
+      public TransportResponse execute(final TransportRequest request) throws IOException {
+        return delegate.execute(request);
+      }
+
+      public void close() {
+      }
+    };
+  }
+
+  public static class MockResponse implements TransportResponse {
+    private final int statusCode;
+    private final byte[] body;
+    private final Map<String, String> headers;
+
+    public MockResponse(final int statusCode, final String body) {
+      this(statusCode, body.getBytes(StandardCharsets.UTF_8), Map.of());
+    }
+
+    public MockResponse(final int statusCode, final byte[] body, final Map<String, String> headers) {
+      this.statusCode = statusCode;
+      this.body = body;
+      this.headers = headers;
+    }
+
+    public int getStatusCode() {
+      return statusCode;
+    }
+
+    public String getHeader(final String name) {
+      for(Map.Entry<String, String> header : headers.entrySet()) {
+        if(header.getKey().equalsIgnoreCase(name)) {
+          return header.getValue();
+        }
+      }
+      return null;
+    }
+
+    public InputStream getInputStream() {
+      return new ByteArrayInputStream(body);
+    }
+
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/**
+ * File: RateLimitPolicyTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RateLimitPolicyTest {
+  @Test
+  public void testDefaults() {
+    final RateLimitPolicy policy = new RateLimitPolicy();
+
+    assertEquals(RateLimitPolicy.DEFAULT_PERMITS_PER_SECOND, policy.getPermitsPerSecond(), 0.0D);
+    assertEquals(RateLimitPolicy.DEFAULT_BURST, policy.getBurst());
+    assertEquals(0L, policy.getDailyLimit());
+  }
+
+  @Test
+  public void testConstructor() {
+    final RateLimitPolicy policy = new RateLimitPolicy(2.5D, 1000L);
+
+    assertEquals(2.5D, policy.getPermitsPerSecond(), 0.0D);
+    assertEquals(1000L, policy.getDailyLimit());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetPermitsPerSecond_Zero() {
+    new RateLimitPolicy().setPermitsPerSecond(0.0D);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetPermitsPerSecond_NaN() {
+    new RateLimitPolicy().setPermitsPerSecond(Double.NaN);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetBurst_Zero() {
+    new RateLimitPolicy().setBurst(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetDailyLimit_Negative() {
+    new RateLimitPolicy().setDailyLimit(-1L);
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * File: RateLimiterTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RateLimiterTest {
+  @Test
+  public void testTryAcquire_Burst() {
+    final RateLimiter rateLimiter = new RateLimiter(policy(1.0D, 3, 0L));
+
+    assertTrue(rateLimiter.tryAcquire());
+    assertTrue(rateLimiter.tryAcquire());
+    assertTrue(rateLimiter.tryAcquire());
+    assertFalse(rateLimiter.tryAcquire());
+    assertEquals(3L, rateLimiter.getDailyTransactions());
+    assertEquals(0L, rateLimiter.getThrottledRequests());
+  }
+
+  @Test
+  public void testAcquire_WaitsForRefill() throws IOException {
+    final RateLimiter rateLimiter = new RateLimiter(policy(20.0D, 1, 0L));
+
+    final long start = System.nanoTime();
+    rateLimiter.acquire();
+    rateLimiter.acquire();
+    rateLimiter.acquire();
+    final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    // two permits refilled at 50ms each
+    assertTrue(elapsedMillis >= 90L);
+    assertEquals(2L, rateLimiter.getThrottledRequests());
+    assertTrue(rateLimiter.getThrottledMillis() >= 90L);
+  }
+
+  @Test
+  public void testTryAcquire_Timeout() throws IOException {
+    final RateLimiter rateLimiter = new RateLimiter(policy(1.0D, 1, 0L));
+
+    assertTrue(rateLimiter.tryAcquire(0L, TimeUnit.MILLISECONDS));
+    assertFalse(rateLimiter.tryAcquire(10L, TimeUnit.MILLISECONDS));
+    // the refused permit was not taken
+    assertEquals(1L, rateLimiter.getDailyTransactions());
+    assertEquals(0L, rateLimiter.getThrottledRequests());
+  }
+
+  @Test
+  public void testAcquire_DailyLimit() throws IOException {
+    final RateLimiter rateLimiter = new RateLimiter(policy(1000.0D, 10, 2L));
+
+    rateLimiter.acquire();
+    assertFalse(rateLimiter.isDailyLimitReached());
+    rateLimiter.acquire();
+    assertTrue(rateLimiter.isDailyLimitReached());
+    assertFalse(rateLimiter.tryAcquire());
+    try {
+      rateLimiter.acquire();
+      fail("expected the daily limit to be reached");
+    }
+    catch(RateLimitExceededException e) {
+      assertEquals(RateLimitExceededException.STATUS_INFO, e.getStatusInfo());
+      assertTrue(e.isTransient());
+    }
+    assertEquals(2L, rateLimiter.getDailyTransactions());
+    assertEquals(2L, rateLimiter.getRejectedRequests());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_NullPolicy() {
+    new RateLimiter(null);
+  }
+
+  private static RateLimitPolicy policy(final double permitsPerSecond, final int burst, final long dailyLimit) {
+    final RateLimitPolicy policy = new RateLimitPolicy(permitsPerSecond, dailyLimit);
+    policy.setBurst(burst);
+    return policy;
+  }
+}
@@ -0,0 +1,253 @@
+/**
+ * File: ResponseBodyTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseBodyTest {
+  @Test
+  public void testRead_Utf8() throws IOException {
+    final String json = "{\"status\": \"OK\", \"text\": \"café € 😀\"}";
+
+    final ResponseBody body = ResponseBody.read(new MockTransport.MockResponse(200, json));
+
+    assertEquals(json, body.toString());
+    assertEquals(json.length(), body.length());
+    assertEquals('{', body.charAt(0));
+    assertEquals("status", body.subSequence(2, 8).toString());
+    body.release();
+  }
+
+  @Test
+  public void testRead_MultiByteAcrossBufferBoundaries() throws IOException {
+    final StringBuilder builder = new StringBuilder();
+    while(builder.length() < 100000) {
+      builder.append("Zürich 東京 😀 ");
+    }
+    final String text = builder.toString();
+
+    final ResponseBody body = ResponseBody.read(new MockTransport.MockResponse(200, text));
+
+    assertEquals(text, body.toString());
+    body.release();
+  }
+
+  @Test
+  public void testRead_KeepsWhitespace() throws IOException {
+    final String text = "  line one  \n\tline two\r\n";
+
+    final ResponseBody body = ResponseBody.read(new MockTransport.MockResponse(200, text));
+
+    assertEquals(text, body.toString());
+    assertFalse(body.isBlank());
+    body.release();
+  }
+
+  @Test
+  public void testRead_CharsetFromContentType() throws IOException {
+    final String text = "{\"title\": \"naïve résumé\"}";
+    final byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+
+    final ResponseBody body = ResponseBody.read(new MockTransport.MockResponse(200, bytes,
+        Map.of("Content-Type", "application/json; charset=ISO-8859-1", "Content-Length", String.valueOf(bytes.length))));
+
+    assertEquals(text, body.toString());
+    body.release();
+  }
+
+  @Test(expected = IOException.class)
+  public void testRead_ShorterThanContentLength() throws IOException {
+    ResponseBody.read(new MockTransport.MockResponse(200, "{}".getBytes(StandardCharsets.UTF_8), Map.of("Content-Length", "10")));
+  }
+
+  @Test
+  public void testNewReader() throws IOException {
+    final ResponseBody body = ResponseBody.read(new MockTransport.MockResponse(200, "{\"status\": \"OK\"}"));
+    final Reader reader = body.newReader();
+    final StringBuilder builder = new StringBuilder();
+    int c;
+    while((c = reader.read()) != -1) {
+      builder.append((char) c);
+    }
+
+    assertEquals("{\"status\": \"OK\"}", builder.toString());
+    body.release();
+  }
+
+  @Test
+  public void testIsBlank() throws IOException {
+    final ResponseBody body = ResponseBody.read(new MockTransport.MockResponse(200, " \r\n\t"));
+
+    assertTrue(body.isBlank());
+    body.release();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRelease() throws IOException {
+    final ResponseBody body = ResponseBody.read(new MockTransport.MockResponse(200, "{}"));
+    body.release();
+
+    body.toString();
+  }
+
+  @Test
+  public void testGetCharset() {
+    assertEquals(StandardCharsets.UTF_8, ResponseBody.getCharset(null));
+    assertEquals(StandardCharsets.UTF_8, ResponseBody.getCharset("application/json"));
+    assertEquals(StandardCharsets.UTF_16BE, ResponseBody.getCharset("application/json; Charset=\"UTF-16BE\""));
+    assertEquals(StandardCharsets.UTF_8, ResponseBody.getCharset("application/json; charset=no-such-charset"));
+  }
+
+  @Test
+  public void testRead_Gzip() throws IOException {
+    final String json = getLargeJson();
+    final byte[] gzipped = gzip(json.getBytes(StandardCharsets.UTF_8));
+
+    final ResponseBody body = ResponseBody.read(new MockTransport.MockResponse(200, gzipped,
+        Map.of("Content-Encoding", "gzip", "Content-Length", String.valueOf(gzipped.length))));
+
+    assertEquals(json, body.toString());
+    assertEquals("gzip", body.getContentEncoding());
+    assertEquals(gzipped.length, body.getWireBytes());
+    assertEquals(json.getBytes(StandardCharsets.UTF_8).length, body.getDecodedBytes());
+    assertTrue(body.getWireBytes() < body.getDecodedBytes());
+    body.release();
+  }
+
+  @Test
+  public void testRead_Deflate() throws IOException {
+    final String json = getLargeJson();
+
+    final ResponseBody body = ResponseBody.read(new MockTransport.MockResponse(200, deflate(json.getBytes(StandardCharsets.UTF_8), false),
+        Map.of("Content-Encoding", "deflate")));
+
+    assertEquals(json, body.toString());
+    body.release();
+  }
+
+  @Test
+  public void testRead_RawDeflate() throws IOException {
+    final String json = getLargeJson();
+
+    final ResponseBody body = ResponseBody.read(new MockTransport.MockResponse(200, deflate(json.getBytes(StandardCharsets.UTF_8), true),
+        Map.of("Content-Encoding", "Deflate")));
+
+    assertEquals(json, body.toString());
+    assertEquals("deflate", body.getContentEncoding());
+    body.release();
+  }
+
+  @Test
+  public void testRead_Identity() throws IOException {
+    final ResponseBody body = ResponseBody.read(new MockTransport.MockResponse(200, "{}"));
+
+    assertEquals("identity", body.getContentEncoding());
+    assertEquals(2L, body.getWireBytes());
+    assertEquals(2L, body.getDecodedBytes());
+    body.release();
+  }
+
+  @Test(expected = IOException.class)
+  public void testRead_UnsupportedEncoding() throws IOException {
+    ResponseBody.read(new MockTransport.MockResponse(200, "{}".getBytes(StandardCharsets.UTF_8), Map.of("Content-Encoding", "br")));
+  }
+
+  @Test(expected = IOException.class)
+  public void testRead_CorruptGzip() throws IOException {
+    ResponseBody.read(new MockTransport.MockResponse(200, "not gzip".getBytes(StandardCharsets.UTF_8), Map.of("Content-Encoding", "gzip")));
+  }
+
+  @Test
+  public void testOpenReader_Gzip() throws IOException {
+    final String json = getLargeJson();
+    final byte[] gzipped = gzip(json.getBytes(StandardCharsets.UTF_8));
+
+    final ResponseBody.BodyReader reader = ResponseBody.openReader(new MockTransport.MockResponse(200, gzipped,
+        Map.of("Content-Encoding", "gzip", "Content-Length", String.valueOf(gzipped.length))), null);
+    final StringBuilder builder = new StringBuilder();
+    final char[] chars = new char[100];
+    int read;
+    while((read = reader.read(chars, 0, chars.length)) != -1) {
+      builder.append(chars, 0, read);
+    }
+    reader.finish();
+    reader.close();
+
+    assertEquals(json, builder.toString());
+    assertEquals("gzip", reader.getContentEncoding());
+    assertEquals(gzipped.length, reader.getWireBytes());
+    assertEquals(json.getBytes(StandardCharsets.UTF_8).length, reader.getDecodedBytes());
+  }
+
+  @Test
+  public void testOpenReader_FinishReadsTheRest() throws IOException {
+    final ResponseBody.BodyReader reader = ResponseBody.openReader(new MockTransport.MockResponse(200, "{}\r\n"), null);
+
+    assertEquals('{', reader.read());
+    reader.finish();
+
+    assertEquals(-1, reader.read());
+    assertEquals(4, reader.getWireBytes());
+  }
+
+  @Test(expected = IOException.class)
+  public void testOpenReader_ShorterThanContentLength() throws IOException {
+    ResponseBody.openReader(new MockTransport.MockResponse(200, "{}".getBytes(StandardCharsets.UTF_8), Map.of("Content-Length", "10")), null).finish();
+  }
+
+  @Test(expected = IOException.class)
+  public void testOpenReader_UnsupportedEncoding() throws IOException {
+    ResponseBody.openReader(new MockTransport.MockResponse(200, "{}".getBytes(StandardCharsets.UTF_8), Map.of("Content-Encoding", "br")), null);
+  }
+
+  static String getLargeJson() {
+    final StringBuilder json = new StringBuilder("{\"status\": \"OK\", \"entities\": [");
+    for(int i = 0; i < 500; i++) {
+      json.append("{\"type\": \"Person\", \"relevance\": \"0.8\", \"text\": \"Zürich ").append(i).append("\"}, ");
+    }
+    return json.append("{}]}").toString();
+  }
+
+  static byte[] gzip(final byte[] bytes) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final GZIPOutputStream gzip = new GZIPOutputStream(out);
+    gzip.write(bytes);
+    gzip.close();
+    return out.toByteArray();
+  }
+
+  private static byte[] deflate(final byte[] bytes, final boolean isRaw) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final DeflaterOutputStream deflate = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, isRaw));
+    deflate.write(bytes);
+    deflate.close();
+    return out.toByteArray();
+  }
+}
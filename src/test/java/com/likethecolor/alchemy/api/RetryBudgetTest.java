@@ -0,0 +1,57 @@
+/**
+ * File: RetryBudgetTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryBudgetTest {
+  @Test
+  public void testStartsWithBurst() {
+    final RetryBudget budget = new RetryBudget(0.0D, 2);
+
+    assertTrue(budget.tryWithdraw());
+    assertTrue(budget.tryWithdraw());
+    assertFalse(budget.tryWithdraw());
+  }
+
+  @Test
+  public void testDeposit() {
+    final RetryBudget budget = new RetryBudget(0.5D, 1);
+
+    assertTrue(budget.tryWithdraw());
+    assertFalse(budget.tryWithdraw());
+    budget.deposit();
+    assertFalse(budget.tryWithdraw());
+    budget.deposit();
+    assertTrue(budget.tryWithdraw());
+    assertFalse(budget.tryWithdraw());
+  }
+
+  @Test
+  public void testDepositIsCappedAtBurst() {
+    final RetryBudget budget = new RetryBudget(1.0D, 1);
+
+    for(int i = 0; i < 10; i++) {
+      budget.deposit();
+    }
+    assertTrue(budget.tryWithdraw());
+    assertFalse(budget.tryWithdraw());
+  }
+}
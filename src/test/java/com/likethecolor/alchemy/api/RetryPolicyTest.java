@@ -0,0 +1,127 @@
+/**
+ * File: RetryPolicyTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPolicyTest {
+  @Test
+  public void testDefaults() {
+    final RetryPolicy policy = new RetryPolicy();
+
+    assertEquals(RetryPolicy.DEFAULT_MAX_ATTEMPTS, policy.getMaxAttempts());
+    assertEquals(RetryPolicy.DEFAULT_INITIAL_BACKOFF_MILLIS, policy.getInitialBackoff());
+    assertEquals(RetryPolicy.DEFAULT_MAX_BACKOFF_MILLIS, policy.getMaxBackoff());
+    assertEquals(RetryPolicy.DEFAULT_MULTIPLIER, policy.getMultiplier(), 0.0D);
+    assertEquals(RetryPolicy.DEFAULT_JITTER, policy.getJitter(), 0.0D);
+    assertEquals(RetryPolicy.DEFAULT_BUDGET_RATIO, policy.getBudgetRatio(), 0.0D);
+    assertEquals(RetryPolicy.DEFAULT_BUDGET_BURST, policy.getBudgetBurst());
+  }
+
+  @Test
+  public void testNone() {
+    assertEquals(1, RetryPolicy.none().getMaxAttempts());
+  }
+
+  @Test
+  public void testGetBackoff_NoJitter() {
+    final RetryPolicy policy = new RetryPolicy();
+    policy.setJitter(0.0D);
+    policy.setInitialBackoff(100L);
+    policy.setMaxBackoff(1000L);
+
+    assertEquals(100L, policy.getBackoff(1));
+    assertEquals(200L, policy.getBackoff(2));
+    assertEquals(400L, policy.getBackoff(3));
+    assertEquals(800L, policy.getBackoff(4));
+    assertEquals(1000L, policy.getBackoff(5));
+    assertEquals(1000L, policy.getBackoff(50));
+  }
+
+  @Test
+  public void testGetBackoff_Jitter() {
+    final RetryPolicy policy = new RetryPolicy();
+    policy.setJitter(0.5D);
+    policy.setInitialBackoff(1000L);
+
+    for(int i = 0; i < 100; i++) {
+      final long backoff = policy.getBackoff(1);
+      assertTrue(backoff >= 500L && backoff <= 1000L);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetBackoff_Zero() {
+    new RetryPolicy().getBackoff(0);
+  }
+
+  @Test
+  public void testIsRetryable() {
+    final RetryPolicy policy = new RetryPolicy();
+
+    assertTrue(policy.isRetryable(new TransientCallException("Server returned HTTP response code: 503", null, 503)));
+    assertFalse(policy.isRetryable(new TransientCallException("Error making API call: daily-transaction-limit-exceeded", "daily-transaction-limit-exceeded", 0)));
+    assertTrue(policy.isRetryable(new CallTimeoutException("timed out")));
+    assertTrue(policy.isRetryable(new ConnectException("Connection refused")));
+    assertTrue(policy.isRetryable(new IOException("Connection reset")));
+    assertFalse(policy.isRetryable(new PermanentCallException("invalid-api-key")));
+    assertFalse(policy.isRetryable(new InterruptedIOException("interrupted")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMaxAttempts_Zero() {
+    new RetryPolicy().setMaxAttempts(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetInitialBackoff_Negative() {
+    new RetryPolicy().setInitialBackoff(-1L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMaxBackoff_Negative() {
+    new RetryPolicy().setMaxBackoff(-1L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMultiplier_LessThanOne() {
+    new RetryPolicy().setMultiplier(0.5D);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetJitter_GreaterThanOne() {
+    new RetryPolicy().setJitter(1.5D);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetBudgetRatio_Negative() {
+    new RetryPolicy().setBudgetRatio(-0.1D);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetBudgetBurst_Negative() {
+    new RetryPolicy().setBudgetBurst(-1);
+  }
+}
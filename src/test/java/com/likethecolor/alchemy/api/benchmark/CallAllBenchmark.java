@@ -0,0 +1,125 @@
+/**
+ * File: CallAllBenchmark.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.benchmark;
+
+import com.likethecolor.alchemy.api.Client;
+import com.likethecolor.alchemy.api.ExecutionMode;
+import com.likethecolor.alchemy.api.MockTransport;
+import com.likethecolor.alchemy.api.call.AbstractCall;
+import com.likethecolor.alchemy.api.call.TitleCall;
+import com.likethecolor.alchemy.api.call.type.CallTypeUrl;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares {@link Client#callAll(java.util.Collection)} on platform threads
+ * with virtual threads against a transport that simulates network latency.
+ * Reports wall clock throughput, throughput per available core, calls per
+ * CPU second and the peak number of live threads.
+ * <p/>
+ * Run with (Java 21 for the virtual thread rows):
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.likethecolor.alchemy.api.benchmark.CallAllBenchmark \
+ *     -Dexec.args="calls latencyMillis concurrency..."
+ * </pre>
+ */
+public class CallAllBenchmark {
+  private static final String JSON = "{\"status\": \"OK\", \"url\": \"http://www.cnn.com/\", \"title\": \"title\"}";
+
+  public static void main(final String[] args) throws IOException {
+    final int calls = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+    final long latencyMillis = args.length > 1 ? Long.parseLong(args[1]) : 20L;
+    final List<Integer> concurrencies = new ArrayList<Integer>();
+    for(int i = 2; i < args.length; i++) {
+      concurrencies.add(Integer.parseInt(args[i]));
+    }
+    if(concurrencies.isEmpty()) {
+      concurrencies.add(64);
+      concurrencies.add(256);
+      concurrencies.add(1024);
+    }
+
+    final int cores = Runtime.getRuntime().availableProcessors();
+    System.out.printf("%d calls, %d ms simulated latency, %d cores%n", calls, latencyMillis, cores);
+    System.out.printf("%-9s %11s %10s %12s %12s %13s%n", "mode", "concurrency", "calls/s", "calls/s/core", "calls/cpu-s", "peak threads");
+    for(int concurrency : concurrencies) {
+      for(ExecutionMode mode : ExecutionMode.values()) {
+        if(!mode.isSupported()) {
+          System.out.printf("%-9s %11d %10s%n", mode, concurrency, "n/a");
+          continue;
+        }
+        // warm up, then measure
+        run(mode, concurrency, Math.min(calls, 500), latencyMillis);
+        final Result result = run(mode, concurrency, calls, latencyMillis);
+        final double callsPerSecond = calls / (result.wallNanos / 1e9D);
+        final double callsPerCpuSecond = result.cpuNanos > 0 ? calls / (result.cpuNanos / 1e9D) : Double.NaN;
+        System.out.printf("%-9s %11d %10.0f %12.0f %12.0f %13d%n", mode, concurrency, callsPerSecond,
+            callsPerSecond / cores, callsPerCpuSecond, result.peakThreads);
+      }
+    }
+  }
+
+  private static Result run(final ExecutionMode mode, final int concurrency, final int calls, final long latencyMillis) throws IOException {
+    final Client client = new Client("0a1b2c3d4e5f6g7h8i9j");
+    client.setTransport(new MockTransport(request -> {
+      try {
+        Thread.sleep(latencyMillis);
+      }
+      catch(InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return JSON;
+    }).blocking());
+    client.setExecutionMode(mode);
+    client.setMaxConcurrency(concurrency);
+
+    final List<AbstractCall<?>> batch = new ArrayList<AbstractCall<?>>(calls);
+    for(int i = 0; i < calls; i++) {
+      batch.add(new TitleCall(new CallTypeUrl("http://www.cnn.com/" + i)));
+    }
+
+    final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    threads.resetPeakThreadCount();
+    final long cpuStart = getProcessCpuNanos();
+    final long start = System.nanoTime();
+    client.callAll(batch);
+    final Result result = new Result();
+    result.wallNanos = System.nanoTime() - start;
+    result.cpuNanos = getProcessCpuNanos() - cpuStart;
+    result.peakThreads = threads.getPeakThreadCount();
+    return result;
+  }
+
+  private static long getProcessCpuNanos() {
+    final java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    if(os instanceof com.sun.management.OperatingSystemMXBean) {
+      return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+    }
+    return -1L;
+  }
+
+  private static class Result {
+    long wallNanos;
+    long cpuNanos;
+    int peakThreads;
+  }
+}
@@ -0,0 +1,110 @@
+/**
+ * File: ParseBenchmark.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.benchmark;
+
+import com.likethecolor.alchemy.api.call.AbstractCall;
+import com.likethecolor.alchemy.api.call.AuthorCall;
+import com.likethecolor.alchemy.api.call.LanguageCall;
+import com.likethecolor.alchemy.api.call.RankedConceptsCall;
+import com.likethecolor.alchemy.api.call.RankedKeywordsCall;
+import com.likethecolor.alchemy.api.call.RankedNamedEntitiesCall;
+import com.likethecolor.alchemy.api.call.RankedTaxonomyCall;
+import com.likethecolor.alchemy.api.call.SentimentCall;
+import com.likethecolor.alchemy.api.call.TextCall;
+import com.likethecolor.alchemy.api.call.TitleCall;
+import com.likethecolor.alchemy.api.call.type.CallTypeUrl;
+import com.likethecolor.alchemy.api.validator.OutputStatusValidator;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares the old two pass response handling (validate the status from the
+ * string, then parse the string again) with the single pass handling the
+ * client now uses (tokenize once, validate and parse the same json object)
+ * for a representative response of each call type.
+ * <p/>
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.likethecolor.alchemy.api.benchmark.ParseBenchmark \
+ *     -Dexec.args="iterations"
+ * </pre>
+ */
+public class ParseBenchmark {
+  private static final String HEADER = "\"status\": \"OK\", \"usage\": \"By accessing AlchemyAPI or using information generated by AlchemyAPI, you are agreeing to be bound by the AlchemyAPI Terms of Use: http://www.alchemyapi.com/company/terms.html\", \"url\": \"http://www.cnn.com/2009/CRIME/01/13/missing.pilot/index.html\", \"language\": \"english\"";
+  private static volatile Object sink;
+
+  public static void main(final String[] args) throws IOException, JSONException {
+    final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+    final CallTypeUrl callType = new CallTypeUrl("http://www.cnn.com/");
+    final Map<AbstractCall<?>, String> samples = new LinkedHashMap<AbstractCall<?>, String>();
+    samples.put(new TitleCall(callType), "{" + HEADER + ", \"title\": \"Authorities: Pilot accused of faking death found in Florida - CNN.com\"}");
+    samples.put(new AuthorCall(callType), "{" + HEADER + ", \"author\": \"Dan Brown\"}");
+    samples.put(new LanguageCall(callType), "{" + HEADER + ", \"iso-639-1\": \"en\", \"iso-639-2\": \"eng\", \"iso-639-3\": \"eng\", \"ethnologue\": \"http://www.ethnologue.com/show_language.asp?code=eng\", \"native-speakers\": \"309-400 million\", \"wikipedia\": \"http://en.wikipedia.org/wiki/English_language\"}");
+    samples.put(new SentimentCall(callType), "{" + HEADER + ", \"docSentiment\": {\"type\": \"negative\", \"score\": \"-0.357536\", \"mixed\": \"1\"}}");
+    samples.put(new TextCall(callType), "{" + HEADER + ", \"text\": \"" + repeat("A Florida man accused of faking his death in a plane crash was found in a campground. ", 200) + "\"}");
+    samples.put(new RankedKeywordsCall(callType), "{" + HEADER + ", \"keywords\": [" + repeat("{\"text\": \"pilot\", \"relevance\": \"0.945\", \"sentiment\": {\"type\": \"negative\", \"score\": \"-0.4\"}}, ", 49) + "{\"text\": \"plane\", \"relevance\": \"0.5\"}]}");
+    samples.put(new RankedConceptsCall(callType), "{" + HEADER + ", \"concepts\": [" + repeat("{\"text\": \"Florida\", \"relevance\": \"0.9\", \"website\": \"http://www.myflorida.com/\", \"dbpedia\": \"http://dbpedia.org/resource/Florida\", \"freebase\": \"http://rdf.freebase.com/ns/guid.9202a8c04000641f80000000000275e4\", \"geo\": \"28.1 -81.6\"}, ", 19) + "{\"text\": \"Pilot\", \"relevance\": \"0.5\"}]}");
+    samples.put(new RankedTaxonomyCall(callType), "{" + HEADER + ", \"taxonomy\": [" + repeat("{\"label\": \"/law, govt and politics/law enforcement/police\", \"score\": \"0.6\", \"confident\": \"no\"}, ", 4) + "{\"label\": \"/travel\", \"score\": \"0.2\"}]}");
+    samples.put(new RankedNamedEntitiesCall(callType), "{" + HEADER + ", \"entities\": [" + repeat("{\"type\": \"Person\", \"relevance\": \"0.8\", \"count\": \"4\", \"text\": \"Marcus Schrenker\", \"sentiment\": {\"type\": \"negative\", \"score\": \"-0.3\"}, \"disambiguated\": {\"name\": \"Marcus Schrenker\", \"subType\": [\"Pilot\", \"Investor\"], \"dbpedia\": \"http://dbpedia.org/resource/Marcus_Schrenker\", \"freebase\": \"http://rdf.freebase.com/ns/m.04n3h3k\"}, \"quotations\": [{\"quotation\": \"I am sorry\"}]}, ", 29) + "{\"type\": \"City\", \"relevance\": \"0.3\", \"count\": \"1\", \"text\": \"Tampa\"}]}");
+
+    System.out.printf("%d iterations per call type%n", iterations);
+    System.out.printf("%-24s %8s %14s %14s %8s%n", "call", "bytes", "two pass us", "one pass us", "saving");
+    for(Map.Entry<AbstractCall<?>, String> sample : samples.entrySet()) {
+      final AbstractCall<?> call = sample.getKey();
+      final String json = sample.getValue();
+      // warm up, then measure
+      twoPass(call, json, iterations);
+      onePass(call, json, iterations);
+      final double twoPassMicros = twoPass(call, json, iterations) / 1e3D / iterations;
+      final double onePassMicros = onePass(call, json, iterations) / 1e3D / iterations;
+      System.out.printf("%-24s %8d %14.2f %14.2f %7.0f%%%n", call.getClass().getSimpleName(), json.length(), twoPassMicros,
+          onePassMicros, 100D * (twoPassMicros - onePassMicros) / twoPassMicros);
+    }
+  }
+
+  private static long twoPass(final AbstractCall<?> call, final String json, final int iterations) throws IOException {
+    final long start = System.nanoTime();
+    for(int i = 0; i < iterations; i++) {
+      OutputStatusValidator.validate(json);
+      sink = call.parse(json);
+    }
+    return System.nanoTime() - start;
+  }
+
+  private static long onePass(final AbstractCall<?> call, final String json, final int iterations) throws IOException, JSONException {
+    final long start = System.nanoTime();
+    for(int i = 0; i < iterations; i++) {
+      final JSONObject jsonObject = new JSONObject(json);
+      OutputStatusValidator.validate(jsonObject);
+      sink = call.parseJSONObject(jsonObject);
+    }
+    return System.nanoTime() - start;
+  }
+
+  private static String repeat(final String value, final int count) {
+    final StringBuilder builder = new StringBuilder(value.length() * count);
+    for(int i = 0; i < count; i++) {
+      builder.append(value);
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,116 @@
+/**
+ * File: ProjectionBenchmark.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.benchmark;
+
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.json.AbstractParser;
+import com.likethecolor.alchemy.api.parser.json.ConceptParser;
+import com.likethecolor.alchemy.api.parser.json.NamedEntityParser;
+import com.likethecolor.alchemy.api.parser.json.RelationsParser;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares streaming parses of large entity, concept and relation responses
+ * with every facet materialized ({@link Projection#ALL}) against only the
+ * core fields ({@link Projection#CORE}).  Reports the time per parse and the
+ * bytes allocated per parse by the measuring thread.
+ * <p/>
+ * Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.likethecolor.alchemy.api.benchmark.ProjectionBenchmark \
+ *     -Dexec.args="iterations items"
+ * </pre>
+ */
+public class ProjectionBenchmark {
+  private static final String HEADER = "\"status\": \"OK\", \"usage\": \"By accessing AlchemyAPI or using information generated by AlchemyAPI, you are agreeing to be bound by the AlchemyAPI Terms of Use: http://www.alchemyapi.com/company/terms.html\", \"url\": \"http://www.cnn.com/2009/CRIME/01/13/missing.pilot/index.html\", \"language\": \"english\"";
+  private static final String DISAMBIGUATED = "\"disambiguated\": {\"name\": \"Marcus Schrenker\", \"subType\": [\"Pilot\", \"Investor\", \"Person\"], \"website\": \"http://www.schrenker.com/\", \"dbpedia\": \"http://dbpedia.org/resource/Marcus_Schrenker\", \"freebase\": \"http://rdf.freebase.com/ns/m.04n3h3k\", \"yago\": \"http://mpii.de/yago/resource/Marcus_Schrenker\", \"umbel\": \"http://umbel.org/umbel/ne/wikipedia/Marcus_Schrenker\", \"opencyc\": \"http://opencyc.com/resource/Marcus_Schrenker\", \"geo\": \"28.1 -81.6\"}";
+  private static final String SENTIMENT = "\"sentiment\": {\"type\": \"negative\", \"score\": \"-0.3\", \"mixed\": \"1\"}";
+  private static volatile Object sink;
+
+  public static void main(final String[] args) throws IOException {
+    final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    final int items = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    final Map<AbstractParser<?>, String> samples = new LinkedHashMap<AbstractParser<?>, String>();
+    samples.put(new NamedEntityParser(), "{" + HEADER + ", \"entities\": [" + repeat("{\"type\": \"Person\", \"relevance\": \"0.8\", \"count\": \"4\", \"text\": \"Marcus Schrenker\", "
+        + SENTIMENT + ", " + DISAMBIGUATED + ", \"quotations\": [{\"quotation\": \"I am sorry for the trouble I caused\", " + SENTIMENT + "}, {\"quotation\": \"It was an accident\"}]}", items) + "]}");
+    samples.put(new ConceptParser(), "{" + HEADER + ", \"concepts\": [" + repeat("{\"text\": \"Florida\", \"relevance\": \"0.9\", \"website\": \"http://www.myflorida.com/\", \"dbpedia\": \"http://dbpedia.org/resource/Florida\", \"freebase\": \"http://rdf.freebase.com/ns/guid.9202a8c04000641f80000000000275e4\", \"yago\": \"http://mpii.de/yago/resource/Florida\", \"opencyc\": \"http://sw.opencyc.org/concept/Mx4rvVjq5JwpEbGdrcN5Y29ycA\", \"geo\": \"28.1 -81.6\"}", items) + "]}");
+    samples.put(new RelationsParser(), "{" + HEADER + ", \"relations\": [" + repeat("{\"subject\": {\"text\": \"Marcus Schrenker\", " + SENTIMENT + ", \"entity\": {\"type\": \"Person\", \"text\": \"Marcus Schrenker\", " + DISAMBIGUATED + "}}, "
+        + "\"action\": {\"text\": \"was taken\", \"lemmatized\": \"be take\", \"verb\": {\"text\": \"take\", \"tense\": \"past\", \"negated\": \"0\"}}, "
+        + "\"object\": {\"text\": \"to a hospital\", " + SENTIMENT + ", \"sentimentFromSubject\": {\"type\": \"negative\", \"score\": \"-0.12\"}}}", items) + "]}");
+
+    System.out.printf("%d iterations, %d items per response%n", iterations, items);
+    System.out.printf("%-18s %8s %10s %10s %8s %12s %12s %8s%n", "parser", "bytes", "all us", "core us", "saving", "all alloc", "core alloc", "saving");
+    for(Map.Entry<AbstractParser<?>, String> sample : samples.entrySet()) {
+      final AbstractParser<?> parser = sample.getKey();
+      final String json = sample.getValue();
+      // warm up, then measure
+      run(parser, json, Projection.ALL, iterations);
+      run(parser, json, Projection.CORE, iterations);
+      final Result all = run(parser, json, Projection.ALL, iterations);
+      final Result core = run(parser, json, Projection.CORE, iterations);
+      final double allMicros = all.wallNanos / 1e3D / iterations;
+      final double coreMicros = core.wallNanos / 1e3D / iterations;
+      final long allBytes = all.allocatedBytes / iterations;
+      final long coreBytes = core.allocatedBytes / iterations;
+      System.out.printf("%-18s %8d %10.2f %10.2f %7.0f%% %12d %12d %7.0f%%%n", parser.getClass().getSimpleName(), json.length(),
+          allMicros, coreMicros, 100D * (allMicros - coreMicros) / allMicros,
+          allBytes, coreBytes, allBytes > 0 ? 100D * (allBytes - coreBytes) / allBytes : Double.NaN);
+    }
+  }
+
+  private static Result run(final AbstractParser<?> parser, final String json, final Projection projection, final int iterations) throws IOException {
+    final long allocatedStart = getAllocatedBytes();
+    final long start = System.nanoTime();
+    for(int i = 0; i < iterations; i++) {
+      sink = parser.parseStream(new StringReader(json), projection);
+    }
+    final Result result = new Result();
+    result.wallNanos = System.nanoTime() - start;
+    result.allocatedBytes = getAllocatedBytes() - allocatedStart;
+    return result;
+  }
+
+  private static long getAllocatedBytes() {
+    final java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if(threads instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0L;
+  }
+
+  private static String repeat(final String value, final int count) {
+    final StringBuilder builder = new StringBuilder(value.length() * count);
+    for(int i = 0; i < count; i++) {
+      if(i > 0) {
+        builder.append(", ");
+      }
+      builder.append(value);
+    }
+    return builder.toString();
+  }
+
+  private static class Result {
+    long wallNanos;
+    long allocatedBytes;
+  }
+}
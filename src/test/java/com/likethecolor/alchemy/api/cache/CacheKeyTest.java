@@ -0,0 +1,77 @@
+/**
+ * File: CacheKeyTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import com.likethecolor.alchemy.api.params.Params;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CacheKeyTest {
+  @Test
+  public void testEquals() {
+    final CacheKey key = new CacheKey("URLGetTitle", "url", "&url=http%3A%2F%2Fwww.cnn.com%2F");
+
+    assertEquals(key, new CacheKey("URLGetTitle", "url", "&url=http%3A%2F%2Fwww.cnn.com%2F"));
+    assertEquals(key.hashCode(), new CacheKey("URLGetTitle", "url", "&url=http%3A%2F%2Fwww.cnn.com%2F").hashCode());
+    assertFalse(key.equals(new CacheKey("URLGetText", "url", "&url=http%3A%2F%2Fwww.cnn.com%2F")));
+    assertFalse(key.equals(new CacheKey("URLGetTitle", "text", "&url=http%3A%2F%2Fwww.cnn.com%2F")));
+    assertFalse(key.equals(new CacheKey("URLGetTitle", "url", "&url=http%3A%2F%2Fwww.bbc.com%2F")));
+    assertFalse(key.equals(null));
+  }
+
+  @Test
+  public void testOf_HashesContent() {
+    final CacheKey key = CacheKey.of("TextGetTitle", "text", text("The quick brown fox"));
+
+    assertTrue(key.getParams().startsWith(text("The quick brown fox").toOptionsString() + "&contentHash="));
+    assertFalse(key.getParams().contains("quick"));
+    assertEquals(key, CacheKey.of("TextGetTitle", "text", text("The quick brown fox")));
+    assertFalse(key.equals(CacheKey.of("TextGetTitle", "text", text("The quick  brown fox"))));
+  }
+
+  @Test
+  public void testOf_Url() {
+    final Params params = new Params();
+    params.setURL("http://www.cnn.com/");
+
+    assertEquals(new CacheKey("URLGetTitle", "url", params.toOptionsString()), CacheKey.of("URLGetTitle", "url", params));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOf_NullParams() {
+    CacheKey.of("URLGetTitle", "url", null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_NullCallName() {
+    new CacheKey(null, "url", "");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_NullParams() {
+    new CacheKey("URLGetTitle", "url", null);
+  }
+
+  private static Params text(final String text) {
+    final Params params = new Params();
+    params.setText(text);
+    return params;
+  }
+}
@@ -0,0 +1,90 @@
+/**
+ * File: ContentDeduplicatorTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import com.likethecolor.alchemy.api.params.KeywordParams;
+import com.likethecolor.alchemy.api.params.Params;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ContentDeduplicatorTest {
+  private static final String JSON = "{\"status\": \"OK\", \"title\": \"title\"}";
+
+  @Test
+  public void testGetKey() {
+    final ContentDeduplicator deduplicator = new ContentDeduplicator();
+    final CacheKey key = deduplicator.getKey("TextGetTitle", "text", text("The quick brown fox"));
+
+    assertEquals("TextGetTitle", key.getCallName());
+    assertEquals("text", key.getCallType());
+    assertTrue(key.getParams().startsWith(text("The quick brown fox").toOptionsString() + "&contentHash="));
+    assertFalse(key.getParams().contains("quick"));
+    assertEquals(key, deduplicator.getKey("TextGetTitle", "text", text("The quick  brown\nfox")));
+  }
+
+  @Test
+  public void testGetKey_IncludesOptions() {
+    final ContentDeduplicator deduplicator = new ContentDeduplicator();
+    final KeywordParams params = new KeywordParams();
+    params.setText("The quick brown fox");
+    params.setMaxRetrieve(5);
+
+    assertFalse(deduplicator.getKey("TextGetRankedKeywords", "text", params)
+        .equals(deduplicator.getKey("TextGetRankedKeywords", "text", text("The quick brown fox"))));
+    assertFalse(deduplicator.getKey("TextGetTitle", "text", text("The quick brown fox"))
+        .equals(deduplicator.getKey("TextGetCategory", "text", text("The quick brown fox"))));
+  }
+
+  @Test
+  public void testGet() {
+    final ContentDeduplicator deduplicator = new ContentDeduplicator();
+    final CacheKey key = deduplicator.getKey("TextGetTitle", "text", text("The quick brown fox"));
+
+    assertNull(deduplicator.get(key, 100L));
+    deduplicator.put(key, JSON);
+    assertEquals(JSON, deduplicator.get(key, 100L));
+    assertEquals(JSON, deduplicator.get(key, 50L));
+    assertEquals(2L, deduplicator.getSavedTransactions());
+    assertEquals(150L, deduplicator.getSavedBytes());
+    assertEquals(1L, deduplicator.getResponseCache().getStats().getMisses());
+
+    deduplicator.invalidate(key);
+    assertNull(deduplicator.get(key, 100L));
+  }
+
+  @Test
+  public void testConstructor_RejectsNullCache() {
+    try {
+      new ContentDeduplicator(null);
+      fail("expected a null cache to be rejected");
+    }
+    catch(IllegalArgumentException e) {
+      assertEquals("Response cache cannot be null.", e.getMessage());
+    }
+  }
+
+  private static Params text(final String text) {
+    final Params params = new Params();
+    params.setText(text);
+    return params;
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * File: ContentHasherTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ContentHasherTest {
+  @Test
+  public void testFinish_IgnoresWhitespaceRuns() {
+    assertEquals(hash("The quick brown fox"), hash("  The quick\n\n brown\tfox \r\n"));
+  }
+
+  @Test
+  public void testFinish_Exact() {
+    final String hash = new ContentHasher(false).update("The quick brown fox").finish();
+
+    assertEquals(hash, new ContentHasher(false).update("The quick brown fox").finish());
+    assertFalse(hash.equals(new ContentHasher(false).update("The quick  brown fox").finish()));
+  }
+
+  @Test
+  public void testFinish_SeesWordBoundaries() {
+    assertFalse(hash("The quick brown fox").equals(hash("Thequick brown fox")));
+    assertFalse(hash("The quick brown fox").equals(hash("the quick brown fox")));
+  }
+
+  @Test
+  public void testFinish_SeesFieldBoundaries() {
+    final String first = new ContentHasher().update("ab").separate().update("cd").finish();
+    final String second = new ContentHasher().update("abc").separate().update("d").finish();
+
+    assertFalse(first.equals(second));
+  }
+
+  @Test
+  public void testFinish_IsIncremental() {
+    final String text = "Authorities: Pilot accused of faking death found in Florida";
+    final ContentHasher hasher = new ContentHasher();
+    for(int i = 0; i < text.length(); i += 7) {
+      hasher.update(text.substring(i, Math.min(i + 7, text.length())));
+    }
+
+    assertEquals(hash(text), hasher.finish());
+  }
+
+  @Test
+  public void testFinish_DiffersForEveryLength() {
+    final StringBuilder text = new StringBuilder();
+    String previous = hash("");
+    for(int i = 0; i < 40; i++) {
+      text.append('a');
+      final String current = hash(text);
+      assertEquals(32, current.length());
+      assertTrue(current.matches("[0-9a-f]{32}"));
+      assertFalse(current.equals(previous));
+      previous = current;
+    }
+  }
+
+  private static String hash(final CharSequence content) {
+    return new ContentHasher().update(content).finish();
+  }
+}
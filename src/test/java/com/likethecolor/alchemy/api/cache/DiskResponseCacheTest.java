@@ -0,0 +1,270 @@
+/**
+ * File: DiskResponseCacheTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DiskResponseCacheTest {
+  private static final String JSON = "{\"status\": \"OK\", \"title\": \"title\"}";
+  // header, 16 byte key hash and response
+  private static final int RECORD_SIZE = 20 + 16 + JSON.length();
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private final List<DiskResponseCache> caches = new ArrayList<DiskResponseCache>();
+
+  @After
+  public void tearDown() throws IOException {
+    for(DiskResponseCache cache : caches) {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void testGet() throws IOException {
+    final DiskResponseCache cache = open(4096, 4, 64);
+    cache.put(key(1), JSON);
+
+    assertEquals(JSON, cache.get(key(1)));
+    assertNull(cache.get(key(2)));
+    final CacheStats stats = cache.getStats();
+    assertEquals(1L, stats.getHits());
+    assertEquals(1L, stats.getMisses());
+    assertEquals(1L, stats.getPuts());
+    assertEquals(1L, stats.getSize());
+    assertTrue(stats.getWeight() > JSON.length());
+  }
+
+  @Test
+  public void testPut_ReplacesResponse() throws IOException {
+    final DiskResponseCache cache = open(4096, 4, 64);
+    cache.put(key(1), JSON);
+    cache.put(key(1), "{\"status\": \"OK\"}");
+
+    assertEquals("{\"status\": \"OK\"}", cache.get(key(1)));
+    assertEquals(1L, cache.getStats().getSize());
+  }
+
+  @Test
+  public void testPut_StoresKeyHash() throws IOException {
+    final DiskResponseCache cache = open(4096, 4, 64);
+    final StringBuilder text = new StringBuilder("&text=");
+    for(int i = 0; i < 1000; i++) {
+      text.append("The+quick+brown+fox+");
+    }
+    final CacheKey key = new CacheKey("TextGetTitle", "text", text.toString());
+    cache.put(key, JSON);
+
+    assertEquals(JSON, cache.get(key));
+    assertEquals(RECORD_SIZE, cache.getStats().getWeight());
+  }
+
+  @Test
+  public void testGet_SurvivesReopen() throws IOException {
+    final DiskResponseCache cache = open(4096, 4, 64);
+    cache.put(key(1), JSON);
+    cache.close();
+
+    // the segment size and slots of the existing cache win
+    final DiskResponseCache reopened = open(8192, 4, 128);
+    assertEquals(4096, reopened.getSegmentSize());
+    assertEquals(64, reopened.getIndexSlots());
+    assertEquals(JSON, reopened.get(key(1)));
+  }
+
+  @Test
+  public void testGet_SharedDirectory() throws IOException {
+    final DiskResponseCache writer = open(4096, 4, 64);
+    final DiskResponseCache reader = open(4096, 4, 64);
+    writer.put(key(1), JSON);
+
+    assertEquals(JSON, reader.get(key(1)));
+    reader.invalidate(key(1));
+    assertNull(writer.get(key(1)));
+  }
+
+  @Test
+  public void testGet_DetectsCorruptRecord() throws IOException {
+    final DiskResponseCache cache = open(4096, 4, 64);
+    cache.put(key(1), JSON);
+    final RandomAccessFile segment = new RandomAccessFile(new File(folder.getRoot(), "segment-0000000001.log"), "rw");
+    try {
+      // a byte in the middle of the response
+      segment.seek(RECORD_SIZE - 10L);
+      final int b = segment.read();
+      segment.seek(RECORD_SIZE - 10L);
+      segment.write(b ^ 0xff);
+    }
+    finally {
+      segment.close();
+    }
+
+    assertNull(cache.get(key(1)));
+  }
+
+  @Test
+  public void testGet_Expires() throws Exception {
+    final DiskResponseCache cache = open(4096, 4, 64);
+    cache.setTimeToLive("url", 20L);
+    cache.setTimeToLive("text", 0L);
+    cache.put(key(1), JSON);
+    cache.put(new CacheKey("TextGetTitle", "text", "&text=title"), JSON);
+    Thread.sleep(40L);
+
+    assertNull(cache.get(key(1)));
+    assertNull(cache.get(new CacheKey("TextGetTitle", "text", "&text=title")));
+    assertEquals(1L, cache.getStats().getExpirations());
+    assertEquals(1L, cache.getStats().getPuts());
+  }
+
+  @Test
+  public void testPut_DropsOldestSegment() throws IOException {
+    // room for three records in a segment
+    final DiskResponseCache cache = open(3 * RECORD_SIZE, 2, 64);
+    for(int i = 0; i < 9; i++) {
+      cache.put(key(i), JSON);
+    }
+
+    for(int i = 0; i < 3; i++) {
+      assertNull(cache.get(key(i)));
+    }
+    for(int i = 3; i < 9; i++) {
+      assertEquals(JSON, cache.get(key(i)));
+    }
+    assertEquals(3L, cache.getStats().getEvictions());
+    assertEquals(6L, cache.getStats().getSize());
+    assertFalse(new File(folder.getRoot(), "segment-0000000001.log").exists());
+  }
+
+  @Test
+  public void testPut_KeepsIndexBelowLoad() throws IOException {
+    final DiskResponseCache cache = open(1024, 4, 8);
+    for(int i = 0; i < 20; i++) {
+      cache.put(key(i), JSON);
+    }
+
+    assertTrue(cache.getStats().getSize() <= 6L);
+    assertEquals(JSON, cache.get(key(19)));
+  }
+
+  @Test
+  public void testPut_SkipsOversizedResponse() throws IOException {
+    final DiskResponseCache cache = open(64, 4, 64);
+    cache.put(key(1), JSON);
+
+    assertNull(cache.get(key(1)));
+    assertEquals(0L, cache.getStats().getPuts());
+  }
+
+  @Test
+  public void testCompact() throws IOException {
+    final DiskResponseCache cache = open(3 * RECORD_SIZE, 8, 64);
+    for(int i = 0; i < 7; i++) {
+      cache.put(key(i), JSON);
+    }
+    cache.put(key(0), "{\"status\": \"OK\"}");
+    cache.invalidate(key(1));
+    final long weight = cache.getStats().getWeight();
+
+    cache.compact();
+
+    assertEquals("{\"status\": \"OK\"}", cache.get(key(0)));
+    assertNull(cache.get(key(1)));
+    for(int i = 2; i < 7; i++) {
+      assertEquals(JSON, cache.get(key(i)));
+    }
+    assertEquals(6L, cache.getStats().getSize());
+    assertTrue(cache.getStats().getWeight() < weight);
+    assertFalse(new File(folder.getRoot(), "segment-0000000001.log").exists());
+  }
+
+  @Test
+  public void testClear() throws IOException {
+    final DiskResponseCache cache = open(4096, 4, 64);
+    cache.put(key(1), JSON);
+    cache.clear();
+
+    assertNull(cache.get(key(1)));
+    assertEquals(0L, cache.getStats().getSize());
+    assertEquals(0L, cache.getStats().getWeight());
+    cache.put(key(1), JSON);
+    assertEquals(JSON, cache.get(key(1)));
+  }
+
+  @Test
+  public void testConstructor_RejectsForeignIndex() throws IOException {
+    final File index = new File(folder.getRoot(), "index");
+    final RandomAccessFile file = new RandomAccessFile(index, "rw");
+    try {
+      file.writeBytes("not an index");
+    }
+    finally {
+      file.close();
+    }
+
+    try {
+      open(4096, 4, 64);
+      fail("expected the index to be rejected");
+    }
+    catch(IOException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testConstructor_RejectsFewSegments() throws IOException {
+    try {
+      new DiskResponseCache(folder.getRoot(), 4096, 1, 64);
+      fail("expected max segments to be rejected");
+    }
+    catch(IllegalArgumentException e) {
+      assertEquals("Max segments must be at least 2 [1].", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testDefaultTimeToLive() throws IOException {
+    assertEquals(TimeUnit.HOURS.toMillis(1L), open(4096, 4, 64).getDefaultTimeToLive());
+  }
+
+  private DiskResponseCache open(final int segmentSize, final int maxSegments, final int indexSlots) throws IOException {
+    final DiskResponseCache cache = new DiskResponseCache(folder.getRoot(), segmentSize, maxSegments, indexSlots);
+    caches.add(cache);
+    return cache;
+  }
+
+  private static CacheKey key(final int i) {
+    return new CacheKey("URLGetTitle", "url", "&url=http%3A%2F%2Fwww.cnn.com%2F" + i);
+  }
+}
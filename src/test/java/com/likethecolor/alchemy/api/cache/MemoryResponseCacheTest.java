@@ -0,0 +1,179 @@
+/**
+ * File: MemoryResponseCacheTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MemoryResponseCacheTest {
+  // 51 chars, 102 bytes; with its 98 byte key each entry weighs 200 bytes
+  private static final String JSON = String.format("{\"status\": \"OK\", \"title\": \"%-22s\"}", "title");
+
+  @Test
+  public void testGet() {
+    final MemoryResponseCache cache = new MemoryResponseCache();
+    cache.put(key(1), JSON);
+
+    assertEquals(JSON, cache.get(key(1)));
+    assertNull(cache.get(key(2)));
+    final CacheStats stats = cache.getStats();
+    assertEquals(1L, stats.getHits());
+    assertEquals(1L, stats.getMisses());
+    assertEquals(1L, stats.getPuts());
+    assertEquals(1L, stats.getSize());
+    assertEquals(200L, stats.getWeight());
+    assertEquals(0.5D, stats.getHitRatio(), 0.0D);
+  }
+
+  @Test
+  public void testPut_EvictsByWeight() {
+    final MemoryResponseCache cache = new MemoryResponseCache(1000L, 1);
+    for(int i = 0; i < 6; i++) {
+      cache.put(key(i), JSON);
+    }
+
+    final CacheStats stats = cache.getStats();
+    assertEquals(5L, stats.getSize());
+    assertEquals(1000L, stats.getWeight());
+    assertEquals(1L, stats.getEvictions());
+    // least recently used goes first
+    assertNull(cache.get(key(0)));
+    assertEquals(JSON, cache.get(key(5)));
+  }
+
+  @Test
+  public void testPut_ProtectsResponsesHitAgain() {
+    final MemoryResponseCache cache = new MemoryResponseCache(1000L, 1);
+    cache.put(key(0), JSON);
+    cache.put(key(1), JSON);
+    cache.get(key(0));
+    // a scan of responses seen once
+    for(int i = 10; i < 20; i++) {
+      cache.put(key(i), JSON);
+    }
+
+    assertEquals(JSON, cache.get(key(0)));
+    assertNull(cache.get(key(1)));
+  }
+
+  @Test
+  public void testPut_TooHeavy() {
+    final MemoryResponseCache cache = new MemoryResponseCache(100L, 1);
+    cache.put(key(0), JSON);
+
+    assertNull(cache.get(key(0)));
+    assertEquals(0L, cache.getStats().getPuts());
+  }
+
+  @Test
+  public void testPut_ReplacesEntry() {
+    final MemoryResponseCache cache = new MemoryResponseCache();
+    cache.put(key(0), "{}");
+    cache.put(key(0), JSON);
+
+    assertEquals(JSON, cache.get(key(0)));
+    assertEquals(1L, cache.getStats().getSize());
+    assertEquals(200L, cache.getStats().getWeight());
+  }
+
+  @Test
+  public void testTimeToLive() throws InterruptedException {
+    final MemoryResponseCache cache = new MemoryResponseCache();
+    cache.setTimeToLive("url", 20L);
+    cache.setTimeToLive("html", 0L);
+    cache.put(new CacheKey("URLGetTitle", "url", "&url=1"), JSON);
+    cache.put(new CacheKey("TextGetTitle", "text", "&text=1"), JSON);
+    cache.put(new CacheKey("HTMLGetTitle", "html", "&html=1"), JSON);
+
+    assertEquals(20L, cache.getTimeToLive("url"));
+    assertEquals(MemoryResponseCache.DEFAULT_TIME_TO_LIVE_MILLIS, cache.getTimeToLive("text"));
+    assertNull(cache.get(new CacheKey("HTMLGetTitle", "html", "&html=1")));
+    Thread.sleep(30L);
+    assertNull(cache.get(new CacheKey("URLGetTitle", "url", "&url=1")));
+    assertEquals(JSON, cache.get(new CacheKey("TextGetTitle", "text", "&text=1")));
+    assertEquals(1L, cache.getStats().getExpirations());
+    assertEquals(2L, cache.getStats().getPuts());
+  }
+
+  @Test
+  public void testInvalidateAndClear() {
+    final MemoryResponseCache cache = new MemoryResponseCache();
+    cache.put(key(0), JSON);
+    cache.put(key(1), JSON);
+
+    cache.invalidate(key(0));
+    assertNull(cache.get(key(0)));
+    cache.clear();
+    assertNull(cache.get(key(1)));
+    assertEquals(0L, cache.getStats().getWeight());
+  }
+
+  @Test
+  public void testConcurrentAccess() throws Exception {
+    final MemoryResponseCache cache = new MemoryResponseCache(20000L, 4);
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> futures = new ArrayList<Future<?>>();
+      for(int t = 0; t < 4; t++) {
+        final int offset = t;
+        futures.add(executor.submit(() -> {
+          for(int i = 0; i < 2000; i++) {
+            final CacheKey key = key((i * 7 + offset) % 300);
+            if(cache.get(key) == null) {
+              cache.put(key, JSON);
+            }
+          }
+        }));
+      }
+      for(Future<?> future : futures) {
+        future.get(10L, TimeUnit.SECONDS);
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+
+    final CacheStats stats = cache.getStats();
+    assertEquals(8000L, stats.getHits() + stats.getMisses());
+    assertTrue(stats.getWeight() <= 20000L);
+    assertEquals(stats.getSize() * 200L, stats.getWeight());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_ZeroMaxWeight() {
+    new MemoryResponseCache(0L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetTimeToLive_Negative() {
+    new MemoryResponseCache().setTimeToLive("url", -1L);
+  }
+
+  private static CacheKey key(final int i) {
+    return new CacheKey("URLGetTitle", "url", String.format("&url=http%%3A%%2F%%2Fwww.cnn.com%%2F%03d", i));
+  }
+}
@@ -0,0 +1,160 @@
+/**
+ * File: NearDuplicateIndexTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import com.likethecolor.alchemy.api.params.KeywordParams;
+import com.likethecolor.alchemy.api.params.Params;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class NearDuplicateIndexTest {
+  private static final String JSON = "{\"status\": \"OK\", \"title\": \"title\"}";
+  private static final String STORY = SimHasherTest.STORY;
+
+  @Test
+  public void testGet_FindsNearDuplicate() {
+    final NearDuplicateIndex index = new NearDuplicateIndex(new MemoryResponseCache(), 1000, 8);
+    index.put("TextGetTitle", "text", text(STORY), JSON);
+
+    assertEquals(JSON, index.get("TextGetTitle", "text", text("By Staff Reporter. " + STORY + " All rights reserved."), 100L));
+    assertEquals(1L, index.getSavedTransactions());
+    assertEquals(100L, index.getSavedBytes());
+    assertEquals(1, index.getSize());
+  }
+
+  @Test
+  public void testGet_MissesOtherCallsAndOptions() {
+    final NearDuplicateIndex index = new NearDuplicateIndex(new MemoryResponseCache(), 1000, 8);
+    index.put("TextGetTitle", "text", text(STORY), JSON);
+    final KeywordParams params = new KeywordParams();
+    params.setText(STORY);
+    params.setMaxRetrieve(5);
+
+    assertNull(index.get("TextGetCategory", "text", text(STORY), 100L));
+    assertNull(index.get("TextGetTitle", "text", params, 100L));
+    assertEquals(0L, index.getSavedTransactions());
+  }
+
+  @Test
+  public void testGet_SkipsShortDocuments() {
+    final NearDuplicateIndex index = new NearDuplicateIndex();
+    index.put("TextGetTitle", "text", text("The quick brown fox"), JSON);
+
+    assertNull(index.get("TextGetTitle", "text", text("The quick brown fox"), 100L));
+    assertEquals(0, index.getSize());
+    assertEquals(0L, index.getLookups());
+
+    index.setMinWords(2);
+    index.put("TextGetTitle", "text", text("The quick brown fox"), JSON);
+    assertEquals(JSON, index.get("TextGetTitle", "text", text("the quick brown fox"), 100L));
+  }
+
+  @Test
+  public void testGet_RespectsMaxDistance() {
+    final Random random = new Random(42L);
+    final NearDuplicateIndex index = new NearDuplicateIndex(new MemoryResponseCache(), 1000, 2);
+    index.setMinWords(1);
+    for(int i = 0; i < 200; i++) {
+      index.put("TextGetTitle", "text", text(words(random, 60)), JSON);
+    }
+
+    for(int i = 0; i < 200; i++) {
+      final String text = words(random, 60);
+      final long fingerprint = NearDuplicateIndex.getFingerprint(text, false);
+      final String json = index.get("TextGetTitle", "text", text(text), 100L);
+      // random documents are about 32 bits apart; a hit must be within 2
+      if(json != null) {
+        fail("unexpected near duplicate for " + Long.toHexString(fingerprint));
+      }
+    }
+  }
+
+  @Test
+  public void testPut_SkipsExactDuplicate() {
+    final NearDuplicateIndex index = new NearDuplicateIndex();
+    index.put("TextGetTitle", "text", text(STORY), JSON);
+    index.put("TextGetTitle", "text", text(STORY + " "), JSON);
+
+    assertEquals(1, index.getSize());
+  }
+
+  @Test
+  public void testPut_GrowsAndReplacesOldest() {
+    final Random random = new Random(7L);
+    final NearDuplicateIndex index = new NearDuplicateIndex(new MemoryResponseCache(), 3000, 3);
+    index.setMinWords(1);
+    final String[] texts = new String[4000];
+    for(int i = 0; i < texts.length; i++) {
+      texts[i] = words(random, 20);
+      index.put("TextGetTitle", "text", text(texts[i]), "{\"status\": \"OK\", \"title\": \"" + i + "\"}");
+    }
+
+    assertEquals(3000, index.getSize());
+    assertEquals(1000L, index.getReplacements());
+    assertNull(index.get("TextGetTitle", "text", text(texts[0]), 0L));
+    for(int i = 1000; i < texts.length; i += 97) {
+      assertEquals("{\"status\": \"OK\", \"title\": \"" + i + "\"}", index.get("TextGetTitle", "text", text(texts[i]), 0L));
+    }
+  }
+
+  @Test
+  public void testClear() {
+    final NearDuplicateIndex index = new NearDuplicateIndex();
+    index.put("TextGetTitle", "text", text(STORY), JSON);
+    index.clear();
+
+    assertEquals(0, index.getSize());
+    assertNull(index.get("TextGetTitle", "text", text(STORY), 100L));
+  }
+
+  @Test
+  public void testConstructor_RejectsMaxDistance() {
+    try {
+      new NearDuplicateIndex(new MemoryResponseCache(), 1000, 16);
+      fail("expected max distance to be rejected");
+    }
+    catch(IllegalArgumentException e) {
+      assertEquals("Max distance must be between 0 and 15 [16].", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testGetDistance() {
+    assertEquals(0, NearDuplicateIndex.getDistance(0x0fL, 0x0fL));
+    assertEquals(3, NearDuplicateIndex.getDistance(0x0fL, 0x01L));
+    assertEquals(64, NearDuplicateIndex.getDistance(0L, -1L));
+  }
+
+  private static Params text(final String text) {
+    final Params params = new Params();
+    params.setText(text);
+    return params;
+  }
+
+  private static String words(final Random random, final int count) {
+    final StringBuilder words = new StringBuilder();
+    for(int i = 0; i < count; i++) {
+      words.append(" w").append(random.nextInt(100000));
+    }
+    return words.toString();
+  }
+}
@@ -0,0 +1,146 @@
+/**
+ * File: NegativeResultCacheTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import com.likethecolor.alchemy.api.CallException;
+import com.likethecolor.alchemy.api.PermanentCallException;
+import com.likethecolor.alchemy.api.TransientCallException;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NegativeResultCacheTest {
+  @Test
+  public void testGet() {
+    final NegativeResultCache cache = new NegativeResultCache();
+    final PermanentCallException failure = failure("unsupported-text-language");
+    assertTrue(cache.put(key(1), failure));
+
+    final CallException first = cache.get(key(1));
+    final CallException second = cache.get(key(1));
+    assertTrue(first instanceof PermanentCallException);
+    assertNotSame(first, second);
+    assertEquals(failure.getMessage(), first.getMessage());
+    assertEquals("unsupported-text-language", first.getStatusInfo());
+    assertNull(cache.get(key(2)));
+    final CacheStats stats = cache.getStats();
+    assertEquals(2L, stats.getHits());
+    assertEquals(1L, stats.getMisses());
+    assertEquals(1L, stats.getPuts());
+    assertEquals(1L, stats.getSize());
+  }
+
+  @Test
+  public void testGet_KeepsTransientFailure() {
+    final NegativeResultCache cache = new NegativeResultCache();
+    cache.put(key(1), new TransientCallException("Error making API call: cannot-retrieve:http-404", "cannot-retrieve:http-404", 0));
+
+    final CallException failure = cache.get(key(1));
+    assertTrue(failure.isTransient());
+    assertEquals("cannot-retrieve:http-404", failure.getStatusInfo());
+  }
+
+  @Test
+  public void testPut_SkipsOtherFailures() {
+    final NegativeResultCache cache = new NegativeResultCache();
+
+    assertFalse(cache.put(key(1), failure("invalid-api-key")));
+    assertFalse(cache.put(key(1), new PermanentCallException("Server returned HTTP response code: 404", null, 404)));
+    assertNull(cache.get(key(1)));
+    assertEquals(0L, cache.getStats().getPuts());
+  }
+
+  @Test
+  public void testPut_EvictsLeastRecentlyUsed() {
+    final NegativeResultCache cache = new NegativeResultCache(2);
+    cache.put(key(1), failure("unsupported-text-language"));
+    cache.put(key(2), failure("unsupported-text-language"));
+    cache.get(key(1));
+    cache.put(key(3), failure("unsupported-text-language"));
+
+    assertNull(cache.get(key(2)));
+    assertTrue(cache.get(key(1)) != null);
+    assertEquals(1L, cache.getStats().getEvictions());
+    assertEquals(2L, cache.getStats().getSize());
+  }
+
+  @Test
+  public void testGet_Expires() throws Exception {
+    final NegativeResultCache cache = new NegativeResultCache();
+    cache.setTimeToLive("unsupported-text-language", 20L);
+    cache.put(key(1), failure("unsupported-text-language"));
+    Thread.sleep(40L);
+
+    assertNull(cache.get(key(1)));
+    assertEquals(1L, cache.getStats().getExpirations());
+    assertEquals(0L, cache.getStats().getSize());
+  }
+
+  @Test
+  public void testGetTimeToLive() {
+    final NegativeResultCache cache = new NegativeResultCache();
+    cache.setTimeToLive("cannot-retrieve:http-404", TimeUnit.HOURS.toMillis(1L));
+
+    assertEquals(NegativeResultCache.DEFAULT_TIME_TO_LIVE_MILLIS, cache.getTimeToLive("content-exceeds-size-limit"));
+    assertEquals(NegativeResultCache.DEFAULT_CANNOT_RETRIEVE_TIME_TO_LIVE_MILLIS, cache.getTimeToLive("cannot-retrieve:http-redirect"));
+    // the longest prefix wins
+    assertEquals(TimeUnit.HOURS.toMillis(1L), cache.getTimeToLive("cannot-retrieve:http-404"));
+    assertEquals(0L, cache.getTimeToLive("invalid-api-key"));
+    assertEquals(0L, cache.getTimeToLive(null));
+
+    cache.setTimeToLive("unsupported-text-language", 0L);
+    assertEquals(0L, cache.getTimeToLive("unsupported-text-language"));
+  }
+
+  @Test
+  public void testInvalidateAndClear() {
+    final NegativeResultCache cache = new NegativeResultCache();
+    cache.put(key(1), failure("unsupported-text-language"));
+    cache.put(key(2), failure("unsupported-text-language"));
+
+    cache.invalidate(key(1));
+    assertNull(cache.get(key(1)));
+    cache.clear();
+    assertNull(cache.get(key(2)));
+  }
+
+  @Test
+  public void testConstructor_RejectsNoEntries() {
+    try {
+      new NegativeResultCache(0);
+      fail("expected max entries to be rejected");
+    }
+    catch(IllegalArgumentException e) {
+      assertEquals("Max entries must be at least 1 [0].", e.getMessage());
+    }
+  }
+
+  private static PermanentCallException failure(final String statusInfo) {
+    return new PermanentCallException("Error making API call: " + statusInfo, statusInfo, 0);
+  }
+
+  private static CacheKey key(final int i) {
+    return new CacheKey("TextGetTitle", "text", "&text=" + i);
+  }
+}
@@ -0,0 +1,80 @@
+/**
+ * File: SimHasherTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimHasherTest {
+  static final String STORY = "Authorities say a pilot accused of faking his own death by parachuting from his plane was found"
+                              + " in a campground in Florida on Tuesday. The plane crashed in a swamp after flying on autopilot"
+                              + " for more than an hour. Investigators had been searching for him since Sunday, when fighter jets"
+                              + " followed the plane across three states. His business partners said he had been under pressure"
+                              + " from lawsuits and a failing investment company, and that he had talked about disappearing before.";
+
+  @Test
+  public void testFinish_IgnoresCaseAndPunctuation() {
+    assertEquals(fingerprint(STORY), fingerprint(STORY.toUpperCase().replace(".", " ;")));
+  }
+
+  @Test
+  public void testFinish_NearDuplicatesAreClose() {
+    final String byline = "By Staff Reporter, Associated Press. " + STORY + " Copyright 2016. All rights reserved.";
+
+    assertTrue(NearDuplicateIndex.getDistance(fingerprint(STORY), fingerprint(byline)) <= 8);
+  }
+
+  @Test
+  public void testFinish_OtherStoriesAreFar() {
+    final String other = "The city council voted on Monday to extend the hours of the public library and to fund two new"
+                         + " branches in the northern suburbs, where families have waited years for a place to study, borrow"
+                         + " books and use computers. The plan will be paid for with a small increase in the property tax.";
+
+    assertTrue(NearDuplicateIndex.getDistance(fingerprint(STORY), fingerprint(other)) > 15);
+  }
+
+  @Test
+  public void testFinish_SkipsMarkup() {
+    final long html = new SimHasher(true).update("<html><body class=\"story\"><p>" + STORY + "</p></body></html>").finish();
+
+    assertEquals(fingerprint(STORY), html);
+  }
+
+  @Test
+  public void testGetWords() {
+    final SimHasher hasher = new SimHasher(false).update("The quick, brown").update(" fox");
+    hasher.finish();
+
+    assertEquals(4, hasher.getWords());
+  }
+
+  @Test
+  public void testFinish_IsIncremental() {
+    final SimHasher hasher = new SimHasher(false);
+    for(int i = 0; i < STORY.length(); i += 13) {
+      hasher.update(STORY.substring(i, Math.min(i + 13, STORY.length())));
+    }
+
+    assertEquals(fingerprint(STORY), hasher.finish());
+  }
+
+  private static long fingerprint(final String text) {
+    return NearDuplicateIndex.getFingerprint(text, false);
+  }
+}
@@ -19,12 +19,17 @@ package com.likethecolor.alchemy.api.call;
 
 import com.likethecolor.alchemy.api.call.type.CallType;
 import com.likethecolor.alchemy.api.call.type.CallTypeUrl;
-import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.params.NamedEntityParams;
 import com.likethecolor.alchemy.api.params.Params;
 import com.likethecolor.alchemy.api.params.RelationParams;
+import com.likethecolor.alchemy.api.params.ResultSpec;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.json.AbstractParser;
+import com.likethecolor.alchemy.api.parser.json.HeaderParser;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class AbstractCallTest {
@@ -79,6 +84,58 @@ public class AbstractCallTest {
     assertTrue(actualParams.getClass().getName().endsWith(".RelationParams"));
   }
 
+  @Test
+  public void testTimeout() {
+    final MockCall call = new MockCall(null);
+
+    assertEquals(0L, call.getTimeout());
+    assertEquals(call, call.setTimeout(250L));
+    assertEquals(250L, call.getTimeout());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTimeout_Negative() {
+    new MockCall(null).setTimeout(-1L);
+  }
+
+  @Test
+  public void testProjection() {
+    final MockCall call = new MockCall(null);
+    final Projection projection = Projection.of(Projection.Facet.SENTIMENT);
+
+    assertEquals(Projection.ALL, call.getProjection());
+    assertEquals(call, call.setProjection(projection));
+    assertEquals(projection, call.getProjection());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testProjection_Null() {
+    new MockCall(null).setProjection(null);
+  }
+
+  @Test
+  public void testShape() {
+    final NamedEntityParams params = new NamedEntityParams();
+    params.setIsLinkedData(true);
+    final MockCall call = new MockCall(null, params);
+
+    assertEquals(call, call.shape(new ResultSpec().setMaxResults(10).include(Projection.Facet.SENTIMENT)));
+    assertEquals(Projection.of(Projection.Facet.SENTIMENT), call.getProjection());
+    assertEquals(10, params.getMaxRetrieve());
+    assertTrue(params.isSentiment());
+    assertFalse(params.isLinkedData());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShape_Null() {
+    new MockCall(null, new NamedEntityParams()).shape(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShape_UnsupportedParams() {
+    new MockCall(null, new Params()).shape(new ResultSpec());
+  }
+
   // have to extend it - it's abstract
   class MockCall extends AbstractCall {
     public MockCall(final CallType callType) {
@@ -95,8 +152,8 @@ public class AbstractCallTest {
     }
 
     @Override
-    public Response parse(String jsonString) {
-      return null;
+    protected AbstractParser getParser() {
+      return new HeaderParser();
     }
   }
 }
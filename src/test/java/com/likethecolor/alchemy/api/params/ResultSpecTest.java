@@ -0,0 +1,167 @@
+/**
+ * File: ResultSpecTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.params;
+
+import com.likethecolor.alchemy.api.Constants;
+import com.likethecolor.alchemy.api.parser.Projection;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResultSpecTest {
+  @Test
+  public void testDefaults() {
+    final ResultSpec spec = new ResultSpec();
+
+    assertEquals(Constants.DEFAULT_MAX_RETRIEVE, spec.getMaxResults());
+    assertFalse(spec.isShowSourceText());
+    assertEquals(Projection.CORE, spec.getProjection());
+  }
+
+  @Test
+  public void testInclude() {
+    final ResultSpec spec = new ResultSpec().include(Projection.Facet.SENTIMENT).include(Projection.Facet.QUOTATIONS);
+
+    assertTrue(spec.includes(Projection.Facet.SENTIMENT));
+    assertTrue(spec.includes(Projection.Facet.QUOTATIONS));
+    assertFalse(spec.includes(Projection.Facet.DISAMBIGUATED));
+    assertEquals(Projection.of(Projection.Facet.SENTIMENT, Projection.Facet.QUOTATIONS), spec.getProjection());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInclude_NullFacet() {
+    new ResultSpec().include(Projection.Facet.SENTIMENT, null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxResults_TooSmall() {
+    new ResultSpec().setMaxResults(Constants.MIN_MAX_RETRIEVE - 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxResults_TooLarge() {
+    new ResultSpec().setMaxResults(Constants.MAX_MAX_RETRIEVE + 1);
+  }
+
+  @Test
+  public void testShape_NamedEntityParams() {
+    final NamedEntityParams params = new NamedEntityParams();
+    params.setIsLinkedData(true);
+    params.setIsQuotations(true);
+    params.setXPath("//div");
+
+    new ResultSpec().setMaxResults(10).include(Projection.Facet.SENTIMENT).shape(params);
+
+    assertEquals(10, params.getMaxRetrieve());
+    assertTrue(params.isSentiment());
+    assertFalse(params.isQuotations());
+    assertFalse(params.isDisambiguate());
+    assertFalse(params.isLinkedData());
+    assertFalse(params.isShowSourceText());
+    // parameters outside the spec are left alone
+    assertEquals("//div", params.getXPath());
+
+    new ResultSpec().include(Projection.Facet.DISAMBIGUATED, Projection.Facet.QUOTATIONS).setIsShowSourceText(true).shape(params);
+
+    assertFalse(params.isSentiment());
+    assertTrue(params.isQuotations());
+    assertTrue(params.isDisambiguate());
+    assertTrue(params.isLinkedData());
+    assertTrue(params.isShowSourceText());
+  }
+
+  @Test
+  public void testShape_RelationParams() {
+    final RelationParams params = new RelationParams();
+
+    new ResultSpec().include(Projection.Facet.DISAMBIGUATED).shape(params);
+
+    // the disambiguation comes with the entity only
+    assertFalse(params.isEntities());
+    assertFalse(params.isDisambiguate());
+    assertFalse(params.isLinkedData());
+    assertFalse(params.isSentiment());
+
+    new ResultSpec().setMaxResults(5).include(Projection.Facet.ENTITY, Projection.Facet.DISAMBIGUATED, Projection.Facet.SENTIMENT).shape(params);
+
+    assertEquals(5, params.getMaxRetrieve());
+    assertTrue(params.isEntities());
+    assertTrue(params.isDisambiguate());
+    assertTrue(params.isLinkedData());
+    assertTrue(params.isSentiment());
+  }
+
+  @Test
+  public void testShape_KeywordParams() {
+    final KeywordParams params = new KeywordParams();
+    params.setIsShowSentiment(true);
+
+    new ResultSpec().setMaxResults(20).shape(params);
+
+    assertEquals(20, params.getMaxRetrieve());
+    assertFalse(params.isShowSentiment());
+
+    new ResultSpec().include(Projection.Facet.SENTIMENT).shape(params);
+
+    assertTrue(params.isShowSentiment());
+  }
+
+  @Test
+  public void testShape_ConceptParams() {
+    final ConceptParams params = new ConceptParams();
+    params.setIsLinkedData(true);
+
+    new ResultSpec().setMaxResults(3).shape(params);
+
+    assertEquals(3, params.getMaxRetrieve());
+    assertFalse(params.isLinkedData());
+
+    new ResultSpec().include(Projection.Facet.DISAMBIGUATED).shape(params);
+
+    assertTrue(params.isLinkedData());
+  }
+
+  @Test
+  public void testShape_SmallestRequest() {
+    final NamedEntityParams params = new NamedEntityParams();
+    params.setIsSentiment(true);
+    params.setIsQuotations(true);
+    params.setIsDisambiguate(true);
+    params.setIsLinkedData(true);
+
+    new ResultSpec().setMaxResults(10).shape(params);
+
+    final String options = params.toOptionsString();
+    assertTrue(options.contains("&" + Constants.PARAM_MAX_RETRIEVE + "=10"));
+    assertTrue(options.contains("&" + Constants.PARAM_SHOW_SENTIMENT + "=0"));
+    assertTrue(options.contains("&" + Constants.PARAM_QUOTATION + "=0"));
+    assertTrue(options.contains("&" + Constants.PARAM_DISAMBIGUATE + "=0"));
+    assertTrue(options.contains("&" + Constants.PARAM_LINKED_DATA + "=0"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShape_UnsupportedParams() {
+    new ResultSpec().shape(new TaxonomyParams());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testShape_NullParams() {
+    new ResultSpec().shape(null);
+  }
+}
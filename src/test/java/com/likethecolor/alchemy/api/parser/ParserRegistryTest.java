@@ -0,0 +1,126 @@
+/**
+ * File: ParserRegistryTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.parser;
+
+import com.likethecolor.alchemy.api.Constants;
+import com.likethecolor.alchemy.api.call.TitleCall;
+import com.likethecolor.alchemy.api.call.type.CallTypeUrl;
+import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.entity.TitleAlchemyEntity;
+import com.likethecolor.alchemy.api.parser.json.AbstractParser;
+import com.likethecolor.alchemy.api.parser.json.HeaderParser;
+import com.likethecolor.alchemy.api.parser.json.NamedEntityParser;
+import com.likethecolor.alchemy.api.parser.json.TitleParser;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ParserRegistryTest {
+  @Test
+  public void testGetParser() {
+    final ParserRegistry registry = ParserRegistry.getInstance();
+
+    assertTrue(registry.getParser(Constants.CALL_NAME_TITLE) instanceof TitleParser);
+    assertTrue(registry.getParser(Constants.CALL_NAME_RANKED_NAMED_ENTITIES) instanceof NamedEntityParser);
+    assertSame(registry.getParser(Constants.CALL_NAME_SENTIMENT), registry.getParser(Constants.CALL_NAME_TARGETED_SENTIMENT));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetParser_NotRegistered() {
+    ParserRegistry.getInstance().getParser("GetNothing");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testGetParser_Null() {
+    ParserRegistry.getInstance().getParser(null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRegister_NullParser() {
+    ParserRegistry.getInstance().register("GetNothing", null);
+  }
+
+  @Test
+  public void testRegister() {
+    final ParserRegistry registry = ParserRegistry.getInstance();
+    final HeaderParser parser = new HeaderParser();
+
+    registry.register("GetCustom", parser);
+
+    assertSame(parser, registry.getParser("GetCustom"));
+  }
+
+  @Test
+  public void testCallsShareParser() {
+    final CallTypeUrl callType = new CallTypeUrl("http://www.cnn.com/");
+
+    assertSame(new MockTitleCall(callType).getParser(), new MockTitleCall(callType).getParser());
+    assertSame(ParserRegistry.getInstance().getParser(Constants.CALL_NAME_TITLE), new MockTitleCall(callType).getParser());
+  }
+
+  @Test
+  public void testSharedParserOnManyThreads() throws Exception {
+    @SuppressWarnings("unchecked")
+    final AbstractParser<TitleAlchemyEntity> parser =
+        (AbstractParser<TitleAlchemyEntity>) ParserRegistry.getInstance().getParser(Constants.CALL_NAME_TITLE);
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+      for(int i = 0; i < 400; i++) {
+        final String title = "title " + i;
+        final String json = "{\"status\": \"OK\", \"url\": \"http://www.cnn.com/" + i + "\", \"title\": \"" + title + "\"}";
+        final boolean isStreaming = i % 2 == 0;
+        results.add(executor.submit(new Callable<Boolean>() {
+          public Boolean call() throws IOException {
+            final Response<TitleAlchemyEntity> response = isStreaming ? parser.parseStream(new StringReader(json))
+                                                                      : parser.parse(json);
+            return title.equals(response.iterator().next().getTitle());
+          }
+        }));
+      }
+      for(Future<Boolean> result : results) {
+        assertEquals(Boolean.TRUE, result.get());
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  // getParser is protected
+  private static class MockTitleCall extends TitleCall {
+    MockTitleCall(final CallTypeUrl callType) {
+      super(callType);
+    }
+
+    @Override
+    protected AbstractParser<TitleAlchemyEntity> getParser() {
+      return super.getParser();
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/**
+ * File: ProjectionTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.parser;
+
+import org.junit.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProjectionTest {
+  @Test
+  public void testAll() {
+    for(Projection.Facet facet : Projection.Facet.values()) {
+      assertTrue(Projection.ALL.includes(facet));
+    }
+    assertEquals(EnumSet.allOf(Projection.Facet.class), Projection.ALL.getFacets());
+  }
+
+  @Test
+  public void testCore() {
+    for(Projection.Facet facet : Projection.Facet.values()) {
+      assertFalse(Projection.CORE.includes(facet));
+    }
+    assertTrue(Projection.CORE.getFacets().isEmpty());
+    assertEquals(Projection.CORE, Projection.of());
+  }
+
+  @Test
+  public void testOf() {
+    final Projection projection = Projection.of(Projection.Facet.SENTIMENT, Projection.Facet.QUOTATIONS, Projection.Facet.SENTIMENT);
+
+    assertTrue(projection.includes(Projection.Facet.SENTIMENT));
+    assertTrue(projection.includes(Projection.Facet.QUOTATIONS));
+    assertFalse(projection.includes(Projection.Facet.DISAMBIGUATED));
+    assertFalse(projection.includes(Projection.Facet.ENTITY));
+    assertEquals(2, projection.getFacets().size());
+  }
+
+  @Test
+  public void testOf_AllFacets() {
+    assertEquals(Projection.ALL, Projection.of(Projection.Facet.values()));
+    assertEquals(Projection.ALL.hashCode(), Projection.of(Projection.Facet.values()).hashCode());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOf_NullFacets() {
+    Projection.of((Projection.Facet[]) null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOf_NullFacet() {
+    Projection.of(Projection.Facet.SENTIMENT, null);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testGetFacets_Unmodifiable() {
+    Projection.CORE.getFacets().add(Projection.Facet.ENTITY);
+  }
+
+  @Test
+  public void testEquals() {
+    final Projection projection = Projection.of(Projection.Facet.ENTITY);
+
+    assertTrue(projection.equals(Projection.of(Projection.Facet.ENTITY)));
+    assertFalse(projection.equals(Projection.CORE));
+    assertFalse(projection.equals(Projection.ALL));
+    assertFalse(projection.equals(null));
+  }
+}
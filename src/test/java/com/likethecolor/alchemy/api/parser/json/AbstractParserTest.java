@@ -18,11 +18,16 @@
 package com.likethecolor.alchemy.api.parser.json;
 
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -503,6 +508,73 @@ public class AbstractParserTest {
     assertFalse(parser.hasKey(LONG_KEY + "FOO_BAR", null));
   }
 
+  @Test
+  public void testParseStream() throws IOException {
+    final AbstractParser parser = new MockAbstractParser();
+
+    final Response actualResponse = parser.parseStream(new StringReader(getJsonString()));
+
+    assertEquals(parser.parse(getJsonString()), actualResponse);
+    assertEquals(LANGUAGE, actualResponse.getLanguage());
+    assertEquals(STATUS, actualResponse.getStatus());
+    assertEquals(STATUS_INFO, actualResponse.getStatusInfo());
+    assertEquals(TEXT, actualResponse.getText());
+    assertEquals(URL, actualResponse.getURL());
+    assertEquals(USAGE, actualResponse.getUsage());
+  }
+
+  @Test
+  public void testParseStream_NoStatus() throws IOException {
+    final AbstractParser parser = new MockAbstractParser();
+
+    final Response actualResponse = parser.parseStream(new StringReader(getJsonString_NoStatus()));
+
+    assertEquals(Response.STATUS.UNSET, actualResponse.getStatus());
+    assertNull(actualResponse.getStatusInfo());
+    assertEquals(TEXT, actualResponse.getText());
+  }
+
+  @Test
+  public void testNextValues() throws IOException, JSONException {
+    final AbstractParser parser = new MockAbstractParser();
+    final JSONObject jsonObject = new JSONObject(getJsonString());
+
+    for(String key : new String[]{BOOLEAN_KEY, DOUBLE_KEY, INTEGER_KEY, LONG_KEY, STRING_KEY, OBJECT_KEY, MAP_KEY}) {
+      assertEquals(key, parser.getBoolean(key, jsonObject), parser.nextBoolean(key, positionAt(getJsonString(), key)));
+      assertEquals(key, parser.getDouble(key, jsonObject), parser.nextDouble(key, positionAt(getJsonString(), key)));
+      assertEquals(key, parser.getInteger(key, jsonObject), parser.nextInteger(key, positionAt(getJsonString(), key)));
+      assertEquals(key, parser.getLong(key, jsonObject), parser.nextLong(key, positionAt(getJsonString(), key)));
+      assertEquals(key, parser.getString(key, jsonObject), parser.nextString(key, positionAt(getJsonString(), key)));
+    }
+  }
+
+  @Test
+  public void testNextBoolean_ValueIsNotStandardBoolean() throws IOException {
+    final AbstractParser parser = new MockAbstractParser();
+
+    assertTrue(parser.nextBoolean(BOOLEAN_KEY, positionAt(getJsonString_BooleanIsNonStandard(), BOOLEAN_KEY)));
+  }
+
+  @Test
+  public void testNextDouble_NumericString() throws IOException {
+    final AbstractParser parser = new MockAbstractParser();
+
+    assertEquals(DOUBLE, parser.nextDouble(DOUBLE_KEY, positionAt("{\"" + DOUBLE_KEY + "\": \"" + DOUBLE + "\"}", DOUBLE_KEY)));
+    assertEquals(INTEGER, parser.nextInteger(INTEGER_KEY, positionAt("{\"" + INTEGER_KEY + "\": \"" + INTEGER + "\"}", INTEGER_KEY)));
+  }
+
+  @Test
+  public void testBeginObject_ValueIsNotAnObject() throws IOException {
+    final AbstractParser parser = new MockAbstractParser();
+    final JsonPullParser pullParser = positionAt(getJsonString(), STRING_KEY);
+
+    assertFalse(parser.beginObject(STRING_KEY, pullParser));
+    assertEquals(OBJECT_KEY, pullParser.nextName());
+    assertTrue(parser.beginObject(OBJECT_KEY, pullParser));
+    assertEquals(OBJECT_TEXT_KEY, pullParser.nextName());
+    assertEquals(OBJECT_TEXT_VALUE, parser.nextString(OBJECT_TEXT_KEY, pullParser));
+  }
+
   private String getJsonString() {
     return "{\"" + JSONConstants.RESULTS_STATUS + "\":\"" + STATUS_STRING + "\"," +
            "\"" + JSONConstants.RESULTS_STATUS_INFO + "\": \"" + STATUS_INFO + "\"," +
@@ -600,9 +672,21 @@ public class AbstractParserTest {
            "\"" + JSONConstants.RESULTS_TEXT + "\": \"" + TEXT + "\"}";
   }
 
+  /**
+   * @return parser positioned before the value of the given top level key
+   */
+  private JsonPullParser positionAt(final String json, final String key) throws IOException {
+    final JsonPullParser parser = new JsonPullParser(json);
+    parser.beginObject();
+    while(!key.equals(parser.nextName())) {
+      parser.skipValue();
+    }
+    return parser;
+  }
+
   class MockAbstractParser extends AbstractParser {
     @Override
-    protected void populateResponse(final Response response) {
+    protected void populateResponse(final JSONObject jsonObject, final Response response, final Projection projection) {
     }
   }
 }
@@ -21,6 +21,9 @@ import com.likethecolor.alchemy.api.entity.AuthorAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+
 import static org.junit.Assert.assertEquals;
 
 public class AuthorParserTest {
@@ -67,6 +70,15 @@ public class AuthorParserTest {
     assertEquals(0, response.size());
   }
 
+  @Test
+  public void testParseStream() throws IOException {
+    final AuthorParser parser = new AuthorParser();
+    final Response<AuthorAlchemyEntity> expected = parser.parse(getJsonString());
+    final Response<AuthorAlchemyEntity> actual = parser.parseStream(new StringReader(getJsonString()));
+
+    assertEquals(expected, actual);
+  }
+
   private String getJsonString() {
     return "{" +
            "\"" + JSONConstants.RESULTS_STATUS + "\":\"" + STATUS_STRING + "\"," +
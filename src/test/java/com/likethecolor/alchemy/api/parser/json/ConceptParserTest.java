@@ -20,8 +20,11 @@ package com.likethecolor.alchemy.api.parser.json;
 import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.entity.ConceptAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
+import com.likethecolor.alchemy.api.parser.Projection;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Iterator;
 
 import static org.junit.Assert.assertEquals;
@@ -173,9 +176,35 @@ public class ConceptParserTest {
     assertEquals(0, response.size());
   }
 
+  @Test
+  public void testParseStream() throws IOException {
+    final ConceptParser parser = new ConceptParser();
+    final Response<ConceptAlchemyEntity> expected = parser.parse(getJsonString());
+    final Response<ConceptAlchemyEntity> actual = parser.parseStream(new StringReader(getJsonString()));
+
+    assertEquals(expected, actual);
+  }
+
   /**
    * Has both concept and score.
    */
+  @Test
+  public void testParse_ProjectionCore() throws IOException {
+    final ConceptParser parser = new ConceptParser();
+    final Response<ConceptAlchemyEntity> response = parser.parse(getJsonString(), Projection.CORE);
+
+    assertEquals(response, parser.parseStream(new StringReader(getJsonString()), Projection.CORE));
+    assertEquals(3, response.size());
+
+    final Iterator<ConceptAlchemyEntity> iter = response.iterator();
+    iter.next();
+    final ConceptAlchemyEntity entity = iter.next();
+    assertEquals(ENTITY1_CONCEPT, entity.getConcept());
+    assertEquals(ENTITY1_SCORE, entity.getScore());
+    assertNull(entity.getDBPedia());
+    assertNull(entity.getFreebase());
+  }
+
   private String getJsonString() {
     return "{\"" + JSONConstants.RESULTS_STATUS + "\":\"" + STATUS_STRING + "\"," +
            "\"" + JSONConstants.RESULTS_USAGE + "\": \"" + USAGE + "\"," +
@@ -18,9 +18,11 @@
 package com.likethecolor.alchemy.api.parser.json;
 
 import com.likethecolor.alchemy.api.entity.DisambiguatedAlchemyEntity;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.json.JSONObject;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.Iterator;
 
 import static org.junit.Assert.assertEquals;
@@ -51,9 +53,7 @@ public class DisambiguatedParserTest {
   @Test
   public void testGetEntity() {
     final DisambiguatedEntityParser parser = new DisambiguatedEntityParser();
-    parser.parse(getJsonString());
-
-    final JSONObject jsonObject = parser.getJSONObject();
+    final JSONObject jsonObject = parser.getJSONObject(getJsonString());
 
     DisambiguatedAlchemyEntity entity = parser.getEntity(jsonObject);
 
@@ -82,6 +82,21 @@ public class DisambiguatedParserTest {
     assertEquals(SUBTYPE4, subtypes.next());
   }
 
+  @Test
+  public void testGetEntity_Stream() throws IOException {
+    final DisambiguatedEntityParser parser = new DisambiguatedEntityParser();
+    final DisambiguatedAlchemyEntity expected = parser.getEntity(parser.getJSONObject(getJsonString()));
+
+    final JsonPullParser pullParser = new JsonPullParser("{\"disambiguated\": " + getJsonString() + "}");
+    pullParser.beginObject();
+    final DisambiguatedAlchemyEntity actual = parser.getEntity(pullParser.nextName(), pullParser);
+    pullParser.endObject();
+
+    assertEquals(expected, actual);
+    assertEquals(LATITUDE, actual.getLatitude());
+    assertEquals(5, actual.getSubtypeSize());
+  }
+
   /**
    * Has both concept and score.
    */
@@ -21,8 +21,11 @@ import com.likethecolor.alchemy.api.Constants;
 import com.likethecolor.alchemy.api.entity.KeywordAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.entity.SentimentAlchemyEntity;
+import com.likethecolor.alchemy.api.parser.Projection;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Iterator;
 
 import static org.junit.Assert.assertEquals;
@@ -180,9 +183,37 @@ public class KeywordParserTest {
     assertEquals(0, response.size());
   }
 
+  @Test
+  public void testParseStream() throws IOException {
+    final KeywordParser parser = new KeywordParser();
+    final Response<KeywordAlchemyEntity> expected = parser.parse(getJsonString());
+    final Response<KeywordAlchemyEntity> actual = parser.parseStream(new StringReader(getJsonString()));
+
+    assertEquals(expected, actual);
+  }
+
   /**
    * JSON with keywords.
    */
+  @Test
+  public void testParse_ProjectionCore() throws IOException {
+    final KeywordParser parser = new KeywordParser();
+    final Response<KeywordAlchemyEntity> response = parser.parse(getJsonString(), Projection.CORE);
+
+    assertEquals(response, parser.parseStream(new StringReader(getJsonString()), Projection.CORE));
+    assertEquals(4, response.size());
+
+    final Iterator<KeywordAlchemyEntity> iter = response.iterator();
+    KeywordAlchemyEntity entity = iter.next();
+    assertEquals(ENTITY0_KEYWORD, entity.getKeyword());
+    assertEquals(ENTITY0_SCORE, entity.getScore());
+    assertNull(entity.getSentiment());
+
+    entity = iter.next();
+    assertEquals(ENTITY1_KEYWORD, entity.getKeyword());
+    assertNull(entity.getSentiment());
+  }
+
   private String getJsonString() {
     return "{\"" + JSONConstants.RESULTS_STATUS + "\":\"" + STATUS_STRING + "\"," +
            "\"" + JSONConstants.RESULTS_USAGE + "\": \"" + USAGE + "\"," +
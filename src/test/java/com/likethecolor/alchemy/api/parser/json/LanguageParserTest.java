@@ -21,6 +21,8 @@ import com.likethecolor.alchemy.api.entity.LanguageAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Iterator;
 
 import static org.junit.Assert.*;
@@ -68,6 +70,15 @@ public class LanguageParserTest {
     assertEquals(0, response.size());
   }
 
+  @Test
+  public void testParseStream() throws IOException {
+    final LanguageParser parser = new LanguageParser();
+    final Response<LanguageAlchemyEntity> expected = parser.parse(getJsonString());
+    final Response<LanguageAlchemyEntity> actual = parser.parseStream(new StringReader(getJsonString()));
+
+    assertEquals(expected, actual);
+  }
+
   private String getJsonString() {
     return "{"
            + "status: \"" + STATUS_STRING + "\","
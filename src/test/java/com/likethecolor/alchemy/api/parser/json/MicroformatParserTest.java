@@ -21,6 +21,8 @@ import com.likethecolor.alchemy.api.entity.MicroformatAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Iterator;
 
 import static org.junit.Assert.*;
@@ -79,6 +81,15 @@ public class MicroformatParserTest {
     assertEquals(0, response.size());
   }
 
+  @Test
+  public void testParseStream() throws IOException {
+    final MicroformatParser parser = new MicroformatParser();
+    final Response<MicroformatAlchemyEntity> expected = parser.parse(getJsonString());
+    final Response<MicroformatAlchemyEntity> actual = parser.parseStream(new StringReader(getJsonString()));
+
+    assertEquals(expected, actual);
+  }
+
   /**
    * Has both category and score.
    */
@@ -22,9 +22,15 @@ import com.likethecolor.alchemy.api.entity.NamedEntityAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.QuotationAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.entity.SentimentAlchemyEntity;
+import com.likethecolor.alchemy.api.parser.Projection;
+import com.likethecolor.alchemy.api.parser.stream.JsonPullParser;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -202,6 +208,94 @@ public class NamedEntityParserTest {
     assertEquals(0, response.size());
   }
 
+  @Test
+  public void testParseStream() throws IOException {
+    final NamedEntityParser parser = new NamedEntityParser();
+    final Response<NamedEntityAlchemyEntity> expected = parser.parse(getJsonString());
+    final Response<NamedEntityAlchemyEntity> actual = parser.parseStream(new StringReader(getJsonString()));
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testParseStream_IntoResponse() throws IOException {
+    final List<String> texts = new ArrayList<String>();
+    final Response<NamedEntityAlchemyEntity> response = new Response<NamedEntityAlchemyEntity>() {
+      @Override
+      public void addEntity(final NamedEntityAlchemyEntity entity) {
+        texts.add(entity.getText());
+      }
+    };
+
+    new NamedEntityParser().parseStream(new JsonPullParser(getJsonString()), Projection.ALL, response);
+
+    assertEquals(3, texts.size());
+    assertEquals("Romney", texts.get(0));
+    assertEquals("Mitt Romney", texts.get(1));
+    assertEquals("Nolan Finley", texts.get(2));
+    assertEquals(Response.STATUS.OK, response.getStatus());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseStream_NullResponse() throws IOException {
+    new NamedEntityParser().parseStream(new JsonPullParser(getJsonString()), Projection.ALL, null);
+  }
+
+  @Test
+  public void testParse_ProjectionCore() throws IOException {
+    final NamedEntityParser parser = new NamedEntityParser();
+    final Response<NamedEntityAlchemyEntity> response = parser.parse(getJsonString(), Projection.CORE);
+
+    assertEquals(response, parser.parseStream(new StringReader(getJsonString()), Projection.CORE));
+    assertEquals(3, response.size());
+
+    final Iterator<NamedEntityAlchemyEntity> iter = response.iterator();
+    NamedEntityAlchemyEntity entity = iter.next();
+    assertEquals("Romney", entity.getText());
+    assertEquals(ENTITY0_SCORE, entity.getScore());
+    assertNull(entity.getSentiment());
+
+    entity = iter.next();
+    assertEquals("Mitt Romney", entity.getText());
+    assertEquals(ENTITY1_SCORE, entity.getScore());
+    assertEquals("Person", entity.getType());
+    assertEquals(7, entity.getCount());
+    assertNull(entity.getSentiment());
+    assertNull(entity.getName());
+    assertNull(entity.getDBPedia());
+    assertEquals(0, entity.getSubtypeSize());
+
+    entity = iter.next();
+    assertEquals("Nolan Finley", entity.getText());
+    assertNull(entity.getSentiment());
+    assertEquals(0, entity.getQuotationCount());
+  }
+
+  @Test
+  public void testParse_ProjectionFacets() throws IOException {
+    final NamedEntityParser parser = new NamedEntityParser();
+    final Projection projection = Projection.of(Projection.Facet.SENTIMENT, Projection.Facet.QUOTATIONS);
+    final Response<NamedEntityAlchemyEntity> response = parser.parse(getJsonString(), projection);
+
+    assertEquals(response, parser.parseStream(new StringReader(getJsonString()), projection));
+
+    final Iterator<NamedEntityAlchemyEntity> iter = response.iterator();
+    iter.next();
+    NamedEntityAlchemyEntity entity = iter.next();
+    assertEquals(new SentimentAlchemyEntity(false, 0.493509D, SentimentAlchemyEntity.TYPE.POSITIVE.toString()), entity.getSentiment());
+    assertNull(entity.getName());
+    assertEquals(0, entity.getSubtypeSize());
+
+    entity = iter.next();
+    assertEquals(4, entity.getQuotationCount());
+    assertEquals(ENTITY2_QUOTATION0, entity.quotationIterator().next().getQuotation());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParse_NullProjection() {
+    new NamedEntityParser().parse(getJsonString(), null);
+  }
+
   private String getJsonString() {
     return "{"
            + "\"status\":\"OK\","
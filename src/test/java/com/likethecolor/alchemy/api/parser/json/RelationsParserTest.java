@@ -26,8 +26,11 @@ import com.likethecolor.alchemy.api.entity.AlchemyVerb;
 import com.likethecolor.alchemy.api.entity.RelationAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.entity.SentimentAlchemyEntity;
+import com.likethecolor.alchemy.api.parser.Projection;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Iterator;
 
 import static org.junit.Assert.assertEquals;
@@ -169,6 +172,54 @@ public class RelationsParserTest {
     assertEquals(0, response.size());
   }
 
+  @Test
+  public void testParseStream() throws IOException {
+    final RelationsParser parser = new RelationsParser();
+    final Response<RelationAlchemyEntity> expected = parser.parse(getJson());
+    final Response<RelationAlchemyEntity> actual = parser.parseStream(new StringReader(getJson()));
+
+    assertEquals(expected, actual);
+  }
+
+  @Test
+  public void testParse_ProjectionCore() throws IOException {
+    final RelationsParser parser = new RelationsParser();
+    final Response<RelationAlchemyEntity> response = parser.parse(getJson(), Projection.CORE);
+
+    assertEquals(response, parser.parseStream(new StringReader(getJson()), Projection.CORE));
+    assertEquals(2, response.size());
+
+    final Iterator<RelationAlchemyEntity> iter = response.iterator();
+    RelationAlchemyEntity relationAlchemyEntity = iter.next();
+    AlchemySubject subject = relationAlchemyEntity.getSubject();
+    assertEquals("CNN", subject.getText());
+    assertNull(subject.getSentiment());
+    assertNull(subject.getEntity());
+    assertEquals("has been found", relationAlchemyEntity.getAction().getText());
+
+    relationAlchemyEntity = iter.next();
+    final AlchemyObject object = relationAlchemyEntity.getObject();
+    assertEquals("to a hospital", object.getText());
+    assertNull(object.getSentiment());
+    assertNull(object.getSentimentFromSubject());
+  }
+
+  @Test
+  public void testParse_ProjectionEntity() throws IOException {
+    final RelationsParser parser = new RelationsParser();
+    final Projection projection = Projection.of(Projection.Facet.ENTITY);
+    final Response<RelationAlchemyEntity> response = parser.parse(getJson(), projection);
+
+    assertEquals(response, parser.parseStream(new StringReader(getJson()), projection));
+
+    final AlchemySubject subject = response.iterator().next().getSubject();
+    assertNull(subject.getSentiment());
+    final AlchemyEntity entity = subject.getEntity();
+    assertEquals("CNN", entity.getText());
+    assertEquals("Company", entity.getType());
+    assertNull(entity.getCensus());
+  }
+
   private String getJson() {
     return "{\""
            + JSONConstants.RESULTS_STATUS + "\":\"" + STATUS_STRING + "\","
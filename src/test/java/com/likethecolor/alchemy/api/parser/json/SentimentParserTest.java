@@ -22,6 +22,8 @@ import com.likethecolor.alchemy.api.entity.Response;
 import com.likethecolor.alchemy.api.entity.SentimentAlchemyEntity;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Iterator;
 
 import static org.junit.Assert.assertEquals;
@@ -51,6 +53,15 @@ public class SentimentParserTest {
     assertEquals(TYPE, entity.getType());
   }
 
+  @Test
+  public void testParseStream() throws IOException {
+    final SentimentParser parser = new SentimentParser();
+    final Response<SentimentAlchemyEntity> expected = parser.parse(getJsonString());
+    final Response<SentimentAlchemyEntity> actual = parser.parseStream(new StringReader(getJsonString()));
+
+    assertEquals(expected, actual);
+  }
+
   private String getJsonString() {
     return "{" +
            "\"" + JSONConstants.RESULTS_STATUS + "\":\"" + STATUS_STRING + "\"," +
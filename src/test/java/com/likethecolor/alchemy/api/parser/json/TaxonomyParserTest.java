@@ -22,6 +22,8 @@ import com.likethecolor.alchemy.api.entity.TaxonomyAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Iterator;
 
 import static org.junit.Assert.assertEquals;
@@ -114,6 +116,15 @@ public class TaxonomyParserTest {
     assertEquals(0, response.size());
   }
 
+  @Test
+  public void testParseStream() throws IOException {
+    final TaxonomyParser parser = new TaxonomyParser();
+    final Response<TaxonomyAlchemyEntity> expected = parser.parse(getJsonString());
+    final Response<TaxonomyAlchemyEntity> actual = parser.parseStream(new StringReader(getJsonString()));
+
+    assertEquals(expected, actual);
+  }
+
   /**
    * Has confidence, label, and score.
    */
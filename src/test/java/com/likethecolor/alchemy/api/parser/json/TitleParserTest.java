@@ -21,6 +21,8 @@ import com.likethecolor.alchemy.api.entity.TitleAlchemyEntity;
 import com.likethecolor.alchemy.api.entity.Response;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.Iterator;
 
 import static org.junit.Assert.assertEquals;
@@ -54,6 +56,15 @@ public class TitleParserTest {
     assertEquals(0, response.size());
   }
 
+  @Test
+  public void testParseStream() throws IOException {
+    final TitleParser parser = new TitleParser();
+    final Response<TitleAlchemyEntity> expected = parser.parse(getJsonString());
+    final Response<TitleAlchemyEntity> actual = parser.parseStream(new StringReader(getJsonString()));
+
+    assertEquals(expected, actual);
+  }
+
   private String getJsonString() {
     return "{" +
            "\"" + JSONConstants.RESULTS_STATUS + "\":\"" + STATUS_STRING + "\"," +
@@ -0,0 +1,242 @@
+/**
+ * File: JsonPullParserTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.parser.stream;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonPullParserTest {
+  @Test
+  public void testNavigation() throws IOException {
+    final JsonPullParser parser = new JsonPullParser("{\"a\": \"x\", \"b\": [1, 2.5, true, null], \"c\": {\"d\": 3000000000}}");
+
+    assertEquals(JsonToken.OBJECT, parser.peek());
+    parser.beginObject();
+    assertTrue(parser.hasNext());
+    assertEquals("a", parser.nextName());
+    assertEquals(JsonToken.STRING, parser.peek());
+    assertEquals("x", parser.nextScalar());
+
+    assertEquals("b", parser.nextName());
+    assertEquals(JsonToken.ARRAY, parser.peek());
+    parser.beginArray();
+    assertTrue(parser.hasNext());
+    assertEquals(Integer.valueOf(1), parser.nextScalar());
+    assertTrue(parser.hasNext());
+    assertEquals(Double.valueOf(2.5D), parser.nextScalar());
+    assertTrue(parser.hasNext());
+    assertEquals(Boolean.TRUE, parser.nextScalar());
+    assertTrue(parser.hasNext());
+    assertSame(JsonPullParser.NULL, parser.nextScalar());
+    assertFalse(parser.hasNext());
+    parser.endArray();
+
+    assertEquals("c", parser.nextName());
+    parser.beginObject();
+    assertEquals("d", parser.nextName());
+    assertEquals(Long.valueOf(3000000000L), parser.nextScalar());
+    parser.endObject();
+
+    assertFalse(parser.hasNext());
+    parser.endObject();
+  }
+
+  @Test
+  public void testEndObject_SkipsRemainingMembers() throws IOException {
+    final JsonPullParser parser = new JsonPullParser("{\"a\": {\"b\": [1, {\"c\": \"}\"}], \"d\": 2}, \"e\": 3}");
+
+    parser.beginObject();
+    assertEquals("a", parser.nextName());
+    parser.beginObject();
+    assertEquals("b", parser.nextName());
+    parser.skipValue();
+    parser.endObject();
+    assertEquals("e", parser.nextName());
+    assertEquals(Integer.valueOf(3), parser.nextScalar());
+    parser.endObject();
+  }
+
+  @Test
+  public void testToValue() {
+    final String[] values = {"true", "TRUE", "False", "null", "NULL", "0", "-0", "17", "-17", "0x1F", "017", "08",
+                             "2147483647", "2147483648", "-2147483649", "9223372036854775808", "1.5", "-1.5e3", "1E2",
+                             ".5", "-", "+1", "abc", "1a", "0x", "0xZZ", "NaN", "Infinity", "1.2.3", ""};
+    for(String value : values) {
+      final Object expected = JSONObject.stringToValue(value);
+      final Object actual = JsonPullParser.toValue(value);
+      if(expected == JSONObject.NULL) {
+        assertSame(value, JsonPullParser.NULL, actual);
+      }
+      else {
+        assertEquals(value, expected, actual);
+        assertEquals(value, expected.getClass(), actual.getClass());
+      }
+    }
+  }
+
+  @Test
+  public void testStrings() throws IOException {
+    final JsonPullParser parser = new JsonPullParser("['a\\\"b', \"c\\u00e9\\n\\t\\/\", 'd\\'e', unquoted word]");
+
+    parser.beginArray();
+    assertTrue(parser.hasNext());
+    assertEquals("a\"b", parser.nextScalar());
+    assertTrue(parser.hasNext());
+    assertEquals("c\u00e9\n\t/", parser.nextScalar());
+    assertTrue(parser.hasNext());
+    assertEquals("d'e", parser.nextScalar());
+    assertTrue(parser.hasNext());
+    assertEquals("unquoted word", parser.nextScalar());
+    parser.endArray();
+  }
+
+  @Test
+  public void testLenientSyntax() throws IOException {
+    final JsonPullParser parser = new JsonPullParser("{a = 1; 'b' => [2, , 3,]; c: ('x'),} trailing");
+
+    parser.beginObject();
+    assertEquals("a", parser.nextName());
+    assertEquals(Integer.valueOf(1), parser.nextScalar());
+    assertEquals("b", parser.nextName());
+    parser.beginArray();
+    assertTrue(parser.hasNext());
+    assertEquals(Integer.valueOf(2), parser.nextScalar());
+    assertTrue(parser.hasNext());
+    assertEquals(JsonToken.ABSENT, parser.peek());
+    assertNull(parser.nextScalar());
+    assertTrue(parser.hasNext());
+    assertEquals(Integer.valueOf(3), parser.nextScalar());
+    assertFalse(parser.hasNext());
+    parser.endArray();
+    assertEquals("c", parser.nextName());
+    parser.beginArray();
+    assertTrue(parser.hasNext());
+    assertEquals("x", parser.nextScalar());
+    assertFalse(parser.hasNext());
+    parser.endArray();
+    assertFalse(parser.hasNext());
+    parser.endObject();
+  }
+
+  @Test
+  public void testNextJson() throws IOException, JSONException {
+    final String json = "{'b': [1, 'two', {x: null}], \"a\": {\"c\": true}}";
+    final JsonPullParser parser = new JsonPullParser(json);
+
+    final String actual = parser.nextJson();
+
+    assertEquals("{\"b\":[1,\"two\",{\"x\":null}],\"a\":{\"c\":true}}", actual);
+    assertEquals(new JSONObject(json).toString(), new JSONObject(actual).toString());
+  }
+
+  @Test
+  public void testNextJson_Array() throws IOException, JSONException {
+    final String json = "[\"a\\\"\", , 2]";
+    final JsonPullParser parser = new JsonPullParser(json);
+
+    assertEquals(new JSONArray(json).toString(), new JSONArray(parser.nextJson()).toString());
+  }
+
+  @Test
+  public void testReader_LongerThanBuffer() throws IOException {
+    final StringBuilder text = new StringBuilder();
+    for(int i = 0; i < 20000; i++) {
+      text.append((char) ('a' + i % 26));
+    }
+    final StringBuilder json = new StringBuilder("{");
+    for(int i = 0; i < 10; i++) {
+      json.append("\"k").append(i).append("\": \"").append(text).append("\",");
+    }
+    json.append("\"last\": 42}");
+    final JsonPullParser parser = new JsonPullParser(new StringReader(json.toString()));
+
+    parser.beginObject();
+    for(int i = 0; i < 10; i++) {
+      assertEquals("k" + i, parser.nextName());
+      assertEquals(text.toString(), parser.nextScalar());
+    }
+    assertEquals("last", parser.nextName());
+    assertEquals(Integer.valueOf(42), parser.nextScalar());
+    parser.endObject();
+  }
+
+  @Test
+  public void testSyntaxError_NotAnObject() throws IOException {
+    assertSyntaxError("[1]", "A JSONObject text must begin with '{'");
+  }
+
+  @Test
+  public void testSyntaxError_DuplicateKey() throws IOException {
+    assertSyntaxError("{\"a\": 1, \"a\": 2}", "Duplicate key \"a\"");
+  }
+
+  @Test
+  public void testSyntaxError_UnterminatedString() throws IOException {
+    assertSyntaxError("{\"a\": \"b", "Unterminated string");
+  }
+
+  @Test
+  public void testSyntaxError_MissingValue() throws IOException {
+    assertSyntaxError("{\"a\": }", "Missing value");
+  }
+
+  @Test
+  public void testSyntaxError_MissingSeparator() throws IOException {
+    assertSyntaxError("{\"a\": 1 \"b\": 2}", "Expected a ',' or '}'");
+  }
+
+  @Test
+  public void testSyntaxError_NonFiniteNumber() throws IOException {
+    assertSyntaxError("{\"a\": 1e999}", "JSON does not allow non-finite numbers.");
+  }
+
+  private void assertSyntaxError(final String json, final String message) throws IOException {
+    final JsonPullParser parser = new JsonPullParser(json);
+    try {
+      parser.beginObject();
+      while(parser.hasNext()) {
+        parser.nextName();
+        parser.nextScalar();
+      }
+      parser.endObject();
+      fail("Expected a syntax error for " + json);
+    }
+    catch(JsonSyntaxException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith(message));
+      assertTrue(e.getOffset() >= 0);
+    }
+    try {
+      new JSONObject(json);
+      fail("Expected org.json to reject " + json);
+    }
+    catch(JSONException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith(message));
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/**
+ * File: Http2TransportTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class Http2TransportTest {
+  private MockHttpServer server;
+
+  @After
+  public void tearDown() {
+    if(server != null) {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testExecute_FallsBackToHttp11() throws IOException {
+    server = MockHttpServer.respondingWith("{\"status\": \"OK\"}");
+    final Http2Transport transport = new Http2Transport();
+
+    final TransportResponse response = transport.execute(new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/calls/url/URLGetTitle")));
+
+    assertEquals(200, response.getStatusCode());
+    assertEquals(1, transport.getActiveStreams());
+    assertEquals("{\"status\": \"OK\"}", read(response));
+    assertEquals(0, transport.getActiveStreams());
+    assertEquals(1, transport.getHttp11Responses());
+    assertEquals(0, transport.getHttp2Responses());
+  }
+
+  @Test
+  public void testExecuteAsync_Post() throws Exception {
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        return new MockHttpServer.MockResponse(method + " " + target + " " + new String(body));
+      }
+    });
+    final Http2Transport transport = new Http2Transport();
+    final TransportRequest request = new TransportRequest(TransportRequest.METHOD_POST, server.getURL("/calls/text/TextGetTitle"));
+    request.setHeader("Content-Type", "application/x-www-form-urlencoded");
+    request.setBody("apikey=abcde&text=hello".getBytes());
+
+    final TransportResponse response = transport.executeAsync(request).get();
+
+    assertEquals("POST /calls/text/TextGetTitle apikey=abcde&text=hello", read(response));
+    assertEquals(1, transport.getHttp11Responses());
+  }
+
+  @Test
+  public void testExecuteAsync_MaxConcurrentStreams() throws Exception {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+          Thread.sleep(20L);
+        }
+        catch(InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        inFlight.decrementAndGet();
+        return new MockHttpServer.MockResponse(target);
+      }
+    });
+    final Http2Transport transport = new Http2Transport(2, 2);
+
+    final List<CompletableFuture<TransportResponse>> futures = new ArrayList<CompletableFuture<TransportResponse>>();
+    for(int i = 0; i < 20; i++) {
+      futures.add(transport.executeAsync(new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/" + i))));
+    }
+    for(int i = 0; i < 20; i++) {
+      assertEquals("/" + i, read(futures.get(i).get()));
+    }
+
+    assertTrue(maxInFlight.get() <= 4);
+    assertTrue(transport.getQueuedRequests() > 0);
+    assertEquals(20, transport.getRequests());
+    assertEquals(0, transport.getActiveStreams());
+  }
+
+  @Test
+  public void testExecuteAsync_CancelledWhileQueuedIsNotSent() throws Exception {
+    final List<String> targets = new ArrayList<String>();
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        synchronized(targets) {
+          targets.add(target);
+        }
+        return new MockHttpServer.MockResponse(target).setDelay(200L);
+      }
+    });
+    final Http2Transport transport = new Http2Transport(1, 1);
+
+    final CompletableFuture<TransportResponse> first = transport.executeAsync(new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/first")));
+    final CompletableFuture<TransportResponse> queued = transport.executeAsync(new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/queued")));
+    assertTrue(queued.cancel(true));
+    final CompletableFuture<TransportResponse> last = transport.executeAsync(new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/last")));
+
+    assertEquals("/first", read(first.get(5L, TimeUnit.SECONDS)));
+    assertEquals("/last", read(last.get(5L, TimeUnit.SECONDS)));
+    synchronized(targets) {
+      assertEquals(Arrays.asList("/first", "/last"), targets);
+    }
+    assertEquals(0, transport.getActiveStreams());
+  }
+
+  @Test
+  public void testDefaults() {
+    final Http2Transport transport = new Http2Transport();
+
+    assertEquals(Http2Transport.DEFAULT_CONNECTIONS, transport.getConnections());
+    assertEquals(Http2Transport.DEFAULT_MAX_CONCURRENT_STREAMS, transport.getMaxConcurrentStreams());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_ZeroConnections() {
+    new Http2Transport(0, 10);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_ZeroStreams() {
+    new Http2Transport(1, 0);
+  }
+
+  private String read(final TransportResponse response) throws IOException {
+    try {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final InputStream in = response.getInputStream();
+      int b;
+      while((b = in.read()) != -1) {
+        out.write(b);
+      }
+      return out.toString("UTF-8");
+    }
+    finally {
+      response.close();
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/**
+ * File: HttpClientTransportTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HttpClientTransportTest {
+  private MockHttpServer server;
+
+  @After
+  public void tearDown() {
+    if(server != null) {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testExecute() throws IOException {
+    server = MockHttpServer.respondingWith("{\"status\": \"OK\"}");
+    final HttpClientTransport transport = new HttpClientTransport();
+
+    final TransportResponse response = transport.execute(new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/calls/url/URLGetTitle")));
+
+    assertEquals(200, response.getStatusCode());
+    assertEquals("16", response.getHeader("Content-Length"));
+    assertEquals("{\"status\": \"OK\"}", read(response));
+  }
+
+  @Test
+  public void testExecuteAsync_Post() throws Exception {
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        return new MockHttpServer.MockResponse(method + " " + target + " " + new String(body));
+      }
+    });
+    final HttpClientTransport transport = new HttpClientTransport();
+    final TransportRequest request = new TransportRequest(TransportRequest.METHOD_POST, server.getURL("/calls/text/TextGetTitle"));
+    request.setHeader("Content-Type", "application/x-www-form-urlencoded");
+    request.setHeader("Content-Length", "9999");
+    request.setBody("apikey=abcde&text=hello".getBytes());
+
+    final TransportResponse response = transport.executeAsync(request).get();
+
+    assertEquals("POST /calls/text/TextGetTitle apikey=abcde&text=hello", read(response));
+    assertEquals("23", server.getRequestHeaders().get(0).get("content-length"));
+  }
+
+  @Test
+  public void testExecuteAsync_ManyInFlight() throws Exception {
+    server = MockHttpServer.respondingWith("body");
+    final HttpClientTransport transport = new HttpClientTransport();
+
+    final List<CompletableFuture<TransportResponse>> futures = new ArrayList<CompletableFuture<TransportResponse>>();
+    for(int i = 0; i < 20; i++) {
+      futures.add(transport.executeAsync(new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/" + i))));
+    }
+    for(CompletableFuture<TransportResponse> future : futures) {
+      assertEquals("body", read(future.get()));
+    }
+  }
+
+  @Test
+  public void testExecute_StalledBodyTimesOut() throws IOException {
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        return new MockHttpServer.MockResponse("{\"status\": \"OK\"}").setStall(10000L);
+      }
+    });
+    final HttpClientTransport transport = new HttpClientTransport();
+    final TransportRequest request = new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/calls/url/URLGetTitle"));
+    request.setReadTimeout(200L);
+
+    final long startNanos = System.nanoTime();
+    final TransportResponse response = transport.execute(request);
+    assertEquals(200, response.getStatusCode());
+    try {
+      read(response);
+      fail("expected the read to time out");
+    }
+    catch(SocketTimeoutException e) {
+      // expected
+    }
+    assertTrue(System.nanoTime() - startNanos < TimeUnit.SECONDS.toNanos(5L));
+  }
+
+  @Test
+  public void testExecute_StalledBodyFailsAtDeadline() throws IOException {
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        return new MockHttpServer.MockResponse("{\"status\": \"OK\"}").setStall(10000L);
+      }
+    });
+    final HttpClientTransport transport = new HttpClientTransport();
+    final TransportRequest request = new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/calls/url/URLGetTitle"));
+    request.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500L));
+
+    final TransportResponse response = transport.execute(request);
+    try {
+      read(response);
+      fail("expected the read to time out");
+    }
+    catch(SocketTimeoutException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testExecuteAsync_StalledBodyTimesOut() throws Exception {
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        return new MockHttpServer.MockResponse("{\"status\": \"OK\"}").setStall(10000L);
+      }
+    });
+    final HttpClientTransport transport = new HttpClientTransport();
+    final TransportRequest request = new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/calls/url/URLGetTitle"));
+    request.setReadTimeout(200L);
+
+    final long startNanos = System.nanoTime();
+    try {
+      transport.executeAsync(request).get(5L, TimeUnit.SECONDS);
+      fail("expected the body to time out");
+    }
+    catch(ExecutionException e) {
+      assertTrue(e.getCause() instanceof SocketTimeoutException);
+    }
+    assertTrue(System.nanoTime() - startNanos < TimeUnit.SECONDS.toNanos(5L));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructor_Null() {
+    new HttpClientTransport(null);
+  }
+
+  private String read(final TransportResponse response) throws IOException {
+    try {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final InputStream in = response.getInputStream();
+      int b;
+      while((b = in.read()) != -1) {
+        out.write(b);
+      }
+      return out.toString("UTF-8");
+    }
+    finally {
+      response.close();
+    }
+  }
+}
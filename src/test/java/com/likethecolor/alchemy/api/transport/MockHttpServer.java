@@ -0,0 +1,304 @@
+/**
+ * File: MockHttpServer.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal keep-alive HTTP/1.1 server used to exercise transports without
+ * going to the network.
+ */
+public class MockHttpServer {
+  private final ServerSocket serverSocket;
+  private final Handler handler;
+  private final AtomicInteger connectionsAccepted = new AtomicInteger();
+  private final List<String> requestBodies = Collections.synchronizedList(new ArrayList<String>());
+  private final List<Map<String, String>> requestHeaders = Collections.synchronizedList(new ArrayList<Map<String, String>>());
+  private final List<Socket> sockets = Collections.synchronizedList(new ArrayList<Socket>());
+  private volatile boolean isStopped;
+
+  public interface Handler {
+    MockResponse respond(String method, String target, byte[] body) throws IOException;
+  }
+
+  public static class MockResponse {
+    int status = 200;
+    byte[] body = new byte[0];
+    boolean isChunked;
+    boolean isConnectionClose;
+    boolean isDropConnection;
+    long delayMillis;
+    long stallMillis;
+    final Map<String, String> headers = new HashMap<String, String>();
+
+    public MockResponse(final String body) {
+      this.body = body.getBytes();
+    }
+
+    public MockResponse setStatus(final int status) {
+      this.status = status;
+      return this;
+    }
+
+    public MockResponse setBody(final byte[] body) {
+      this.body = body;
+      return this;
+    }
+
+    public MockResponse setHeader(final String name, final String value) {
+      headers.put(name, value);
+      return this;
+    }
+
+    public MockResponse setChunked() {
+      isChunked = true;
+      return this;
+    }
+
+    /**
+     * Send "Connection: close" and close the connection after the response.
+     */
+    public MockResponse setConnectionClose() {
+      isConnectionClose = true;
+      return this;
+    }
+
+    /**
+     * Close the connection after the response without announcing it.
+     */
+    public MockResponse setDropConnection() {
+      isDropConnection = true;
+      return this;
+    }
+
+    public MockResponse setDelay(final long delayMillis) {
+      this.delayMillis = delayMillis;
+      return this;
+    }
+
+    /**
+     * Stop sending for a while halfway through a body sent with a
+     * Content-Length.
+     */
+    public MockResponse setStall(final long stallMillis) {
+      this.stallMillis = stallMillis;
+      return this;
+    }
+  }
+
+  public MockHttpServer(final Handler handler) throws IOException {
+    this.handler = handler;
+    this.serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+    final Thread acceptor = new Thread(new Runnable() {
+      public void run() {
+        accept();
+      }
+    }, "mock-http-server");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  public static MockHttpServer respondingWith(final String body) throws IOException {
+    return new MockHttpServer(new Handler() {
+      public MockResponse respond(final String method, final String target, final byte[] requestBody) {
+        return new MockResponse(body);
+      }
+    });
+  }
+
+  public URL getURL(final String path) throws IOException {
+    return new URL("http://127.0.0.1:" + serverSocket.getLocalPort() + path);
+  }
+
+  public int getConnectionsAccepted() {
+    return connectionsAccepted.get();
+  }
+
+  public List<String> getRequestBodies() {
+    return requestBodies;
+  }
+
+  public List<Map<String, String>> getRequestHeaders() {
+    return requestHeaders;
+  }
+
+  public void stop() {
+    isStopped = true;
+    try {
+      serverSocket.close();
+    }
+    catch(IOException e) {
+      // ignore
+    }
+    synchronized(sockets) {
+      for(Socket socket : sockets) {
+        try {
+          socket.close();
+        }
+        catch(IOException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  private void accept() {
+    while(!isStopped) {
+      try {
+        final Socket socket = serverSocket.accept();
+        connectionsAccepted.incrementAndGet();
+        sockets.add(socket);
+        final Thread thread = new Thread(new Runnable() {
+          public void run() {
+            serve(socket);
+          }
+        }, "mock-http-connection");
+        thread.setDaemon(true);
+        thread.start();
+      }
+      catch(IOException e) {
+        return;
+      }
+    }
+  }
+
+  private void serve(final Socket socket) {
+    try {
+      final InputStream in = new BufferedInputStream(socket.getInputStream());
+      final OutputStream out = socket.getOutputStream();
+      String requestLine;
+      while((requestLine = HttpConnection.readLine(in)) != null) {
+        final Map<String, String> headers = new HashMap<String, String>();
+        String line;
+        while((line = HttpConnection.readLine(in)) != null && line.length() > 0) {
+          final int colon = line.indexOf(':');
+          headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+        }
+        final byte[] body = readBody(in, headers);
+        requestHeaders.add(headers);
+        requestBodies.add(new String(body, "UTF-8"));
+
+        final String[] parts = requestLine.split(" ");
+        final MockResponse response = handler.respond(parts[0], parts[1], body);
+        if(response.delayMillis > 0) {
+          Thread.sleep(response.delayMillis);
+        }
+        write(out, response);
+        if(response.isConnectionClose || response.isDropConnection) {
+          socket.close();
+          return;
+        }
+      }
+    }
+    catch(Exception e) {
+      // client went away
+    }
+    finally {
+      try {
+        socket.close();
+      }
+      catch(IOException e) {
+        // ignore
+      }
+    }
+  }
+
+  private byte[] readBody(final InputStream in, final Map<String, String> headers) throws IOException {
+    final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    if("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+      final ChunkedInputStream chunked = new ChunkedInputStream(in);
+      int b;
+      while((b = chunked.read()) != -1) {
+        body.write(b);
+      }
+      return body.toByteArray();
+    }
+    final String contentLength = headers.get("content-length");
+    if(contentLength != null) {
+      final int length = Integer.parseInt(contentLength);
+      for(int i = 0; i < length; i++) {
+        body.write(in.read());
+      }
+    }
+    return body.toByteArray();
+  }
+
+  private void write(final OutputStream out, final MockResponse response) throws IOException {
+    final StringBuilder head = new StringBuilder()
+        .append("HTTP/1.1 ").append(response.status).append(" Status\r\n");
+    for(Map.Entry<String, String> header : response.headers.entrySet()) {
+      head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+    }
+    if(response.isConnectionClose) {
+      head.append("Connection: close\r\n");
+    }
+    if(response.isChunked) {
+      head.append("Transfer-Encoding: chunked\r\n\r\n");
+      out.write(head.toString().getBytes("ISO-8859-1"));
+      final int half = response.body.length / 2;
+      writeChunk(out, response.body, 0, half);
+      writeChunk(out, response.body, half, response.body.length - half);
+      out.write("0\r\n\r\n".getBytes("ISO-8859-1"));
+    }
+    else {
+      head.append("Content-Length: ").append(response.body.length).append("\r\n\r\n");
+      out.write(head.toString().getBytes("ISO-8859-1"));
+      final int half = response.body.length / 2;
+      out.write(response.body, 0, half);
+      if(response.stallMillis > 0) {
+        out.flush();
+        stall(response.stallMillis);
+      }
+      out.write(response.body, half, response.body.length - half);
+    }
+    out.flush();
+  }
+
+  private static void stall(final long stallMillis) throws IOException {
+    try {
+      Thread.sleep(stallMillis);
+    }
+    catch(InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted stalling the body");
+    }
+  }
+
+  private void writeChunk(final OutputStream out, final byte[] body, final int offset, final int length) throws IOException {
+    if(length == 0) {
+      return;
+    }
+    out.write((Integer.toHexString(length) + "\r\n").getBytes("ISO-8859-1"));
+    out.write(body, offset, length);
+    out.write("\r\n".getBytes("ISO-8859-1"));
+  }
+}
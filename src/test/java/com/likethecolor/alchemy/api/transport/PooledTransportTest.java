@@ -0,0 +1,550 @@
+/**
+ * File: PooledTransportTest.java
+ * Copyright 2016 Dan Brown <dan@likethecolor.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.likethecolor.alchemy.api.transport;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PooledTransportTest {
+  private MockHttpServer server;
+  private PooledTransport transport;
+
+  @After
+  public void tearDown() {
+    if(transport != null) {
+      transport.close();
+    }
+    if(server != null) {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testExecute_ReusesConnection() throws IOException {
+    server = MockHttpServer.respondingWith("{\"status\": \"OK\"}");
+    transport = new PooledTransport();
+
+    for(int i = 0; i < 3; i++) {
+      assertEquals("{\"status\": \"OK\"}", get("/calls/url/URLGetTitle"));
+    }
+
+    final ConnectionPoolStats stats = transport.getStats();
+    assertEquals(1, server.getConnectionsAccepted());
+    assertEquals(3, stats.getRequests());
+    assertEquals(1, stats.getConnectionsCreated());
+    assertEquals(2, stats.getConnectionsReused());
+    assertEquals(1, stats.getIdleConnections());
+    assertEquals(0, stats.getLeasedConnections());
+    assertEquals(2.0D / 3.0D, stats.getReuseRatio(), 0.0001D);
+  }
+
+  @Test
+  public void testExecute_Chunked() throws IOException {
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        return new MockHttpServer.MockResponse("{\"status\": \"OK\", \"title\": \"chunked\"}").setChunked();
+      }
+    });
+    transport = new PooledTransport();
+
+    assertEquals("{\"status\": \"OK\", \"title\": \"chunked\"}", get("/"));
+    assertEquals("{\"status\": \"OK\", \"title\": \"chunked\"}", get("/"));
+
+    assertEquals(1, server.getConnectionsAccepted());
+    assertEquals(1, transport.getStats().getConnectionsReused());
+  }
+
+  @Test
+  public void testExecute_Post() throws IOException {
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        return new MockHttpServer.MockResponse(method + " " + target + " " + new String(body));
+      }
+    });
+    transport = new PooledTransport();
+
+    final TransportRequest request = new TransportRequest(TransportRequest.METHOD_POST, server.getURL("/calls/text/TextGetTitle"));
+    request.setHeader("Content-Type", "application/x-www-form-urlencoded");
+    request.setBody("apikey=abcde&text=hello".getBytes());
+
+    assertEquals("POST /calls/text/TextGetTitle apikey=abcde&text=hello", read(transport.execute(request)));
+    assertEquals("23", server.getRequestHeaders().get(0).get("content-length"));
+    assertEquals("application/x-www-form-urlencoded", server.getRequestHeaders().get(0).get("content-type"));
+  }
+
+  @Test
+  public void testExecute_StreamingBody() throws IOException {
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        return new MockHttpServer.MockResponse(String.valueOf(body.length));
+      }
+    });
+    transport = new PooledTransport();
+    final int length = 100000;
+
+    final TransportRequest request = new TransportRequest(TransportRequest.METHOD_POST, server.getURL("/calls/html/HTMLGetTitle"));
+    request.setBody(new RequestBody() {
+      public long getContentLength() {
+        return length;
+      }
+
+      public void writeTo(final OutputStream out) throws IOException {
+        for(int i = 0; i < length; i++) {
+          out.write('x');
+        }
+      }
+    });
+
+    assertEquals(String.valueOf(length), read(transport.execute(request)));
+    assertEquals(String.valueOf(length), server.getRequestHeaders().get(0).get("content-length"));
+  }
+
+  @Test
+  public void testExecute_ConnectionCloseIsNotPooled() throws IOException {
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        return new MockHttpServer.MockResponse("closing").setConnectionClose();
+      }
+    });
+    transport = new PooledTransport();
+
+    assertEquals("closing", get("/"));
+    assertEquals("closing", get("/"));
+
+    assertEquals(2, server.getConnectionsAccepted());
+    assertEquals(2, transport.getStats().getConnectionsCreated());
+    assertEquals(0, transport.getStats().getConnectionsReused());
+    assertEquals(0, transport.getStats().getIdleConnections());
+  }
+
+  @Test
+  public void testExecute_StaleConnectionIsRetried() throws IOException {
+    final AtomicInteger count = new AtomicInteger();
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        // the first response drops the connection without saying so
+        final MockHttpServer.MockResponse response = new MockHttpServer.MockResponse("response" + count.incrementAndGet());
+        return count.get() == 1 ? response.setDropConnection() : response;
+      }
+    });
+    transport = new PooledTransport();
+
+    assertEquals("response1", get("/"));
+    assertEquals("response2", get("/"));
+
+    assertEquals(2, server.getConnectionsAccepted());
+    assertEquals(2, transport.getStats().getConnectionsCreated());
+  }
+
+  @Test
+  public void testExecute_IdleTimeoutEvicts() throws Exception {
+    server = MockHttpServer.respondingWith("body");
+    transport = new PooledTransport();
+    transport.setIdleTimeout(0L);
+
+    assertEquals("body", get("/"));
+    Thread.sleep(5L);
+    assertEquals("body", get("/"));
+
+    assertEquals(2, transport.getStats().getConnectionsCreated());
+    assertEquals(1, transport.getStats().getConnectionsEvicted());
+  }
+
+  @Test
+  public void testEvictIdleConnections() throws Exception {
+    server = MockHttpServer.respondingWith("body");
+    transport = new PooledTransport();
+
+    assertEquals("body", get("/"));
+    assertEquals(1, transport.getStats().getIdleConnections());
+
+    transport.setIdleTimeout(0L);
+    Thread.sleep(5L);
+    transport.evictIdleConnections();
+
+    assertEquals(0, transport.getStats().getIdleConnections());
+    assertEquals(1, transport.getStats().getConnectionsEvicted());
+  }
+
+  @Test
+  public void testExecute_MaxIdleConnectionsZero() throws IOException {
+    server = MockHttpServer.respondingWith("body");
+    transport = new PooledTransport();
+    transport.setMaxIdleConnections(0);
+
+    assertEquals("body", get("/"));
+    assertEquals("body", get("/"));
+
+    assertEquals(2, transport.getStats().getConnectionsCreated());
+    assertEquals(0, transport.getStats().getIdleConnections());
+  }
+
+  @Test
+  public void testExecute_UnreadBodyIsNotPooled() throws IOException {
+    server = MockHttpServer.respondingWith("body");
+    transport = new PooledTransport();
+
+    transport.execute(new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/"))).close();
+    assertEquals("body", get("/"));
+
+    assertEquals(2, transport.getStats().getConnectionsCreated());
+  }
+
+  @Test(expected = IOException.class)
+  public void testExecute_Closed() throws IOException {
+    server = MockHttpServer.respondingWith("body");
+    transport = new PooledTransport();
+    transport.close();
+
+    get("/");
+  }
+
+  @Test
+  public void testExecute_ReadTimeout() throws IOException {
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        return new MockHttpServer.MockResponse("body").setDelay(2000L);
+      }
+    });
+    transport = new PooledTransport();
+    final TransportRequest request = new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/"));
+    request.setReadTimeout(100L);
+
+    final long start = System.nanoTime();
+    try {
+      read(transport.execute(request));
+      fail("expected the read to time out");
+    }
+    catch(SocketTimeoutException e) {
+      assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(1500L));
+    }
+    // a timed out connection is not pooled
+    assertEquals(0, transport.getStats().getIdleConnections());
+  }
+
+  @Test
+  public void testExecute_DeadlineWaitingForConnection() throws IOException {
+    server = MockHttpServer.respondingWith("body");
+    transport = new PooledTransport();
+    transport.setMaxConnectionsPerHost(1);
+
+    final TransportResponse leased = transport.execute(new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/")));
+    try {
+      final TransportRequest request = new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/"));
+      request.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50L));
+      transport.execute(request);
+      fail("expected the wait for a connection to time out");
+    }
+    catch(SocketTimeoutException e) {
+      assertTrue(e.getMessage().contains("Timed out waiting for a connection"));
+    }
+    finally {
+      leased.close();
+    }
+  }
+
+  @Test
+  public void testExecute_DeadlinePassed() throws IOException {
+    server = MockHttpServer.respondingWith("body");
+    transport = new PooledTransport();
+    final TransportRequest request = new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/"));
+    request.setDeadline(System.nanoTime() - 1L);
+
+    try {
+      transport.execute(request);
+      fail("expected the deadline to have passed");
+    }
+    catch(SocketTimeoutException e) {
+      assertEquals(0, server.getRequestBodies().size());
+    }
+  }
+
+  @Test
+  public void testExecute_CancelClosesConnection() throws Exception {
+    server = MockHttpServer.respondingWith("body");
+    transport = new PooledTransport();
+    assertEquals("body", get("/"));
+    server.stop();
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        return new MockHttpServer.MockResponse("late").setDelay(10000L);
+      }
+    });
+    final TransportRequest request = new TransportRequest(TransportRequest.METHOD_GET, server.getURL("/"));
+    CompletableFuture.delayedExecutor(200L, TimeUnit.MILLISECONDS).execute(request::cancel);
+
+    final long startNanos = System.nanoTime();
+    try {
+      transport.execute(request);
+      fail("expected the exchange to fail");
+    }
+    catch(IOException e) {
+      // expected
+    }
+    assertTrue(System.nanoTime() - startNanos < TimeUnit.SECONDS.toNanos(5L));
+    assertEquals(1, server.getRequestBodies().size());
+    try {
+      transport.execute(request);
+      fail("expected a cancelled request not to be sent");
+    }
+    catch(InterruptedIOException e) {
+      // expected
+    }
+    assertEquals(1, server.getRequestBodies().size());
+  }
+
+  @Test
+  public void testExecute_HttpProxy() throws IOException {
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        return new MockHttpServer.MockResponse(method + " " + target);
+      }
+    });
+    transport = new PooledTransport();
+    transport.setProxySelector(proxySelector(new ArrayList<SocketAddress>(), proxy(server)));
+
+    final URL url = new URL("http://www.example.com/calls/url/URLGetTitle?url=x");
+    assertEquals("GET http://www.example.com/calls/url/URLGetTitle?url=x",
+        read(transport.execute(new TransportRequest(TransportRequest.METHOD_GET, url))));
+    assertEquals("GET http://www.example.com/calls/url/URLGetTitle?url=x",
+        read(transport.execute(new TransportRequest(TransportRequest.METHOD_GET, url))));
+
+    assertEquals("www.example.com", server.getRequestHeaders().get(0).get("host"));
+    assertEquals(1, server.getConnectionsAccepted());
+  }
+
+  @Test
+  public void testExecute_HttpsProxyTunnels() throws IOException {
+    final List<String> requests = new ArrayList<String>();
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        requests.add(method + " " + target);
+        return new MockHttpServer.MockResponse("").setStatus(407);
+      }
+    });
+    final List<SocketAddress> failures = new ArrayList<SocketAddress>();
+    transport = new PooledTransport();
+    transport.setProxySelector(proxySelector(failures, proxy(server)));
+
+    try {
+      transport.execute(new TransportRequest(TransportRequest.METHOD_GET, new URL("https://www.example.com/calls/url/URLGetTitle")));
+      fail("expected the proxy to refuse the tunnel");
+    }
+    catch(IOException e) {
+      assertTrue(e.getMessage().contains("407"));
+    }
+    assertEquals(Arrays.asList("CONNECT www.example.com:443"), requests);
+    assertEquals(1, failures.size());
+  }
+
+  @Test
+  public void testExecute_HttpProxyAuthenticates() throws IOException {
+    final AtomicInteger responses = new AtomicInteger();
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        if(responses.getAndIncrement() == 0) {
+          return new MockHttpServer.MockResponse("").setStatus(407).setHeader("Proxy-Authenticate", "Basic realm=\"proxy\"");
+        }
+        return new MockHttpServer.MockResponse("body");
+      }
+    });
+    final List<String> realms = new ArrayList<String>();
+    transport = new PooledTransport();
+    transport.setProxySelector(proxySelector(new ArrayList<SocketAddress>(), proxy(server)));
+    transport.setProxyAuthenticator(authenticator(realms));
+
+    final URL url = new URL("http://www.example.com/calls/url/URLGetTitle?url=x");
+    assertEquals("body", read(transport.execute(new TransportRequest(TransportRequest.METHOD_GET, url))));
+    assertEquals("body", read(transport.execute(new TransportRequest(TransportRequest.METHOD_GET, url))));
+
+    assertNull(server.getRequestHeaders().get(0).get("proxy-authorization"));
+    assertEquals("Basic dXNlcjpwYXNz", server.getRequestHeaders().get(1).get("proxy-authorization"));
+    assertEquals("Basic dXNlcjpwYXNz", server.getRequestHeaders().get(2).get("proxy-authorization"));
+    assertEquals(Arrays.asList("proxy"), realms);
+    assertEquals(2, server.getConnectionsAccepted());
+  }
+
+  @Test
+  public void testExecute_HttpsProxyAuthenticates() throws IOException {
+    final List<String> requests = new ArrayList<String>();
+    server = new MockHttpServer(new MockHttpServer.Handler() {
+      public MockHttpServer.MockResponse respond(final String method, final String target, final byte[] body) {
+        requests.add(method + " " + target);
+        return new MockHttpServer.MockResponse("").setStatus(407).setHeader("Proxy-Authenticate", "Basic realm=\"proxy\"");
+      }
+    });
+    final List<String> realms = new ArrayList<String>();
+    transport = new PooledTransport();
+    transport.setProxySelector(proxySelector(new ArrayList<SocketAddress>(), proxy(server)));
+    transport.setProxyAuthenticator(authenticator(realms));
+
+    try {
+      transport.execute(new TransportRequest(TransportRequest.METHOD_GET, new URL("https://www.example.com/calls/url/URLGetTitle")));
+      fail("expected the proxy to refuse the credentials");
+    }
+    catch(IOException e) {
+      assertTrue(e.getMessage().contains("407"));
+    }
+    assertEquals(Arrays.asList("CONNECT www.example.com:443", "CONNECT www.example.com:443"), requests);
+    assertNull(server.getRequestHeaders().get(0).get("proxy-authorization"));
+    assertEquals("Basic dXNlcjpwYXNz", server.getRequestHeaders().get(1).get("proxy-authorization"));
+    assertEquals(Arrays.asList("proxy"), realms);
+  }
+
+  @Test
+  public void testExecute_PoolsConnectionsPerProxy() throws IOException {
+    server = MockHttpServer.respondingWith("first");
+    final MockHttpServer other = MockHttpServer.respondingWith("second");
+    try {
+      final AtomicReference<Proxy> selected = new AtomicReference<Proxy>(proxy(server));
+      transport = new PooledTransport();
+      transport.setProxySelector(new ProxySelector() {
+        public List<Proxy> select(final URI uri) {
+          return Arrays.asList(selected.get());
+        }
+
+        public void connectFailed(final URI uri, final SocketAddress address, final IOException e) {
+        }
+      });
+
+      final URL url = new URL("http://www.example.com/calls/url/URLGetTitle?url=x");
+      assertEquals("first", read(transport.execute(new TransportRequest(TransportRequest.METHOD_GET, url))));
+      selected.set(proxy(other));
+      assertEquals("second", read(transport.execute(new TransportRequest(TransportRequest.METHOD_GET, url))));
+      selected.set(proxy(server));
+      assertEquals("first", read(transport.execute(new TransportRequest(TransportRequest.METHOD_GET, url))));
+
+      assertEquals(1, server.getConnectionsAccepted());
+      assertEquals(1, other.getConnectionsAccepted());
+    }
+    finally {
+      other.stop();
+    }
+  }
+
+  @Test
+  public void testExecute_UnreachableProxyFallsBack() throws IOException {
+    server = MockHttpServer.respondingWith("body");
+    final ServerSocket closed = new ServerSocket(0);
+    closed.close();
+    final List<SocketAddress> failures = new ArrayList<SocketAddress>();
+    transport = new PooledTransport();
+    transport.setProxySelector(proxySelector(failures,
+        new Proxy(Proxy.Type.HTTP, new InetSocketAddress("127.0.0.1", closed.getLocalPort())), Proxy.NO_PROXY));
+
+    assertEquals("body", get("/"));
+    assertEquals(Arrays.<SocketAddress>asList(new InetSocketAddress("127.0.0.1", closed.getLocalPort())), failures);
+  }
+
+  @Test
+  public void testDefaults() {
+    transport = new PooledTransport();
+
+    assertEquals(PooledTransport.DEFAULT_MAX_IDLE_CONNECTIONS, transport.getMaxIdleConnections());
+    assertEquals(PooledTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST, transport.getMaxConnectionsPerHost());
+    assertEquals(PooledTransport.DEFAULT_IDLE_TIMEOUT_MILLIS, transport.getIdleTimeout());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMaxConnectionsPerHost_Zero() {
+    new PooledTransport().setMaxConnectionsPerHost(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetMaxIdleConnections_Negative() {
+    new PooledTransport().setMaxIdleConnections(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSetIdleTimeout_Negative() {
+    new PooledTransport().setIdleTimeout(-1L);
+  }
+
+  private static Proxy proxy(final MockHttpServer proxyServer) throws IOException {
+    return new Proxy(Proxy.Type.HTTP, new InetSocketAddress("127.0.0.1", proxyServer.getURL("/").getPort()));
+  }
+
+  private static Authenticator authenticator(final List<String> realms) {
+    return new Authenticator() {
+      @Override
+      protected PasswordAuthentication getPasswordAuthentication() {
+        assertEquals(RequestorType.PROXY, getRequestorType());
+        realms.add(getRequestingPrompt());
+        return new PasswordAuthentication("user", "pass".toCharArray());
+      }
+    };
+  }
+
+  private static ProxySelector proxySelector(final List<SocketAddress> failures, final Proxy... proxies) {
+    return new ProxySelector() {
+      public List<Proxy> select(final URI uri) {
+        return Arrays.asList(proxies);
+      }
+
+      public void connectFailed(final URI uri, final SocketAddress address, final IOException e) {
+        failures.add(address);
+      }
+    };
+  }
+
+  private String get(final String path) throws IOException {
+    return read(transport.execute(new TransportRequest(TransportRequest.METHOD_GET, server.getURL(path))));
+  }
+
+  private String read(final TransportResponse response) throws IOException {
+    try {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final InputStream in = response.getInputStream();
+      int b;
+      while((b = in.read()) != -1) {
+        out.write(b);
+      }
+      return out.toString("UTF-8");
+    }
+    finally {
+      response.close();
+    }
+  }
+}
@@ -17,10 +17,20 @@
  */
 package com.likethecolor.alchemy.api.validator;
 
+import com.likethecolor.alchemy.api.CallException;
+import com.likethecolor.alchemy.api.PermanentCallException;
+import com.likethecolor.alchemy.api.TransientCallException;
+import org.json.JSONException;
+import org.json.JSONObject;
 import org.junit.Test;
 
 import java.io.IOException;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
 public class OutputStatusValidatorTest {
   @Test
   public void testValidate() throws IOException {
@@ -50,6 +60,77 @@ public class OutputStatusValidatorTest {
     OutputStatusValidator.validate(jsonString);
   }
 
+  @Test
+  public void testValidate_JSONObject() throws IOException, JSONException {
+    final JSONObject jsonObject = new JSONObject(getJson());
+
+    OutputStatusValidator.validate(jsonObject);
+  }
+
+  @Test(expected = IOException.class)
+  public void testValidate_JSONObjectStatusError() throws IOException, JSONException {
+    final JSONObject jsonObject = new JSONObject(getJsonStatusIsNotOkStatusInfoError());
+
+    OutputStatusValidator.validate(jsonObject);
+  }
+
+  @Test(expected = IOException.class)
+  public void testValidate_JSONObjectStatusIsMissing() throws IOException, JSONException {
+    final JSONObject jsonObject = new JSONObject(getJsonStatusIsMissing());
+
+    OutputStatusValidator.validate(jsonObject);
+  }
+
+  @Test
+  public void testValidate_PermanentStatusInfo() throws JSONException {
+    final JSONObject jsonObject = new JSONObject("{\"status\": \"ERROR\", \"statusInfo\": \"invalid-api-key\", \"text\": \"secret\"}");
+
+    try {
+      OutputStatusValidator.validate(jsonObject);
+      fail("expected the status to be rejected");
+    }
+    catch(IOException e) {
+      assertTrue(e instanceof PermanentCallException);
+      assertFalse(((CallException) e).isTransient());
+      assertEquals("invalid-api-key", ((CallException) e).getStatusInfo());
+      // the output is not copied into the message
+      assertEquals("Error making API call: invalid-api-key", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testValidate_TransientStatusInfo() {
+    try {
+      OutputStatusValidator.validate("{\"status\": \"ERROR\", \"statusInfo\": \"daily-transaction-limit-exceeded\"}");
+      fail("expected the status to be rejected");
+    }
+    catch(IOException e) {
+      assertTrue(e instanceof TransientCallException);
+      assertEquals("daily-transaction-limit-exceeded", ((CallException) e).getStatusInfo());
+    }
+  }
+
+  @Test
+  public void testValidate_StatusIsMissingIsPermanent() {
+    try {
+      OutputStatusValidator.validate("{}");
+      fail("expected the status to be rejected");
+    }
+    catch(IOException e) {
+      assertTrue(e instanceof PermanentCallException);
+    }
+  }
+
+  @Test
+  public void testIsTransient() {
+    assertTrue(OutputStatusValidator.isTransient("daily-transaction-limit-exceeded"));
+    assertFalse(OutputStatusValidator.isTransient("cannot-retrieve:http-error:503"));
+    assertFalse(OutputStatusValidator.isTransient("invalid-api-key"));
+    assertFalse(OutputStatusValidator.isTransient("unsupported-text-language"));
+    assertFalse(OutputStatusValidator.isTransient("content-exceeds-size-limit"));
+    assertFalse(OutputStatusValidator.isTransient(null));
+  }
+
   private String getJson() {
     return "{"
            + "\"status\": \"OK\""